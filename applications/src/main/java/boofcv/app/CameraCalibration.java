@@ -23,10 +23,13 @@ import boofcv.abst.fiducial.calib.ConfigCircleHexagonalGrid;
 import boofcv.abst.fiducial.calib.ConfigCircleRegularGrid;
 import boofcv.abst.fiducial.calib.ConfigSquareGrid;
 import boofcv.abst.geo.calibration.CalibrateMonoPlanar;
+import boofcv.abst.geo.calibration.CalibrationDetectorBatch;
 import boofcv.abst.geo.calibration.DetectorFiducialCalibration;
 import boofcv.app.calib.AssistedCalibration;
 import boofcv.app.calib.AssistedCalibrationGui;
+import boofcv.alg.geo.calibration.CalibrationObservation;
 import boofcv.app.calib.ComputeGeometryScore;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.factory.fiducial.FactoryFiducialCalibration;
 import boofcv.gui.calibration.MonoPlanarPanel;
 import boofcv.gui.image.ShowImages;
@@ -34,6 +37,7 @@ import boofcv.io.calibration.CalibrationIO;
 import boofcv.io.image.ConvertBufferedImage;
 import boofcv.io.image.UtilImageIO;
 import boofcv.io.webcamcapture.UtilWebcamCapture;
+import boofcv.struct.Configuration;
 import boofcv.struct.calib.CameraPinholeRadial;
 import boofcv.struct.image.GrayF32;
 import com.github.sarxos.webcam.Webcam;
@@ -41,7 +45,7 @@ import com.github.sarxos.webcam.Webcam;
 import javax.swing.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -58,6 +62,8 @@ public class CameraCalibration extends BaseStandardInputApp {
 	protected String inputDirectory;
 	protected String outputFileName = "intrinsic.yaml";
 	protected DetectorFiducialCalibration detector;
+	// configuration of the detector. Used to create a detector for each thread
+	protected Configuration configDetector;
 	protected boolean zeroSkew = true;
 	protected int numRadial = 2;
 	protected boolean tangential = false;
@@ -193,6 +199,7 @@ public class CameraCalibration extends BaseStandardInputApp {
 
 		ConfigChessboard config = new ConfigChessboard(numRows, numColumns, 1);
 
+		configDetector = config;
 		detector = FactoryFiducialCalibration.chessboard(config);
 	}
 
@@ -234,6 +241,7 @@ public class CameraCalibration extends BaseStandardInputApp {
 
 		ConfigSquareGrid config = new ConfigSquareGrid(numRows, numColumns, square,space);
 
+		configDetector = config;
 		detector = FactoryFiducialCalibration.squareGrid(config);
 	}
 
@@ -274,15 +282,34 @@ public class CameraCalibration extends BaseStandardInputApp {
 			System.out.println("circle hexagonal: "+numRows+" x "+numColumns+" diameter = "+diameter+" center distance = "+centerDistance);
 			ConfigCircleHexagonalGrid config = new ConfigCircleHexagonalGrid(numRows, numColumns, diameter, centerDistance);
 
+			configDetector = config;
 			detector = FactoryFiducialCalibration.circleHexagonalGrid(config);
 		} else {
 			System.out.println("circle regular: "+numRows+" x "+numColumns+" diameter = "+diameter+" center distance = "+centerDistance);
 			ConfigCircleRegularGrid config = new ConfigCircleRegularGrid(numRows, numColumns, diameter, centerDistance);
 
+			configDetector = config;
 			detector = FactoryFiducialCalibration.circleRegularGrid(config);
 		}
 	}
 
+	/**
+	 * Creates a new instance of the detector specified on the command line
+	 */
+	protected DetectorFiducialCalibration createDetector() {
+		if( configDetector instanceof ConfigChessboard ) {
+			return FactoryFiducialCalibration.chessboard((ConfigChessboard)configDetector);
+		} else if( configDetector instanceof ConfigSquareGrid ) {
+			return FactoryFiducialCalibration.squareGrid((ConfigSquareGrid)configDetector);
+		} else if( configDetector instanceof ConfigCircleHexagonalGrid ) {
+			return FactoryFiducialCalibration.circleHexagonalGrid((ConfigCircleHexagonalGrid)configDetector);
+		} else if( configDetector instanceof ConfigCircleRegularGrid ) {
+			return FactoryFiducialCalibration.circleRegularGrid((ConfigCircleRegularGrid)configDetector);
+		} else {
+			throw new RuntimeException("Unknown detector configuration");
+		}
+	}
+
 	public void process() {
 		if( detector == null ) {
 			printHelp();
@@ -321,7 +348,11 @@ public class CameraCalibration extends BaseStandardInputApp {
 			System.err.println("  "+inputDirectory);
 			System.exit(0);
 		}
-		List<File> files = Arrays.asList(directory.listFiles());
+		List<File> files = new ArrayList<>();
+		for( File f : directory.listFiles() ) {
+			if( !f.isDirectory() && !f.isHidden() )
+				files.add(f);
+		}
 		Collections.sort(files);
 
 		final MonoPlanarPanel gui = visualize ? new MonoPlanarPanel() : null;
@@ -332,27 +363,48 @@ public class CameraCalibration extends BaseStandardInputApp {
 			System.exit(0);
 		}
 
-		boolean first = true;
-		for( File f : files ){
-			if( f.isDirectory() || f.isHidden())
-				continue;
+		// load images and detect calibration targets using one detector per thread
+		List<DetectorFiducialCalibration> detectors = new ArrayList<>();
+		detectors.add(detector);
+		for (int i = 1; i < BoofConcurrency.getMaxThreads(); i++) {
+			detectors.add(createDetector());
+		}
 
-			BufferedImage buffered = UtilImageIO.loadImage(f.getPath());
-			if( buffered == null )
-				continue;
+		final List<File> imageFiles = files;
+		final BufferedImage[] loaded = new BufferedImage[files.size()];
+		CalibrationDetectorBatch batch = new CalibrationDetectorBatch(detectors);
+		batch.process(files.size(), new CalibrationDetectorBatch.ImageSource() {
+			@Override
+			public GrayF32 load(int index) {
+				BufferedImage buffered = UtilImageIO.loadImage(imageFiles.get(index).getPath());
+				if( buffered == null )
+					return null;
+				if( gui != null )
+					loaded[index] = buffered;
+				return ConvertBufferedImage.convertFrom(buffered,(GrayF32)null);
+			}
+		});
 
-			GrayF32 image = ConvertBufferedImage.convertFrom(buffered,(GrayF32)null);
+		// add the results in the same order as the images
+		boolean first = true;
+		for (int i = 0; i < files.size(); i++) {
+			File f = files.get(i);
+			if( batch.getWidth(i) == 0 )
+				continue;
 
 			if( gui != null ) {
-				gui.addImage(f.getName(),buffered);
+				gui.addImage(f.getName(),loaded[i]);
 				if( first ) {
 					first = false;
 					ShowImages.showWindow(gui,"Monocular Calibration",true);
 				}
 			}
 
-			if( !calibrationAlg.addImage(image) )
+			CalibrationObservation observation = batch.getObservations().get(i);
+			if( observation == null )
 				System.err.println("Failed to detect target in "+f.getName());
+			else
+				calibrationAlg.addObservation(observation,batch.getWidth(i),batch.getHeight(i));
 		}
 
 		// process and compute intrinsic parameters
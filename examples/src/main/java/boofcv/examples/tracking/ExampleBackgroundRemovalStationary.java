@@ -20,6 +20,7 @@ package boofcv.examples.tracking;
 
 import boofcv.alg.background.BackgroundModelStationary;
 import boofcv.factory.background.ConfigBackgroundGaussian;
+import boofcv.factory.background.ConfigBackgroundGmm;
 import boofcv.factory.background.FactoryBackgroundModel;
 import boofcv.gui.binary.VisualizeBinaryData;
 import boofcv.gui.image.ImageGridPanel;
@@ -60,10 +61,14 @@ public class ExampleBackgroundRemovalStationary {
 		configGaussian.initialVariance = 100;
 		configGaussian.minimumDifference = 10;
 
+		// Configuration for Gaussian Mixture Model.  Can handle backgrounds with multiple values, e.g. waving trees
+		ConfigBackgroundGmm configGmm = new ConfigBackgroundGmm();
+
 		// Comment/Uncomment to switch algorithms
 		BackgroundModelStationary background =
 //				FactoryBackgroundModel.stationaryBasic(new ConfigBackgroundBasic(35, 0.005f), imageType);
 				FactoryBackgroundModel.stationaryGaussian(configGaussian, imageType);
+//				FactoryBackgroundModel.stationaryGmm(configGmm, imageType);
 
 		MediaManager media = DefaultMediaManager.INSTANCE;
 		SimpleImageSequence video =
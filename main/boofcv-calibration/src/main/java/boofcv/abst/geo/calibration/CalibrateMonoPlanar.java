@@ -41,7 +41,7 @@ import java.util.List;
  * <ol>
  * <li>{@link #configure}</li> 
  * <li>{@link #reset}</li>
- * <li>{@link #addImage}</li>
+ * <li>{@link #addImage} or {@link #addObservation}</li>
  * <li>{@link #process}</li>
  * <li>{@link #getIntrinsic}</li>
  * </ol>
@@ -139,12 +139,7 @@ public class CalibrateMonoPlanar {
 	 */
 	public boolean addImage( GrayF32 image ) {
 
-		if( widthImg == 0 ) {
-			widthImg = image.width;
-			heightImg = image.height;
-		} else if( widthImg != image.width || heightImg != image.height ) {
-			throw new IllegalArgumentException("All images must have the same shape");
-		}
+		checkImageShape(image.width, image.height);
 
 		if( !detector.process(image) )
 			return false;
@@ -154,6 +149,28 @@ public class CalibrateMonoPlanar {
 		}
 	}
 
+	/**
+	 * Adds an observation of the calibration target which was found externally, e.g. by
+	 * {@link CalibrationDetectorBatch}.
+	 *
+	 * @param observation Detected calibration points.  Not copied.
+	 * @param width Width of the image the target was detected in
+	 * @param height Height of the image the target was detected in
+	 */
+	public void addObservation( CalibrationObservation observation , int width , int height ) {
+		checkImageShape(width, height);
+		observations.add(observation);
+	}
+
+	private void checkImageShape( int width , int height ) {
+		if( widthImg == 0 ) {
+			widthImg = width;
+			heightImg = height;
+		} else if( widthImg != width || heightImg != height ) {
+			throw new IllegalArgumentException("All images must have the same shape");
+		}
+	}
+
 	/**
 	 * Removes the most recently added image
 	 */
@@ -257,6 +274,13 @@ public class CalibrateMonoPlanar {
 		System.out.println("Average Mean Error = "+(totalError/results.size()));
 	}
 
+	/**
+	 * Returns the calibration algorithm.  Only valid after configure has been called.
+	 */
+	public CalibrationPlanarGridZhang99 getZhang99() {
+		return zhang99;
+	}
+
 	public List<CalibrationObservation> getObservations() {
 		return observations;
 	}
@@ -18,6 +18,7 @@
 
 package boofcv.abst.geo.calibration;
 
+import boofcv.alg.geo.calibration.CalibrationObservation;
 import boofcv.alg.geo.calibration.Zhang99AllParam;
 import boofcv.struct.calib.CameraPinholeRadial;
 import boofcv.struct.calib.StereoParameters;
@@ -118,6 +119,20 @@ public class CalibrateStereoPlanar {
 		return true;
 	}
 
+	/**
+	 * Adds a pair of observations of the same target which were found externally, e.g. by
+	 * {@link CalibrationDetectorBatch}.  Both images must have the same shape.
+	 *
+	 * @param left Observation in the left image
+	 * @param right Observation in the right image
+	 * @param width Width of the images
+	 * @param height Height of the images
+	 */
+	public void addPair( CalibrationObservation left , CalibrationObservation right , int width , int height ) {
+		calibLeft.addObservation(left,width,height);
+		calibRight.addObservation(right,width,height);
+	}
+
 	/**
 	 * Compute stereo calibration parameters
 	 *
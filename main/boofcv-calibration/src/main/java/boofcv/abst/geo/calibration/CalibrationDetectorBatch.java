@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.calibration;
+
+import boofcv.alg.geo.calibration.CalibrationObservation;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.image.GrayF32;
+import org.ddogleg.struct.GrowQueue_I32;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * Loads images and detects calibration targets inside of them using multiple threads.  Each thread has its own
+ * detector and loads then processes the next image which hasn't been processed yet.  The found observations
+ * are returned in the same order as the images, independent of which order they were processed in.  The
+ * observations can then be passed to {@link CalibrateMonoPlanar#addObservation} or
+ * {@link CalibrateStereoPlanar#addPair(CalibrationObservation, CalibrationObservation, int, int)}.
+ * </p>
+ *
+ * <p>
+ * Only one image per thread is held in memory at any time, which allows a large number of high resolution
+ * images to be processed.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CalibrationDetectorBatch {
+
+	// one detector for each thread
+	List<DetectorFiducialCalibration> detectors;
+
+	// observations for each image.  null if it failed
+	List<CalibrationObservation> observations = new ArrayList<>();
+	// shape of each image.  0 if it couldn't be loaded
+	GrowQueue_I32 widths = new GrowQueue_I32();
+	GrowQueue_I32 heights = new GrowQueue_I32();
+
+	/**
+	 * Specifies the detectors.  The number of detectors determines the maximum number of threads.  All the
+	 * detectors must be configured to detect the same target.
+	 *
+	 * @param detectors List of detectors.  Each is used exclusively by one thread.
+	 */
+	public CalibrationDetectorBatch(List<DetectorFiducialCalibration> detectors) {
+		if( detectors.isEmpty() )
+			throw new IllegalArgumentException("Need at least one detector");
+		this.detectors = new ArrayList<>(detectors);
+	}
+
+	/**
+	 * Loads and processes all the images.
+	 *
+	 * @param totalImages Number of images
+	 * @param source Used to load each image.  Must be thread safe.
+	 * @return Number of images a target was detected inside of
+	 */
+	public int process( final int totalImages , final ImageSource source ) {
+		observations.clear();
+		widths.resize(totalImages);
+		heights.resize(totalImages);
+		for (int i = 0; i < totalImages; i++) {
+			observations.add(null);
+			widths.data[i] = heights.data[i] = 0;
+		}
+
+		// index of the next image which is to be processed
+		final AtomicInteger next = new AtomicInteger(0);
+		final AtomicInteger totalFound = new AtomicInteger(0);
+
+		int numThreads = Math.min(detectors.size(),BoofConcurrency.getMaxThreads());
+		List<Runnable> tasks = new ArrayList<>();
+		for (int i = 0; i < numThreads; i++) {
+			final DetectorFiducialCalibration detector = detectors.get(i);
+			tasks.add(new Runnable() {
+				@Override
+				public void run() {
+					int index;
+					while( (index = next.getAndIncrement()) < totalImages ) {
+						GrayF32 image = source.load(index);
+						if( image == null )
+							continue;
+
+						CalibrationObservation found = null;
+						if( detector.process(image) ) {
+							found = detector.getDetectedPoints();
+							totalFound.incrementAndGet();
+						}
+
+						// each thread writes to different elements
+						synchronized ( observations ) {
+							widths.data[index] = image.width;
+							heights.data[index] = image.height;
+							observations.set(index,found);
+						}
+					}
+				}
+			});
+		}
+		BoofConcurrency.runAll(tasks);
+
+		return totalFound.get();
+	}
+
+	/**
+	 * Detected calibration points in each image.  If the image couldn't be loaded or the target wasn't
+	 * detected then the element is null.
+	 */
+	public List<CalibrationObservation> getObservations() {
+		return observations;
+	}
+
+	/**
+	 * Width of the image at the specified index.  0 if it couldn't be loaded.
+	 */
+	public int getWidth( int index ) {
+		return widths.get(index);
+	}
+
+	/**
+	 * Height of the image at the specified index.  0 if it couldn't be loaded.
+	 */
+	public int getHeight( int index ) {
+		return heights.get(index);
+	}
+
+	public List<DetectorFiducialCalibration> getDetectors() {
+		return detectors;
+	}
+
+	/**
+	 * Provides access to the images being processed.
+	 */
+	public interface ImageSource {
+		/**
+		 * Loads the specified image.  Will be called by multiple threads at the same time.
+		 *
+		 * @param index Index of the image
+		 * @return The loaded image or null if it couldn't be loaded
+		 */
+		GrayF32 load( int index );
+	}
+}
@@ -68,6 +68,8 @@ public class CalibrationPlanarGridZhang99 {
 
 	// optimization algorithm
 	private UnconstrainedLeastSquares optimizer;
+	// if true the sparse structure of the problem is used when optimizing
+	private boolean sparse = false;
 
 	// provides information on calibration status
 	private Listener listener;
@@ -116,7 +118,10 @@ public class CalibrationPlanarGridZhang99 {
 		status("Non-linear refinement");
 		// perform non-linear optimization to improve results
 		optimized.setNumberOfViews(observations.size());
-		if( !optimizedParam(observations,layout,initial,optimized,optimizer))
+		if( sparse ) {
+			if( !optimizedParamSparse(observations,layout,initial,optimized))
+				return false;
+		} else if( !optimizedParam(observations,layout,initial,optimized,optimizer))
 			return false;
 
 		return true;
@@ -219,6 +224,40 @@ public class CalibrationPlanarGridZhang99 {
 		return true;
 	}
 
+	/**
+	 * Use non-linear optimization to improve the parameter estimates.  Takes advantage of the problem's
+	 * sparse structure and can handle a much larger number of views.  See {@link Zhang99OptimizationSchur}.
+	 *
+	 * @param observations Observations of calibration points in each image
+	 * @param grid Location of calibration points on calibration target
+	 * @param initial Initial estimate of calibration parameters.
+	 * @param found The refined calibration parameters.
+	 */
+	public boolean optimizedParamSparse( List<CalibrationObservation> observations ,
+										 List<Point2D_F64> grid ,
+										 Zhang99AllParam initial ,
+										 Zhang99AllParam found )
+	{
+		double model[] = new double[ initial.numParameters() ];
+		initial.convertToParam(model);
+
+		Zhang99OptimizationSchur optimizer = new Zhang99OptimizationSchur(initial.getIntrinsic(),grid,observations);
+		optimizer.initialize(model,1e-10,1e-25*observations.size());
+
+		for( int i = 0; i < 500; i++ ) {
+			if( optimizer.iterate() ) {
+				break;
+			} else {
+				if( i % 25 == 0 )
+					status("Progress "+(100*i/500.0)+"%");
+			}
+		}
+
+		found.setFromParam(optimizer.getParameters());
+
+		return true;
+	}
+
 	/**
 	 * Converts results fond in the linear algorithms into {@link Zhang99AllParam}
 	 */
@@ -273,6 +312,19 @@ public class CalibrationPlanarGridZhang99 {
 		this.optimizer = optimizer;
 	}
 
+	/**
+	 * If true then the sparse structure of the problem is taken advantage of during non-linear optimization.
+	 * Recommended when there are a large number of views.  If true the optimizer specified by
+	 * {@link #setOptimizer} is ignored.
+	 */
+	public void setSparse(boolean sparse) {
+		this.sparse = sparse;
+	}
+
+	public boolean isSparse() {
+		return sparse;
+	}
+
 	public Zhang99AllParam getOptimized() {
 		return optimized;
 	}
@@ -97,27 +97,40 @@ public class Zhang99OptimizationFunction implements FunctionNtoM {
 	public void process(Zhang99AllParam param , double []residuals ) {
 		int index = 0;
 		for( int indexView = 0; indexView < param.views.length; indexView++ ) {
+			index = processView(param.getIntrinsic(),param.views[indexView],indexView,residuals,index);
+		}
+	}
 
-			Zhang99AllParam.View v = param.views[indexView];
-
-			ConvertRotation3D_F64.rodriguesToMatrix(v.rotation,se.getR());
-			se.T = v.T;
+	/**
+	 * Computes the residuals for a single view
+	 *
+	 * @param intrinsic Intrinsic camera parameters
+	 * @param v Location of the target in this view
+	 * @param indexView Index of the view
+	 * @param residuals (Output) storage for residuals
+	 * @param index Index of the first residual for this view in the array
+	 * @return Index after the last residual for this view
+	 */
+	public int processView( Zhang99IntrinsicParam intrinsic , Zhang99AllParam.View v , int indexView ,
+							double []residuals , int index ) {
+		ConvertRotation3D_F64.rodriguesToMatrix(v.rotation,se.getR());
+		se.T = v.T;
 
-			CalibrationObservation viewSet = observations.get(indexView);
+		CalibrationObservation viewSet = observations.get(indexView);
 
-			for( int i = 0; i < viewSet.size(); i++ ) {
+		for( int i = 0; i < viewSet.size(); i++ ) {
 
-				int gridIndex = viewSet.get(i).index;
-				Point2D_F64 obs = viewSet.get(i);
+			int gridIndex = viewSet.get(i).index;
+			Point2D_F64 obs = viewSet.get(i);
 
-				// Put the point in the camera's reference frame
-				SePointOps_F64.transform(se,grid.get(gridIndex), cameraPt);
+			// Put the point in the camera's reference frame
+			SePointOps_F64.transform(se,grid.get(gridIndex), cameraPt);
 
-				param.getIntrinsic().project(cameraPt,pixelPt);
+			intrinsic.project(cameraPt,pixelPt);
 
-				residuals[index++] = pixelPt.x-obs.x;
-				residuals[index++] = pixelPt.y-obs.y;
-			}
+			residuals[index++] = pixelPt.x-obs.x;
+			residuals[index++] = pixelPt.y-obs.y;
 		}
+		return index;
 	}
 }
@@ -124,50 +124,83 @@ public class Zhang99OptimizationJacobian implements FunctionNtoMxN {
 		for( int indexView = 0; indexView < observationSets.size(); indexView++ ) {
 			CalibrationObservation set = observationSets.get(indexView);
 
-			// extract rotation and translation parameters
-			double rodX = input[index++];
-			double rodY = input[index++];
-			double rodZ = input[index++];
-			double tranX = input[index++];
-			double tranY = input[index++];
-			double tranZ = input[index++];
+			processView(input, index, set, indexView*6, numParam, indexPoint, output);
 
-			rodrigues.setParamVector(rodX,rodY,rodZ);
-			rodJacobian.process(rodX,rodY,rodZ);
+			index += 6;
+			indexPoint += set.size();
+		}
+	}
+
+	/**
+	 * Computes the Jacobian for a single view in a compact format.  The output is a row major matrix with
+	 * 2*(number of observations in the view) rows.  The columns are the intrinsic parameters followed by
+	 * the view's 6 parameters.
+	 *
+	 * @param input All the parameters being optimized
+	 * @param indexView Index of the view
+	 * @param output (Output) storage for the view's Jacobian
+	 */
+	public void processView( double[] input , int indexView , double[] output ) {
+		int index = param.setFromParam(input);
+		intrinsic = (CameraPinholeRadial)param.getCameraModel();
+
+		processView(input, index + indexView*6, observationSets.get(indexView),
+				0, param.numParameters() + 6, 0, output);
+	}
+
+	/**
+	 * Computes the Jacobian for all the observations in a view
+	 *
+	 * @param index Index of the view's first parameter in input
+	 * @param viewColumn Column of the view's first parameter in the Jacobian
+	 * @param numColumns Number of columns in the Jacobian
+	 * @param indexPoint Index of the view's first point in the Jacobian
+	 */
+	private void processView( double[] input , int index , CalibrationObservation set ,
+							  int viewColumn , int numColumns , int indexPoint , double[] output ) {
+		// extract rotation and translation parameters
+		double rodX = input[index++];
+		double rodY = input[index++];
+		double rodZ = input[index++];
+		double tranX = input[index++];
+		double tranY = input[index++];
+		double tranZ = input[index];
+
+		rodrigues.setParamVector(rodX,rodY,rodZ);
+		rodJacobian.process(rodX,rodY,rodZ);
 
-			ConvertRotation3D_F64.rodriguesToMatrix(rodrigues, se.getR());
-			se.T.set(tranX, tranY, tranZ);
+		ConvertRotation3D_F64.rodriguesToMatrix(rodrigues, se.getR());
+		se.T.set(tranX, tranY, tranZ);
 
-			for( int i = 0; i < set.size(); i++ , indexPoint++ ) {
-				int gridIndex = set.points.get(i).index;
+		for( int i = 0; i < set.size(); i++ , indexPoint++ ) {
+			int gridIndex = set.points.get(i).index;
 
-				// index = (function index)*numParam
-				indexJacX = (2*indexPoint     )*numParam;
-				indexJacY = (2*indexPoint + 1 )*numParam;
+			// index = (function index)*numColumns
+			indexJacX = (2*indexPoint     )*numColumns;
+			indexJacY = (2*indexPoint + 1 )*numColumns;
 
-				// Put the point in the camera's reference frame
-				SePointOps_F64.transform(se, grid.get(gridIndex), cameraPt);
+			// Put the point in the camera's reference frame
+			SePointOps_F64.transform(se, grid.get(gridIndex), cameraPt);
 
-				// normalized pixel coordinates
-				normPt.x = cameraPt.x/ cameraPt.z;
-				normPt.y = cameraPt.y/ cameraPt.z;
+			// normalized pixel coordinates
+			normPt.x = cameraPt.x/ cameraPt.z;
+			normPt.y = cameraPt.y/ cameraPt.z;
 
-				// apply distortion to the normalized coordinate
-				dnormPt.set(normPt);
-				CalibrationPlanarGridZhang99.applyDistortion(dnormPt, intrinsic.radial, intrinsic.t1, intrinsic.t2);
+			// apply distortion to the normalized coordinate
+			dnormPt.set(normPt);
+			CalibrationPlanarGridZhang99.applyDistortion(dnormPt, intrinsic.radial, intrinsic.t1, intrinsic.t2);
 
-				calibrationGradient(dnormPt,output);
-				distortGradient(normPt,output);
+			calibrationGradient(dnormPt,output);
+			distortGradient(normPt,output);
 
-				indexJacX += indexView*6;
-				indexJacY += indexView*6;
+			indexJacX += viewColumn;
+			indexJacY += viewColumn;
 
-				rodriguesGradient(rodJacobian.Rx,grid.get(gridIndex),cameraPt, normPt,output);
-				rodriguesGradient(rodJacobian.Ry,grid.get(gridIndex),cameraPt, normPt,output);
-				rodriguesGradient(rodJacobian.Rz,grid.get(gridIndex),cameraPt, normPt,output);
+			rodriguesGradient(rodJacobian.Rx,grid.get(gridIndex),cameraPt, normPt,output);
+			rodriguesGradient(rodJacobian.Ry,grid.get(gridIndex),cameraPt, normPt,output);
+			rodriguesGradient(rodJacobian.Rz,grid.get(gridIndex),cameraPt, normPt,output);
 
-				translateGradient(cameraPt, normPt,output);
-			}
+			translateGradient(cameraPt, normPt,output);
 		}
 	}
 
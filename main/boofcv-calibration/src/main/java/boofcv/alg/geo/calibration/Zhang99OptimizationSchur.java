@@ -0,0 +1,413 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.calibration;
+
+import georegression.struct.point.Point2D_F64;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.factory.LinearSolverFactory_DDRM;
+import org.ejml.interfaces.linsol.LinearSolverDense;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Levenberg-Marquardt optimization of Zhang99 calibration parameters which takes advantage of the problem's
+ * sparse structure.  Each observation only depends on the intrinsic parameters and the pose of the view it was
+ * observed in.  The normal equations are thus composed of a small dense block for the intrinsic parameters,
+ * a block diagonal matrix with one 6x6 block for each view, and the coupling between the two.  The view
+ * blocks are eliminated using the Schur complement so that only a linear system the size of the intrinsic
+ * parameters needs to be solved.  The Jacobian is computed one view at a time and is never stored
+ * in its entirety.
+ * </p>
+ *
+ * <p>
+ * Memory and computation scale linearly with the number of views, while {@link Zhang99OptimizationFunction}
+ * and {@link Zhang99OptimizationJacobian} with a dense solver scale quadratically or worse.  If the intrinsic model
+ * doesn't provide an analytical Jacobian then a numerical Jacobian is computed using forward differences.
+ * </p>
+ *
+ * <p>
+ * The interface is similar to {@link org.ddogleg.optimization.UnconstrainedLeastSquares}.  Call
+ * {@link #initialize} then {@link #iterate()} until it returns true.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class Zhang99OptimizationSchur {
+
+	// computes the residuals
+	private Zhang99OptimizationFunction function;
+	// analytical Jacobian.  null if a numerical Jacobian is used
+	private Zhang99OptimizationJacobian jacobian;
+
+	// storage for the parameters being optimized
+	private Zhang99AllParam param;
+	private List<CalibrationObservation> observations;
+
+	// number of intrinsic parameters
+	private int numIntrinsic;
+	// total number of parameters and residuals
+	private int N,M;
+
+	// current state and the candidate state
+	private double[] x, candidate;
+	private double[] residuals, residualsCandidate;
+	// current cost
+	private double fx;
+
+	// convergence tolerances
+	private double ftol, gtol;
+
+	// Levenberg-Marquardt damping parameter
+	private double initialDamping = 1e-3;
+	private double lambda;
+	private static final double MAX_LAMBDA = 1e20;
+
+	// if true the Jacobian needs to be recomputed because the state changed
+	private boolean updateJacobian;
+
+	// normal equations. a = intrinsic, v = view
+	private DMatrixRMaj A, ga;
+	private DMatrixRMaj B[], D[], gv[], Dinv[];
+
+	// workspace
+	private double[] jacView = new double[0];
+	private double[] residualsPerturbed = new double[0];
+	private double[] intrinsicParam, viewParam = new double[6];
+	private Zhang99AllParam.View viewWork = new Zhang99AllParam.View();
+	private DMatrixRMaj S, rhs, deltaA;
+	private DMatrixRMaj Dd = new DMatrixRMaj(6,6);
+	private DMatrixRMaj W, tmp6 = new DMatrixRMaj(6,1), deltaV = new DMatrixRMaj(6,1);
+	private LinearSolverDense<DMatrixRMaj> solverView = LinearSolverFactory_DDRM.chol(6);
+	private LinearSolverDense<DMatrixRMaj> solverIntrinsic;
+
+	/**
+	 * Configures the optimization
+	 *
+	 * @param intrinsic Specifies the intrinsic camera model.  Not modified.
+	 * @param grid Location of points on the calibration grid.  z=0
+	 * @param observations calibration point observation pixel coordinates
+	 */
+	public Zhang99OptimizationSchur( Zhang99IntrinsicParam intrinsic ,
+									 List<Point2D_F64> grid,
+									 List<CalibrationObservation> observations ) {
+		this.observations = observations;
+		this.param = new Zhang99AllParam(intrinsic.createLike(),observations.size());
+		this.function = new Zhang99OptimizationFunction(param,grid,observations);
+		this.jacobian = param.getIntrinsic().createJacobian(observations,grid);
+
+		numIntrinsic = param.getIntrinsic().numParameters();
+		N = param.numParameters();
+		M = function.getNumOfOutputsM();
+
+		x = new double[N];
+		candidate = new double[N];
+		residuals = new double[M];
+		residualsCandidate = new double[M];
+		intrinsicParam = new double[numIntrinsic];
+
+		A = new DMatrixRMaj(numIntrinsic,numIntrinsic);
+		ga = new DMatrixRMaj(numIntrinsic,1);
+		S = new DMatrixRMaj(numIntrinsic,numIntrinsic);
+		rhs = new DMatrixRMaj(numIntrinsic,1);
+		deltaA = new DMatrixRMaj(numIntrinsic,1);
+		W = new DMatrixRMaj(numIntrinsic,6);
+		solverIntrinsic = LinearSolverFactory_DDRM.chol(numIntrinsic);
+
+		int numViews = observations.size();
+		B = new DMatrixRMaj[numViews];
+		D = new DMatrixRMaj[numViews];
+		gv = new DMatrixRMaj[numViews];
+		Dinv = new DMatrixRMaj[numViews];
+		int maxPoints = 0;
+		for (int i = 0; i < numViews; i++) {
+			B[i] = new DMatrixRMaj(numIntrinsic,6);
+			D[i] = new DMatrixRMaj(6,6);
+			gv[i] = new DMatrixRMaj(6,1);
+			Dinv[i] = new DMatrixRMaj(6,6);
+			maxPoints = Math.max(maxPoints,observations.get(i).size());
+		}
+		jacView = new double[2*maxPoints*(numIntrinsic+6)];
+		residualsPerturbed = new double[2*maxPoints];
+	}
+
+	/**
+	 * Specifies the initial state
+	 *
+	 * @param initial Initial parameters.  See {@link Zhang99AllParam#convertToParam}
+	 * @param ftol Relative tolerance for change in the cost function
+	 * @param gtol Absolute tolerance for the gradient
+	 */
+	public void initialize( double[] initial , double ftol , double gtol ) {
+		if( initial.length != N )
+			throw new IllegalArgumentException("Unexpected number of parameters");
+		System.arraycopy(initial,0,x,0,N);
+		this.ftol = ftol;
+		this.gtol = gtol;
+		this.lambda = initialDamping;
+		this.updateJacobian = true;
+
+		fx = computeCost(x,residuals);
+	}
+
+	/**
+	 * Performs a single step of the optimization.
+	 *
+	 * @return true if it has converged or can't make any more progress
+	 */
+	public boolean iterate() {
+		if( updateJacobian ) {
+			computeNormalEquations();
+			if( CommonOps_DDRM.elementMaxAbs(ga) <= gtol && maxAbsViewGradient() <= gtol )
+				return true;
+			updateJacobian = false;
+		}
+
+		if( !computeStep() ) {
+			lambda *= 10;
+			return lambda >= MAX_LAMBDA;
+		}
+
+		double fc = computeCost(candidate, residualsCandidate);
+
+		if( fc < fx ) {
+			boolean converged = ftol*fx >= fx - fc;
+
+			double[] tmp = x; x = candidate; candidate = tmp;
+			tmp = residuals; residuals = residualsCandidate; residualsCandidate = tmp;
+			fx = fc;
+			lambda = Math.max(lambda*0.1, UtilEjml.EPS);
+			updateJacobian = true;
+			return converged;
+		} else {
+			lambda *= 10;
+			return lambda >= MAX_LAMBDA;
+		}
+	}
+
+	private double computeCost( double[] state , double[] output ) {
+		param.setFromParam(state);
+		function.process(param,output);
+
+		double total = 0;
+		for (int i = 0; i < M; i++) {
+			total += output[i]*output[i];
+		}
+		return total/2.0;
+	}
+
+	private double maxAbsViewGradient() {
+		double max = 0;
+		for (int i = 0; i < gv.length; i++) {
+			max = Math.max(max,CommonOps_DDRM.elementMaxAbs(gv[i]));
+		}
+		return max;
+	}
+
+	/**
+	 * Computes the blocks in the normal equations J<sup>T</sup>J and the gradient J<sup>T</sup>r
+	 */
+	private void computeNormalEquations() {
+		param.setFromParam(x);
+		A.zero();
+		ga.zero();
+
+		final int K = numIntrinsic;
+		final int cols = K+6;
+		int indexResidual = 0;
+		for (int view = 0; view < observations.size(); view++) {
+			int rows = observations.get(view).size()*2;
+
+			if( jacobian != null )
+				jacobian.processView(x,view,jacView);
+			else
+				computeNumericalJacobian(view,indexResidual,rows);
+
+			DMatrixRMaj B = this.B[view];
+			DMatrixRMaj D = this.D[view];
+			DMatrixRMaj gv = this.gv[view];
+			B.zero(); D.zero(); gv.zero();
+
+			for (int r = 0; r < rows; r++) {
+				double res = residuals[indexResidual+r];
+				int off = r*cols;
+
+				for (int a = 0; a < K; a++) {
+					double ja = jacView[off+a];
+					if( ja == 0 )
+						continue;
+					ga.data[a] += ja*res;
+					int indexA = a*K;
+					for (int b = a; b < K; b++) {
+						A.data[indexA+b] += ja*jacView[off+b];
+					}
+					int indexB = a*6;
+					for (int v = 0; v < 6; v++) {
+						B.data[indexB+v] += ja*jacView[off+K+v];
+					}
+				}
+				for (int v = 0; v < 6; v++) {
+					double jv = jacView[off+K+v];
+					if( jv == 0 )
+						continue;
+					gv.data[v] += jv*res;
+					for (int w = v; w < 6; w++) {
+						D.data[v*6+w] += jv*jacView[off+K+w];
+					}
+				}
+			}
+			copyUpperToLower(D);
+
+			indexResidual += rows;
+		}
+		copyUpperToLower(A);
+
+		// the numerical Jacobian can modify the state
+		param.setFromParam(x);
+	}
+
+	/**
+	 * Computes the Jacobian of a single view using forward differences
+	 */
+	private void computeNumericalJacobian( int view , int indexResidual , int rows ) {
+		final int cols = numIntrinsic+6;
+		Zhang99IntrinsicParam intrinsic = param.getIntrinsic();
+		System.arraycopy(x,0,intrinsicParam,0,numIntrinsic);
+
+		for (int c = 0; c < numIntrinsic; c++) {
+			double orig = intrinsicParam[c];
+			double h = differenceStep(orig);
+			intrinsicParam[c] = orig + h;
+			intrinsic.setFromParam(intrinsicParam);
+			function.processView(intrinsic,param.views[view],view,residualsPerturbed,0);
+			for (int r = 0; r < rows; r++) {
+				jacView[r*cols+c] = (residualsPerturbed[r]-residuals[indexResidual+r])/h;
+			}
+			intrinsicParam[c] = orig;
+		}
+		intrinsic.setFromParam(intrinsicParam);
+
+		int indexView = numIntrinsic + view*6;
+		System.arraycopy(x,indexView,viewParam,0,6);
+		for (int c = 0; c < 6; c++) {
+			double orig = viewParam[c];
+			double h = differenceStep(orig);
+			viewParam[c] = orig + h;
+			viewWork.rotation.setParamVector(viewParam[0],viewParam[1],viewParam[2]);
+			viewWork.T.set(viewParam[3],viewParam[4],viewParam[5]);
+			function.processView(intrinsic,viewWork,view,residualsPerturbed,0);
+			for (int r = 0; r < rows; r++) {
+				jacView[r*cols+numIntrinsic+c] = (residualsPerturbed[r]-residuals[indexResidual+r])/h;
+			}
+			viewParam[c] = orig;
+		}
+	}
+
+	private static double differenceStep( double value ) {
+		return Math.sqrt(UtilEjml.EPS)*Math.max(1,Math.abs(value));
+	}
+
+	private static void copyUpperToLower( DMatrixRMaj M ) {
+		for (int i = 0; i < M.numRows; i++) {
+			for (int j = 0; j < i; j++) {
+				M.data[i*M.numCols+j] = M.data[j*M.numCols+i];
+			}
+		}
+	}
+
+	/**
+	 * Solves the damped normal equations for the step using the Schur complement and computes the candidate state
+	 *
+	 * @return true if successful or false if the system was singular
+	 */
+	private boolean computeStep() {
+		S.set(A);
+		damp(S);
+		CommonOps_DDRM.scale(-1,ga,rhs);
+
+		// eliminate the view parameters
+		for (int view = 0; view < B.length; view++) {
+			Dd.set(D[view]);
+			damp(Dd);
+			if( !solverView.setA(Dd) )
+				return false;
+			solverView.invert(Dinv[view]);
+
+			CommonOps_DDRM.mult(B[view],Dinv[view],W);
+			CommonOps_DDRM.multAddTransB(-1,W,B[view],S);
+			CommonOps_DDRM.multAdd(W,gv[view],rhs);
+		}
+
+		if( !solverIntrinsic.setA(S) )
+			return false;
+		solverIntrinsic.solve(rhs,deltaA);
+
+		for (int i = 0; i < numIntrinsic; i++) {
+			candidate[i] = x[i] + deltaA.data[i];
+		}
+
+		// back substitute to find the change in each view
+		for (int view = 0; view < B.length; view++) {
+			CommonOps_DDRM.multTransA(B[view],deltaA,tmp6);
+			CommonOps_DDRM.add(-1,gv[view],-1,tmp6,tmp6);
+			CommonOps_DDRM.mult(Dinv[view],tmp6,deltaV);
+
+			int index = numIntrinsic + view*6;
+			for (int i = 0; i < 6; i++) {
+				candidate[index+i] = x[index+i] + deltaV.data[i];
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Applies Levenberg-Marquardt damping to the diagonal elements
+	 */
+	private void damp( DMatrixRMaj M ) {
+		for (int i = 0; i < M.numRows; i++) {
+			int index = i*M.numCols+i;
+			M.data[index] += lambda*Math.max(M.data[index],UtilEjml.EPS);
+		}
+	}
+
+	/**
+	 * Returns the current state
+	 */
+	public double[] getParameters() {
+		return x;
+	}
+
+	/**
+	 * Returns the value of the cost function, which is half the sum of the residuals squared.
+	 */
+	public double getFunctionValue() {
+		return fx;
+	}
+
+	public double getInitialDamping() {
+		return initialDamping;
+	}
+
+	public void setInitialDamping(double initialDamping) {
+		this.initialDamping = initialDamping;
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.calibration;
+
+import boofcv.alg.geo.calibration.CalibrationObservation;
+import boofcv.struct.image.GrayF32;
+import georegression.struct.point.Point2D_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCalibrationDetectorBatch {
+
+	/**
+	 * Observations should be in the same order as the images, with failures marked as null
+	 */
+	@Test
+	public void process_order() {
+		List<DetectorFiducialCalibration> detectors = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			detectors.add(new FakeDetector());
+		}
+
+		CalibrationDetectorBatch alg = new CalibrationDetectorBatch(detectors);
+
+		int total = 50;
+		int found = alg.process(total, new CalibrationDetectorBatch.ImageSource() {
+			@Override
+			public GrayF32 load(int index) {
+				if( index == 5 )
+					return null;
+				GrayF32 image = new GrayF32(30+index,20);
+				image.set(0,0,index);
+				return image;
+			}
+		});
+
+		// index 5 can't be loaded and index 7 has no target
+		assertEquals(total-2,found);
+		List<CalibrationObservation> observations = alg.getObservations();
+		assertEquals(total,observations.size());
+		for (int i = 0; i < total; i++) {
+			if( i == 5 ) {
+				assertNull(observations.get(i));
+				assertEquals(0,alg.getWidth(i));
+			} else if( i == 7 ) {
+				assertNull(observations.get(i));
+				assertEquals(30+i,alg.getWidth(i));
+			} else {
+				assertEquals(i,observations.get(i).get(0).x,1e-8);
+				assertEquals(30+i,alg.getWidth(i));
+				assertEquals(20,alg.getHeight(i));
+			}
+		}
+	}
+
+	/**
+	 * Creates an observation using the value of the first pixel
+	 */
+	private static class FakeDetector implements DetectorFiducialCalibration {
+
+		CalibrationObservation set;
+
+		@Override
+		public boolean process(GrayF32 input) {
+			int value = (int)input.get(0,0);
+			if( value == 7 )
+				return false;
+			set = new CalibrationObservation();
+			set.add(new Point2D_F64(value,1),0);
+			return true;
+		}
+
+		@Override
+		public CalibrationObservation getDetectedPoints() {
+			return set;
+		}
+
+		@Override
+		public List<Point2D_F64> getLayout() {
+			return new ArrayList<>();
+		}
+	}
+}
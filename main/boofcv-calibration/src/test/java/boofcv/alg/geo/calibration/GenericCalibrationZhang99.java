@@ -127,6 +127,57 @@ public abstract class GenericCalibrationZhang99<CM extends CameraModel>
 		}
 	}
 
+	/**
+	 * The sparse optimization should converge to the same solution as the dense optimization
+	 */
+	@Test
+	public void optimizedParamSparse() {
+		List<Point2D_F64> grid = GenericCalibrationGrid.standardLayout();
+
+		for( Zhang99IntrinsicParam intrinsic : createParameters(rand) ) {
+			Zhang99AllParam initial = GenericCalibrationGrid.createStandardParam(intrinsic,6, rand);
+			Zhang99AllParam expected = initial.copy();
+
+			List<CalibrationObservation> observations = GenericCalibrationGrid.createObservations(initial, grid);
+
+			addNoise((CM) initial.getIntrinsic().getCameraModel(), 0.01);
+			initial.getIntrinsic().forceProjectionUpdate();
+
+			double before = GenericCalibrationGrid.computeErrors(expected,grid,initial);
+
+			CalibrationPlanarGridZhang99 alg = new CalibrationPlanarGridZhang99(grid, intrinsic.createLike());
+			Zhang99AllParam foundDense = initial.createLike();
+			Zhang99AllParam foundSparse = initial.createLike();
+			assertTrue(alg.optimizedParam(observations, grid, initial.copy(), foundDense, null));
+			assertTrue(alg.optimizedParamSparse(observations, grid, initial.copy(), foundSparse));
+
+			double afterDense = GenericCalibrationGrid.computeErrors(expected,grid,foundDense);
+			double afterSparse = GenericCalibrationGrid.computeErrors(expected,grid,foundSparse);
+			assertTrue(afterSparse*0.0001 < before);
+			assertTrue(afterSparse <= afterDense*1.1+1e-8);
+		}
+	}
+
+	/**
+	 * Full processing with the sparse optimization turned on
+	 */
+	@Test
+	public void fullTest_sparse() {
+		List<Point2D_F64> grid = GenericCalibrationGrid.standardLayout();
+		for( Zhang99IntrinsicParam intrinsic : createParameters(rand) ) {
+			Zhang99AllParam expected = GenericCalibrationGrid.createStandardParam(intrinsic, 10, rand);
+			List<CalibrationObservation> observations = GenericCalibrationGrid.createObservations(expected, grid);
+
+			CalibrationPlanarGridZhang99 alg = new CalibrationPlanarGridZhang99(grid, intrinsic.createLike());
+			alg.setSparse(true);
+
+			assertTrue(alg.process(observations));
+
+			double after = GenericCalibrationGrid.computeErrors(expected,grid,alg.getOptimized());
+			assertTrue(after < 0.001 );
+		}
+	}
+
 	/**
 	 * Standard testing parameters. Should be solvable with non-linear refinement.
 	 */
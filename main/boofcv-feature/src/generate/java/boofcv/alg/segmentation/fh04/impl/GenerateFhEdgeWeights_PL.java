@@ -29,6 +29,10 @@ import java.io.FileNotFoundException;
  */
 public class GenerateFhEdgeWeights_PL extends CodeGeneratorBase {
 
+	public GenerateFhEdgeWeights_PL() {
+		super(false);
+	}
+
 	@Override
 	public void generate() throws FileNotFoundException {
 		create(AutoTypeImage.F32,ConnectRule.EIGHT);
@@ -40,12 +44,15 @@ public class GenerateFhEdgeWeights_PL extends CodeGeneratorBase {
 	protected void create( AutoTypeImage imageType , ConnectRule rule) throws FileNotFoundException {
 
 		String name = "FhEdgeWeights"+rule.getShortName()+"_PL"+imageType.getAbbreviatedType();
+		className = null;
 		setOutputFile(name);
 		printPreamble(imageType,rule);
 		printConstructor(imageType);
 		printProcess(imageType,rule);
+		printProcessInner(imageType,rule);
 		printCheckAround(imageType,rule);
 		printCheck(imageType);
+		printConcurrent();
 		printType(imageType);
 		out.print("}\n");
 	}
@@ -56,13 +63,13 @@ public class GenerateFhEdgeWeights_PL extends CodeGeneratorBase {
 
 		String ruleName = rule.getShortName();
 
-		out.print("import boofcv.struct.image."+imageName+";\n" +
-				"import boofcv.struct.image.ImageType;\n" +
+		out.print("import boofcv.alg.segmentation.fh04.FhEdgeList;\n" +
 				"import boofcv.alg.segmentation.fh04.FhEdgeWeights;\n" +
+				"import boofcv.concurrency.BoofConcurrency;\n" +
+				"import boofcv.concurrency.IntRangeTask;\n" +
+				"import boofcv.struct.image."+imageName+";\n" +
+				"import boofcv.struct.image.ImageType;\n" +
 				"import boofcv.struct.image.Planar;\n" +
-				"import org.ddogleg.struct.FastQueue;\n" +
-				"\n" +
-				"import static boofcv.alg.segmentation.fh04.SegmentFelzenszwalbHuttenlocher04.Edge;\n" +
 				"\n" +
 				"/**\n" +
 				" * <p>Computes edge weight as the F-norm different in pixel value for {@link Planar} images.\n" +
@@ -83,6 +90,9 @@ public class GenerateFhEdgeWeights_PL extends CodeGeneratorBase {
 		out.print("\t"+sumType+" pixelColor[];\n" +
 				"\tint numBands;\n" +
 				"\n" +
+				"\t// if true the inner edges are computed using multiple threads\n" +
+				"\tboolean concurrent = false;\n" +
+				"\n" +
 				"\tpublic "+className+"(int numBands) {\n" +
 				"\t\tthis.numBands = numBands;\n" +
 				"\t\tpixelColor = new "+sumType+"[numBands];\n" +
@@ -91,26 +101,81 @@ public class GenerateFhEdgeWeights_PL extends CodeGeneratorBase {
 
 	private void printProcess( AutoTypeImage imageType , ConnectRule rule ) {
 
+		String imageName = imageType.getSingleBandName();
+
+		int startX = rule == ConnectRule.FOUR ? 0 : 1;
+		int edgesPerPixel = rule == ConnectRule.FOUR ? 2 : 4;
+		String numInner = startX == 0 ? "w" : "(w-"+startX+")";
+
+		out.print("\t@Override\n" +
+				"\tpublic void process(final Planar<"+imageName+"> input,\n" +
+				"\t\t\t\t\t\tfinal FhEdgeList edges) {\n" +
+				"\n" +
+				"\t\tint w = input.width-1;\n" +
+				"\t\tfinal int h = input.height-1;\n" +
+				"\n" +
+				"\t\t// First consider the inner pixels.  Each row has the same number of edges, which allows\n" +
+				"\t\t// the rows to be processed independently\n" +
+				"\t\tedges.resize(Math.max(0,h*"+numInner+"*"+edgesPerPixel+"));\n" +
+				"\t\tif( concurrent ) {\n" +
+				"\t\t\tBoofConcurrency.loopBlocks(0, h, new IntRangeTask() {\n" +
+				"\t\t\t\t@Override\n" +
+				"\t\t\t\tpublic void process(int y0, int y1) {\n" +
+				"\t\t\t\t\tprocessInner(input, y0, y1, edges);\n" +
+				"\t\t\t\t}\n" +
+				"\t\t\t});\n" +
+				"\t\t} else {\n" +
+				"\t\t\tprocessInner(input, 0, h, edges);\n" +
+				"\t\t}\n" +
+				"\n" +
+				"\t\t// Handle border pixels\n");
+
+		if( rule == ConnectRule.EIGHT ) {
+			out.print(
+				"\t\tfor( int y = 0; y < h; y++ ) {\n" +
+				"\t\t\tcheckAround(0,y,input,edges);\n" +
+				"\t\t\tcheckAround(w,y,input,edges);\n" +
+				"\t\t}\n" +
+				"\n" +
+				"\t\tfor( int x = 0; x < w; x++ ) {\n" +
+				"\t\t\tcheckAround(x,h,input,edges);\n" +
+				"\t\t}\n" +
+				"\t}\n\n");
+		} else {
+			out.print(
+				"\t\tfor( int y = 0; y < h; y++ ) {\n" +
+				"\t\t\tcheckAround(w,y,input,edges);\n" +
+				"\t\t}\n" +
+				"\n" +
+				"\t\tfor( int x = 0; x < w; x++ ) {\n" +
+				"\t\t\tcheckAround(x,h,input,edges);\n" +
+				"\t\t}\n" +
+				"\t}\n\n");
+		}
+	}
+
+	private void printProcessInner( AutoTypeImage imageType , ConnectRule rule ) {
+
 		String imageName = imageType.getSingleBandName();
 		String sumType = imageType.getSumType();
 		String bitwise = imageType.getBitWise();
 
 		int startX = rule == ConnectRule.FOUR ? 0 : 1;
+		int edgesPerPixel = rule == ConnectRule.FOUR ? 2 : 4;
+		String numInner = startX == 0 ? "w" : "(w-"+startX+")";
 
 		String weightString = rule == ConnectRule.EIGHT ? ",weight3=0,weight4=0" : "";
 
-		out.print("\t@Override\n" +
-				"\tpublic void process(Planar<"+imageName+"> input,\n" +
-				"\t\t\t\t\t\tFastQueue<Edge> edges) {\n" +
-				"\n" +
-				"\t\tedges.reset();\n" +
+		out.print("\t/**\n" +
+				"\t * Computes the edges for inner pixels in the specified rows\n" +
+				"\t */\n" +
+				"\tprivate void processInner( Planar<"+imageName+"> input , int y0 , int y1 , FhEdgeList edges ) {\n" +
 				"\t\tint w = input.width-1;\n" +
-				"\t\tint h = input.height-1;\n" +
 				"\n" +
-				"\t\t// First consider the inner pixels\n" +
-				"\t\tfor( int y = 0; y < h; y++ ) {\n" +
+				"\t\tfor( int y = y0; y < y1; y++ ) {\n" +
 				"\t\t\tint indexSrc = input.startIndex + y*input.stride + "+startX+";\n" +
 				"\t\t\tint indexDst =                  + y*input.width  + "+startX+";\n" +
+				"\t\t\tint indexEdge = y*"+numInner+"*"+edgesPerPixel+";\n" +
 				"\n" +
 				"\t\t\tfor( int x = "+startX+"; x < w; x++ , indexSrc++ , indexDst++ ) {\n" +
 				"\n" +
@@ -139,58 +204,17 @@ public class GenerateFhEdgeWeights_PL extends CodeGeneratorBase {
 		out.print(
 				"\t\t\t\t}\n" +
 				"\n" +
-				"\t\t\t\tEdge e1 = edges.grow();\n" +
-				"\t\t\t\tEdge e2 = edges.grow();\n" +
-				"\n" +
-				"\t\t\t\te1.sortValue = (float)Math.sqrt(weight1);\n" +
-				"\t\t\t\te1.indexA = indexDst;\n" +
-				"\t\t\t\te1.indexB = indexDst+1;\n" +
-				"\n" +
-				"\t\t\t\te2.sortValue = (float)Math.sqrt(weight2);\n" +
-				"\t\t\t\te2.indexA = indexDst;\n" +
-				"\t\t\t\te2.indexB = indexDst+input.width;\n" +
-				"\n");
+				"\t\t\t\tedges.set(indexEdge++, (float)Math.sqrt(weight1), indexDst, indexDst+1);\n" +
+				"\t\t\t\tedges.set(indexEdge++, (float)Math.sqrt(weight2), indexDst, indexDst+input.width);\n");
 		if( rule == ConnectRule.EIGHT ) {
 			out.print(
-				"\t\t\t\tEdge e3 = edges.grow();\n" +
-				"\t\t\t\tEdge e4 = edges.grow();\n" +
-				"\n" +
-				"\t\t\t\te3.sortValue = (float)Math.sqrt(weight3);\n" +
-				"\t\t\t\te3.indexA = indexDst;\n" +
-				"\t\t\t\te3.indexB = indexDst+1+input.width;\n" +
-				"\n" +
-				"\t\t\t\te4.sortValue = (float)Math.sqrt(weight4);\n" +
-				"\t\t\t\te4.indexA = indexDst;\n" +
-				"\t\t\t\te4.indexB = indexDst-1+input.width;\n");
+				"\t\t\t\tedges.set(indexEdge++, (float)Math.sqrt(weight3), indexDst, indexDst+1+input.width);\n" +
+				"\t\t\t\tedges.set(indexEdge++, (float)Math.sqrt(weight4), indexDst, indexDst-1+input.width);\n");
 		}
 		out.print(
 				"\t\t\t}\n" +
 				"\t\t}\n" +
-				"\n" +
-				"\t\t// Handle border pixels\n");
-
-		if( rule == ConnectRule.EIGHT ) {
-			out.print(
-				"\t\tfor( int y = 0; y < h; y++ ) {\n" +
-				"\t\t\tcheckAround(0,y,input,edges);\n" +
-				"\t\t\tcheckAround(w,y,input,edges);\n" +
-				"\t\t}\n" +
-				"\n" +
-				"\t\tfor( int x = 0; x < w; x++ ) {\n" +
-				"\t\t\tcheckAround(x,h,input,edges);\n" +
-				"\t\t}\n" +
 				"\t}\n\n");
-		} else {
-			out.print(
-				"\t\tfor( int y = 0; y < h; y++ ) {\n" +
-				"\t\t\tcheckAround(w,y,input,edges);\n" +
-				"\t\t}\n" +
-				"\n" +
-				"\t\tfor( int x = 0; x < w; x++ ) {\n" +
-				"\t\t\tcheckAround(x,h,input,edges);\n" +
-				"\t\t}\n" +
-				"\t}\n\n");
-		}
 	}
 
 	private void printCheckAround( AutoTypeImage imageType , ConnectRule rule ) {
@@ -200,7 +224,7 @@ public class GenerateFhEdgeWeights_PL extends CodeGeneratorBase {
 
 		out.print("\tprivate void checkAround( int x , int y ,\n" +
 				"\t\t\t\t\t\t\t  Planar<"+imageName+"> input ,\n" +
-				"\t\t\t\t\t\t\t  FastQueue<Edge> edges )\n" +
+				"\t\t\t\t\t\t\t  FhEdgeList edges )\n" +
 				"\t{\n" +
 				"\t\tint indexSrc = input.startIndex + y*input.stride + x;\n" +
 				"\t\tint indexA =                      y*input.width  + x;\n" +
@@ -228,7 +252,7 @@ public class GenerateFhEdgeWeights_PL extends CodeGeneratorBase {
 
 		out.print("\tprivate void check( int x , int y , "+sumType+" color0[] , int indexA,\n" +
 				"\t\t\t\t\t\tPlanar<"+imageName+"> input ,\n" +
-				"\t\t\t\t\t\tFastQueue<Edge> edges ) {\n" +
+				"\t\t\t\t\t\tFhEdgeList edges ) {\n" +
 				"\t\tif( !input.isInBounds(x,y) )\n" +
 				"\t\t\treturn;\n" +
 				"\n" +
@@ -245,11 +269,19 @@ public class GenerateFhEdgeWeights_PL extends CodeGeneratorBase {
 				"\t\t\tweight += diff*diff;\n" +
 				"\t\t}\n" +
 				"\n" +
-				"\t\tEdge e1 = edges.grow();\n" +
+				"\t\tedges.add((float)Math.sqrt(weight), indexA, indexB);\n" +
+				"\t}\n\n");
+	}
+
+	private void printConcurrent() {
+		out.print("\t@Override\n" +
+				"\tpublic void setConcurrent(boolean concurrent) {\n" +
+				"\t\tthis.concurrent = concurrent;\n" +
+				"\t}\n" +
 				"\n" +
-				"\t\te1.sortValue = (float)Math.sqrt(weight);\n" +
-				"\t\te1.indexA = indexA;\n" +
-				"\t\te1.indexB = indexB;\n" +
+				"\t@Override\n" +
+				"\tpublic boolean isConcurrent() {\n" +
+				"\t\treturn concurrent;\n" +
 				"\t}\n\n");
 	}
 
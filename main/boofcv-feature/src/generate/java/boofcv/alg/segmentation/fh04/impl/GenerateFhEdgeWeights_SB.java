@@ -29,6 +29,9 @@ import java.io.FileNotFoundException;
  */
 public class GenerateFhEdgeWeights_SB extends CodeGeneratorBase {
 
+	public GenerateFhEdgeWeights_SB() {
+		super(false);
+	}
 
 	@Override
 	public void generate() throws FileNotFoundException {
@@ -41,11 +44,14 @@ public class GenerateFhEdgeWeights_SB extends CodeGeneratorBase {
 	protected void create( AutoTypeImage imageType , ConnectRule rule ) throws FileNotFoundException {
 
 		String name = "FhEdgeWeights"+rule.getShortName()+"_"+imageType.getAbbreviatedType();
+		className = null;
 		setOutputFile(name);
 		printPreamble(imageType,rule);
 		printProcess(imageType,rule);
+		printProcessInner(imageType,rule);
 		printCheckAround(imageType,rule);
 		printCheck(imageType);
+		printConcurrent();
 		printType(imageType);
 		out.print("}\n");
 	}
@@ -56,12 +62,12 @@ public class GenerateFhEdgeWeights_SB extends CodeGeneratorBase {
 
 		int N = rule == ConnectRule.EIGHT ? 8 : 4;
 
-		out.print("import boofcv.struct.image."+imageName+";\n" +
+		out.print("import boofcv.alg.segmentation.fh04.FhEdgeList;\n" +
 				"import boofcv.alg.segmentation.fh04.FhEdgeWeights;\n" +
+				"import boofcv.concurrency.BoofConcurrency;\n" +
+				"import boofcv.concurrency.IntRangeTask;\n" +
+				"import boofcv.struct.image."+imageName+";\n" +
 				"import boofcv.struct.image.ImageType;\n" +
-				"import org.ddogleg.struct.FastQueue;\n" +
-				"\n" +
-				"import static boofcv.alg.segmentation.fh04.SegmentFelzenszwalbHuttenlocher04.Edge;\n" +
 				"\n" +
 				"/**\n" +
 				" * <p>Computes edge weight as the absolute value of the different in pixel value for single band images.\n" +
@@ -73,64 +79,40 @@ public class GenerateFhEdgeWeights_SB extends CodeGeneratorBase {
 				" *\n" +
 				" * @author Peter Abeles\n" +
 				" */\n" +
-				"public class "+className+" implements FhEdgeWeights<"+imageName+"> {\n\n");
+				"public class "+className+" implements FhEdgeWeights<"+imageName+"> {\n\n" +
+				"\t// if true the inner edges are computed using multiple threads\n" +
+				"\tboolean concurrent = false;\n\n");
 	}
 
 	private void printProcess( AutoTypeImage imageType , ConnectRule rule ) {
 
 		String imageName = imageType.getSingleBandName();
-		String sumType = imageType.getSumType();
-		String bitwise = imageType.getBitWise();
 
 		int startX = rule == ConnectRule.FOUR ? 0 : 1;
+		int edgesPerPixel = rule == ConnectRule.FOUR ? 2 : 4;
+		String numInner = startX == 0 ? "w" : "(w-"+startX+")";
 
 		out.print("\t@Override\n" +
-				"\tpublic void process("+imageName+" input,\n" +
-				"\t\t\t\t\t\tFastQueue<Edge> edges) {\n" +
+				"\tpublic void process(final "+imageName+" input,\n" +
+				"\t\t\t\t\t\tfinal FhEdgeList edges) {\n" +
 				"\n" +
 				"\t\tint w = input.width-1;\n" +
-				"\t\tint h = input.height-1;\n" +
+				"\t\tfinal int h = input.height-1;\n" +
 				"\n" +
-				"\t\t// First consider the inner pixels\n" +
-				"\t\tfor( int y = 0; y < h; y++ ) {\n" +
-				"\t\t\tint indexSrc = input.startIndex + y*input.stride + "+startX+";\n" +
-				"\t\t\tint indexDst =                  + y*input.width  + "+startX+";\n" +
+				"\t\t// First consider the inner pixels.  Each row has the same number of edges, which allows\n" +
+				"\t\t// the rows to be processed independently\n" +
+				"\t\tedges.resize(Math.max(0,h*"+numInner+"*"+edgesPerPixel+"));\n" +
+				"\t\tif( concurrent ) {\n" +
+				"\t\t\tBoofConcurrency.loopBlocks(0, h, new IntRangeTask() {\n" +
+				"\t\t\t\t@Override\n" +
+				"\t\t\t\tpublic void process(int y0, int y1) {\n" +
+				"\t\t\t\t\tprocessInner(input, y0, y1, edges);\n" +
+				"\t\t\t\t}\n" +
+				"\t\t\t});\n" +
+				"\t\t} else {\n" +
+				"\t\t\tprocessInner(input, 0, h, edges);\n" +
+				"\t\t}\n" +
 				"\n" +
-				"\t\t\tfor( int x = "+startX+"; x < w; x++ , indexSrc++ , indexDst++ ) {\n" +
-				"\t\t\t\t"+sumType+" color0 = input.data[indexSrc]"+bitwise+";              // (x,y)\n" +
-				"\t\t\t\t"+sumType+" color1 = input.data[indexSrc+1]"+bitwise+";            // (x+1,y)\n" +
-				"\t\t\t\t"+sumType+" color2 = input.data[indexSrc+input.stride]"+bitwise+"; // (x,y+1)\n" +
-				"\n" +
-				"\t\t\t\tEdge e1 = edges.grow();\n" +
-				"\t\t\t\tEdge e2 = edges.grow();\n" +
-				"\n" +
-				"\t\t\t\te1.sortValue = Math.abs(color1-color0);\n" +
-				"\t\t\t\te1.indexA = indexDst;\n" +
-				"\t\t\t\te1.indexB = indexDst+1;\n" +
-				"\n" +
-				"\t\t\t\te2.sortValue = Math.abs(color2-color0);\n" +
-				"\t\t\t\te2.indexA = indexDst;\n" +
-				"\t\t\t\te2.indexB = indexDst+input.width;\n");
-		if( rule == ConnectRule.EIGHT ) {
-			out.print(
-				"\n" +
-				"\t\t\t\t"+sumType+" color3 = input.data[indexSrc+1+input.stride]"+bitwise+"; // (x+1,y+1)\n" +
-				"\t\t\t\t"+sumType+" color4 = input.data[indexSrc-1+input.stride]"+bitwise+"; // (x-1,y+1)\n" +
-				"\n" +
-				"\t\t\t\tEdge e3 = edges.grow();\n" +
-				"\t\t\t\tEdge e4 = edges.grow();\n" +
-				"\n" +
-				"\t\t\t\te3.sortValue = Math.abs(color3-color0);\n" +
-				"\t\t\t\te3.indexA = indexDst;\n" +
-				"\t\t\t\te3.indexB = indexDst+1+input.width;\n" +
-				"\n" +
-				"\t\t\t\te4.sortValue = Math.abs(color4-color0);\n" +
-				"\t\t\t\te4.indexA = indexDst;\n" +
-				"\t\t\t\te4.indexB = indexDst-1+input.width;\n");
-		}
-
-		out.print("\t\t\t}\n" +
-				"\t\t}\n"+
 				"\t\t// Handle border pixels\n");
 
 		if( rule == ConnectRule.EIGHT ) {
@@ -154,7 +136,50 @@ public class GenerateFhEdgeWeights_SB extends CodeGeneratorBase {
 					"\t\t}\n");
 		}
 
-		out.print("\t}\n");
+		out.print("\t}\n\n");
+	}
+
+	private void printProcessInner( AutoTypeImage imageType , ConnectRule rule ) {
+
+		String imageName = imageType.getSingleBandName();
+		String sumType = imageType.getSumType();
+		String bitwise = imageType.getBitWise();
+
+		int startX = rule == ConnectRule.FOUR ? 0 : 1;
+		int edgesPerPixel = rule == ConnectRule.FOUR ? 2 : 4;
+		String numInner = startX == 0 ? "w" : "(w-"+startX+")";
+
+		out.print("\t/**\n" +
+				"\t * Computes the edges for inner pixels in the specified rows\n" +
+				"\t */\n" +
+				"\tprivate void processInner( "+imageName+" input , int y0 , int y1 , FhEdgeList edges ) {\n" +
+				"\t\tint w = input.width-1;\n" +
+				"\n" +
+				"\t\tfor( int y = y0; y < y1; y++ ) {\n" +
+				"\t\t\tint indexSrc = input.startIndex + y*input.stride + "+startX+";\n" +
+				"\t\t\tint indexDst =                  + y*input.width  + "+startX+";\n" +
+				"\t\t\tint indexEdge = y*"+numInner+"*"+edgesPerPixel+";\n" +
+				"\n" +
+				"\t\t\tfor( int x = "+startX+"; x < w; x++ , indexSrc++ , indexDst++ ) {\n" +
+				"\t\t\t\t"+sumType+" color0 = input.data[indexSrc]"+bitwise+";              // (x,y)\n" +
+				"\t\t\t\t"+sumType+" color1 = input.data[indexSrc+1]"+bitwise+";            // (x+1,y)\n" +
+				"\t\t\t\t"+sumType+" color2 = input.data[indexSrc+input.stride]"+bitwise+"; // (x,y+1)\n" +
+				"\n" +
+				"\t\t\t\tedges.set(indexEdge++, Math.abs(color1-color0), indexDst, indexDst+1);\n" +
+				"\t\t\t\tedges.set(indexEdge++, Math.abs(color2-color0), indexDst, indexDst+input.width);\n");
+		if( rule == ConnectRule.EIGHT ) {
+			out.print(
+				"\n" +
+				"\t\t\t\t"+sumType+" color3 = input.data[indexSrc+1+input.stride]"+bitwise+"; // (x+1,y+1)\n" +
+				"\t\t\t\t"+sumType+" color4 = input.data[indexSrc-1+input.stride]"+bitwise+"; // (x-1,y+1)\n" +
+				"\n" +
+				"\t\t\t\tedges.set(indexEdge++, Math.abs(color3-color0), indexDst, indexDst+1+input.width);\n" +
+				"\t\t\t\tedges.set(indexEdge++, Math.abs(color4-color0), indexDst, indexDst-1+input.width);\n");
+		}
+
+		out.print("\t\t\t}\n" +
+				"\t\t}\n" +
+				"\t}\n\n");
 	}
 
 	private void printCheckAround( AutoTypeImage imageType , ConnectRule rule ) {
@@ -165,7 +190,7 @@ public class GenerateFhEdgeWeights_SB extends CodeGeneratorBase {
 
 		out.print("\tprivate void checkAround( int x , int y ,\n" +
 				"\t\t\t\t\t\t\t  "+imageName+" input ,\n" +
-				"\t\t\t\t\t\t\t  FastQueue<Edge> edges )\n" +
+				"\t\t\t\t\t\t\t  FhEdgeList edges )\n" +
 				"\t{\n" +
 				"\t\tint indexSrc = input.startIndex + y*input.stride + x;\n" +
 				"\t\tint indexA =                      y*input.width  + x;\n" +
@@ -191,7 +216,7 @@ public class GenerateFhEdgeWeights_SB extends CodeGeneratorBase {
 
 		out.print("\tprivate void check( int x , int y , "+sumType+" color0 , int indexA,\n" +
 				"\t\t\t\t\t\t"+imageName+" input ,\n" +
-				"\t\t\t\t\t\tFastQueue<Edge> edges ) {\n" +
+				"\t\t\t\t\t\tFhEdgeList edges ) {\n" +
 				"\t\tif( !input.isInBounds(x,y) )\n" +
 				"\t\t\treturn;\n" +
 				"\n" +
@@ -200,11 +225,19 @@ public class GenerateFhEdgeWeights_SB extends CodeGeneratorBase {
 				"\n" +
 				"\t\t"+sumType+" colorN = input.data[indexSrc]"+bitwise+";\n" +
 				"\n" +
-				"\t\tEdge e1 = edges.grow();\n" +
+				"\t\tedges.add((float)Math.abs(color0-colorN), indexA, indexB);\n" +
+				"\t}\n\n");
+	}
+
+	private void printConcurrent() {
+		out.print("\t@Override\n" +
+				"\tpublic void setConcurrent(boolean concurrent) {\n" +
+				"\t\tthis.concurrent = concurrent;\n" +
+				"\t}\n" +
 				"\n" +
-				"\t\te1.sortValue = (float)Math.abs(color0-colorN);\n" +
-				"\t\te1.indexA = indexA;\n" +
-				"\t\te1.indexB = indexB;\n" +
+				"\t@Override\n" +
+				"\tpublic boolean isConcurrent() {\n" +
+				"\t\treturn concurrent;\n" +
 				"\t}\n\n");
 	}
 
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boofcv.alg.background;
+
+/**
+ * <p>
+ * Background model in which each pixel is modeled as a mixture of Gaussians (GMM) [1,2].  This allows a pixel to
+ * have multiple background values, e.g. waving trees, water, or a flickering monitor, which a single Gaussian
+ * can't handle.  Each Gaussian has a weight, an isotropic variance, and a mean for each band.  Gaussians
+ * are sorted by their weight.  New Gaussians are added when a pixel doesn't match an existing one and
+ * Gaussians are removed when their weight drops to zero, so the number of Gaussians adapts to each pixel [2].
+ * </p>
+ *
+ * <p>
+ * Internally the mixture for every pixel is stored in a single packed float array.  There are no per-pixel
+ * objects.  See {@link BackgroundGmmCommon} for a description of the format.
+ * </p>
+ *
+ * <p>Tuning Parameters:</p>
+ * <ul>
+ * <li><b>learnRate:</b>  Specifies how fast it will adapt. 0 to 1, inclusive.  0 = static  1.0 = instant.
+ * Try 0.005</li>
+ * <li><b>threshold:</b>  A pixel matches a Gaussian if its Mahalanobis distance squared is &le; threshold.
+ * Consult a Chi-Squared table for theoretical values.  1-band try 9.  3-bands try 16. </li>
+ * <li><b>decay:</b> Complexity reduction prior [2].  Weights of all Gaussians are reduced by learnRate*decay
+ * every update, which removes Gaussians that aren't supported by the data.  0 to 1, exclusive. Try 0.05</li>
+ * <li><b>significantWeight:</b> A Gaussian must have a weight &ge; this value to be considered part of
+ * the background.</li>
+ * <li><b>initialVariance:</b> The variance assigned to a Gaussian when it's first created.</li>
+ * <li><b>minimumVariance:</b> Variance can't go below this value.  Prevents divide by zero
+ * errors in regions with no noise.</li>
+ * </ul>
+ *
+ * <p>
+ * [1] Stauffer, Chris, and W. Eric L. Grimson. "Adaptive background mixture models for real-time tracking."
+ * Computer Vision and Pattern Recognition, 1999. IEEE Computer Society Conference on.. Vol. 2. IEEE, 1999.<br>
+ * [2] Zivkovic, Zoran. "Improved adaptive Gaussian mixture model for background subtraction." Pattern Recognition,
+ * 2004. ICPR 2004. Proceedings of the 17th International Conference on. Vol. 2. IEEE, 2004.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public interface BackgroundAlgorithmGmm {
+
+	/**
+	 * Returns the learning rate.
+	 * @return 0 (slow) to 1 (fast)
+	 */
+	float getLearnRate();
+
+	/**
+	 * Specifies the learning rate
+	 * @param learnRate 0 (slow) to 1 (fast)
+	 */
+	void setLearnRate(float learnRate);
+
+	float getThreshold();
+
+	void setThreshold(float threshold);
+
+	float getDecay();
+
+	void setDecay(float decay);
+
+	float getSignificantWeight();
+
+	void setSignificantWeight(float significantWeight);
+
+	float getInitialVariance();
+
+	void setInitialVariance(float initialVariance);
+
+	float getMinimumVariance();
+
+	void setMinimumVariance(float minimumVariance);
+
+	/**
+	 * Maximum number of Gaussians which can be used to model a pixel
+	 */
+	int getMaxGaussians();
+}
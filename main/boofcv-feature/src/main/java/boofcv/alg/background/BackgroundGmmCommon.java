@@ -0,0 +1,407 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boofcv.alg.background;
+
+/**
+ * <p>
+ * Implementation of the Gaussian Mixture Model (GMM) math for a single pixel.  See {@link BackgroundAlgorithmGmm}.
+ * All state is passed in, so a single instance can be used by multiple threads at the same time.
+ * </p>
+ *
+ * <p>
+ * The mixture for a pixel is stored in a float array as a sequence of Gaussians. Each Gaussian is
+ * encoded as [weight, variance, mean[0], ... , mean[numBands-1]].  Gaussians are sorted in order of
+ * decreasing weight.  Unused Gaussians are at the end and have a weight of zero. If the first weight is zero
+ * then the pixel has never been observed.  A model for all the pixels in the image is stored inside an
+ * {@link boofcv.struct.image.InterleavedF32} with {@link #getModelStride()} bands.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class BackgroundGmmCommon {
+
+	/**
+	 * Value returned by check functions when the pixel has no model
+	 */
+	public static final int UNKNOWN = -1;
+
+	// Specifies how fast it will adapt. 0 to 1, inclusive.  0 = static  1.0 = instant.
+	protected float learnRate;
+	// threshold on Mahalanobis distance squared for a pixel to match a Gaussian
+	protected float threshold;
+	// complexity reduction prior.  weights are reduced by learnRate*decay every update
+	protected float decay;
+	// minimum weight for a Gaussian to be considered background
+	protected float significantWeight = 0.1f;
+	// variance of a new Gaussian
+	protected float initialVariance = 100;
+	// the smallest allowed variance
+	protected float minimumVariance = 1;
+
+	// maximum number of Gaussians for each pixel
+	protected final int maxGaussians;
+	// number of bands in the input image
+	protected final int numBands;
+	// number of elements used to encode a single Gaussian
+	protected final int gaussianStride;
+	// number of elements used to encode all the Gaussians in a pixel
+	protected final int modelStride;
+
+	/**
+	 * Configures the mixture model
+	 *
+	 * @param learnRate Specifies how quickly the background is updated.  0 to 1
+	 * @param threshold Threshold on Mahalanobis distance squared
+	 * @param decay Complexity reduction prior. 0 to 1, exclusive
+	 * @param maxGaussians Maximum number of Gaussians for each pixel
+	 * @param numBands Number of bands in the input image
+	 */
+	public BackgroundGmmCommon(float learnRate, float threshold, float decay, int maxGaussians, int numBands) {
+		if( maxGaussians <= 0 )
+			throw new IllegalArgumentException("maxGaussians must be at least 1");
+		if( numBands <= 0 )
+			throw new IllegalArgumentException("numBands must be at least 1");
+
+		this.maxGaussians = maxGaussians;
+		this.numBands = numBands;
+		this.gaussianStride = 2 + numBands;
+		this.modelStride = maxGaussians*gaussianStride;
+
+		setLearnRate(learnRate);
+		setThreshold(threshold);
+		setDecay(decay);
+	}
+
+	/**
+	 * Updates the mixture model for a multi-band pixel
+	 *
+	 * @param pixelValue Value of the observed pixel.  length &ge; numBands
+	 * @param data Array containing the model
+	 * @param modelIndex Index of the first element in the pixel's model
+	 */
+	public void updateMixture( float[] pixelValue , float[] data , int modelIndex ) {
+		final int end = modelIndex + modelStride;
+		final float decayRate = learnRate*decay;
+
+		// Find the first Gaussian it matches and update all the weights
+		int matchIndex = -1;
+		int index = modelIndex;
+		for( ; index < end; index += gaussianStride ) {
+			float weight = data[index];
+			if( weight <= 0 )
+				break;
+
+			if( matchIndex < 0 ) {
+				float variance = data[index+1];
+				float distanceSq = 0;
+				for (int band = 0; band < numBands; band++) {
+					float diff = pixelValue[band] - data[index+2+band];
+					distanceSq += diff*diff;
+				}
+
+				if( distanceSq <= threshold*variance ) {
+					matchIndex = index;
+					weight += learnRate*(1.0f - weight) - decayRate;
+					float rho = learnRate/weight;
+
+					for (int band = 0; band < numBands; band++) {
+						int indexMean = index+2+band;
+						data[indexMean] += rho*(pixelValue[band] - data[indexMean]);
+					}
+					variance += rho*(distanceSq/numBands - variance);
+					data[index] = weight;
+					data[index+1] = Math.max(minimumVariance,variance);
+					continue;
+				}
+			}
+			data[index] = weight - learnRate*weight - decayRate;
+		}
+		int numGaussians = (index - modelIndex)/gaussianStride;
+
+		if( matchIndex < 0 ) {
+			// Learning is off and the weights were not modified. A new Gaussian would have a weight of zero
+			// and be pruned, removing an existing mode from a frozen model
+			if( learnRate == 0 && numGaussians > 0 )
+				return;
+
+			// No match. Create a new Gaussian. If there's no room replace the one with the smallest weight
+			if( numGaussians == maxGaussians ) {
+				index -= gaussianStride;
+			} else {
+				numGaussians++;
+			}
+			// the first Gaussian is the entire model, even if learning has been turned off
+			data[index] = numGaussians == 1 ? 1.0f : learnRate;
+			data[index+1] = initialVariance;
+			for (int band = 0; band < numBands; band++) {
+				data[index+2+band] = pixelValue[band];
+			}
+			matchIndex = index;
+		}
+
+		matchIndex = pruneAndNormalize(data,modelIndex,numGaussians,matchIndex);
+		sortUpdated(data,modelIndex,matchIndex);
+	}
+
+	/**
+	 * Updates the mixture model for a single band pixel
+	 *
+	 * @param pixelValue Value of the observed pixel.
+	 * @param data Array containing the model
+	 * @param modelIndex Index of the first element in the pixel's model
+	 */
+	public void updateMixture( float pixelValue , float[] data , int modelIndex ) {
+		final int end = modelIndex + modelStride;
+		final float decayRate = learnRate*decay;
+
+		// Find the first Gaussian it matches and update all the weights
+		int matchIndex = -1;
+		int index = modelIndex;
+		for( ; index < end; index += gaussianStride ) {
+			float weight = data[index];
+			if( weight <= 0 )
+				break;
+
+			if( matchIndex < 0 ) {
+				float variance = data[index+1];
+				float diff = pixelValue - data[index+2];
+				float distanceSq = diff*diff;
+
+				if( distanceSq <= threshold*variance ) {
+					matchIndex = index;
+					weight += learnRate*(1.0f - weight) - decayRate;
+					float rho = learnRate/weight;
+
+					data[index] = weight;
+					data[index+1] = Math.max(minimumVariance,variance + rho*(distanceSq - variance));
+					data[index+2] += rho*diff;
+					continue;
+				}
+			}
+			data[index] = weight - learnRate*weight - decayRate;
+		}
+		int numGaussians = (index - modelIndex)/gaussianStride;
+
+		if( matchIndex < 0 ) {
+			// Learning is off and the weights were not modified. A new Gaussian would have a weight of zero
+			// and be pruned, removing an existing mode from a frozen model
+			if( learnRate == 0 && numGaussians > 0 )
+				return;
+
+			// No match. Create a new Gaussian. If there's no room replace the one with the smallest weight
+			if( numGaussians == maxGaussians ) {
+				index -= gaussianStride;
+			} else {
+				numGaussians++;
+			}
+			// the first Gaussian is the entire model, even if learning has been turned off
+			data[index] = numGaussians == 1 ? 1.0f : learnRate;
+			data[index+1] = initialVariance;
+			data[index+2] = pixelValue;
+			matchIndex = index;
+		}
+
+		matchIndex = pruneAndNormalize(data,modelIndex,numGaussians,matchIndex);
+		sortUpdated(data,modelIndex,matchIndex);
+	}
+
+	/**
+	 * Removes Gaussians with a weight &le; 0 and normalizes the weights so that they sum up to one.
+	 *
+	 * @return The new location of the matched Gaussian
+	 */
+	int pruneAndNormalize( float[] data , int modelIndex , int numGaussians , int matchIndex ) {
+		final int end = modelIndex + numGaussians*gaussianStride;
+
+		float totalWeight = 0;
+		int indexWrite = modelIndex;
+		for (int indexRead = modelIndex; indexRead < end; indexRead += gaussianStride) {
+			float weight = data[indexRead];
+			if( weight <= 0 )
+				continue;
+
+			if( indexRead != indexWrite ) {
+				System.arraycopy(data,indexRead,data,indexWrite,gaussianStride);
+				if( indexRead == matchIndex )
+					matchIndex = indexWrite;
+			}
+			totalWeight += weight;
+			indexWrite += gaussianStride;
+		}
+
+		// mark the removed Gaussians as unused
+		for (int i = indexWrite; i < end; i += gaussianStride) {
+			data[i] = 0;
+		}
+
+		for (int i = modelIndex; i < indexWrite; i += gaussianStride) {
+			data[i] /= totalWeight;
+		}
+
+		return matchIndex;
+	}
+
+	/**
+	 * All the weights were changed by the same amount except for the updated Gaussian. So it's the only one
+	 * which can be out of order and it can only move towards the start.
+	 */
+	void sortUpdated( float[] data , int modelIndex , int updatedIndex ) {
+		while( updatedIndex > modelIndex ) {
+			int previous = updatedIndex - gaussianStride;
+			if( data[previous] >= data[updatedIndex] )
+				break;
+
+			for (int i = 0; i < gaussianStride; i++) {
+				float tmp = data[previous+i];
+				data[previous+i] = data[updatedIndex+i];
+				data[updatedIndex+i] = tmp;
+			}
+			updatedIndex = previous;
+		}
+	}
+
+	/**
+	 * Checks to see if a multi-band pixel belongs to the background
+	 *
+	 * @param pixelValue Value of the observed pixel.  length &ge; numBands
+	 * @param data Array containing the model
+	 * @param modelIndex Index of the first element in the pixel's model
+	 * @return 0 = background, 1 = foreground, {@link #UNKNOWN} = pixel has no model
+	 */
+	public int checkBackground( float[] pixelValue , float[] data , int modelIndex ) {
+		if( data[modelIndex] <= 0 )
+			return UNKNOWN;
+
+		final int end = modelIndex + modelStride;
+		for (int index = modelIndex; index < end; index += gaussianStride) {
+			// Gaussians are sorted by weight so none of the ones which follow can be significant
+			if( data[index] < significantWeight )
+				break;
+
+			float variance = data[index+1];
+			float distanceSq = 0;
+			for (int band = 0; band < numBands; band++) {
+				float diff = pixelValue[band] - data[index+2+band];
+				distanceSq += diff*diff;
+			}
+
+			if( distanceSq <= threshold*variance )
+				return 0;
+		}
+		return 1;
+	}
+
+	/**
+	 * Checks to see if a single band pixel belongs to the background
+	 *
+	 * @param pixelValue Value of the observed pixel.
+	 * @param data Array containing the model
+	 * @param modelIndex Index of the first element in the pixel's model
+	 * @return 0 = background, 1 = foreground, {@link #UNKNOWN} = pixel has no model
+	 */
+	public int checkBackground( float pixelValue , float[] data , int modelIndex ) {
+		if( data[modelIndex] <= 0 )
+			return UNKNOWN;
+
+		final int end = modelIndex + modelStride;
+		for (int index = modelIndex; index < end; index += gaussianStride) {
+			// Gaussians are sorted by weight so none of the ones which follow can be significant
+			if( data[index] < significantWeight )
+				break;
+
+			float diff = pixelValue - data[index+2];
+			if( diff*diff <= threshold*data[index+1] )
+				return 0;
+		}
+		return 1;
+	}
+
+	public float getLearnRate() {
+		return learnRate;
+	}
+
+	public void setLearnRate(float learnRate) {
+		if( learnRate < 0 || learnRate > 1 )
+			throw new IllegalArgumentException("Learn rate must be 0 <= rate <= 1");
+		this.learnRate = learnRate;
+	}
+
+	public float getThreshold() {
+		return threshold;
+	}
+
+	public void setThreshold(float threshold) {
+		if( threshold <= 0 )
+			throw new IllegalArgumentException("threshold must be > 0");
+		this.threshold = threshold;
+	}
+
+	public float getDecay() {
+		return decay;
+	}
+
+	public void setDecay(float decay) {
+		if( decay < 0 || decay >= 1 )
+			throw new IllegalArgumentException("decay must be 0 <= decay < 1");
+		this.decay = decay;
+	}
+
+	public float getSignificantWeight() {
+		return significantWeight;
+	}
+
+	public void setSignificantWeight(float significantWeight) {
+		this.significantWeight = significantWeight;
+	}
+
+	public float getInitialVariance() {
+		return initialVariance;
+	}
+
+	public void setInitialVariance(float initialVariance) {
+		if( initialVariance <= 0 )
+			throw new IllegalArgumentException("initialVariance must be > 0");
+		this.initialVariance = initialVariance;
+	}
+
+	public float getMinimumVariance() {
+		return minimumVariance;
+	}
+
+	public void setMinimumVariance(float minimumVariance) {
+		if( minimumVariance <= 0 )
+			throw new IllegalArgumentException("minimumVariance must be > 0");
+		this.minimumVariance = minimumVariance;
+	}
+
+	public int getMaxGaussians() {
+		return maxGaussians;
+	}
+
+	public int getNumBands() {
+		return numBands;
+	}
+
+	public int getGaussianStride() {
+		return gaussianStride;
+	}
+
+	public int getModelStride() {
+		return modelStride;
+	}
+}
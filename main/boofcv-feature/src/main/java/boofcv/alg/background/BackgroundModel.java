@@ -34,6 +34,9 @@ public abstract class BackgroundModel<T extends ImageBase<T>> {
 	// value assigned to pixels outside the image.  Default to 0, which is background
 	protected byte unknownValue = 0;
 
+	// if true then blocks of rows will be processed in parallel
+	protected boolean concurrent = false;
+
 	public BackgroundModel(ImageType<T> imageType) {
 		this.imageType = imageType;
 	}
@@ -63,6 +66,18 @@ public abstract class BackgroundModel<T extends ImageBase<T>> {
 		this.unknownValue = (byte)unknownValue;
 	}
 
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * If true then the image will be split into blocks of rows which are updated and segmented in parallel.
+	 * Each pixel is processed independently so the output is identical to the single threaded case.
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
 	/**
 	 * Type of input image it can process
 	 */
@@ -52,6 +52,12 @@ import georegression.struct.point.Point2D_F32;
  * The default value is 0, which is a background pixel. See {@link #setUnknownValue(int)}}
  * </p>
  *
+ * <p>
+ * When {@link #setConcurrent(boolean) concurrent} is true the same {@link Point2Transform2Model_F32} is used by
+ * multiple threads at once.  After {@link Point2Transform2Model_F32#setModel(Object)} has been called its
+ * compute function must not modify any internal state.
+ * </p>
+ *
  * @author Peter Abeles
  */
 public abstract class BackgroundModelMoving<T extends ImageBase<T>,MotionModel extends InvertibleTransform<MotionModel>>
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boofcv.alg.background;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageBase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Processes the video streams from several stationary cameras at once.  Each stream has its own
+ * {@link BackgroundModelStationary} and every call processes all the streams in parallel using the
+ * thread pool in {@link BoofConcurrency}.  Models are independent of each other so the results are identical to
+ * calling each model one at a time.
+ * </p>
+ *
+ * <p>
+ * Parallelism comes from processing streams at the same time.  When the number of streams is at least
+ * the number of threads there is no benefit to also turning on {@link BackgroundModel#setConcurrent(boolean)} in
+ * the individual models.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class BackgroundStationaryBatch<T extends ImageBase<T>> {
+
+	// background model for each stream
+	protected List<BackgroundModelStationary<T>> models = new ArrayList<>();
+
+	// one task for each stream. re-used each time it's called
+	protected List<StreamTask> tasks = new ArrayList<>();
+
+	/**
+	 * Specifies the background model used for each stream.  The same model should not appear twice.
+	 *
+	 * @param models Background model for each stream
+	 */
+	public BackgroundStationaryBatch( List<? extends BackgroundModelStationary<T>> models ) {
+		if( models.isEmpty() )
+			throw new IllegalArgumentException("Must specify at least one model");
+		this.models.addAll(models);
+		for (int i = 0; i < models.size(); i++) {
+			tasks.add(new StreamTask(models.get(i)));
+		}
+	}
+
+	/**
+	 * Updates the background of every stream with its new frame.
+	 *
+	 * @param frames Current frame from each stream.  Same order as the models.
+	 */
+	public void updateBackground( List<T> frames ) {
+		checkSize(frames.size());
+
+		for (int i = 0; i < tasks.size(); i++) {
+			StreamTask t = tasks.get(i);
+			t.frame = frames.get(i);
+			t.segmented = null;
+		}
+		runTasks();
+	}
+
+	/**
+	 * Segments the current frame from every stream into background and foreground pixels
+	 *
+	 * @param frames Current frame from each stream.  Same order as the models.
+	 * @param segmented Output segmented image for each stream. 0 = background, 1 = foreground/moving
+	 */
+	public void segment( List<T> frames , List<GrayU8> segmented ) {
+		checkSize(frames.size());
+		checkSize(segmented.size());
+
+		for (int i = 0; i < tasks.size(); i++) {
+			StreamTask t = tasks.get(i);
+			t.frame = frames.get(i);
+			t.segmented = segmented.get(i);
+		}
+		runTasks();
+	}
+
+	/**
+	 * Resets the background model of every stream
+	 */
+	public void reset() {
+		for (int i = 0; i < models.size(); i++) {
+			models.get(i).reset();
+		}
+	}
+
+	private void runTasks() {
+		try {
+			BoofConcurrency.runAll(tasks);
+		} finally {
+			// don't hold onto references to the user's images
+			for (int i = 0; i < tasks.size(); i++) {
+				tasks.get(i).frame = null;
+				tasks.get(i).segmented = null;
+			}
+		}
+	}
+
+	private void checkSize( int size ) {
+		if( size != models.size() )
+			throw new IllegalArgumentException("Expected one image for each of the "+models.size()+" streams");
+	}
+
+	/**
+	 * Number of streams being processed
+	 */
+	public int getNumStreams() {
+		return models.size();
+	}
+
+	public List<BackgroundModelStationary<T>> getModels() {
+		return models;
+	}
+
+	/**
+	 * Updates or segments a single stream.  If segmented is null then the background is updated.
+	 */
+	private class StreamTask implements Runnable {
+		BackgroundModelStationary<T> model;
+		T frame;
+		GrayU8 segmented;
+
+		StreamTask(BackgroundModelStationary<T> model) {
+			this.model = model;
+		}
+
+		@Override
+		public void run() {
+			if( segmented == null )
+				model.updateBackground(frame);
+			else
+				model.segment(frame,segmented);
+		}
+	}
+}
@@ -21,6 +21,8 @@ package boofcv.alg.background.moving;
 import boofcv.alg.interpolate.InterpolatePixelMB;
 import boofcv.alg.interpolate.InterpolationType;
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectTask;
 import boofcv.core.image.FactoryGImageMultiBand;
 import boofcv.core.image.GImageMultiBand;
 import boofcv.core.image.border.BorderType;
@@ -28,6 +30,8 @@ import boofcv.factory.interpolate.FactoryInterpolation;
 import boofcv.struct.distort.Point2Transform2Model_F32;
 import boofcv.struct.image.*;
 import georegression.struct.InvertibleTransform;
+import georegression.struct.point.Point2D_F32;
+import org.ddogleg.struct.FastQueue;
 
 /**
  * Implementation of {@link BackgroundMovingBasic} for {@link Planar}.
@@ -39,16 +43,13 @@ public class BackgroundMovingBasic_IL<T extends ImageInterleaved<T>, Motion exte
 {
 	// where the background image is stored
 	protected InterleavedF32 background;
-	// interpolates the input image
-	protected InterpolatePixelMB<T> interpolationInput;
-	// interpolates the background image
-	protected InterpolatePixelMB<InterleavedF32> interpolationBG;
+	// type of interpolation used on the background
+	protected InterpolationType interpType;
+	// storage which is specific to each thread
+	protected FastQueue<Helper> helpers;
 
 	// wrappers which provide abstraction across image types
 	protected GImageMultiBand inputWrapper;
-	// storage for multi-band pixel values
-	protected float[] pixelInput;
-	protected float[] pixelBack;
 
 	public BackgroundMovingBasic_IL(float learnRate, float threshold,
 									Point2Transform2Model_F32<Motion> transform,
@@ -56,19 +57,18 @@ public class BackgroundMovingBasic_IL<T extends ImageInterleaved<T>, Motion exte
 									ImageType<T> imageType) {
 		super(learnRate, threshold,transform, imageType);
 
-		this.interpolationInput = FactoryInterpolation.createPixelMB(0, 255, interpType,BorderType.EXTENDED,imageType);
-
 		int numBands = imageType.getNumBands();
 		background = new InterleavedF32(1,1,numBands);
 
-		this.interpolationBG = FactoryInterpolation.createPixelMB(
-				0, 255, interpType, BorderType.EXTENDED, ImageType.il(numBands, InterleavedF32.class));
-		this.interpolationBG.setImage(background);
-
-		pixelInput = new float[numBands];
-		pixelBack = new float[numBands];
-
 		inputWrapper = FactoryGImageMultiBand.create(imageType);
+
+		this.interpType = interpType;
+		helpers = new FastQueue<Helper>(1,(Class)Helper.class,true) {
+			@Override
+			protected Helper createInstance() {
+				return new Helper();
+			}
+		};
 	}
 
 	/**
@@ -98,9 +98,30 @@ public class BackgroundMovingBasic_IL<T extends ImageInterleaved<T>, Motion exte
 	}
 
 	@Override
-	protected void updateBackground(int x0, int y0, int x1, int y1, T frame) {
-
+	protected void updateBackground(final int x0, int y0, final int x1, int y1, final T frame) {
 		transform.setModel(worldToCurrent);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(y0, y1, helpers, new IntRangeObjectTask<Helper>() {
+				@Override
+				public void process(Helper helper, int y0, int y1) {
+					updateBackground(x0, y0, x1, y1, frame, helper);
+				}
+			});
+		} else {
+			helpers.reset();
+			updateBackground(x0, y0, x1, y1, frame, helpers.grow());
+		}
+	}
+
+	/**
+	 * Updates the background inside the rectangle using the provided thread specific storage
+	 */
+	private void updateBackground(int x0, int y0, int x1, int y1, T frame, Helper helper) {
+		InterpolatePixelMB<T> interpolationInput = helper.interpolationInput;
+		float[] pixelInput = helper.pixelInput;
+		Point2D_F32 work = helper.work;
+
 		interpolationInput.setImage(frame);
 
 		final int numBands = frame.getNumBands();
@@ -134,15 +155,36 @@ public class BackgroundMovingBasic_IL<T extends ImageInterleaved<T>, Motion exte
 	}
 
 	@Override
-	protected void _segment(Motion currentToWorld, T frame, GrayU8 segmented) {
+	protected void _segment(Motion currentToWorld, final T frame, final GrayU8 segmented) {
 		transform.setModel(currentToWorld);
 		inputWrapper.wrap(frame);
 
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, helpers, new IntRangeObjectTask<Helper>() {
+				@Override
+				public void process(Helper helper, int y0, int y1) {
+					segment(y0, y1, frame, segmented, helper);
+				}
+			});
+		} else {
+			helpers.reset();
+			segment(0, frame.height, frame, segmented, helpers.grow());
+		}
+	}
+
+	/**
+	 * Segments the specified rows in the frame using the provided thread specific storage
+	 */
+	private void segment(int y0, int y1, T frame, GrayU8 segmented, Helper helper) {
+		InterpolatePixelMB<InterleavedF32> interpolationBG = helper.interpolationBG;
+		float[] pixelBack = helper.pixelBack;
+		Point2D_F32 work = helper.work;
+
 		int numBands = background.getNumBands();
 
 		float thresholdSq = numBands*threshold*threshold;
 
-		for (int y = 0; y < frame.height; y++) {
+		for (int y = y0; y < y1; y++) {
 			int indexFrame = frame.startIndex + y*frame.stride;
 			int indexSegmented = segmented.startIndex + y*segmented.stride;
 
@@ -181,5 +223,24 @@ public class BackgroundMovingBasic_IL<T extends ImageInterleaved<T>, Motion exte
 		}
 	}
 
-
+	/**
+	 * Interpolators and storage used by a single thread
+	 */
+	protected class Helper {
+		// interpolates the input image
+		InterpolatePixelMB<T> interpolationInput =
+				FactoryInterpolation.createPixelMB(0, 255, interpType, BorderType.EXTENDED, imageType);
+		// interpolates the background image
+		InterpolatePixelMB<InterleavedF32> interpolationBG = FactoryInterpolation.createPixelMB(
+				0, 255, interpType, BorderType.EXTENDED, ImageType.il(background.getNumBands(), InterleavedF32.class));
+		// storage for multi-band pixel values
+		float[] pixelInput = new float[background.getNumBands()];
+		float[] pixelBack = new float[background.getNumBands()];
+		// storage for transformed coordinate
+		Point2D_F32 work = new Point2D_F32();
+
+		public Helper() {
+			interpolationBG.setImage(background);
+		}
+	}
 }
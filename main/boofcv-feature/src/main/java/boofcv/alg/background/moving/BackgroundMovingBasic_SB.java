@@ -21,6 +21,8 @@ package boofcv.alg.background.moving;
 import boofcv.alg.interpolate.InterpolatePixelS;
 import boofcv.alg.interpolate.InterpolationType;
 import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectTask;
 import boofcv.core.image.FactoryGImageGray;
 import boofcv.core.image.GImageGray;
 import boofcv.core.image.border.BorderType;
@@ -32,6 +34,8 @@ import boofcv.struct.image.GrayU8;
 import boofcv.struct.image.ImageGray;
 import boofcv.struct.image.ImageType;
 import georegression.struct.InvertibleTransform;
+import georegression.struct.point.Point2D_F32;
+import org.ddogleg.struct.FastQueue;
 
 /**
  * Implementation of {@link BackgroundMovingBasic} for {@link ImageGray}.
@@ -43,10 +47,10 @@ public class BackgroundMovingBasic_SB<T extends ImageGray<T>, Motion extends Inv
 {
 	// storage for background image
 	protected GrayF32 background = new GrayF32(1,1);
-	// interpolates the input image
-	protected InterpolatePixelS<T> interpolateInput;
-	// interpolates the background image
-	protected InterpolatePixelS<GrayF32> interpolationBG;
+	// type of interpolation used on the background
+	protected InterpolationType interpType;
+	// storage which is specific to each thread
+	protected FastQueue<Helper> helpers;
 
 	// wrapper which provides abstraction across image types
 	protected GImageGray inputWrapper;
@@ -57,11 +61,13 @@ public class BackgroundMovingBasic_SB<T extends ImageGray<T>, Motion extends Inv
 									Class<T> imageType) {
 		super(learnRate, threshold, transform, ImageType.single(imageType));
 
-		this.interpolateInput = FactoryInterpolation.bilinearPixelS(imageType, BorderType.EXTENDED);
-
-		this.interpolationBG = FactoryInterpolation.createPixelS(0, 255, interpType, BorderType.EXTENDED, GrayF32.class);
-		this.interpolationBG.setBorder(FactoryImageBorder.single(GrayF32.class, BorderType.EXTENDED));
-		this.interpolationBG.setImage(background);
+		this.interpType = interpType;
+		helpers = new FastQueue<Helper>(1,(Class)Helper.class,true) {
+			@Override
+			protected Helper createInstance() {
+				return new Helper();
+			}
+		};
 
 		inputWrapper = FactoryGImageGray.create(imageType);
 	}
@@ -93,8 +99,29 @@ public class BackgroundMovingBasic_SB<T extends ImageGray<T>, Motion extends Inv
 	}
 
 	@Override
-	protected void updateBackground(int x0, int y0, int x1, int y1, T frame) {
+	protected void updateBackground(final int x0, int y0, final int x1, int y1, final T frame) {
 		transform.setModel(worldToCurrent);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(y0, y1, helpers, new IntRangeObjectTask<Helper>() {
+				@Override
+				public void process(Helper helper, int y0, int y1) {
+					updateBackground(x0, y0, x1, y1, frame, helper);
+				}
+			});
+		} else {
+			helpers.reset();
+			updateBackground(x0, y0, x1, y1, frame, helpers.grow());
+		}
+	}
+
+	/**
+	 * Updates the background inside the rectangle using the provided thread specific storage
+	 */
+	private void updateBackground(int x0, int y0, int x1, int y1, T frame, Helper helper) {
+		InterpolatePixelS<T> interpolateInput = helper.interpolateInput;
+		Point2D_F32 work = helper.work;
+
 		interpolateInput.setImage(frame);
 
 		float minusLearn = 1.0f - learnRate;
@@ -119,13 +146,33 @@ public class BackgroundMovingBasic_SB<T extends ImageGray<T>, Motion extends Inv
 	}
 
 	@Override
-	protected void _segment(Motion currentToWorld, T frame, GrayU8 segmented) {
+	protected void _segment(Motion currentToWorld, final T frame, final GrayU8 segmented) {
 		transform.setModel(currentToWorld);
 		inputWrapper.wrap(frame);
 
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, helpers, new IntRangeObjectTask<Helper>() {
+				@Override
+				public void process(Helper helper, int y0, int y1) {
+					segment(y0, y1, frame, segmented, helper);
+				}
+			});
+		} else {
+			helpers.reset();
+			segment(0, frame.height, frame, segmented, helpers.grow());
+		}
+	}
+
+	/**
+	 * Segments the specified rows in the frame using the provided thread specific storage
+	 */
+	private void segment(int y0, int y1, T frame, GrayU8 segmented, Helper helper) {
+		InterpolatePixelS<GrayF32> interpolationBG = helper.interpolationBG;
+		Point2D_F32 work = helper.work;
+
 		float thresholdSq = threshold*threshold;
 
-		for (int y = 0; y < frame.height; y++) {
+		for (int y = y0; y < y1; y++) {
 			int indexFrame = frame.startIndex + y*frame.stride;
 			int indexSegmented = segmented.startIndex + y*segmented.stride;
 
@@ -154,5 +201,22 @@ public class BackgroundMovingBasic_SB<T extends ImageGray<T>, Motion extends Inv
 		}
 	}
 
-
+	/**
+	 * Interpolators and storage used by a single thread
+	 */
+	protected class Helper {
+		// interpolates the input image
+		InterpolatePixelS<T> interpolateInput =
+				FactoryInterpolation.bilinearPixelS(imageType.getImageClass(), BorderType.EXTENDED);
+		// interpolates the background image
+		InterpolatePixelS<GrayF32> interpolationBG =
+				FactoryInterpolation.createPixelS(0, 255, interpType, BorderType.EXTENDED, GrayF32.class);
+		// storage for transformed coordinate
+		Point2D_F32 work = new Point2D_F32();
+
+		public Helper() {
+			interpolationBG.setBorder(FactoryImageBorder.single(GrayF32.class, BorderType.EXTENDED));
+			interpolationBG.setImage(background);
+		}
+	}
 }
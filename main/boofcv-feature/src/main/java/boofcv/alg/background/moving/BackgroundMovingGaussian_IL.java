@@ -21,6 +21,8 @@ package boofcv.alg.background.moving;
 import boofcv.alg.interpolate.InterpolatePixelMB;
 import boofcv.alg.interpolate.InterpolationType;
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectTask;
 import boofcv.core.image.FactoryGImageMultiBand;
 import boofcv.core.image.GImageMultiBand;
 import boofcv.core.image.border.BorderType;
@@ -31,6 +33,8 @@ import boofcv.struct.image.ImageInterleaved;
 import boofcv.struct.image.ImageType;
 import boofcv.struct.image.InterleavedF32;
 import georegression.struct.InvertibleTransform;
+import georegression.struct.point.Point2D_F32;
+import org.ddogleg.struct.FastQueue;
 
 /**
  * Implementation of {@link BackgroundMovingGaussian} for {@link ImageInterleaved}.
@@ -41,16 +45,13 @@ public class BackgroundMovingGaussian_IL<T extends ImageInterleaved<T>, Motion e
 		extends BackgroundMovingGaussian<T,Motion>
 {
 
-	// interpolates the input image
-	protected InterpolatePixelMB<T> interpolateInput;
-	// interpolates the background image
-	protected InterpolatePixelMB<InterleavedF32> interpolationBG;
+	// type of interpolation used on the background
+	protected InterpolationType interpType;
+	// storage which is specific to each thread
+	protected FastQueue<Helper> helpers;
 
 	// wrappers which provide abstraction across image types
 	protected GImageMultiBand inputWrapper;
-	// storage for multi-band pixel values
-	protected float[] pixelBG;
-	protected float[] pixelInput;
 
 	// background is composed of bands*2 channels.  even = mean, odd = variance
 	InterleavedF32 background;
@@ -74,17 +75,16 @@ public class BackgroundMovingGaussian_IL<T extends ImageInterleaved<T>, Motion e
 
 		int numBands = imageType.getNumBands();
 
-		this.interpolateInput = FactoryInterpolation.createPixelMB(0, 255,
-				InterpolationType.BILINEAR, BorderType.EXTENDED, imageType);
-
 		background = new InterleavedF32(1,1,2*numBands);
-		this.interpolationBG = FactoryInterpolation.createPixelMB(
-				0, 255, interpType, BorderType.EXTENDED, ImageType.il(numBands*2, InterleavedF32.class));
-		this.interpolationBG.setImage(background);
 		inputWrapper = FactoryGImageMultiBand.create(imageType);
 
-		pixelBG = new float[2*numBands];
-		pixelInput = new float[numBands];
+		this.interpType = interpType;
+		helpers = new FastQueue<Helper>(1,(Class)Helper.class,true) {
+			@Override
+			protected Helper createInstance() {
+				return new Helper();
+			}
+		};
 	}
 
 	@Override
@@ -105,8 +105,30 @@ public class BackgroundMovingGaussian_IL<T extends ImageInterleaved<T>, Motion e
 	}
 
 	@Override
-	protected void updateBackground(int x0, int y0, int x1, int y1, T frame) {
+	protected void updateBackground(final int x0, int y0, final int x1, int y1, final T frame) {
 		transform.setModel(worldToCurrent);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(y0, y1, helpers, new IntRangeObjectTask<Helper>() {
+				@Override
+				public void process(Helper helper, int y0, int y1) {
+					updateBackground(x0, y0, x1, y1, frame, helper);
+				}
+			});
+		} else {
+			helpers.reset();
+			updateBackground(x0, y0, x1, y1, frame, helpers.grow());
+		}
+	}
+
+	/**
+	 * Updates the background inside the rectangle using the provided thread specific storage
+	 */
+	private void updateBackground(int x0, int y0, int x1, int y1, T frame, Helper helper) {
+		InterpolatePixelMB<T> interpolateInput = helper.interpolateInput;
+		float[] pixelInput = helper.pixelInput;
+		Point2D_F32 work = helper.work;
+
 		interpolateInput.setImage(frame);
 
 		float minusLearn = 1.0f - learnRate;
@@ -143,14 +165,36 @@ public class BackgroundMovingGaussian_IL<T extends ImageInterleaved<T>, Motion e
 	}
 
 	@Override
-	protected void _segment(Motion currentToWorld, T frame, GrayU8 segmented) {
+	protected void _segment(Motion currentToWorld, final T frame, final GrayU8 segmented) {
 		transform.setModel(currentToWorld);
 		inputWrapper.wrap(frame);
 
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, helpers, new IntRangeObjectTask<Helper>() {
+				@Override
+				public void process(Helper helper, int y0, int y1) {
+					segment(y0, y1, frame, segmented, helper);
+				}
+			});
+		} else {
+			helpers.reset();
+			segment(0, frame.height, frame, segmented, helpers.grow());
+		}
+	}
+
+	/**
+	 * Segments the specified rows in the frame using the provided thread specific storage
+	 */
+	private void segment(int y0, int y1, T frame, GrayU8 segmented, Helper helper) {
+		InterpolatePixelMB<InterleavedF32> interpolationBG = helper.interpolationBG;
+		float[] pixelBG = helper.pixelBG;
+		float[] pixelInput = helper.pixelInput;
+		Point2D_F32 work = helper.work;
+
 		final int numBands = background.getNumBands()/2;
 		float adjustedMinimumDifference = minimumDifference*numBands;
 
-		for (int y = 0; y < frame.height; y++) {
+		for (int y = y0; y < y1; y++) {
 			int indexFrame = frame.startIndex + y*frame.stride;
 			int indexSegmented = segmented.startIndex + y*segmented.stride;
 
@@ -200,4 +244,25 @@ public class BackgroundMovingGaussian_IL<T extends ImageInterleaved<T>, Motion e
 			}
 		}
 	}
+
+	/**
+	 * Interpolators and storage used by a single thread
+	 */
+	protected class Helper {
+		// interpolates the input image
+		InterpolatePixelMB<T> interpolateInput = FactoryInterpolation.createPixelMB(0, 255,
+				InterpolationType.BILINEAR, BorderType.EXTENDED, imageType);
+		// interpolates the background image
+		InterpolatePixelMB<InterleavedF32> interpolationBG = FactoryInterpolation.createPixelMB(
+				0, 255, interpType, BorderType.EXTENDED, ImageType.il(background.numBands, InterleavedF32.class));
+		// storage for multi-band pixel values
+		float[] pixelBG = new float[background.numBands];
+		float[] pixelInput = new float[background.numBands/2];
+		// storage for transformed coordinate
+		Point2D_F32 work = new Point2D_F32();
+
+		public Helper() {
+			interpolationBG.setImage(background);
+		}
+	}
 }
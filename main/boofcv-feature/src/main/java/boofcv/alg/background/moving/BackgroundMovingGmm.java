@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boofcv.alg.background.moving;
+
+import boofcv.alg.background.BackgroundAlgorithmGmm;
+import boofcv.alg.background.BackgroundGmmCommon;
+import boofcv.alg.background.BackgroundModelMoving;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.distort.Point2Transform2Model_F32;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageType;
+import boofcv.struct.image.InterleavedF32;
+import georegression.struct.InvertibleTransform;
+
+/**
+ * <p>
+ * Implementation of {@link BackgroundAlgorithmGmm} for moving images.  The input image is interpolated when
+ * updating the background.  A mixture can't be interpolated so when segmenting the mixture of the
+ * nearest background pixel is used.
+ * </p>
+ *
+ * @see BackgroundAlgorithmGmm
+ * @see BackgroundModelMoving
+ *
+ * @author Peter Abeles
+ */
+public abstract class BackgroundMovingGmm<T extends ImageBase<T>, Motion extends InvertibleTransform<Motion>>
+		extends BackgroundModelMoving<T,Motion> implements BackgroundAlgorithmGmm
+{
+	// implements the mixture model math
+	protected BackgroundGmmCommon common;
+
+	// mixture model for each pixel in the background. See BackgroundGmmCommon for the format
+	protected InterleavedF32 model;
+
+	/**
+	 * See class documentation for parameters definitions.
+	 *
+	 * @param learnRate Specifies how quickly the background is updated Try 0.005
+	 * @param threshold Threshold for background.  &gt; 0.  Try 9
+	 * @param decay Complexity reduction prior. Try 0.05
+	 * @param maxGaussians Maximum number of Gaussians in a pixel's mixture. Try 5
+	 * @param transform Used to convert pixel coordinates
+	 * @param imageType Type of input image
+	 */
+	public BackgroundMovingGmm(float learnRate, float threshold, float decay, int maxGaussians,
+							   Point2Transform2Model_F32<Motion> transform, ImageType<T> imageType) {
+		super(transform, imageType);
+
+		common = new BackgroundGmmCommon(learnRate,threshold,decay,maxGaussians,imageType.getNumBands());
+		model = new InterleavedF32(1,1,common.getModelStride());
+	}
+
+	@Override
+	public void initialize(int backgroundWidth, int backgroundHeight, Motion homeToWorld) {
+		model.reshape(backgroundWidth,backgroundHeight);
+		ImageMiscOps.fill(model,0);
+
+		this.homeToWorld.set(homeToWorld);
+		this.homeToWorld.invert(worldToHome);
+
+		this.backgroundWidth = backgroundWidth;
+		this.backgroundHeight = backgroundHeight;
+	}
+
+	@Override
+	public void reset() {
+		ImageMiscOps.fill(model,0);
+	}
+
+	/**
+	 * Returns the mixture model for every background pixel.  See {@link BackgroundGmmCommon} for the format.
+	 */
+	public InterleavedF32 getModel() {
+		return model;
+	}
+
+	@Override
+	public float getLearnRate() {
+		return common.getLearnRate();
+	}
+
+	@Override
+	public void setLearnRate(float learnRate) {
+		common.setLearnRate(learnRate);
+	}
+
+	@Override
+	public float getThreshold() {
+		return common.getThreshold();
+	}
+
+	@Override
+	public void setThreshold(float threshold) {
+		common.setThreshold(threshold);
+	}
+
+	@Override
+	public float getDecay() {
+		return common.getDecay();
+	}
+
+	@Override
+	public void setDecay(float decay) {
+		common.setDecay(decay);
+	}
+
+	@Override
+	public float getSignificantWeight() {
+		return common.getSignificantWeight();
+	}
+
+	@Override
+	public void setSignificantWeight(float significantWeight) {
+		common.setSignificantWeight(significantWeight);
+	}
+
+	@Override
+	public float getInitialVariance() {
+		return common.getInitialVariance();
+	}
+
+	@Override
+	public void setInitialVariance(float initialVariance) {
+		common.setInitialVariance(initialVariance);
+	}
+
+	@Override
+	public float getMinimumVariance() {
+		return common.getMinimumVariance();
+	}
+
+	@Override
+	public void setMinimumVariance(float minimumVariance) {
+		common.setMinimumVariance(minimumVariance);
+	}
+
+	@Override
+	public int getMaxGaussians() {
+		return common.getMaxGaussians();
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boofcv.alg.background.moving;
+
+import boofcv.alg.background.BackgroundGmmCommon;
+import boofcv.alg.interpolate.InterpolatePixelMB;
+import boofcv.alg.interpolate.InterpolationType;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectTask;
+import boofcv.core.image.FactoryGImageMultiBand;
+import boofcv.core.image.GImageMultiBand;
+import boofcv.core.image.border.BorderType;
+import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.struct.distort.Point2Transform2Model_F32;
+import boofcv.struct.image.*;
+import georegression.struct.InvertibleTransform;
+import georegression.struct.point.Point2D_F32;
+import org.ddogleg.struct.FastQueue;
+
+/**
+ * Implementation of {@link BackgroundMovingGmm} for {@link Planar} and {@link ImageInterleaved}.
+ *
+ * @author Peter Abeles
+ */
+public class BackgroundMovingGmm_MB<T extends ImageMultiBand<T>, Motion extends InvertibleTransform<Motion>>
+		extends BackgroundMovingGmm<T,Motion>
+{
+	// type of interpolation used on the input image
+	protected InterpolationType interpType;
+	// storage which is specific to each thread
+	protected FastQueue<Helper> helpers;
+
+	// wrappers which provide abstraction across image types
+	protected GImageMultiBand inputWrapper;
+
+	// number of array elements between adjacent pixels in the input image
+	protected int pixelStride;
+
+	public BackgroundMovingGmm_MB(float learnRate, float threshold, float decay, int maxGaussians,
+								  Point2Transform2Model_F32<Motion> transform,
+								  InterpolationType interpType,
+								  ImageType<T> imageType)
+	{
+		super(learnRate, threshold, decay, maxGaussians, transform, imageType);
+
+		int numBands = imageType.getNumBands();
+		inputWrapper = FactoryGImageMultiBand.create(imageType);
+		pixelStride = imageType.getFamily() == ImageType.Family.INTERLEAVED ? numBands : 1;
+
+		this.interpType = interpType;
+		helpers = new FastQueue<Helper>(1,(Class)Helper.class,true) {
+			@Override
+			protected Helper createInstance() {
+				return new Helper();
+			}
+		};
+	}
+
+	@Override
+	protected void updateBackground(final int x0, int y0, final int x1, int y1, final T frame) {
+		transform.setModel(worldToCurrent);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(y0, y1, helpers, new IntRangeObjectTask<Helper>() {
+				@Override
+				public void process(Helper helper, int y0, int y1) {
+					updateBackground(x0, y0, x1, y1, frame, helper);
+				}
+			});
+		} else {
+			helpers.reset();
+			updateBackground(x0, y0, x1, y1, frame, helpers.grow());
+		}
+	}
+
+	/**
+	 * Updates the background inside the rectangle using the provided thread specific storage
+	 */
+	private void updateBackground(int x0, int y0, int x1, int y1, T frame, Helper helper) {
+		InterpolatePixelMB<T> interpolateInput = helper.interpolateInput;
+		float[] pixelInput = helper.pixelInput;
+		Point2D_F32 work = helper.work;
+
+		interpolateInput.setImage(frame);
+
+		final float[] data = model.data;
+		final int modelStride = model.numBands;
+
+		for (int y = y0; y < y1; y++) {
+			int indexModel = model.startIndex + y*model.stride + x0*modelStride;
+			for (int x = x0; x < x1; x++, indexModel += modelStride ) {
+				transform.compute(x,y,work);
+
+				if( work.x >= 0 && work.x < frame.width && work.y >= 0 && work.y < frame.height) {
+					interpolateInput.get(work.x,work.y,pixelInput);
+					common.updateMixture(pixelInput, data, indexModel);
+				}
+			}
+		}
+	}
+
+	@Override
+	protected void _segment(Motion currentToWorld, final T frame, final GrayU8 segmented) {
+		transform.setModel(currentToWorld);
+		inputWrapper.wrap(frame);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, helpers, new IntRangeObjectTask<Helper>() {
+				@Override
+				public void process(Helper helper, int y0, int y1) {
+					segment(y0, y1, frame, segmented, helper);
+				}
+			});
+		} else {
+			helpers.reset();
+			segment(0, frame.height, frame, segmented, helpers.grow());
+		}
+	}
+
+	/**
+	 * Segments the specified rows in the frame using the provided thread specific storage
+	 */
+	private void segment(int y0, int y1, T frame, GrayU8 segmented, Helper helper) {
+		float[] pixelInput = helper.pixelInput;
+		Point2D_F32 work = helper.work;
+
+		final float[] data = model.data;
+		final int lastX = model.width - 1;
+		final int lastY = model.height - 1;
+
+		for (int y = y0; y < y1; y++) {
+			int indexFrame = frame.startIndex + y*frame.stride;
+			int indexSegmented = segmented.startIndex + y*segmented.stride;
+
+			for (int x = 0; x < frame.width; x++, indexFrame += pixelStride , indexSegmented++ ) {
+				transform.compute(x,y,work);
+
+				if( work.x >= 0 && work.x < model.width && work.y >= 0 && work.y < model.height ) {
+					// use the model of the nearest background pixel
+					int indexModel = model.getIndex(
+							Math.min(lastX,(int)(work.x+0.5f)),Math.min(lastY,(int)(work.y+0.5f)));
+					inputWrapper.getF(indexFrame,pixelInput);
+					int result = common.checkBackground(pixelInput, data, indexModel);
+
+					if( result == BackgroundGmmCommon.UNKNOWN ) {
+						segmented.data[indexSegmented] = unknownValue;
+					} else {
+						segmented.data[indexSegmented] = (byte)result;
+					}
+				} else {
+					// there is no background here.  Just mark it as not moving to avoid false positives
+					segmented.data[indexSegmented] = unknownValue;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Interpolators and storage used by a single thread
+	 */
+	protected class Helper {
+		// interpolates the input image
+		InterpolatePixelMB<T> interpolateInput =
+				FactoryInterpolation.createPixelMB(0, 255, interpType, BorderType.EXTENDED, imageType);
+		// storage for multi-band pixel values
+		float[] pixelInput = new float[imageType.getNumBands()];
+		// storage for transformed coordinate
+		Point2D_F32 work = new Point2D_F32();
+	}
+}
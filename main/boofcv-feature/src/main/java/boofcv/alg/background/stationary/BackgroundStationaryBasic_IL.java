@@ -20,6 +20,8 @@ package boofcv.alg.background.stationary;
 
 import boofcv.alg.InputSanityCheck;
 import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
 import boofcv.core.image.FactoryGImageMultiBand;
 import boofcv.core.image.GConvertImage;
 import boofcv.core.image.GImageMultiBand;
@@ -65,7 +67,7 @@ public class BackgroundStationaryBasic_IL<T extends ImageInterleaved<T>>
 	}
 
 	@Override
-	public void updateBackground( T frame) {
+	public void updateBackground( final T frame) {
 		if( background.width == 1 ) {
 			background.reshape(frame.width, frame.height);
 			GConvertImage.convert(frame, background);
@@ -76,11 +78,27 @@ public class BackgroundStationaryBasic_IL<T extends ImageInterleaved<T>>
 
 		inputWrapper.wrap(frame);
 
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, new IntRangeTask() {
+				@Override
+				public void process(int y0, int y1) {
+					updateBackground(frame, y0, y1);
+				}
+			});
+		} else {
+			updateBackground(frame, 0, frame.height);
+		}
+	}
+
+	/**
+	 * Updates the background using the specified rows in the frame
+	 */
+	private void updateBackground( T frame , int y0 , int y1 ) {
 		int numBands = background.getNumBands();
 		float minusLearn = 1.0f - learnRate;
 
-		int indexBG = 0;
-		for (int y = 0; y < frame.height; y++) {
+		int indexBG = y0*frame.width*numBands;
+		for (int y = y0; y < y1; y++) {
 			int indexInput = frame.startIndex + y*frame.stride;
 			int end = indexInput + frame.width*numBands;
 			while( indexInput < end ) {
@@ -96,7 +114,7 @@ public class BackgroundStationaryBasic_IL<T extends ImageInterleaved<T>>
 	}
 
 	@Override
-	public void segment(T frame, GrayU8 segmented) {
+	public void segment(final T frame, final GrayU8 segmented) {
 		if( background.width == 1 ) {
 			ImageMiscOps.fill(segmented,unknownValue);
 			return;
@@ -104,11 +122,27 @@ public class BackgroundStationaryBasic_IL<T extends ImageInterleaved<T>>
 		InputSanityCheck.checkSameShape(background,frame,segmented);
 		inputWrapper.wrap(frame);
 
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, new IntRangeTask() {
+				@Override
+				public void process(int y0, int y1) {
+					segment(frame, segmented, y0, y1);
+				}
+			});
+		} else {
+			segment(frame, segmented, 0, frame.height);
+		}
+	}
+
+	/**
+	 * Segments the specified rows in the frame
+	 */
+	private void segment( T frame , GrayU8 segmented , int y0 , int y1 ) {
 		int numBands = background.getNumBands();
 		float thresholdSq = numBands*threshold*threshold;
 
-		int indexBG = 0;
-		for (int y = 0; y < frame.height; y++) {
+		int indexBG = y0*frame.width*numBands;
+		for (int y = y0; y < y1; y++) {
 			int indexInput = frame.startIndex + y*frame.stride;
 			int indexSegmented = segmented.startIndex + y*segmented.stride;
 
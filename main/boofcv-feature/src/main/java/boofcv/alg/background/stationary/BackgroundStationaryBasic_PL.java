@@ -20,10 +20,14 @@ package boofcv.alg.background.stationary;
 
 import boofcv.alg.InputSanityCheck;
 import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectTask;
 import boofcv.core.image.FactoryGImageMultiBand;
 import boofcv.core.image.GConvertImage;
 import boofcv.core.image.GImageMultiBand;
+import boofcv.struct.feature.ColorQueue_F32;
 import boofcv.struct.image.*;
+import org.ddogleg.struct.FastQueue;
 
 /**
  * Implementation of {@link BackgroundStationaryBasic} for {@link ImageGray}.
@@ -41,6 +45,9 @@ public class BackgroundStationaryBasic_PL<T extends ImageGray<T>>
 
 	protected float inputPixels[];
 
+	// storage for pixel values used by each thread
+	protected FastQueue<float[]> threadPixels;
+
 	public BackgroundStationaryBasic_PL(float learnRate, float threshold,
 										ImageType<Planar<T>> imageType) {
 		super(learnRate, threshold, imageType);
@@ -52,6 +59,7 @@ public class BackgroundStationaryBasic_PL<T extends ImageGray<T>>
 		inputWrapper = FactoryGImageMultiBand.create(imageType);
 
 		inputPixels = new float[numBands];
+		threadPixels = new ColorQueue_F32(numBands);
 	}
 
 	/**
@@ -69,7 +77,7 @@ public class BackgroundStationaryBasic_PL<T extends ImageGray<T>>
 	}
 
 	@Override
-	public void updateBackground( Planar<T> frame) {
+	public void updateBackground( final Planar<T> frame) {
 		if( background.width == 1 ) {
 			background.reshape(frame.width, frame.height);
 			GConvertImage.convert(frame, background);
@@ -80,11 +88,27 @@ public class BackgroundStationaryBasic_PL<T extends ImageGray<T>>
 
 		inputWrapper.wrap(frame);
 
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, threadPixels, new IntRangeObjectTask<float[]>() {
+				@Override
+				public void process(float[] inputPixels, int y0, int y1) {
+					updateBackground(frame, y0, y1, inputPixels);
+				}
+			});
+		} else {
+			updateBackground(frame, 0, frame.height, inputPixels);
+		}
+	}
+
+	/**
+	 * Updates the background using the specified rows in the frame
+	 */
+	private void updateBackground( Planar<T> frame , int y0 , int y1 , float inputPixels[] ) {
 		int numBands = background.getNumBands();
 		float minusLearn = 1.0f - learnRate;
 
-		int indexBG = 0;
-		for (int y = 0; y < frame.height; y++) {
+		int indexBG = y0*frame.width;
+		for (int y = y0; y < y1; y++) {
 			int indexInput = frame.startIndex + y*frame.stride;
 			int end = indexInput + frame.width;
 			while( indexInput < end ) {
@@ -102,7 +126,7 @@ public class BackgroundStationaryBasic_PL<T extends ImageGray<T>>
 	}
 
 	@Override
-	public void segment(Planar<T> frame, GrayU8 segmented) {
+	public void segment(final Planar<T> frame, final GrayU8 segmented) {
 		if( background.width == 1 ) {
 			ImageMiscOps.fill(segmented,unknownValue);
 			return;
@@ -110,11 +134,27 @@ public class BackgroundStationaryBasic_PL<T extends ImageGray<T>>
 		InputSanityCheck.checkSameShape(background,frame,segmented);
 		inputWrapper.wrap(frame);
 
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, threadPixels, new IntRangeObjectTask<float[]>() {
+				@Override
+				public void process(float[] inputPixels, int y0, int y1) {
+					segment(frame, segmented, y0, y1, inputPixels);
+				}
+			});
+		} else {
+			segment(frame, segmented, 0, frame.height, inputPixels);
+		}
+	}
+
+	/**
+	 * Segments the specified rows in the frame
+	 */
+	private void segment( Planar<T> frame , GrayU8 segmented , int y0 , int y1 , float inputPixels[] ) {
 		int numBands = background.getNumBands();
 		float thresholdSq = numBands*threshold*threshold;
 
-		int indexBG = 0;
-		for (int y = 0; y < frame.height; y++) {
+		int indexBG = y0*frame.width;
+		for (int y = y0; y < y1; y++) {
 			int indexInput = frame.startIndex + y*frame.stride;
 			int indexSegmented = segmented.startIndex + y*segmented.stride;
 
@@ -20,6 +20,8 @@ package boofcv.alg.background.stationary;
 
 import boofcv.alg.InputSanityCheck;
 import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
 import boofcv.core.image.FactoryGImageGray;
 import boofcv.core.image.GConvertImage;
 import boofcv.core.image.GImageGray;
@@ -61,7 +63,7 @@ public class BackgroundStationaryBasic_SB<T extends ImageGray<T>>
 	}
 
 	@Override
-	public void updateBackground( T frame) {
+	public void updateBackground( final T frame) {
 		if( background.width == 1 ) {
 			background.reshape(frame.width, frame.height);
 			GConvertImage.convert(frame, background);
@@ -72,10 +74,26 @@ public class BackgroundStationaryBasic_SB<T extends ImageGray<T>>
 
 		inputWrapper.wrap(frame);
 
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, new IntRangeTask() {
+				@Override
+				public void process(int y0, int y1) {
+					updateBackground(frame, y0, y1);
+				}
+			});
+		} else {
+			updateBackground(frame, 0, frame.height);
+		}
+	}
+
+	/**
+	 * Updates the background using the specified rows in the frame
+	 */
+	private void updateBackground( T frame , int y0 , int y1 ) {
 		float minusLearn = 1.0f - learnRate;
 
-		int indexBG = 0;
-		for (int y = 0; y < frame.height; y++) {
+		int indexBG = y0*frame.width;
+		for (int y = y0; y < y1; y++) {
 			int indexInput = frame.startIndex + y*frame.stride;
 			int end = indexInput + frame.width;
 			while( indexInput < end ) {
@@ -88,7 +106,7 @@ public class BackgroundStationaryBasic_SB<T extends ImageGray<T>>
 	}
 
 	@Override
-	public void segment(T frame, GrayU8 segmented) {
+	public void segment(final T frame, final GrayU8 segmented) {
 		if( background.width == 1 ) {
 			ImageMiscOps.fill(segmented,unknownValue);
 			return;
@@ -96,10 +114,26 @@ public class BackgroundStationaryBasic_SB<T extends ImageGray<T>>
 		InputSanityCheck.checkSameShape(background,frame,segmented);
 		inputWrapper.wrap(frame);
 
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, new IntRangeTask() {
+				@Override
+				public void process(int y0, int y1) {
+					segment(frame, segmented, y0, y1);
+				}
+			});
+		} else {
+			segment(frame, segmented, 0, frame.height);
+		}
+	}
+
+	/**
+	 * Segments the specified rows in the frame
+	 */
+	private void segment( T frame , GrayU8 segmented , int y0 , int y1 ) {
 		float thresholdSq = threshold*threshold;
 
-		int indexBG = 0;
-		for (int y = 0; y < frame.height; y++) {
+		int indexBG = y0*frame.width;
+		for (int y = y0; y < y1; y++) {
 			int indexInput = frame.startIndex + y*frame.stride;
 			int indexSegmented = segmented.startIndex + y*segmented.stride;
 
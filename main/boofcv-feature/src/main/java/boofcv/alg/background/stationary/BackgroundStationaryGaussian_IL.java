@@ -20,12 +20,16 @@ package boofcv.alg.background.stationary;
 
 import boofcv.alg.InputSanityCheck;
 import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectTask;
 import boofcv.core.image.FactoryGImageMultiBand;
 import boofcv.core.image.GImageMultiBand;
+import boofcv.struct.feature.ColorQueue_F32;
 import boofcv.struct.image.GrayU8;
 import boofcv.struct.image.ImageInterleaved;
 import boofcv.struct.image.ImageType;
 import boofcv.struct.image.InterleavedF32;
+import org.ddogleg.struct.FastQueue;
 
 /**
  * Implementation of {@link BackgroundStationaryGaussian} for {@link ImageInterleaved}.
@@ -43,6 +47,8 @@ public class BackgroundStationaryGaussian_IL<T extends ImageInterleaved<T>>
 	// storage for multi-band pixel values
 	protected float[] inputPixel;
 	protected float[] bgPixel;
+	// storage for pixel values used by each thread
+	protected FastQueue<float[]> threadPixels;
 
 	// background is composed of bands*2 channels.  even = mean, odd = variance
 	InterleavedF32 background;
@@ -70,6 +76,7 @@ public class BackgroundStationaryGaussian_IL<T extends ImageInterleaved<T>>
 
 		inputPixel = new float[numBands];
 		bgPixel = new float[numBands*2];
+		threadPixels = new ColorQueue_F32(numBands);
 	}
 
 	@Override
@@ -78,7 +85,7 @@ public class BackgroundStationaryGaussian_IL<T extends ImageInterleaved<T>>
 	}
 
 	@Override
-	public void updateBackground( T frame) {
+	public void updateBackground( final T frame) {
 		inputWrapper.wrap(frame);
 
 		if( background.width == 1 ) {
@@ -99,11 +106,27 @@ public class BackgroundStationaryGaussian_IL<T extends ImageInterleaved<T>>
 			InputSanityCheck.checkSameShape(background, frame);
 		}
 
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, threadPixels, new IntRangeObjectTask<float[]>() {
+				@Override
+				public void process(float[] inputPixel, int y0, int y1) {
+					updateBackground(frame, y0, y1, inputPixel);
+				}
+			});
+		} else {
+			updateBackground(frame, 0, frame.height, inputPixel);
+		}
+	}
+
+	/**
+	 * Updates the background using the specified rows in the frame
+	 */
+	private void updateBackground( T frame , int y0 , int y1 , float inputPixel[] ) {
 		int numBands = background.getNumBands()/2;
 		float minusLearn = 1.0f - learnRate;
 
-		int indexBG = 0;
-		for (int y = 0; y < background.height; y++) {
+		int indexBG = y0*background.width*background.numBands;
+		for (int y = y0; y < y1; y++) {
 			int indexInput = frame.startIndex + y*frame.stride;
 			int end = indexInput + frame.width*numBands;
 			while( indexInput < end ) {
@@ -126,19 +149,35 @@ public class BackgroundStationaryGaussian_IL<T extends ImageInterleaved<T>>
 	}
 
 	@Override
-	public void segment( T frame, GrayU8 segmented) {
+	public void segment( final T frame, final GrayU8 segmented) {
 		if( background.width == 1 ) {
 			ImageMiscOps.fill(segmented, unknownValue);
 			return;
 		}
 		inputWrapper.wrap(frame);
 
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, threadPixels, new IntRangeObjectTask<float[]>() {
+				@Override
+				public void process(float[] inputPixel, int y0, int y1) {
+					segment(frame, segmented, y0, y1, inputPixel);
+				}
+			});
+		} else {
+			segment(frame, segmented, 0, frame.height, inputPixel);
+		}
+	}
+
+	/**
+	 * Segments the specified rows in the frame
+	 */
+	private void segment( T frame , GrayU8 segmented , int y0 , int y1 , float inputPixel[] ) {
 		final int numBands = background.getNumBands()/2;
 
 		float adjustedMinimumDifference = minimumDifference*numBands;
 
-		int indexBG = 0;
-		for (int y = 0; y < frame.height; y++) {
+		int indexBG = y0*frame.width*background.numBands;
+		for (int y = y0; y < y1; y++) {
 			int indexInput = frame.startIndex + y*frame.stride;
 			int indexSegmented = segmented.startIndex + y*segmented.stride;
 
@@ -21,10 +21,14 @@ package boofcv.alg.background.stationary;
 import boofcv.alg.InputSanityCheck;
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectTask;
 import boofcv.core.image.FactoryGImageMultiBand;
 import boofcv.core.image.GConvertImage;
 import boofcv.core.image.GImageMultiBand;
+import boofcv.struct.feature.ColorQueue_F32;
 import boofcv.struct.image.*;
+import org.ddogleg.struct.FastQueue;
 
 /**
  * Implementation of {@link BackgroundStationaryGaussian} for {@link Planar}.
@@ -41,6 +45,8 @@ public class BackgroundStationaryGaussian_PL<T extends ImageGray<T>>
 
 	// storage for multi-band pixel values
 	protected float[] inputPixel;
+	// storage for pixel values used by each thread
+	protected FastQueue<float[]> threadPixels;
 
 	// background is composed of bands*2 channels.  even = mean, odd = variance
 	Planar<GrayF32> background;
@@ -67,6 +73,7 @@ public class BackgroundStationaryGaussian_PL<T extends ImageGray<T>>
 		inputWrapper = FactoryGImageMultiBand.create(imageType);
 
 		inputPixel = new float[numBands];
+		threadPixels = new ColorQueue_F32(numBands);
 	}
 
 	@Override
@@ -75,7 +82,7 @@ public class BackgroundStationaryGaussian_PL<T extends ImageGray<T>>
 	}
 
 	@Override
-	public void updateBackground( Planar<T> frame) {
+	public void updateBackground( final Planar<T> frame) {
 		if( background.width == 1 ) {
 			background.reshape(frame.width, frame.height);
 			// initialize the mean to the current image and the initial variance is whatever it is set to
@@ -90,12 +97,27 @@ public class BackgroundStationaryGaussian_PL<T extends ImageGray<T>>
 
 		inputWrapper.wrap(frame);
 
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, threadPixels, new IntRangeObjectTask<float[]>() {
+				@Override
+				public void process(float[] inputPixel, int y0, int y1) {
+					updateBackground(frame, y0, y1, inputPixel);
+				}
+			});
+		} else {
+			updateBackground(frame, 0, frame.height, inputPixel);
+		}
+	}
+
+	/**
+	 * Updates the background using the specified rows in the frame
+	 */
+	private void updateBackground( Planar<T> frame , int y0 , int y1 , float inputPixel[] ) {
 		int numBands = background.getNumBands()/2;
 		float minusLearn = 1.0f - learnRate;
 
-
-		int indexBG = 0;
-		for (int y = 0; y < background.height; y++) {
+		int indexBG = y0*background.width;
+		for (int y = y0; y < y1; y++) {
 			int indexInput = frame.startIndex + y*frame.stride;
 			int end = indexInput + frame.width;
 			while( indexInput < end ) {
@@ -121,19 +143,35 @@ public class BackgroundStationaryGaussian_PL<T extends ImageGray<T>>
 	}
 
 	@Override
-	public void segment(Planar<T> frame, GrayU8 segmented) {
+	public void segment(final Planar<T> frame, final GrayU8 segmented) {
 		if( background.width == 1 ) {
 			ImageMiscOps.fill(segmented, unknownValue);
 			return;
 		}
 		inputWrapper.wrap(frame);
 
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, threadPixels, new IntRangeObjectTask<float[]>() {
+				@Override
+				public void process(float[] inputPixel, int y0, int y1) {
+					segment(frame, segmented, y0, y1, inputPixel);
+				}
+			});
+		} else {
+			segment(frame, segmented, 0, frame.height, inputPixel);
+		}
+	}
+
+	/**
+	 * Segments the specified rows in the frame
+	 */
+	private void segment( Planar<T> frame , GrayU8 segmented , int y0 , int y1 , float inputPixel[] ) {
 		final int numBands = background.getNumBands()/2;
 
 		float adjustedMinimumDifference = minimumDifference*numBands;
 
-		int indexBG = 0;
-		for (int y = 0; y < frame.height; y++) {
+		int indexBG = y0*frame.width;
+		for (int y = y0; y < y1; y++) {
 			int indexInput = frame.startIndex + y*frame.stride;
 			int indexSegmented = segmented.startIndex + y*segmented.stride;
 
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boofcv.alg.background.stationary;
+
+import boofcv.alg.background.BackgroundAlgorithmGmm;
+import boofcv.alg.background.BackgroundGmmCommon;
+import boofcv.alg.background.BackgroundModelStationary;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageType;
+import boofcv.struct.image.InterleavedF32;
+
+/**
+ * <p>Implementation of {@link BackgroundAlgorithmGmm} for stationary images.</p>
+ *
+ * @see BackgroundAlgorithmGmm
+ * @see BackgroundModelStationary
+ *
+ * @author Peter Abeles
+ */
+public abstract class BackgroundStationaryGmm<T extends ImageBase<T>>
+		extends BackgroundModelStationary<T> implements BackgroundAlgorithmGmm
+{
+	// implements the mixture model math
+	protected BackgroundGmmCommon common;
+
+	// mixture model for each pixel. See BackgroundGmmCommon for the format
+	protected InterleavedF32 model;
+
+	/**
+	 * See class documentation for parameters definitions.
+	 *
+	 * @param learnRate Specifies how quickly the background is updated Try 0.005
+	 * @param threshold Threshold for background.  &gt; 0.  Try 9
+	 * @param decay Complexity reduction prior. Try 0.05
+	 * @param maxGaussians Maximum number of Gaussians in a pixel's mixture. Try 5
+	 * @param imageType Type of input image
+	 */
+	public BackgroundStationaryGmm(float learnRate, float threshold, float decay, int maxGaussians,
+								   ImageType<T> imageType) {
+		super(imageType);
+
+		common = new BackgroundGmmCommon(learnRate,threshold,decay,maxGaussians,imageType.getNumBands());
+		model = new InterleavedF32(1,1,common.getModelStride());
+	}
+
+	@Override
+	public void reset() {
+		model.reshape(1,1);
+	}
+
+	/**
+	 * If the model hasn't been initialized yet resize it to match the frame and mark all pixels as unobserved
+	 */
+	protected void initializeModel( int width , int height ) {
+		if( model.width == 1 ) {
+			model.reshape(width,height);
+			ImageMiscOps.fill(model,0);
+		} else if( model.width != width || model.height != height ) {
+			throw new IllegalArgumentException("Frame shape doesn't match the background model");
+		}
+	}
+
+	/**
+	 * Returns the mixture model for every pixel.  See {@link BackgroundGmmCommon} for the format.
+	 */
+	public InterleavedF32 getModel() {
+		return model;
+	}
+
+	@Override
+	public float getLearnRate() {
+		return common.getLearnRate();
+	}
+
+	@Override
+	public void setLearnRate(float learnRate) {
+		common.setLearnRate(learnRate);
+	}
+
+	@Override
+	public float getThreshold() {
+		return common.getThreshold();
+	}
+
+	@Override
+	public void setThreshold(float threshold) {
+		common.setThreshold(threshold);
+	}
+
+	@Override
+	public float getDecay() {
+		return common.getDecay();
+	}
+
+	@Override
+	public void setDecay(float decay) {
+		common.setDecay(decay);
+	}
+
+	@Override
+	public float getSignificantWeight() {
+		return common.getSignificantWeight();
+	}
+
+	@Override
+	public void setSignificantWeight(float significantWeight) {
+		common.setSignificantWeight(significantWeight);
+	}
+
+	@Override
+	public float getInitialVariance() {
+		return common.getInitialVariance();
+	}
+
+	@Override
+	public void setInitialVariance(float initialVariance) {
+		common.setInitialVariance(initialVariance);
+	}
+
+	@Override
+	public float getMinimumVariance() {
+		return common.getMinimumVariance();
+	}
+
+	@Override
+	public void setMinimumVariance(float minimumVariance) {
+		common.setMinimumVariance(minimumVariance);
+	}
+
+	@Override
+	public int getMaxGaussians() {
+		return common.getMaxGaussians();
+	}
+}
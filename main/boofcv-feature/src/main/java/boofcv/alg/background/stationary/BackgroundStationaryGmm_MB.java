@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boofcv.alg.background.stationary;
+
+import boofcv.alg.background.BackgroundGmmCommon;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectTask;
+import boofcv.core.image.FactoryGImageMultiBand;
+import boofcv.core.image.GImageMultiBand;
+import boofcv.struct.feature.ColorQueue_F32;
+import boofcv.struct.image.*;
+import org.ddogleg.struct.FastQueue;
+
+/**
+ * Implementation of {@link BackgroundStationaryGmm} for {@link Planar} and {@link ImageInterleaved}.
+ *
+ * @author Peter Abeles
+ */
+public class BackgroundStationaryGmm_MB<T extends ImageMultiBand<T>>
+		extends BackgroundStationaryGmm<T>
+{
+	// wrappers which provide abstraction across image types
+	protected GImageMultiBand inputWrapper;
+
+	// storage for multi-band pixel values
+	protected float[] inputPixel;
+	// storage for pixel values used by each thread
+	protected FastQueue<float[]> threadPixels;
+
+	// number of array elements between adjacent pixels in the input image
+	protected int pixelStride;
+
+	/**
+	 * Configurations background removal.
+	 *
+	 * @param learnRate Specifies how quickly the background is updated.  0 = static  1.0 = instant.  Try 0.005
+	 * @param threshold Threshold on Mahalanobis distance squared.  Try 16 for 3 bands.
+	 * @param decay Complexity reduction prior. Try 0.05
+	 * @param maxGaussians Maximum number of Gaussians in a pixel's mixture. Try 5
+	 * @param imageType Type of input image.
+	 */
+	public BackgroundStationaryGmm_MB(float learnRate, float threshold, float decay, int maxGaussians,
+									  ImageType<T> imageType)
+	{
+		super(learnRate, threshold, decay, maxGaussians, imageType);
+
+		int numBands = imageType.getNumBands();
+		inputWrapper = FactoryGImageMultiBand.create(imageType);
+
+		inputPixel = new float[numBands];
+		threadPixels = new ColorQueue_F32(numBands);
+
+		pixelStride = imageType.getFamily() == ImageType.Family.INTERLEAVED ? numBands : 1;
+	}
+
+	@Override
+	public void updateBackground( final T frame) {
+		initializeModel(frame.width, frame.height);
+
+		inputWrapper.wrap(frame);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, threadPixels, new IntRangeObjectTask<float[]>() {
+				@Override
+				public void process(float[] inputPixel, int y0, int y1) {
+					updateBackground(frame, y0, y1, inputPixel);
+				}
+			});
+		} else {
+			updateBackground(frame, 0, frame.height, inputPixel);
+		}
+	}
+
+	/**
+	 * Updates the background using the specified rows in the frame
+	 */
+	private void updateBackground( T frame , int y0 , int y1 , float inputPixel[] ) {
+		final float[] data = model.data;
+		final int modelStride = model.numBands;
+
+		int indexModel = y0*model.stride;
+		for (int y = y0; y < y1; y++) {
+			int indexInput = frame.startIndex + y*frame.stride;
+			int end = indexInput + frame.width*pixelStride;
+			while( indexInput < end ) {
+				inputWrapper.getF(indexInput, inputPixel);
+				common.updateMixture(inputPixel, data, indexModel);
+
+				indexInput += pixelStride;
+				indexModel += modelStride;
+			}
+		}
+	}
+
+	@Override
+	public void segment( final T frame, final GrayU8 segmented) {
+		if( model.width == 1 ) {
+			ImageMiscOps.fill(segmented, unknownValue);
+			return;
+		}
+		inputWrapper.wrap(frame);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, threadPixels, new IntRangeObjectTask<float[]>() {
+				@Override
+				public void process(float[] inputPixel, int y0, int y1) {
+					segment(frame, segmented, y0, y1, inputPixel);
+				}
+			});
+		} else {
+			segment(frame, segmented, 0, frame.height, inputPixel);
+		}
+	}
+
+	/**
+	 * Segments the specified rows in the frame
+	 */
+	private void segment( T frame , GrayU8 segmented , int y0 , int y1 , float inputPixel[] ) {
+		final float[] data = model.data;
+		final int modelStride = model.numBands;
+
+		int indexModel = y0*model.stride;
+		for (int y = y0; y < y1; y++) {
+			int indexInput = frame.startIndex + y*frame.stride;
+			int indexSegmented = segmented.startIndex + y*segmented.stride;
+
+			int end = indexInput + frame.width*pixelStride;
+			while( indexInput < end ) {
+				inputWrapper.getF(indexInput, inputPixel);
+				int result = common.checkBackground(inputPixel, data, indexModel);
+
+				if( result == BackgroundGmmCommon.UNKNOWN ) {
+					segmented.data[indexSegmented] = unknownValue;
+				} else {
+					segmented.data[indexSegmented] = (byte)result;
+				}
+
+				indexInput += pixelStride;
+				indexSegmented++;
+				indexModel += modelStride;
+			}
+		}
+	}
+}
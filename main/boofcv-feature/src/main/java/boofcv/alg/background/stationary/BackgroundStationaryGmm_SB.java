@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boofcv.alg.background.stationary;
+
+import boofcv.alg.background.BackgroundGmmCommon;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.core.image.FactoryGImageGray;
+import boofcv.core.image.GImageGray;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageGray;
+import boofcv.struct.image.ImageType;
+
+/**
+ * Implementation of {@link BackgroundStationaryGmm} for {@link ImageGray}.
+ *
+ * @author Peter Abeles
+ */
+public class BackgroundStationaryGmm_SB<T extends ImageGray<T>>
+		extends BackgroundStationaryGmm<T>
+{
+	// wrappers which provide abstraction across image types
+	protected GImageGray inputWrapper;
+
+	/**
+	 * Configurations background removal.
+	 *
+	 * @param learnRate Specifies how quickly the background is updated.  0 = static  1.0 = instant.  Try 0.005
+	 * @param threshold Threshold on Mahalanobis distance squared.  Try 9.
+	 * @param decay Complexity reduction prior. Try 0.05
+	 * @param maxGaussians Maximum number of Gaussians in a pixel's mixture. Try 5
+	 * @param imageType Type of input image.
+	 */
+	public BackgroundStationaryGmm_SB(float learnRate, float threshold, float decay, int maxGaussians,
+									  Class<T> imageType)
+	{
+		super(learnRate, threshold, decay, maxGaussians, ImageType.single(imageType));
+
+		inputWrapper = FactoryGImageGray.create(imageType);
+	}
+
+	@Override
+	public void updateBackground( final T frame) {
+		initializeModel(frame.width, frame.height);
+
+		inputWrapper.wrap(frame);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, new IntRangeTask() {
+				@Override
+				public void process(int y0, int y1) {
+					updateBackground(frame, y0, y1);
+				}
+			});
+		} else {
+			updateBackground(frame, 0, frame.height);
+		}
+	}
+
+	/**
+	 * Updates the background using the specified rows in the frame
+	 */
+	private void updateBackground( T frame , int y0 , int y1 ) {
+		final float[] data = model.data;
+		final int modelStride = model.numBands;
+
+		int indexModel = y0*model.stride;
+		for (int y = y0; y < y1; y++) {
+			int indexInput = frame.startIndex + y*frame.stride;
+			int end = indexInput + frame.width;
+			while( indexInput < end ) {
+				common.updateMixture(inputWrapper.getF(indexInput), data, indexModel);
+
+				indexInput++;
+				indexModel += modelStride;
+			}
+		}
+	}
+
+	@Override
+	public void segment( final T frame, final GrayU8 segmented) {
+		if( model.width == 1 ) {
+			ImageMiscOps.fill(segmented, unknownValue);
+			return;
+		}
+		inputWrapper.wrap(frame);
+
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, frame.height, new IntRangeTask() {
+				@Override
+				public void process(int y0, int y1) {
+					segment(frame, segmented, y0, y1);
+				}
+			});
+		} else {
+			segment(frame, segmented, 0, frame.height);
+		}
+	}
+
+	/**
+	 * Segments the specified rows in the frame
+	 */
+	private void segment( T frame , GrayU8 segmented , int y0 , int y1 ) {
+		final float[] data = model.data;
+		final int modelStride = model.numBands;
+
+		int indexModel = y0*model.stride;
+		for (int y = y0; y < y1; y++) {
+			int indexInput = frame.startIndex + y*frame.stride;
+			int indexSegmented = segmented.startIndex + y*segmented.stride;
+
+			int end = indexInput + frame.width;
+			while( indexInput < end ) {
+				int result = common.checkBackground(inputWrapper.getF(indexInput), data, indexModel);
+
+				if( result == BackgroundGmmCommon.UNKNOWN ) {
+					segmented.data[indexSegmented] = unknownValue;
+				} else {
+					segmented.data[indexSegmented] = (byte)result;
+				}
+
+				indexInput++;
+				indexSegmented++;
+				indexModel += modelStride;
+			}
+		}
+	}
+}
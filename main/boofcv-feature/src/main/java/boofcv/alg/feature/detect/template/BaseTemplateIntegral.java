@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.template;
+
+import boofcv.abst.transform.fft.DiscreteFourierTransform;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.alg.transform.fft.DiscreteFourierTransformOps;
+import boofcv.core.image.GConvertImage;
+import boofcv.struct.image.GrayF64;
+import boofcv.struct.image.ImageGray;
+import boofcv.struct.image.InterleavedF64;
+
+/**
+ * <p>
+ * Base class for template matching scores which can be decomposed into sums over the image region, computed
+ * in constant time using integral images of the image and the image squared, and a cross correlation between
+ * the image and a kernel derived from the template.  The cross correlation is computed either directly or using
+ * the FFT, depending on which is expected to be faster.  The FFT of the input image is computed once and reused
+ * for every template which is matched against it.
+ * </p>
+ *
+ * <p>
+ * Internally all computations are done using double precision to avoid cancellation errors.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public abstract class BaseTemplateIntegral<T extends ImageGray<T>> extends BaseTemplateIntensity<T> {
+
+	/**
+	 * How the cross correlation is computed
+	 */
+	public enum Mode {
+		/** Selects direct or FFT based on the template and image size */
+		AUTO,
+		/** Always compute the correlation directly */
+		DIRECT,
+		/** Always compute the correlation using the FFT */
+		FOURIER
+	}
+
+	// how the cross correlation is computed
+	Mode mode = Mode.AUTO;
+
+	// Relative cost of an FFT, per element and per level, compared to a multiply-add in direct correlation
+	double fourierCostFactor = 5.0;
+
+	DiscreteFourierTransform<GrayF64,InterleavedF64> dft = DiscreteFourierTransformOps.createTransformF64();
+
+	// copy of the input image and its square
+	protected GrayF64 imageF64 = new GrayF64(1,1);
+	protected GrayF64 imageSq = new GrayF64(1,1);
+
+	// integral images of the image and image squared.  Have one more row and column than the image
+	protected double sum[] = new double[0];
+	protected double sumSq[] = new double[0];
+
+	// FFT of the image and image squared.  Computed when first needed
+	InterleavedF64 fftImage = new InterleavedF64(1,1,2);
+	InterleavedF64 fftImageSq = new InterleavedF64(1,1,2);
+	boolean fftImageValid, fftImageSqValid;
+
+	// storage for computing the correlation using FFT
+	GrayF64 enlargedKernel = new GrayF64(1,1);
+	InterleavedF64 fftKernel = new InterleavedF64(1,1,2);
+	InterleavedF64 fftMult = new InterleavedF64(1,1,2);
+
+	// copy of the template and mask in double format
+	protected GrayF64 templateF64 = new GrayF64(1,1);
+	protected GrayF64 maskF64 = new GrayF64(1,1);
+
+	// area of the template
+	protected double area;
+
+	@Override
+	public void setInputImage(T image) {
+		super.setInputImage(image);
+
+		imageF64.reshape(image.width,image.height);
+		imageSq.reshape(image.width,image.height);
+		GConvertImage.convert(image,imageF64);
+
+		final int W = image.width, H = image.height;
+		int N = (W+1)*(H+1);
+		if( sum.length < N ) {
+			sum = new double[N];
+			sumSq = new double[N];
+		}
+
+		// first row is all zeros
+		for (int x = 0; x <= W; x++) {
+			sum[x] = sumSq[x] = 0;
+		}
+
+		for (int y = 0; y < H; y++) {
+			int indexImg = y*W;
+			int indexSum = (y+1)*(W+1);
+			sum[indexSum] = sumSq[indexSum] = 0;
+			indexSum++;
+
+			double rowSum = 0, rowSumSq = 0;
+			for (int x = 0; x < W; x++, indexImg++, indexSum++) {
+				double v = imageF64.data[indexImg];
+				imageSq.data[indexImg] = v*v;
+				rowSum += v;
+				rowSumSq += v*v;
+				sum[indexSum] = sum[indexSum-W-1] + rowSum;
+				sumSq[indexSum] = sumSq[indexSum-W-1] + rowSumSq;
+			}
+		}
+
+		fftImageValid = false;
+		fftImageSqValid = false;
+	}
+
+	@Override
+	public void process(T template) {
+		convertTemplate(template, null);
+		setupTemplate(false);
+		super.process(template);
+	}
+
+	@Override
+	public void process(T template, T mask) {
+		if( mask == null ) {
+			process(template);
+			return;
+		}
+		convertTemplate(template, mask);
+		setupTemplate(true);
+		super.process(template, mask);
+	}
+
+	private void convertTemplate( T template , T mask ) {
+		if( template.width >= image.width || template.height >= image.height )
+			throw new IllegalArgumentException("Template must be smaller than the image");
+
+		area = template.width*template.height;
+		templateF64.reshape(template.width,template.height);
+		GConvertImage.convert(template,templateF64);
+		if( mask != null ) {
+			maskF64.reshape(mask.width,mask.height);
+			GConvertImage.convert(mask,maskF64);
+		}
+	}
+
+	/**
+	 * Precomputes template statistics and correlations with the image.  The template and mask have already been
+	 * copied into {@link #templateF64} and {@link #maskF64}.
+	 *
+	 * @param useMask true if the mask should be used
+	 */
+	protected abstract void setupTemplate( boolean useMask );
+
+	/**
+	 * Computes the cross correlation between the image, or image squared, and the kernel for every location where
+	 * the kernel is entirely inside the image.
+	 *
+	 * output(x,y) = Sum<sub>(u,v)</sub> I(x+u,y+v)*K(u,v)
+	 *
+	 * @param squared If true the image squared is used
+	 * @param kernel Kernel which is correlated against the image.  Same shape as the template
+	 * @param output (Output) Correlation. Indexes correspond to the kernel's top left corner.
+	 */
+	protected void correlate( boolean squared , GrayF64 kernel , GrayF64 output ) {
+		output.reshape(image.width,image.height);
+
+		if( isFourierSelected(kernel.width,kernel.height,squared ? fftImageSqValid : fftImageValid) )
+			correlateFourier(squared, kernel, output);
+		else
+			correlateDirect(squared ? imageSq : imageF64, kernel, output);
+	}
+
+	/**
+	 * Decides if the FFT should be used to compute the correlation
+	 */
+	boolean isFourierSelected( int kernelWidth , int kernelHeight , boolean imageTransformed ) {
+		switch( mode ) {
+			case DIRECT: return false;
+			case FOURIER: return true;
+			default:
+		}
+
+		double N = image.width*image.height;
+		double direct = (double)(image.width-kernelWidth)*(image.height-kernelHeight)*kernelWidth*kernelHeight;
+		int numTransforms = imageTransformed ? 2 : 3;
+		double fourier = numTransforms*fourierCostFactor*N*Math.log(N)/Math.log(2);
+
+		return fourier < direct;
+	}
+
+	static void correlateDirect( GrayF64 image , GrayF64 kernel , GrayF64 output ) {
+		int w = image.width - kernel.width;
+		int h = image.height - kernel.height;
+
+		for (int y = 0; y < h; y++) {
+			int indexOut = y*output.stride;
+			for (int x = 0; x < w; x++) {
+				double total = 0;
+				for (int v = 0; v < kernel.height; v++) {
+					int indexImg = (y+v)*image.stride + x;
+					int indexKer = v*kernel.stride;
+					for (int u = 0; u < kernel.width; u++) {
+						total += image.data[indexImg++]*kernel.data[indexKer++];
+					}
+				}
+				output.data[indexOut++] = total;
+			}
+		}
+	}
+
+	void correlateFourier( boolean squared , GrayF64 kernel , GrayF64 output ) {
+		InterleavedF64 fftSrc;
+		if( squared ) {
+			if( !fftImageSqValid ) {
+				fftImageSq.reshape(image.width,image.height);
+				dft.forward(imageSq,fftImageSq);
+				fftImageSqValid = true;
+			}
+			fftSrc = fftImageSq;
+		} else {
+			if( !fftImageValid ) {
+				fftImage.reshape(image.width,image.height);
+				dft.forward(imageF64,fftImage);
+				fftImageValid = true;
+			}
+			fftSrc = fftImage;
+		}
+
+		// place the kernel in the top left corner of a zero image the same size as the input image
+		enlargedKernel.reshape(image.width,image.height);
+		ImageMiscOps.fill(enlargedKernel,0);
+		enlargedKernel.subimage(0,0,kernel.width,kernel.height,null).setTo(kernel);
+
+		fftKernel.reshape(image.width,image.height);
+		fftMult.reshape(image.width,image.height);
+		dft.forward(enlargedKernel,fftKernel);
+
+		// correlation theorem. multiply by the complex conjugate of the kernel
+		int N = image.width*image.height*2;
+		for (int i = 0; i < N; i += 2) {
+			double a = fftSrc.data[i], b = fftSrc.data[i+1];
+			double c = fftKernel.data[i], d = fftKernel.data[i+1];
+
+			fftMult.data[i]   = a*c + b*d;
+			fftMult.data[i+1] = b*c - a*d;
+		}
+
+		// Circular correlation.  Locations where the kernel is entirely inside the image don't wrap around
+		dft.inverse(fftMult,output);
+	}
+
+	/**
+	 * Sum of image pixels inside the template sized region with its top left corner at (x,y)
+	 */
+	protected double regionSum( double table[] , int x , int y ) {
+		int stride = image.width+1;
+		int x1 = x + templateF64.width;
+		int y1 = y + templateF64.height;
+		return table[y1*stride+x1] - table[y*stride+x1] - table[y1*stride+x] + table[y*stride+x];
+	}
+
+	@Override
+	public boolean isBorderProcessed() {
+		return false;
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * Specifies how the cross correlation is computed.  By default it's selected automatically.
+	 */
+	public void setMode(Mode mode) {
+		this.mode = mode;
+	}
+
+	public double getFourierCostFactor() {
+		return fourierCostFactor;
+	}
+
+	/**
+	 * Relative cost of an FFT compared to direct correlation.  Used when automatically selecting the approach.
+	 */
+	public void setFourierCostFactor(double fourierCostFactor) {
+		this.fourierCostFactor = fourierCostFactor;
+	}
+}
@@ -34,8 +34,9 @@ import boofcv.struct.image.InterleavedF32;
 public class TemplateCorrelationFFT
 		implements TemplateMatchingIntensity<GrayF32>
 {
+	// only half the spectrum is computed since the input is real
 	DiscreteFourierTransform<GrayF32,InterleavedF32> dft =
-			DiscreteFourierTransformOps.createTransformF32();
+			DiscreteFourierTransformOps.createHalfTransformF32();
 
 	// border which should be ignored
 	int borderX0,borderY0,borderX1,borderY1;
@@ -60,9 +61,9 @@ public class TemplateCorrelationFFT
 	@Override
 	public void setInputImage(GrayF32 image) {
 		enlargedTemplate.reshape(image.width,image.height);
-		fftImage.reshape(image.width,image.height);
-		fftTemplate.reshape(image.width,image.height);
-		fftMult.reshape(image.width,image.height);
+		fftImage.reshape(image.width/2+1,image.height);
+		fftTemplate.reshape(image.width/2+1,image.height);
+		fftMult.reshape(image.width/2+1,image.height);
 		correlation.reshape(image.width,image.height);
 
 		normalizedImage.reshape(image.width,image.height);
@@ -83,7 +84,7 @@ public class TemplateCorrelationFFT
 
 	@Override
 	public void process(GrayF32 template, GrayF32 mask) {
-		if( template.width >= fftImage.width || template.height >= fftImage.height )
+		if( template.width >= correlation.width || template.height >= correlation.height )
 			throw new IllegalArgumentException("Template must be smaller than the image");
 
 		// normalize the input image to reduce buffer overflow
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.template;
+
+import boofcv.struct.image.GrayF64;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageGray;
+
+/**
+ * <p>
+ * Sum of difference squared template matching which produces the same score as {@link TemplateDiffSquared}
+ * but is much faster for large templates.  The error is expanded into three terms, the sum of the image
+ * squared, found with an integral image, a cross correlation between the image and template, computed directly or
+ * with the FFT, and the sum of the template squared.  See {@link BaseTemplateIntegral}.
+ * </p>
+ *
+ * <p> error = -1*( Sum I(x+u,y+v)<sup>2</sup> - 2*Sum I(x+u,y+v)*T(u,v) + Sum T(u,v)<sup>2</sup> ) </p>
+ *
+ * <p>
+ * When a mask is used the image squared is correlated against the mask instead of using the integral image.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class TemplateDiffSquaredIntegral<T extends ImageGray<T>> extends BaseTemplateIntegral<T> {
+
+	// scale factor applied to the error.  Used to make U8 images output the same as TemplateDiffSquared
+	double scale;
+
+	// kernel which is correlated against the image
+	GrayF64 kernel = new GrayF64(1,1);
+	// correlation of the kernel against the image
+	GrayF64 correlation = new GrayF64(1,1);
+	// correlation of the mask against the image squared
+	GrayF64 correlationMask = new GrayF64(1,1);
+
+	// sum of the template squared, multiplied by the mask if one is used
+	double templateSumSq;
+
+	/**
+	 * Specifies the input image type
+	 *
+	 * @param imageType Type of input image
+	 */
+	public TemplateDiffSquaredIntegral(Class<T> imageType) {
+		// Reduce change of numerical overflow, see TemplateDiffSquared.U8
+		scale = imageType == GrayU8.class ? 1.0/(255.0*255.0) : 1.0;
+	}
+
+	@Override
+	protected void setupTemplate(boolean useMask) {
+		int N = templateF64.width*templateF64.height;
+
+		kernel.reshape(templateF64.width,templateF64.height);
+		templateSumSq = 0;
+		for (int i = 0; i < N; i++) {
+			double t = templateF64.data[i];
+			double m = useMask ? maskF64.data[i] : 1;
+			kernel.data[i] = m*t;
+			templateSumSq += m*t*t;
+		}
+
+		correlate(false,kernel,correlation);
+		if( useMask )
+			correlate(true,maskF64,correlationMask);
+	}
+
+	@Override
+	protected float evaluate(int tl_x, int tl_y) {
+		double imageSumSq = regionSum(sumSq,tl_x,tl_y);
+		double cross = correlation.data[tl_y*correlation.stride + tl_x];
+
+		return (float)(-scale*(imageSumSq - 2*cross + templateSumSq));
+	}
+
+	@Override
+	protected float evaluateMask(int tl_x, int tl_y) {
+		int index = tl_y*correlation.stride + tl_x;
+		double imageSumSq = correlationMask.data[index];
+		double cross = correlation.data[index];
+
+		return (float)(-scale*(imageSumSq - 2*cross + templateSumSq));
+	}
+}
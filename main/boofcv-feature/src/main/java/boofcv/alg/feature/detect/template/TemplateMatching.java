@@ -25,18 +25,38 @@ import boofcv.struct.QueueCorner;
 import boofcv.struct.feature.Match;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.ImageBase;
+import boofcv.factory.transform.pyramid.FactoryPyramid;
+import boofcv.struct.image.ImageType;
+import boofcv.struct.pyramid.PyramidDiscrete;
 import georegression.struct.point.Point2D_I16;
 import org.ddogleg.sorting.QuickSelect;
 import org.ddogleg.struct.FastQueue;
 
+import java.util.Arrays;
+import java.util.Comparator;
+
 /**
+ * <p>
  * Runs a template matching algorithm across the image. Local peaks are found in the resulting
  * intensity image and the best solutions returned.
+ * </p>
+ *
+ * <p>
+ * PYRAMID SEARCH: Optionally a coarse to fine search can be done, see {@link #setPyramid(int, int)}.  The
+ * template and image are both down sampled using a {@link PyramidDiscrete}.  An exhaustive search is done
+ * at the coarsest layer only and the best candidates are kept.  At each finer layer only a small window
+ * around each candidate is searched.  Scores in the returned matches are always computed at full resolution.
+ * Since only the candidates are refined, it's possible for a match to be missed if it scores poorly at
+ * the coarse resolution.
+ * </p>
  *
  * @author Peter Abeles
  */
 public class TemplateMatching<T extends ImageBase<T>> {
 
+	// templates in the pyramid's top layer can't be smaller than this
+	private static final int MIN_TEMPLATE_SIZE = 4;
+
 	// computes an intensity image identifying matches
 	private TemplateMatchingIntensity<T> match;
 	// searches for local matches in intensity image
@@ -61,6 +81,24 @@ public class TemplateMatching<T extends ImageBase<T>> {
 	// shape of input image
 	int imageWidth,imageHeight;
 
+	// Reference to the input image
+	private T image;
+	// true if the image has been passed to match and it hasn't been changed since
+	private boolean matchHasImage;
+
+	// offset from intensity image to top left corner of the template
+	private int offsetX, offsetY;
+
+	// maximum number of layers in the pyramid.  1 = no pyramid
+	private int pyramidLayers = 1;
+	// number of candidates which are refined at each layer
+	private int pyramidCandidates;
+	// pyramid for the image, template, and mask
+	private PyramidDiscrete<T> pyramidImage, pyramidTemplate, pyramidMask;
+	// storage for candidates found at each layer
+	private FastQueue<Match> coarse = new FastQueue<>(10, Match.class, true);
+	private FastQueue<Match> fine = new FastQueue<>(10, Match.class, true);
+
 	/**
 	 * Specifies internal algorithm
 	 *
@@ -81,6 +119,21 @@ public class TemplateMatching<T extends ImageBase<T>> {
 		extractor.setSearchRadius(radius);
 	}
 
+	/**
+	 * Turns on coarse to fine pyramid search.  Each layer is half the resolution of the previous.  The
+	 * number of layers actually used can be less if the template would become too small.
+	 *
+	 * @param numLayers Maximum number of layers in the pyramid.  If 1 then the pyramid is not used.
+	 * @param numCandidates Number of candidates refined at each layer.  Should be more than the maximum
+	 *                      number of matches.  Try 5 times the maximum number of matches.
+	 */
+	public void setPyramid( int numLayers , int numCandidates ) {
+		if( numLayers < 1 )
+			throw new IllegalArgumentException("Must have at least one layer");
+		this.pyramidLayers = numLayers;
+		this.pyramidCandidates = numCandidates;
+	}
+
 	/**
 	 * Specifies the template to search for and the maximum number of matches to return.
 	 *
@@ -101,16 +154,41 @@ public class TemplateMatching<T extends ImageBase<T>> {
 	 * @param image Image being processed
 	 */
 	public void setImage(T image ) {
-		match.setInputImage(image);
+		this.image = image;
 		this.imageWidth = image.width;
 		this.imageHeight = image.height;
+
+		matchHasImage = pyramidLayers <= 1;
+		if( matchHasImage )
+			match.setInputImage(image);
 	}
 
 	/**
 	 * Performs template matching.
 	 */
 	public void process() {
+		int numLayers = selectNumberOfLayers();
+		if( numLayers > 1 ) {
+			processPyramid(numLayers);
+			return;
+		}
+
+		if( !matchHasImage ) {
+			match.setInputImage(image);
+			matchHasImage = true;
+		}
+
+		GrayF32 intensity = findCandidates(template, mask, imageWidth, imageHeight);
+
+		selectBest(intensity, maxMatches, results);
+	}
 
+	/**
+	 * Computes the match intensity and finds local peaks in it
+	 *
+	 * @return The intensity image, adjusted so that only valid locations are contained inside of it
+	 */
+	private GrayF32 findCandidates( T template , T mask , int imageWidth , int imageHeight ) {
 		// compute match intensities
 		if( mask == null )
 			match.process(template);
@@ -118,8 +196,8 @@ public class TemplateMatching<T extends ImageBase<T>> {
 			match.process(template,mask);
 
 		GrayF32 intensity = match.getIntensity();
-		int offsetX = 0;
-		int offsetY = 0;
+		offsetX = 0;
+		offsetY = 0;
 
 		// adjust intensity image size depending on if there is a border or not
 		if (!match.isBorderProcessed()) {
@@ -137,6 +215,13 @@ public class TemplateMatching<T extends ImageBase<T>> {
 		candidates.reset();
 		extractor.process(intensity, null,null,null, candidates);
 
+		return intensity;
+	}
+
+	/**
+	 * Selects the candidates with the best score
+	 */
+	private void selectBest( GrayF32 intensity , int maxMatches , FastQueue<Match> output ) {
 		// select the best matches
 		if (scores.length < candidates.size) {
 			scores = new float[candidates.size];
@@ -154,16 +239,172 @@ public class TemplateMatching<T extends ImageBase<T>> {
 		QuickSelect.selectIndex(scores, N, candidates.size, indexes);
 
 		// save the results
-		results.reset();
+		output.reset();
 		for (int i = 0; i < N; i++) {
 			Point2D_I16 p = candidates.get(indexes[i]);
 
-			Match m = results.grow();
+			Match m = output.grow();
 			m.score = -scores[indexes[i]];
 			m.set(p.x - offsetX, p.y - offsetY);
 		}
 	}
 
+	/**
+	 * Number of pyramid layers which can be used with the current template and image
+	 */
+	private int selectNumberOfLayers() {
+		int numLayers = 1;
+		while( numLayers < pyramidLayers ) {
+			int scale = 1 << numLayers;
+			int w = (template.width+scale-1)/scale;
+			int h = (template.height+scale-1)/scale;
+			if( w < MIN_TEMPLATE_SIZE || h < MIN_TEMPLATE_SIZE )
+				break;
+			// the template must be smaller than the image
+			if( w >= (imageWidth+scale-1)/scale || h >= (imageHeight+scale-1)/scale )
+				break;
+			numLayers++;
+		}
+		return numLayers;
+	}
+
+	/**
+	 * Exhaustive search at the coarsest layer then refines the best candidates at each finer layer
+	 */
+	private void processPyramid( int numLayers ) {
+		if( pyramidImage == null || pyramidImage.getNumLayers() != numLayers ) {
+			int scales[] = new int[numLayers];
+			for (int i = 0; i < numLayers; i++) {
+				scales[i] = 1 << i;
+			}
+			ImageType<T> imageType = template.getImageType();
+			pyramidImage = FactoryPyramid.discreteGaussian(scales,-1,2,true,imageType);
+			pyramidTemplate = FactoryPyramid.discreteGaussian(scales,-1,2,true,imageType);
+			pyramidMask = FactoryPyramid.discreteGaussian(scales,-1,2,true,imageType);
+		}
+
+		pyramidImage.process(image);
+		pyramidTemplate.process(template);
+		if( mask != null )
+			pyramidMask.process(mask);
+
+		// after this the input image will need to be passed in again
+		matchHasImage = false;
+
+		// exhaustive search at the top layer
+		int top = numLayers-1;
+		T layerImage = pyramidImage.getLayer(top);
+		match.setInputImage(layerImage);
+		GrayF32 intensity = findCandidates(pyramidTemplate.getLayer(top), layerMask(top),
+				layerImage.width, layerImage.height);
+		selectBest(intensity, Math.max(maxMatches,pyramidCandidates), coarse);
+
+		// refine the candidates at each finer layer
+		for (int layer = top-1; layer >= 0; layer--) {
+			int ratio = pyramidImage.scale[layer+1]/pyramidImage.scale[layer];
+
+			fine.reset();
+			for (int i = 0; i < coarse.size; i++) {
+				Match c = coarse.get(i);
+				refine(layer, c.x*ratio, c.y*ratio, ratio, fine.grow());
+			}
+			removeDuplicates(fine, layer == 0 ? maxMatches : Math.max(maxMatches,pyramidCandidates));
+
+			FastQueue<Match> tmp = coarse; coarse = fine; fine = tmp;
+		}
+
+		results.reset();
+		for (int i = 0; i < coarse.size; i++) {
+			Match c = coarse.get(i);
+			Match m = results.grow();
+			m.set(c.x, c.y);
+			m.score = c.score;
+		}
+	}
+
+	private T layerMask( int layer ) {
+		return mask == null ? null : pyramidMask.getLayer(layer);
+	}
+
+	/**
+	 * Searches inside a window centered around the predicted location for the best match
+	 *
+	 * @param layer Pyramid layer being searched
+	 * @param cx Predicted location of the template's top left corner
+	 * @param cy Predicted location of the template's top left corner
+	 * @param radius Radius of the search window
+	 * @param output (Output) best match inside the window
+	 */
+	private void refine( int layer , int cx , int cy , int radius , Match output ) {
+		T layerImage = pyramidImage.getLayer(layer);
+		T layerTemplate = pyramidTemplate.getLayer(layer);
+
+		// largest location for the template's top left corner
+		int maxX = layerImage.width - layerTemplate.width - 1;
+		int maxY = layerImage.height - layerTemplate.height - 1;
+
+		int x0 = Math.max(0, Math.min(maxX, cx - radius));
+		int y0 = Math.max(0, Math.min(maxY, cy - radius));
+		int x1 = Math.max(0, Math.min(maxX, cx + radius));
+		int y1 = Math.max(0, Math.min(maxY, cy + radius));
+
+		// sub-image which contains the template at every location inside the window
+		T window = layerImage.subimage(x0, y0, x1 + layerTemplate.width + 1, y1 + layerTemplate.height + 1, null);
+		match.setInputImage(window);
+		T layerMask = layerMask(layer);
+		if( layerMask == null )
+			match.process(layerTemplate);
+		else
+			match.process(layerTemplate, layerMask);
+
+		GrayF32 intensity = match.getIntensity();
+		int bx = match.getBorderX0(), by = match.getBorderY0();
+
+		output.score = -Double.MAX_VALUE;
+		output.set(x0, y0);
+		for (int y = y0; y <= y1; y++) {
+			for (int x = x0; x <= x1; x++) {
+				float score = intensity.unsafe_get(x - x0 + bx, y - y0 + by);
+				if( score > output.score ) {
+					output.score = score;
+					output.set(x, y);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sorts the matches by score and removes matches which are within the minimum separation of a better match
+	 */
+	private void removeDuplicates( FastQueue<Match> matches , int maxMatches ) {
+		Arrays.sort(matches.data, 0, matches.size, new Comparator<Match>() {
+			@Override
+			public int compare(Match a, Match b) {
+				return Double.compare(b.score, a.score);
+			}
+		});
+
+		int radius = extractor.getSearchRadius();
+		int count = 0;
+		for (int i = 0; i < matches.size && count < maxMatches; i++) {
+			Match m = matches.get(i);
+			boolean keep = true;
+			for (int j = 0; j < count; j++) {
+				Match k = matches.get(j);
+				if( Math.abs(k.x - m.x) <= radius && Math.abs(k.y - m.y) <= radius ) {
+					keep = false;
+					break;
+				}
+			}
+			if( keep ) {
+				// swap so the discarded match isn't lost from the queue's storage
+				matches.data[i] = matches.data[count];
+				matches.data[count++] = m;
+			}
+		}
+		matches.size = count;
+	}
+
 	/**
 	 * Returns all the found matches.  The location is the location of the top left corner
 	 * of the template.  Score is the first score with higher number being better
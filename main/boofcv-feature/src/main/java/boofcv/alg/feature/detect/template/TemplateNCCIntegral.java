@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.template;
+
+import boofcv.struct.image.GrayF64;
+import boofcv.struct.image.ImageGray;
+
+/**
+ * <p>
+ * Normalized cross correlation (NCC) template matching which produces the same score as {@link TemplateNCC}
+ * but is much faster for large templates.  The image mean and standard deviation inside each region are found
+ * using integral images and the numerator is a cross correlation with the zero mean template, computed
+ * directly or with the FFT.  See {@link BaseTemplateIntegral}.
+ * </p>
+ *
+ * <p>
+ * score = Sum<sub>(u,v)</sub> (I(x+u,y+v)-&mu;<sub>I</sub>)*(T(u,v)-&mu;<sub>T</sub>) / (&sigma;<sub>I</sub>*&sigma;<sub>T</sub>)
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class TemplateNCCIntegral<T extends ImageGray<T>> extends BaseTemplateIntegral<T> {
+
+	// kernel which is correlated against the image
+	GrayF64 kernel = new GrayF64(1,1);
+	// correlation of the kernel against the image
+	GrayF64 correlation = new GrayF64(1,1);
+
+	// sum of kernel values
+	double kernelSum;
+	// standard deviation of the template
+	double templateSigma;
+
+	@Override
+	protected void setupTemplate(boolean useMask) {
+		int N = templateF64.width*templateF64.height;
+
+		double templateMean = 0;
+		for (int i = 0; i < N; i++) {
+			templateMean += templateF64.data[i];
+		}
+		templateMean /= area;
+
+		kernel.reshape(templateF64.width,templateF64.height);
+		templateSigma = 0;
+		kernelSum = 0;
+		for (int i = 0; i < N; i++) {
+			double diff = templateF64.data[i] - templateMean;
+			templateSigma += diff*diff;
+			kernel.data[i] = useMask ? maskF64.data[i]*diff : diff;
+			kernelSum += kernel.data[i];
+		}
+		templateSigma = Math.sqrt(templateSigma/area);
+
+		correlate(false,kernel,correlation);
+	}
+
+	@Override
+	protected float evaluate(int tl_x, int tl_y) {
+		double imageSum = regionSum(sum,tl_x,tl_y);
+		double imageMean = imageSum/area;
+		double imageSigma = Math.sqrt(Math.max(0,regionSum(sumSq,tl_x,tl_y) - imageSum*imageMean)/area);
+
+		// Since the kernel has a mean of zero the image mean doesn't need to be subtracted
+		double top = correlation.data[tl_y*correlation.stride + tl_x];
+
+		return (float)(top/(imageSigma*templateSigma));
+	}
+
+	@Override
+	protected float evaluateMask(int tl_x, int tl_y) {
+		double imageSum = regionSum(sum,tl_x,tl_y);
+		double imageMean = imageSum/area;
+		double imageSigma = Math.sqrt(Math.max(0,regionSum(sumSq,tl_x,tl_y) - imageSum*imageMean)/area);
+
+		double top = correlation.data[tl_y*correlation.stride + tl_x] - imageMean*kernelSum;
+
+		return (float)(top/(imageSigma*templateSigma));
+	}
+}
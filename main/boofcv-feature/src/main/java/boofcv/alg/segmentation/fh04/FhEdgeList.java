@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.segmentation.fh04;
+
+import java.util.Arrays;
+
+/**
+ * Packed storage for the edges in the graph used by {@link SegmentFelzenszwalbHuttenlocher04}.  The weight and the
+ * two pixels connected by each edge are stored in parallel arrays, avoiding the memory overhead of an object per edge.
+ * Pixel indexes refer to a pixel (x,y) in the image as index = y*width + x.
+ *
+ * @author Peter Abeles
+ */
+public class FhEdgeList {
+	// weight of each edge.  How different the two pixels are
+	public float weight[] = new float[0];
+	// index of the first pixel in each edge
+	public int indexA[] = new int[0];
+	// index of the second pixel in each edge
+	public int indexB[] = new int[0];
+
+	// number of edges
+	public int size;
+
+	/**
+	 * Removes all edges.  Memory is not freed.
+	 */
+	public void reset() {
+		size = 0;
+	}
+
+	/**
+	 * Changes the number of edges.  Existing edges are not modified.
+	 */
+	public void resize( int size ) {
+		if( weight.length < size ) {
+			weight = Arrays.copyOf(weight,size);
+			indexA = Arrays.copyOf(indexA,size);
+			indexB = Arrays.copyOf(indexB,size);
+		}
+		this.size = size;
+	}
+
+	/**
+	 * Adds a new edge to the end of the list
+	 */
+	public void add( float weight , int indexA , int indexB ) {
+		if( size == this.weight.length ) {
+			int length = Math.max(10,size*2);
+			this.weight = Arrays.copyOf(this.weight,length);
+			this.indexA = Arrays.copyOf(this.indexA,length);
+			this.indexB = Arrays.copyOf(this.indexB,length);
+		}
+		set(size++,weight,indexA,indexB);
+	}
+
+	/**
+	 * Sets the value of an existing edge
+	 */
+	public final void set( int index , float weight , int indexA , int indexB ) {
+		this.weight[index] = weight;
+		this.indexA[index] = indexA;
+		this.indexB[index] = indexB;
+	}
+
+	public float getWeight( int index ) {
+		return weight[index];
+	}
+
+	public int getIndexA( int index ) {
+		return indexA[index];
+	}
+
+	public int getIndexB( int index ) {
+		return indexB[index];
+	}
+
+	public int size() {
+		return size;
+	}
+}
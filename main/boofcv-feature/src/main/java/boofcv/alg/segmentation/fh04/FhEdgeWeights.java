@@ -20,7 +20,6 @@ package boofcv.alg.segmentation.fh04;
 
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
-import org.ddogleg.struct.FastQueue;
 
 /**
  * Computes edge weights for {@link SegmentFelzenszwalbHuttenlocher04}.  An edge weight is measure of how different
@@ -30,7 +29,21 @@ import org.ddogleg.struct.FastQueue;
  */
 public interface FhEdgeWeights<T extends ImageBase<T>> {
 
-	public void process( T input , FastQueue<SegmentFelzenszwalbHuttenlocher04.Edge> edges );
+	/**
+	 * Computes the weight of every edge in the image.  Edges are always computed in the same order.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param edges (Output) Storage for the edges.  Previous edges are discarded.
+	 */
+	public void process( T input , FhEdgeList edges );
+
+	/**
+	 * If true then the edges inside the image will be computed using multiple threads.  The output is
+	 * identical to the single threaded case.
+	 */
+	public void setConcurrent( boolean concurrent );
+
+	public boolean isConcurrent();
 
 	public ImageType<T> getInputType();
 }
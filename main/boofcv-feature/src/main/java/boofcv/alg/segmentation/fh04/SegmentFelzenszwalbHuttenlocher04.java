@@ -22,13 +22,11 @@ import boofcv.alg.InputSanityCheck;
 import boofcv.struct.image.GrayS32;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
-import org.ddogleg.sorting.ApproximateSort_F32;
-import org.ddogleg.sorting.QuickSortObj_F32;
-import org.ddogleg.sorting.SortableParameter_F32;
-import org.ddogleg.struct.FastQueue;
 import org.ddogleg.struct.GrowQueue_F32;
 import org.ddogleg.struct.GrowQueue_I32;
 
+import java.util.Arrays;
+
 /**
  * <p>
  * Implementation of Felzenszwalb-Huttenlocher [1] image segmentation algorithm. It is fast and uses a graph based
@@ -64,10 +62,16 @@ import org.ddogleg.struct.GrowQueue_I32;
  * sensitivity of the algorithm to minor differences.  The sensitivity arises from it being a greedy algorithm.</p>
  *
  * <p>Here is a list of minor differences that cause different regions due to its sensitivity.  The order in which
- * edges with identical weights are sorted is arbitrary.  The order that edges are computed is arbitrary.  Floating
+ * edges with identical weights are sorted can differ.  The order that edges are computed in can differ.  Floating
  * point error in weight calculation gradually causes segmentation to diverge to a different solution even
  * when given the same input.</p>
  *
+ * <p>Edges are stored in a packed format, see {@link FhEdgeList}, and are sorted using a radix sort applied to the
+ * bits of each weight.  Each pass moves the packed edges into a second list so that they can be merged by reading
+ * them in order.  Since weights are never negative this produces an exact ordering.  Edges with identical
+ * weights are kept in the order they were computed in, making the output deterministic.  If an approximate sort
+ * is requested then weights are quantized into bins and sorted with a single pass of a counting sort.</p>
+ *
  * <p>One difference from the original is that Gaussian blur is not applied to the input image by default.  That
  * should be done prior to the image being passed in.</p>
  *
@@ -93,12 +97,15 @@ public class SegmentFelzenszwalbHuttenlocher04<T extends ImageBase<T>> {
 	// Function that computes the weight for each edge
 	private FhEdgeWeights<T> computeWeights;
 
-	private QuickSortObj_F32 sorter = new QuickSortObj_F32();
-	private ApproximateSort_F32 sorterApprox = null;
-	// storage for edges so that they can be recycled on the next call
-	protected FastQueue<Edge> edges = new FastQueue<>(Edge.class, true);
+	// number of bins used by approximate sort.  If &le; 0 then an exact sort is used
+	private int approximateSortBins = 0;
+	// storage for edges so that they can be recycled on the next call.  After sorting it's in order of weight
+	protected FhEdgeList edges = new FhEdgeList();
+	// work space for sorting.  Edges are moved between this list and 'edges' on each pass
+	private FhEdgeList edgesWork = new FhEdgeList();
+	private int histogram[] = new int[0];
 	// list of edges which were not matched to anything.  used to merge small regions
-	protected FastQueue<Edge> edgesNotMatched = new FastQueue<>(Edge.class, false);
+	protected GrowQueue_I32 edgesNotMatched = new GrowQueue_I32();
 	// Size of each region
 	protected GrowQueue_I32 regionSize = new GrowQueue_I32();
 	// This is equivalent to Int(C) + tau(C) in Equation 4.
@@ -129,7 +136,18 @@ public class SegmentFelzenszwalbHuttenlocher04<T extends ImageBase<T>> {
 	 * @param numBins Number of bins.  Try 2000.  More bins the more accurate it will be
 	 */
 	public void configureApproximateSort( int numBins ) {
-		sorterApprox = new ApproximateSort_F32(numBins);
+		approximateSortBins = numBins;
+	}
+
+	/**
+	 * If true the edge weights will be computed using multiple threads.  Results are identical.
+	 */
+	public void setConcurrent( boolean concurrent ) {
+		computeWeights.setConcurrent(concurrent);
+	}
+
+	public boolean isConcurrent() {
+		return computeWeights.isConcurrent();
 	}
 
 	/**
@@ -191,23 +209,24 @@ public class SegmentFelzenszwalbHuttenlocher04<T extends ImageBase<T>> {
 
 		// sort edges
 //		long time0 = System.currentTimeMillis();
-		if( sorterApprox != null ) {
-			sorterApprox.computeRange(edges.data,0,edges.size);
-			sorterApprox.sortObject(edges.data,0,edges.size);
+		if( approximateSortBins > 0 ) {
+			sortApproximate(approximateSortBins);
 		} else {
-			sorter.sort(edges.data,edges.size);
+			sortExact();
 		}
 //		long time1 = System.currentTimeMillis();
 
 //		System.out.println("Sort time " + (time1 - time0));
 
 		// examine each edge to see if it can connect two regions
-		for( int i = 0; i < edges.size(); i++ ) {
+		for( int e = 0; e < edges.size; e++ ) {
 			// compare the two nodes connected by the edge to see if their regions they should be merged
-			Edge e = edges.get(i);
+			int indexA = edges.indexA[e];
+			int indexB = edges.indexB[e];
+			float weight = edges.weight[e];
 
-			int rootA = find(e.indexA);
-			int rootB = find(e.indexB);
+			int rootA = find(indexA);
+			int rootB = find(indexB);
 
 			// see if they are already part of the same segment
 			if( rootA == rootB )
@@ -216,16 +235,16 @@ public class SegmentFelzenszwalbHuttenlocher04<T extends ImageBase<T>> {
 			float threshA = threshold.get(rootA);
 			float threshB = threshold.get(rootB);
 
-			if( e.weight() <= threshA && e.weight() <= threshB )  {
+			if( weight <= threshA && weight <= threshB )  {
 				// ----- Merge the two regions/components
 				int sizeA = regionSize.get(rootA);
 				int sizeB = regionSize.get(rootB);
 
 				// Everything is merged into region A, so update its threshold
-				threshold.data[rootA] = e.weight() + K/(sizeA + sizeB);
+				threshold.data[rootA] = weight + K/(sizeA + sizeB);
 
 				// Point everything towards rootA
-				graph.data[e.indexB] = rootA;
+				graph.data[indexB] = rootA;
 				graph.data[rootB] = rootA;
 
 				// Update the size of regionA
@@ -239,15 +258,116 @@ public class SegmentFelzenszwalbHuttenlocher04<T extends ImageBase<T>> {
 //		System.out.println("Edge merge time " + (time2 - time1));
 	}
 
+	/**
+	 * Sorts the edges by weight using a least significant digit radix sort.  The bits in a non-negative float
+	 * have the same order as the float itself, so the bits are used as an integer key.  The sort is stable.
+	 * When finished {@link #edges} is in sorted order.
+	 */
+	protected void sortExact() {
+		final int N = edges.size;
+		edgesWork.resize(N);
+
+		// sort 11-bits at a time.  The sign bit is always zero
+		final int bits = 11;
+		final int mask = (1 << bits)-1;
+		histogram = growHistogram(1 << bits);
+		for( int shift = 0; shift < 31; shift += bits ) {
+			float weights[] = edges.weight;
+			Arrays.fill(histogram,0,1 << bits,0);
+			for( int i = 0; i < N; i++ ) {
+				histogram[(Float.floatToRawIntBits(weights[i]) >>> shift) & mask]++;
+			}
+
+			// if every edge has the same digit this pass would not change the order
+			if( N > 0 && histogram[(Float.floatToRawIntBits(weights[0]) >>> shift) & mask] == N )
+				continue;
+
+			// convert into the index of the first element in each bin
+			int total = 0;
+			for( int i = 0; i < 1 << bits; i++ ) {
+				int count = histogram[i];
+				histogram[i] = total;
+				total += count;
+			}
+
+			for( int i = 0; i < N; i++ ) {
+				float w = weights[i];
+				int dst = histogram[(Float.floatToRawIntBits(w) >>> shift) & mask]++;
+				edgesWork.set(dst,w,edges.indexA[i],edges.indexB[i]);
+			}
+
+			swapEdges();
+		}
+	}
+
+	/**
+	 * Sorts the edges by weight approximately.  Weights are quantized into the specified number of bins and
+	 * a counting sort is applied to the bins.  Edges in the same bin are kept in the order they were computed in.
+	 * When finished {@link #edges} is in sorted order.
+	 */
+	protected void sortApproximate( int numBins ) {
+		final int N = edges.size;
+		edgesWork.resize(N);
+
+		float weights[] = edges.weight;
+		float min = Float.MAX_VALUE;
+		float max = -Float.MAX_VALUE;
+		for( int i = 0; i < N; i++ ) {
+			float w = weights[i];
+			if( w < min ) min = w;
+			if( w > max ) max = w;
+		}
+
+		float scale = max > min ? (numBins-1)/(max-min) : 0;
+
+		histogram = growHistogram(numBins);
+		Arrays.fill(histogram,0,numBins,0);
+		for( int i = 0; i < N; i++ ) {
+			histogram[Math.min(numBins-1,(int)((weights[i]-min)*scale))]++;
+		}
+
+		int total = 0;
+		for( int i = 0; i < numBins; i++ ) {
+			int count = histogram[i];
+			histogram[i] = total;
+			total += count;
+		}
+
+		for( int i = 0; i < N; i++ ) {
+			float w = weights[i];
+			int dst = histogram[Math.min(numBins-1,(int)((w-min)*scale))]++;
+			edgesWork.set(dst,w,edges.indexA[i],edges.indexB[i]);
+		}
+
+		swapEdges();
+	}
+
+	/**
+	 * The sorted edges in the work list become the edges
+	 */
+	private void swapEdges() {
+		FhEdgeList tmp = edges;
+		edges = edgesWork;
+		edgesWork = tmp;
+	}
+
+	private int[] growHistogram( int length ) {
+		if( histogram.length < length )
+			return new int[length];
+		return histogram;
+	}
+
 	/**
 	 * Look at the remaining regions and if there are any small ones marge them into a larger region
 	 */
 	protected void mergeSmallRegions() {
 		for( int i = 0; i < edgesNotMatched.size(); i++ ) {
-			Edge e = edgesNotMatched.get(i);
+			int e = edgesNotMatched.get(i);
+			int indexA = edges.indexA[e];
+			int indexB = edges.indexB[e];
 
-			int rootA = find(e.indexA);
-			int rootB = find(e.indexB);
+			int rootA = find(indexA);
+			int rootB = find(indexB);
 
 			// see if they are already part of the same segment
 			if( rootA == rootB )
@@ -259,7 +379,7 @@ public class SegmentFelzenszwalbHuttenlocher04<T extends ImageBase<T>> {
 			// merge if one of the regions is too small
 			if( sizeA < minimumSize || sizeB < minimumSize ) {
 				// Point everything towards rootA
-				graph.data[e.indexB] = rootA;
+				graph.data[indexB] = rootA;
 				graph.data[rootB] = rootA;
 
 				// Update the size of regionA
@@ -332,27 +452,4 @@ public class SegmentFelzenszwalbHuttenlocher04<T extends ImageBase<T>> {
 	public ImageType<T> getInputType() {
 		return computeWeights.getInputType();
 	}
-
-	/**
-	 * Describes the relationship between to adjacent pixels in the image.
-	 *
-	 * The weight is saved in 'sortValue'
-	 */
-	public static class Edge extends SortableParameter_F32 {
-		// indexes of connected pixels in output image.  The index for pixel (x,y) is: index = y*width + x
-		public int indexA;
-		public int indexB;
-
-		public Edge(int indexA, int indexB) {
-			this.indexA = indexA;
-			this.indexB = indexB;
-		}
-
-		public Edge() {
-		}
-
-		public final float weight() {
-			return sortValue;
-		}
-	}
 }
@@ -17,12 +17,12 @@
  */
 package boofcv.alg.segmentation.fh04.impl;
 
+import boofcv.alg.segmentation.fh04.FhEdgeList;
 import boofcv.alg.segmentation.fh04.FhEdgeWeights;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.ImageType;
-import org.ddogleg.struct.FastQueue;
-
-import static boofcv.alg.segmentation.fh04.SegmentFelzenszwalbHuttenlocher04.Edge;
 
 /**
  * <p>Computes edge weight as the absolute value of the different in pixel value for single band images.
@@ -36,47 +36,65 @@ import static boofcv.alg.segmentation.fh04.SegmentFelzenszwalbHuttenlocher04.Edg
  */
 public class FhEdgeWeights4_F32 implements FhEdgeWeights<GrayF32> {
 
+	// if true the inner edges are computed using multiple threads
+	boolean concurrent = false;
+
 	@Override
-	public void process(GrayF32 input,
-						FastQueue<Edge> edges) {
+	public void process(final GrayF32 input,
+						final FhEdgeList edges) {
 
 		int w = input.width-1;
-		int h = input.height-1;
+		final int h = input.height-1;
+
+		// First consider the inner pixels.  Each row has the same number of edges, which allows
+		// the rows to be processed independently
+		edges.resize(Math.max(0,h*w*2));
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, h, new IntRangeTask() {
+				@Override
+				public void process(int y0, int y1) {
+					processInner(input, y0, y1, edges);
+				}
+			});
+		} else {
+			processInner(input, 0, h, edges);
+		}
 
-		// First consider the inner pixels
+		// Handle border pixels
 		for( int y = 0; y < h; y++ ) {
+			checkAround(w,y,input,edges);
+		}
+
+		for( int x = 0; x < w; x++ ) {
+			checkAround(x,h,input,edges);
+		}
+	}
+
+	/**
+	 * Computes the edges for inner pixels in the specified rows
+	 */
+	private void processInner( GrayF32 input , int y0 , int y1 , FhEdgeList edges ) {
+		int w = input.width-1;
+
+		for( int y = y0; y < y1; y++ ) {
 			int indexSrc = input.startIndex + y*input.stride + 0;
 			int indexDst =                  + y*input.width  + 0;
+			int indexEdge = y*w*2;
 
 			for( int x = 0; x < w; x++ , indexSrc++ , indexDst++ ) {
 				float color0 = input.data[indexSrc];              // (x,y)
 				float color1 = input.data[indexSrc+1];            // (x+1,y)
 				float color2 = input.data[indexSrc+input.stride]; // (x,y+1)
 
-				Edge e1 = edges.grow();
-				Edge e2 = edges.grow();
-
-				e1.sortValue = Math.abs(color1-color0);
-				e1.indexA = indexDst;
-				e1.indexB = indexDst+1;
-
-				e2.sortValue = Math.abs(color2-color0);
-				e2.indexA = indexDst;
-				e2.indexB = indexDst+input.width;
+				edges.set(indexEdge++, Math.abs(color1-color0), indexDst, indexDst+1);
+				edges.set(indexEdge++, Math.abs(color2-color0), indexDst, indexDst+input.width);
 			}
 		}
-		// Handle border pixels
-		for( int y = 0; y < h; y++ ) {
-			checkAround(w,y,input,edges);
-		}
-
-		for( int x = 0; x < w; x++ ) {
-			checkAround(x,h,input,edges);
-		}
 	}
+
 	private void checkAround( int x , int y ,
 							  GrayF32 input ,
-							  FastQueue<Edge> edges )
+							  FhEdgeList edges )
 	{
 		int indexSrc = input.startIndex + y*input.stride + x;
 		int indexA =                      y*input.width  + x;
@@ -89,7 +107,7 @@ public class FhEdgeWeights4_F32 implements FhEdgeWeights<GrayF32> {
 
 	private void check( int x , int y , float color0 , int indexA,
 						GrayF32 input ,
-						FastQueue<Edge> edges ) {
+						FhEdgeList edges ) {
 		if( !input.isInBounds(x,y) )
 			return;
 
@@ -98,11 +116,17 @@ public class FhEdgeWeights4_F32 implements FhEdgeWeights<GrayF32> {
 
 		float colorN = input.data[indexSrc];
 
-		Edge e1 = edges.grow();
+		edges.add((float)Math.abs(color0-colorN), indexA, indexB);
+	}
 
-		e1.sortValue = (float)Math.abs(color0-colorN);
-		e1.indexA = indexA;
-		e1.indexB = indexB;
+	@Override
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	@Override
+	public boolean isConcurrent() {
+		return concurrent;
 	}
 
 	@Override
@@ -15,16 +15,15 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package boofcv.alg.segmentation.fh04.impl;
 
+import boofcv.alg.segmentation.fh04.FhEdgeList;
 import boofcv.alg.segmentation.fh04.FhEdgeWeights;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.ImageType;
 import boofcv.struct.image.Planar;
-import org.ddogleg.struct.FastQueue;
-
-import static boofcv.alg.segmentation.fh04.SegmentFelzenszwalbHuttenlocher04.Edge;
 
 /**
  * <p>Computes edge weight as the F-norm different in pixel value for {@link Planar} images.
@@ -41,23 +40,56 @@ public class FhEdgeWeights8_PLF32 implements FhEdgeWeights<Planar<GrayF32>> {
 	float pixelColor[];
 	int numBands;
 
+	// if true the inner edges are computed using multiple threads
+	boolean concurrent = false;
+
 	public FhEdgeWeights8_PLF32(int numBands) {
 		this.numBands = numBands;
 		pixelColor = new float[numBands];
 	}
 
 	@Override
-	public void process(Planar<GrayF32> input,
-						FastQueue<Edge> edges) {
+	public void process(final Planar<GrayF32> input,
+						final FhEdgeList edges) {
 
-		edges.reset();
 		int w = input.width-1;
-		int h = input.height-1;
+		final int h = input.height-1;
+
+		// First consider the inner pixels.  Each row has the same number of edges, which allows
+		// the rows to be processed independently
+		edges.resize(Math.max(0,h*(w-1)*4));
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, h, new IntRangeTask() {
+				@Override
+				public void process(int y0, int y1) {
+					processInner(input, y0, y1, edges);
+				}
+			});
+		} else {
+			processInner(input, 0, h, edges);
+		}
 
-		// First consider the inner pixels
+		// Handle border pixels
 		for( int y = 0; y < h; y++ ) {
+			checkAround(0,y,input,edges);
+			checkAround(w,y,input,edges);
+		}
+
+		for( int x = 0; x < w; x++ ) {
+			checkAround(x,h,input,edges);
+		}
+	}
+
+	/**
+	 * Computes the edges for inner pixels in the specified rows
+	 */
+	private void processInner( Planar<GrayF32> input , int y0 , int y1 , FhEdgeList edges ) {
+		int w = input.width-1;
+
+		for( int y = y0; y < y1; y++ ) {
 			int indexSrc = input.startIndex + y*input.stride + 1;
 			int indexDst =                  + y*input.width  + 1;
+			int indexEdge = y*(w-1)*4;
 
 			for( int x = 1; x < w; x++ , indexSrc++ , indexDst++ ) {
 
@@ -81,44 +113,17 @@ public class FhEdgeWeights8_PLF32 implements FhEdgeWeights<Planar<GrayF32>> {
 					weight4 += diff4*diff4;
 				}
 
-				Edge e1 = edges.grow();
-				Edge e2 = edges.grow();
-
-				e1.sortValue = (float)Math.sqrt(weight1);
-				e1.indexA = indexDst;
-				e1.indexB = indexDst+1;
-
-				e2.sortValue = (float)Math.sqrt(weight2);
-				e2.indexA = indexDst;
-				e2.indexB = indexDst+input.width;
-
-				Edge e3 = edges.grow();
-				Edge e4 = edges.grow();
-
-				e3.sortValue = (float)Math.sqrt(weight3);
-				e3.indexA = indexDst;
-				e3.indexB = indexDst+1+input.width;
-
-				e4.sortValue = (float)Math.sqrt(weight4);
-				e4.indexA = indexDst;
-				e4.indexB = indexDst-1+input.width;
+				edges.set(indexEdge++, (float)Math.sqrt(weight1), indexDst, indexDst+1);
+				edges.set(indexEdge++, (float)Math.sqrt(weight2), indexDst, indexDst+input.width);
+				edges.set(indexEdge++, (float)Math.sqrt(weight3), indexDst, indexDst+1+input.width);
+				edges.set(indexEdge++, (float)Math.sqrt(weight4), indexDst, indexDst-1+input.width);
 			}
 		}
-
-		// Handle border pixels
-		for( int y = 0; y < h; y++ ) {
-			checkAround(0,y,input,edges);
-			checkAround(w,y,input,edges);
-		}
-
-		for( int x = 0; x < w; x++ ) {
-			checkAround(x,h,input,edges);
-		}
 	}
 
 	private void checkAround( int x , int y ,
 							  Planar<GrayF32> input ,
-							  FastQueue<Edge> edges )
+							  FhEdgeList edges )
 	{
 		int indexSrc = input.startIndex + y*input.stride + x;
 		int indexA =                      y*input.width  + x;
@@ -136,7 +141,7 @@ public class FhEdgeWeights8_PLF32 implements FhEdgeWeights<Planar<GrayF32>> {
 
 	private void check( int x , int y , float color0[] , int indexA,
 						Planar<GrayF32> input ,
-						FastQueue<Edge> edges ) {
+						FhEdgeList edges ) {
 		if( !input.isInBounds(x,y) )
 			return;
 
@@ -153,11 +158,17 @@ public class FhEdgeWeights8_PLF32 implements FhEdgeWeights<Planar<GrayF32>> {
 			weight += diff*diff;
 		}
 
-		Edge e1 = edges.grow();
+		edges.add((float)Math.sqrt(weight), indexA, indexB);
+	}
 
-		e1.sortValue = (float)Math.sqrt(weight);
-		e1.indexA = indexA;
-		e1.indexB = indexB;
+	@Override
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	@Override
+	public boolean isConcurrent() {
+		return concurrent;
 	}
 
 	@Override
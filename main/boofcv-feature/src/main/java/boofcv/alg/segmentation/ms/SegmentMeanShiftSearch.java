@@ -18,6 +18,7 @@
 
 package boofcv.alg.segmentation.ms;
 
+import boofcv.alg.misc.ImageMiscOps;
 import boofcv.struct.image.GrayS32;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
@@ -48,6 +49,14 @@ import org.ddogleg.struct.GrowQueue_I32;
  * </p>
  *
  * <p>
+ * Processing is done in two steps.  First mean-shift is run on each pixel inside a range of rows, see
+ * {@link #searchRows(int, int)}.  During this step each pixel records the pixel index of the peak it converged to.
+ * Then {@link #assignModes()} scans through the image and assigns a mode to each unique peak in the order they
+ * are encountered.  This allows the first step to be run on several blocks of rows at the same time,
+ * see {@link SegmentMeanShiftSearchConcurrent}.
+ * </p>
+ *
+ * <p>
  * NOTES:
  * <ul>
  * <li>Spacial distance is normalized by dividing the found Euclidean distance squared by the maximum possible
@@ -114,6 +123,12 @@ public abstract class SegmentMeanShiftSearch<T extends ImageBase<T>> {
 	// mode of mean-shift
 	protected float modeX, modeY;
 
+	// range of rows being searched.  The fast approximation only uses pixels inside this range
+	protected int rowStart, rowEnd;
+
+	// color of the peak found by each pixel which started a search.  Used to select the color of a new mode
+	protected float[] pixelPeakColor = new float[0];
+
 	/**
 	 * Configures mean-shift segmentation
 	 *
@@ -162,6 +177,74 @@ public abstract class SegmentMeanShiftSearch<T extends ImageBase<T>> {
 	 */
 	public abstract void process( T image );
 
+	/**
+	 * Resets data structures and prepares to process the image.
+	 */
+	protected void initializeSearch( T image ) {
+		this.image = image;
+
+		modeLocation.reset();
+		modeColor.reset();
+		modeMemberCount.reset();
+
+		pixelToMode.reshape(image.width, image.height);
+		quickMode.reshape(image.width, image.height);
+		// mark as -1 so it knows which pixels have been assigned a peak already and can skip them
+		ImageMiscOps.fill(pixelToMode, -1);
+		// mark all pixels are not being a mode
+		ImageMiscOps.fill(quickMode,-1);
+
+		int N = image.width*image.height*getImageType().getNumBands();
+		if( pixelPeakColor.length < N )
+			pixelPeakColor = new float[N];
+	}
+
+	/**
+	 * Specifies the image which is searched.  Must be called before {@link #searchRows(int, int)}.
+	 */
+	protected abstract void setSearchImage( T image );
+
+	/**
+	 * Runs mean-shift on every pixel inside the range of rows which hasn't already been assigned a peak.  When
+	 * finished each of those pixels in {@link #pixelToMode} will contain the pixel index of its peak instead
+	 * of a mode index.  Only pixels inside the range of rows are read or modified.
+	 *
+	 * @param y0 First row, inclusive
+	 * @param y1 Last row, exclusive
+	 */
+	protected abstract void searchRows( int y0 , int y1 );
+
+	/**
+	 * Converts the pixel index of each peak into the index of a mode.  A new mode is created the first time a peak
+	 * is encountered while going through the image in order.  Number of members for each mode is also computed.
+	 */
+	protected void assignModes() {
+		int numBands = getImageType().getNumBands();
+		int N = image.width*image.height;
+
+		for( int indexImg = 0; indexImg < N; indexImg++ ) {
+			int modePixelIndex = pixelToMode.data[indexImg];
+
+			// get index in the list of peaks
+			int modeIndex = quickMode.data[modePixelIndex];
+			// If the mode is new add it to the list
+			if( modeIndex < 0 ) {
+				modeIndex = this.modeLocation.size();
+				this.modeLocation.grow().set(modePixelIndex%image.width, modePixelIndex/image.width);
+				// Save the peak's color
+				System.arraycopy(pixelPeakColor,indexImg*numBands,modeColor.grow(),0,numBands);
+				// Mark the mode in the segment image
+				quickMode.data[modePixelIndex] = modeIndex;
+				// Set the initial count to zero. This will be incremented below
+				modeMemberCount.add(0);
+			}
+
+			// add this pixel to the membership list
+			modeMemberCount.data[modeIndex]++;
+			pixelToMode.data[indexImg] = modeIndex;
+		}
+	}
+
 	/**
 	 * Returns the Euclidean distance squared between the two vectors
 	 */
@@ -19,12 +19,10 @@
 package boofcv.alg.segmentation.ms;
 
 import boofcv.alg.interpolate.InterpolatePixelMB;
-import boofcv.alg.misc.ImageMiscOps;
 import boofcv.struct.feature.ColorQueue_F32;
 import boofcv.struct.image.ImageMultiBand;
 import boofcv.struct.image.ImageType;
 import georegression.struct.point.Point2D_F32;
-import georegression.struct.point.Point2D_I32;
 import org.ddogleg.struct.FastQueue;
 
 import java.util.Arrays;
@@ -75,29 +73,33 @@ public class SegmentMeanShiftSearchColor<T extends ImageMultiBand<T>> extends Se
 	 */
 	@Override
 	public void process( T image ) {
-		// initialize data structures
-		this.image = image;
+		initializeSearch(image);
+		setSearchImage(image);
 
-		modeLocation.reset();
-		modeColor.reset();
-		modeMemberCount.reset();
+		// use mean shift to find the peak of each pixel in the image
+		searchRows(0,image.height);
 
+		// create a mode for each unique peak
+		assignModes();
+	}
+
+	@Override
+	protected void setSearchImage( T image ) {
+		this.image = image;
 		interpolate.setImage(image);
+	}
 
-		pixelToMode.reshape(image.width, image.height);
-		quickMode.reshape(image.width, image.height);
-		// mark as -1 so it knows which pixels have been assigned a mode already and can skip them
-		ImageMiscOps.fill(pixelToMode, -1);
-		// mark all pixels are not being a mode
-		ImageMiscOps.fill(quickMode,-1);
+	@Override
+	protected void searchRows( int y0 , int y1 ) {
+		rowStart = y0;
+		rowEnd = y1;
 
-		// use mean shift to find the peak of each pixel in the image
-		int indexImg = 0;
-		for( int y = 0; y < image.height; y++ ) {
+		final int numBands = meanColor.length;
+
+		for( int y = y0; y < y1; y++ ) {
+			int indexImg = y*image.width;
 			for( int x = 0; x < image.width; x++ , indexImg++ ) {
 				if( pixelToMode.data[indexImg] != -1 ) {
-					int peakIndex = pixelToMode.data[indexImg];
-					modeMemberCount.data[peakIndex]++;
 					continue;
 				}
 
@@ -110,33 +112,22 @@ public class SegmentMeanShiftSearchColor<T extends ImageMultiBand<T>> extends Se
 
 				int modePixelIndex = modeY*image.width + modeX;
 
-				// get index in the list of peaks
-				int modeIndex = quickMode.data[modePixelIndex];
-				// If the mode is new add it to the list
-				if( modeIndex < 0 ) {
-					modeIndex = this.modeLocation.size();
-					this.modeLocation.grow().set(modeX, modeY);
-					// Save the peak's color
-					savePeakColor(meanColor);
-					// Mark the mode in the segment image
-					quickMode.data[modePixelIndex] = modeIndex;
-					// Set the initial count to zero. This will be incremented when it is traversed later on
-					modeMemberCount.add(0);
-				}
-
-				// add this pixel to the membership list
-				modeMemberCount.data[modeIndex]++;
+				// Save the peak's color in case this pixel is the first one to find it
+				System.arraycopy(meanColor,0,pixelPeakColor,indexImg*numBands,numBands);
 
-				// Add all pixels it traversed through to the membership of this mode
+				// Add all pixels it traversed through to the membership of this peak
 				// This is an approximate of mean-shift
 				for( int i = 0; i < history.size; i++ ) {
 					Point2D_F32 p = history.get(i);
 					int px = (int)(p.x+0.5f);
 					int py = (int)(p.y+0.5f);
 
+					if( py < rowStart || py >= rowEnd )
+						continue;
+
 					int index = pixelToMode.getIndex(px,py);
 					if( pixelToMode.data[index] == -1 ) {
-						pixelToMode.data[index] = modeIndex;
+						pixelToMode.data[index] = modePixelIndex;
 					}
 				}
 			}
@@ -224,18 +215,19 @@ public class SegmentMeanShiftSearchColor<T extends ImageMultiBand<T>> extends Se
 			if( fast ) {
 				history.grow().set(peakX,peakY);
 
-				// see if it has already been here before
+				// see if it has already been here before.  Only rows being searched can be checked
 				int px = (int)(peakX+0.5f);
 				int py = (int)(peakY+0.5f);
 
-				int index = pixelToMode.getIndex(px,py);
-				int modeIndex = pixelToMode.data[index];
-				if( modeIndex != -1 ) {
-					// it already knows the solution so stop searching
-					Point2D_I32 modeP = modeLocation.get(modeIndex);
-					this.modeX = modeP.x;
-					this.modeY = modeP.y;
-					return;
+				if( py >= rowStart && py < rowEnd ) {
+					int index = pixelToMode.getIndex(px,py);
+					int modePixelIndex = pixelToMode.data[index];
+					if( modePixelIndex != -1 ) {
+						// it already knows the solution so stop searching
+						this.modeX = modePixelIndex%image.width;
+						this.modeY = modePixelIndex/image.width;
+						return;
+					}
 				}
 			}
 
@@ -266,11 +258,4 @@ public class SegmentMeanShiftSearchColor<T extends ImageMultiBand<T>> extends Se
 			sum[i] += pixel[i]*weight;
 		}
 	}
-
-	protected void savePeakColor( float[] a ) {
-		float[] b = modeColor.grow();
-		for( int i = 0; i < a.length; i++ ) {
-			b[i] = a[i];
-		}
-	}
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.segmentation.ms;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.feature.ColorQueue_F32;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Variant of {@link SegmentMeanShiftSearch} which runs mean-shift on multiple threads.  The image's rows are split
+ * into contiguous blocks, one for each thread.  Each thread has its own {@link SegmentMeanShiftSearch} instance,
+ * which contains the interpolation and trajectory storage, since those are not thread safe.  The peak found by each
+ * pixel is written into a shared image and once all the threads have finished, modes are created in the same
+ * order as in the single threaded algorithm.  The number of threads used is the number of instances it was provided.
+ * </p>
+ *
+ * <p>
+ * If the fast approximation is off then the results are identical to the single threaded algorithm.  With the fast
+ * approximation turned on, a thread will only reuse the peak of pixels inside its own block of rows, so
+ * the number of modes found can be slightly different.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SegmentMeanShiftSearchConcurrent<T extends ImageBase<T>> extends SegmentMeanShiftSearch<T> {
+
+	// search algorithm used by each thread
+	List<SegmentMeanShiftSearch<T>> searches;
+
+	// runs the search on a block of rows
+	List<Worker> workers = new ArrayList<>();
+
+	/**
+	 * Configures concurrent mean-shift.
+	 *
+	 * @param searches Search algorithm used by each thread.  Must all have the same configuration and each one
+	 *                 must be a different instance.
+	 */
+	public SegmentMeanShiftSearchConcurrent( List<SegmentMeanShiftSearch<T>> searches ) {
+		super(searches.get(0).maxIterations, searches.get(0).convergenceTol,
+				searches.get(0).radiusX, searches.get(0).radiusY,
+				(float)Math.sqrt(searches.get(0).maxColorDistanceSq), searches.get(0).fast);
+
+		this.searches = searches;
+		this.modeColor = new ColorQueue_F32(getImageType().getNumBands());
+
+		for (int i = 0; i < searches.size(); i++) {
+			workers.add(new Worker(searches.get(i)));
+		}
+	}
+
+	@Override
+	public void process( T image ) {
+		initializeSearch(image);
+		setSearchImage(image);
+
+		// split the image up into blocks of rows
+		int N = workers.size();
+		for (int i = 0; i < N; i++) {
+			Worker w = workers.get(i);
+			w.y0 = (int)((long)image.height*i/N);
+			w.y1 = (int)((long)image.height*(i+1)/N);
+		}
+
+		BoofConcurrency.runAll(workers);
+
+		// create a mode for each unique peak
+		assignModes();
+	}
+
+	@Override
+	protected void setSearchImage( T image ) {
+		this.image = image;
+
+		// the searches write their results directly into the shared storage
+		for (int i = 0; i < searches.size(); i++) {
+			SegmentMeanShiftSearch<T> s = searches.get(i);
+			s.pixelToMode = pixelToMode;
+			s.pixelPeakColor = pixelPeakColor;
+			s.setSearchImage(image);
+		}
+	}
+
+	@Override
+	protected void searchRows( int y0 , int y1 ) {
+		searches.get(0).searchRows(y0,y1);
+	}
+
+	@Override
+	public ImageType<T> getImageType() {
+		return searches.get(0).getImageType();
+	}
+
+	/**
+	 * Returns the number of threads used
+	 */
+	public int getNumberOfThreads() {
+		return searches.size();
+	}
+
+	/**
+	 * Searches a block of rows
+	 */
+	class Worker implements Runnable {
+		SegmentMeanShiftSearch<T> search;
+		int y0, y1;
+
+		Worker(SegmentMeanShiftSearch<T> search) {
+			this.search = search;
+		}
+
+		@Override
+		public void run() {
+			search.searchRows(y0,y1);
+		}
+	}
+}
@@ -22,6 +22,8 @@ import boofcv.alg.InputSanityCheck;
 import boofcv.alg.segmentation.ComputeRegionMeanColor;
 import boofcv.alg.segmentation.ms.ClusterLabeledImage;
 import boofcv.alg.segmentation.ms.MergeSmallRegions;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
 import boofcv.factory.segmentation.FactorySegmentationAlg;
 import boofcv.struct.ConnectRule;
 import boofcv.struct.feature.ColorQueue_F32;
@@ -56,6 +58,15 @@ import java.util.Arrays;
  * </p>
  *
  * <p>
+ * Concurrent mode computes the distance of each pixel from its clusters in parallel blocks of rows and
+ * updates each cluster in parallel, with each thread owning the accumulators of the clusters it updates.  Since
+ * the order that values are summed in is not changed the output is identical to the single threaded case.
+ * In video mode the clusters found in the previous frame are used as the seeds for the next frame, instead of a
+ * regular grid, and only {@link #setVideoIterations(int) video iterations} are performed.  The grid is used if
+ * the image shape changed or a cluster from the previous frame had no members.
+ * </p>
+ *
+ * <p>
  * [1] Radhakrishna Achanta, Appu Shaji, Kevin Smith, Aurelien Lucchi, Pascal Fua, and Sabine Süsstrunk,
  * SLIC Superpixels, EPFL Technical Report no. 149300, June 2010.
  * </p>
@@ -109,6 +120,21 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 	// connectivity rule
 	protected ConnectRule connectRule;
 
+	// if true the expectation and maximization steps are computed using multiple threads
+	protected boolean concurrent = false;
+
+	// if true clusters from the previous frame are used as seeds
+	protected boolean video = false;
+	// number of iterations when seeded from the previous frame
+	protected int videoIterations = 3;
+	// true if the clusters contain a valid solution from the previous call to process
+	protected boolean previousValid = false;
+	// shape of the previous image
+	protected int previousWidth, previousHeight;
+
+	// bounds of the region each cluster was searched in.  x0,y0,x1,y1 for each cluster
+	protected GrowQueue_I32 clusterBounds = new GrowQueue_I32();
+
 	public SegmentSlic( int numberOfRegions , float m , int totalIterations ,
 						ConnectRule connectRule , ImageType<T> imageType ) {
 		this.numberOfRegions = numberOfRegions;
@@ -143,11 +169,16 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 		// initialize all the data structures
 		initalize(input);
 
-		// Seed the clusters
-		initializeClusters();
+		// Seed the clusters, either from the previous frame or a grid
+		int iterations = totalIterations;
+		if( video && canSeedFromPrevious() ) {
+			iterations = videoIterations;
+		} else {
+			initializeClusters();
+		}
 
 		// Perform the modified k-means iterations
-		for( int i = 0; i < totalIterations; i++ ) {
+		for( int i = 0; i < iterations; i++ ) {
 			computeClusterDistance();
 			updateClusters();
 		}
@@ -161,6 +192,33 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 		segment.process(initialSegments,output,regionMemberCount);
 		mergeSmall.setMinimumSize(N / 2);
 		mergeSmall.process(input,output,regionMemberCount,regionColor);
+
+		previousValid = true;
+		previousWidth = input.width;
+		previousHeight = input.height;
+	}
+
+	/**
+	 * Checks to see if the clusters from the previous frame can be used as the seeds for the current frame
+	 */
+	protected boolean canSeedFromPrevious() {
+		if( !previousValid || previousWidth != input.width || previousHeight != input.height )
+			return false;
+
+		for( int i = 0; i < clusters.size; i++ ) {
+			Cluster c = clusters.data[i];
+			// a cluster with no members will have a location of NaN
+			if( !(c.x >= 0 && c.x < input.width && c.y >= 0 && c.y < input.height) )
+				return false;
+		}
+		return clusters.size > 0;
+	}
+
+	/**
+	 * Discards the clusters from the previous frame.  The next call to process will seed clusters using a grid.
+	 */
+	public void reset() {
+		previousValid = false;
 	}
 
 	/**
@@ -263,7 +321,24 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 	 * Computes how far away each cluster is from each pixel.  Expectation step.
 	 */
 	protected void computeClusterDistance() {
-		for( int i = 0; i < pixels.size; i++ ) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, input.height, new IntRangeTask() {
+				@Override
+				public void process(int y0, int y1) {
+					computeClusterDistance(y0, y1);
+				}
+			});
+		} else {
+			computeClusterDistance(0, input.height);
+		}
+	}
+
+	/**
+	 * Computes the distance of each cluster from pixels inside the specified range of rows.  Clusters are
+	 * always processed in the same order.
+	 */
+	protected void computeClusterDistance( int rowStart , int rowEnd ) {
+		for( int i = rowStart*input.width; i < rowEnd*input.width; i++ ) {
 			pixels.data[i].reset();
 		}
 
@@ -278,9 +353,9 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 			int y0 = centerY - gridInterval; int y1 = centerY + gridInterval + 1;
 
 			if( x0 < 0 ) x0 = 0;
-			if( y0 < 0 ) y0 = 0;
+			if( y0 < rowStart ) y0 = rowStart;
 			if( x1 > input.width ) x1 = input.width;
-			if( y1 > input.height ) y1 = input.height;
+			if( y1 > rowEnd ) y1 = rowEnd;
 
 			for( int y = y0; y < y1; y++ ) {
 				int indexPixel = y*input.width + x0;
@@ -303,6 +378,11 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 	 * Update the value of each cluster using  Maximization step.
 	 */
 	protected void updateClusters() {
+		if( concurrent ) {
+			updateClustersConcurrent();
+			return;
+		}
+
 		for( int i = 0; i < clusters.size; i++ ) {
 			clusters.data[i].reset();
 		}
@@ -332,6 +412,79 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 		}
 	}
 
+	/**
+	 * Concurrent implementation of {@link #updateClusters()}.  Weights are computed in blocks of rows then each
+	 * cluster is updated by the thread which owns it.  A cluster only receives contributions from pixels inside
+	 * the region it was searched in, which is traversed in raster order so the sums are the same as the
+	 * single threaded version.
+	 */
+	protected void updateClustersConcurrent() {
+		// save the search region before the cluster's location is modified
+		clusterBounds.resize(clusters.size*4);
+		for( int i = 0; i < clusters.size; i++ ) {
+			Cluster c = clusters.data[i];
+			int centerX = (int)(c.x + 0.5f);
+			int centerY = (int)(c.y + 0.5f);
+
+			clusterBounds.data[i*4  ] = Math.max(0, centerX - gridInterval);
+			clusterBounds.data[i*4+1] = Math.max(0, centerY - gridInterval);
+			clusterBounds.data[i*4+2] = Math.min(input.width, centerX + gridInterval + 1);
+			clusterBounds.data[i*4+3] = Math.min(input.height, centerY + gridInterval + 1);
+		}
+
+		// convert the distance each cluster is from the pixel into weights
+		BoofConcurrency.loopBlocks(0, input.height, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				for( int i = y0*input.width; i < y1*input.width; i++ ) {
+					pixels.data[i].computeWeights();
+				}
+			}
+		});
+
+		BoofConcurrency.loopBlocks(0, clusters.size, new IntRangeTask() {
+			@Override
+			public void process(int idx0, int idx1) {
+				for( int i = idx0; i < idx1; i++ ) {
+					updateCluster(clusters.data[i], i*4);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Recomputes the cluster's center using pixels inside the region it was searched in
+	 */
+	private void updateCluster( Cluster c , int boundsIndex ) {
+		int x0 = clusterBounds.data[boundsIndex  ];
+		int y0 = clusterBounds.data[boundsIndex+1];
+		int x1 = clusterBounds.data[boundsIndex+2];
+		int y1 = clusterBounds.data[boundsIndex+3];
+
+		c.reset();
+
+		for( int y = y0; y < y1; y++ ) {
+			int indexPixel = y*input.width + x0;
+			int indexInput = input.startIndex + y*input.stride + x0;
+			for( int x = x0; x < x1; x++ , indexPixel++ , indexInput++ ) {
+				Pixel p = pixels.data[indexPixel];
+
+				for( int i = 0; i < p.clusters.size; i++ ) {
+					ClusterDistance d = p.clusters.data[i];
+					if( d.cluster != c )
+						continue;
+					c.x += x*d.distance;
+					c.y += y*d.distance;
+					c.totalWeight += d.distance;
+					addColor(c.color,indexInput,d.distance);
+					break;
+				}
+			}
+		}
+
+		c.update();
+	}
+
 	/**
 	 * Selects which region each pixel belongs to based on which cluster it is the closest to
 	 */
@@ -466,6 +619,37 @@ public abstract class SegmentSlic<T extends ImageBase<T>> {
 		}
 	}
 
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	public boolean isVideo() {
+		return video;
+	}
+
+	/**
+	 * If true then the clusters found in the previous frame will be used to seed the next frame.
+	 */
+	public void setVideo(boolean video) {
+		this.video = video;
+		this.previousValid = false;
+	}
+
+	public int getVideoIterations() {
+		return videoIterations;
+	}
+
+	/**
+	 * Number of iterations performed when the clusters are seeded from the previous frame
+	 */
+	public void setVideoIterations(int videoIterations) {
+		this.videoIterations = videoIterations;
+	}
+
 	public ImageType<T> getImageType() {
 		return imageType;
 	}
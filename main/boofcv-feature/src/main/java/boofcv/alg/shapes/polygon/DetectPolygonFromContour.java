@@ -134,6 +134,9 @@ public class DetectPolygonFromContour<T extends ImageGray<T>> {
 	// indicates which corners touch the border
 	private GrowQueue_B borderCorners = new GrowQueue_B();
 
+	// shape of the full image when the input is a region copied out of it. 0 if the input is the full image
+	private int fullWidth, fullHeight;
+
 	/**
 	 * Configures the detector.
 	 *
@@ -269,6 +272,10 @@ public class DetectPolygonFromContour<T extends ImageGray<T>> {
 		labeled.reshape(width, height);
 
 		// adjust size based parameters based on image size
+		if( fullWidth > 0 ) {
+			width = fullWidth;
+			height = fullHeight;
+		}
 		this.minimumContour = minimumContourConfig.computeI(width,height);
 		this.minimumArea = Math.pow(this.minimumContour /4.0,2);
 		contourFinder.setMinContourSize(minimumContour);
@@ -277,6 +284,21 @@ public class DetectPolygonFromContour<T extends ImageGray<T>> {
 			helper.setImageShape(width,height);
 	}
 
+	/**
+	 * Used when the input image is a region which has been copied out of a larger image.  Parameters which
+	 * depend on the image's size will be computed using the shape of the full image instead of the region.
+	 *
+	 * @param width Width of the full image.  If 0 then the input image's shape is used.
+	 * @param height Height of the full image.  If 0 then the input image's shape is used.
+	 */
+	public void setFullImageShape( int width , int height ) {
+		if( fullWidth == width && fullHeight == height )
+			return;
+		this.fullWidth = width;
+		this.fullHeight = height;
+		configure(labeled.width,labeled.height);
+	}
+
 	/**
 	 * Finds blobs in the binary image.  Then looks for blobs that meet size and shape requirements.  See code
 	 * below for the requirements.  Those that remain are considered to be target candidates.
@@ -47,6 +47,11 @@ public class ConfigBackgroundBasic implements Configuration {
 	 */
 	public InterpolationType interpolation = InterpolationType.BILINEAR;
 
+	/**
+	 * If true then blocks of rows are updated and segmented in parallel.
+	 */
+	public boolean concurrent = false;
+
 	public ConfigBackgroundBasic(float threshold) {
 		this.threshold = threshold;
 	}
@@ -60,6 +60,11 @@ public class ConfigBackgroundGaussian implements Configuration {
 	 */
 	public InterpolationType interpolation = InterpolationType.BILINEAR;
 
+	/**
+	 * If true then blocks of rows are updated and segmented in parallel.
+	 */
+	public boolean concurrent = false;
+
 	public ConfigBackgroundGaussian(float threshold) {
 		this.threshold = threshold;
 	}
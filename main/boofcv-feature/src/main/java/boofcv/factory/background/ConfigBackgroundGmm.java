@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boofcv.factory.background;
+
+import boofcv.alg.background.BackgroundAlgorithmGmm;
+import boofcv.alg.interpolate.InterpolationType;
+import boofcv.struct.Configuration;
+
+/**
+ * Configuration for {@link BackgroundAlgorithmGmm}.
+ *
+ * @author Peter Abeles
+ */
+public class ConfigBackgroundGmm implements Configuration {
+
+	/**
+	 * Specifies how fast it will adapt to changes in the background. From 0 to 1, inclusive.  0 = static  1.0 = instant.
+	 */
+	public float learnRate = 0.005f;
+
+	/**
+	 * A pixel matches a Gaussian if its Mahalanobis distance squared is less than or equal to this threshold.
+	 * An appropriate threshold will vary depending on the number of bands in the image.
+	 */
+	public float threshold = 9;
+
+	/**
+	 * Complexity reduction prior.  Gaussians which are not supported by the data will have their weight reduced
+	 * until they are removed. 0 to 1, exclusive.
+	 */
+	public float decay = 0.05f;
+
+	/**
+	 * Maximum number of Gaussians in each pixel's mixture.  Memory usage is proportional to this value.
+	 */
+	public int maxGaussians = 5;
+
+	/**
+	 * A Gaussian with a weight less than this value is not considered part of the background.
+	 */
+	public float significantWeight = 0.1f;
+
+	/**
+	 * The initial variance assigned to a new Gaussian.
+	 */
+	public float initialVariance = 100;
+
+	/**
+	 * The variance of a Gaussian can't be less than this value.
+	 */
+	public float minimumVariance = 1;
+
+	/**
+	 * Specifies which interpolation it will use on the input image.  {@link InterpolationType#BILINEAR} or
+	 * {@link InterpolationType#NEAREST_NEIGHBOR} recommended.
+	 *
+	 * <p>ONLY USED FOR MOVING BACKGROUNDS!</p>
+	 */
+	public InterpolationType interpolation = InterpolationType.BILINEAR;
+
+	/**
+	 * If true then blocks of rows are updated and segmented in parallel.
+	 */
+	public boolean concurrent = false;
+
+	public ConfigBackgroundGmm() {
+	}
+
+	public ConfigBackgroundGmm(float threshold) {
+		this.threshold = threshold;
+	}
+
+	public ConfigBackgroundGmm(float threshold, float learnRate) {
+		this.threshold = threshold;
+		this.learnRate = learnRate;
+	}
+
+	@Override
+	public void checkValidity() {
+		if( learnRate < 0 || learnRate > 1 )
+			throw new IllegalArgumentException("Learn rate must be 0 <= rate <= 1");
+		if( threshold <= 0 )
+			throw new IllegalArgumentException("threshold must be > 0");
+		if( decay < 0 || decay >= 1 )
+			throw new IllegalArgumentException("decay must be 0 <= decay < 1");
+		if( maxGaussians <= 0 )
+			throw new IllegalArgumentException("maxGaussians must be > 0");
+		if( initialVariance <= 0 )
+			throw new IllegalArgumentException("initialVariance must be > 0");
+		if( minimumVariance <= 0 )
+			throw new IllegalArgumentException("minimumVariance must be > 0");
+	}
+}
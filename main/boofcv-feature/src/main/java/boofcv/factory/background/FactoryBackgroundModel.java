@@ -18,7 +18,10 @@
 
 package boofcv.factory.background;
 
+import boofcv.alg.background.BackgroundModelMoving;
 import boofcv.alg.background.BackgroundModelStationary;
+import boofcv.alg.background.BackgroundMovingBatch;
+import boofcv.alg.background.BackgroundStationaryBatch;
 import boofcv.alg.background.moving.*;
 import boofcv.alg.background.stationary.*;
 import boofcv.struct.distort.Point2Transform2Model_F32;
@@ -26,6 +29,8 @@ import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
 import georegression.struct.InvertibleTransform;
 
+import java.util.List;
+
 /**
  * Factory for creating implementations of {@link BackgroundModelStationary} and {@link boofcv.alg.background.BackgroundModelMoving}
  *
@@ -46,18 +51,28 @@ public class FactoryBackgroundModel {
 
 		config.checkValidity();
 
+		BackgroundStationaryBasic<T> ret;
+
 		switch( imageType.getFamily() ) {
 			case GRAY:
-				return new BackgroundStationaryBasic_SB(config.learnRate,config.threshold,imageType.getImageClass());
+				ret = new BackgroundStationaryBasic_SB(config.learnRate,config.threshold,imageType.getImageClass());
+				break;
 
 			case PLANAR:
-				return new BackgroundStationaryBasic_PL(config.learnRate,config.threshold,imageType);
+				ret = new BackgroundStationaryBasic_PL(config.learnRate,config.threshold,imageType);
+				break;
 
 			case INTERLEAVED:
-				return new BackgroundStationaryBasic_IL(config.learnRate,config.threshold,imageType);
+				ret = new BackgroundStationaryBasic_IL(config.learnRate,config.threshold,imageType);
+				break;
+
+			default:
+				throw new IllegalArgumentException("Unknown image type");
 		}
 
-		throw new IllegalArgumentException("Unknown image type");
+		ret.setConcurrent(config.concurrent);
+
+		return ret;
 	}
 
 	/**
@@ -73,21 +88,31 @@ public class FactoryBackgroundModel {
 
 		config.checkValidity();
 
+		BackgroundMovingBasic<T,Motion> ret;
+
 		switch( imageType.getFamily() ) {
 			case GRAY:
-				return new BackgroundMovingBasic_SB(config.learnRate,config.threshold,
+				ret = new BackgroundMovingBasic_SB(config.learnRate,config.threshold,
 						transform,config.interpolation,imageType.getImageClass());
+				break;
 
 			case PLANAR:
-				return new BackgroundMovingBasic_PL(config.learnRate,config.threshold,
+				ret = new BackgroundMovingBasic_PL(config.learnRate,config.threshold,
 						transform,config.interpolation,imageType);
+				break;
 
 			case INTERLEAVED:
-				return new BackgroundMovingBasic_IL(config.learnRate,config.threshold,
+				ret = new BackgroundMovingBasic_IL(config.learnRate,config.threshold,
 						transform,config.interpolation,imageType);
+				break;
+
+			default:
+				throw new IllegalArgumentException("Unknown image type");
 		}
 
-		throw new IllegalArgumentException("Unknown image type");
+		ret.setConcurrent(config.concurrent);
+
+		return ret;
 	}
 
 	/**
@@ -123,6 +148,7 @@ public class FactoryBackgroundModel {
 
 		ret.setInitialVariance(config.initialVariance);
 		ret.setMinimumDifference(config.minimumDifference);
+		ret.setConcurrent(config.concurrent);
 
 		return ret;
 	}
@@ -165,7 +191,110 @@ public class FactoryBackgroundModel {
 
 		ret.setInitialVariance(config.initialVariance);
 		ret.setMinimumDifference(config.minimumDifference);
+		ret.setConcurrent(config.concurrent);
 
 		return ret;
 	}
+
+	/**
+	 * Creates an instance of {@link BackgroundStationaryGmm}.
+	 *
+	 * @param config Configures the background model
+	 * @param imageType Type of input image
+	 * @return new instance of the background model
+	 */
+	public static <T extends ImageBase<T>>
+	BackgroundStationaryGmm<T> stationaryGmm( ConfigBackgroundGmm config , ImageType<T> imageType ) {
+
+		config.checkValidity();
+
+		BackgroundStationaryGmm<T> ret;
+
+		switch( imageType.getFamily() ) {
+			case GRAY:
+				ret = new BackgroundStationaryGmm_SB(config.learnRate,config.threshold,config.decay,
+						config.maxGaussians,imageType.getImageClass());
+				break;
+
+			case PLANAR:
+			case INTERLEAVED:
+				ret = new BackgroundStationaryGmm_MB(config.learnRate,config.threshold,config.decay,
+						config.maxGaussians,imageType);
+				break;
+
+			default:
+				throw new IllegalArgumentException("Unknown image type");
+		}
+
+		ret.setSignificantWeight(config.significantWeight);
+		ret.setInitialVariance(config.initialVariance);
+		ret.setMinimumVariance(config.minimumVariance);
+		ret.setConcurrent(config.concurrent);
+
+		return ret;
+	}
+
+	/**
+	 * Creates an instance of {@link BackgroundMovingGmm}.
+	 *
+	 * @param config Configures the background model
+	 * @param imageType Type of input image
+	 * @return new instance of the background model
+	 */
+	public static <T extends ImageBase<T>,Motion extends InvertibleTransform<Motion>>
+	BackgroundMovingGmm<T,Motion> movingGmm( ConfigBackgroundGmm config ,
+											 Point2Transform2Model_F32<Motion> transform,
+											 ImageType<T> imageType ) {
+
+		config.checkValidity();
+
+		BackgroundMovingGmm<T,Motion> ret;
+
+		switch( imageType.getFamily() ) {
+			case GRAY:
+				ret = new BackgroundMovingGmm_SB(config.learnRate,config.threshold,config.decay,
+						config.maxGaussians,transform,config.interpolation,imageType.getImageClass());
+				break;
+
+			case PLANAR:
+			case INTERLEAVED:
+				ret = new BackgroundMovingGmm_MB(config.learnRate,config.threshold,config.decay,
+						config.maxGaussians,transform,config.interpolation,imageType);
+				break;
+
+			default:
+				throw new IllegalArgumentException("Unknown image type");
+		}
+
+		ret.setSignificantWeight(config.significantWeight);
+		ret.setInitialVariance(config.initialVariance);
+		ret.setMinimumVariance(config.minimumVariance);
+		ret.setConcurrent(config.concurrent);
+
+		return ret;
+	}
+
+	/**
+	 * Creates a {@link BackgroundStationaryBatch} for processing several camera streams at once.  Each stream
+	 * is processed in its own thread from the shared thread pool.
+	 *
+	 * @param models Background model for each stream. Create with {@link #stationaryBasic} or {@link #stationaryGaussian}.
+	 * @return new instance of the batch processor
+	 */
+	public static <T extends ImageBase<T>>
+	BackgroundStationaryBatch<T> stationaryBatch( List<? extends BackgroundModelStationary<T>> models ) {
+		return new BackgroundStationaryBatch<>(models);
+	}
+
+	/**
+	 * Creates a {@link BackgroundMovingBatch} for processing several camera streams at once.  Each stream
+	 * is processed in its own thread from the shared thread pool.  Each model must have its own transform.
+	 *
+	 * @param models Background model for each stream. Create with {@link #movingBasic} or {@link #movingGaussian}.
+	 * @return new instance of the batch processor
+	 */
+	public static <T extends ImageBase<T>,Motion extends InvertibleTransform<Motion>>
+	BackgroundMovingBatch<T,Motion> movingBatch( List<? extends BackgroundModelMoving<T,Motion>> models ) {
+		return new BackgroundMovingBatch<>(models);
+	}
 }
@@ -34,6 +34,7 @@ public class FactoryTemplateMatching {
 	/**
 	 * Creates {@link TemplateMatchingIntensity} of the specified type.  Likely
 	 * matches can be extracted using {@link boofcv.abst.feature.detect.extract.NonMaxSuppression}.
+	 * SUM_DIFF_SQ and NCC use integral images and select between direct and FFT correlation automatically.
 	 *
 	 * @param type      Type of error function
 	 * @param imageType Image type being processed
@@ -43,19 +44,15 @@ public class FactoryTemplateMatching {
 	TemplateMatchingIntensity<T> createIntensity(TemplateScoreType type, Class<T> imageType) {
 		switch (type) {
 			case SUM_DIFF_SQ:
-				if (imageType == GrayU8.class) {
-					return (TemplateMatchingIntensity<T>) new TemplateDiffSquared.U8();
-				} else if (imageType == GrayF32.class) {
-					return (TemplateMatchingIntensity<T>) new TemplateDiffSquared.F32();
+				if (imageType == GrayU8.class || imageType == GrayF32.class) {
+					return new TemplateDiffSquaredIntegral<T>(imageType);
 				} else {
 					throw new IllegalArgumentException("Image type not supported. " + imageType.getSimpleName());
 				}
 
 			case NCC:
-				if (imageType == GrayU8.class) {
-					return (TemplateMatchingIntensity<T>) new TemplateNCC.U8();
-				} else if (imageType == GrayF32.class) {
-					return (TemplateMatchingIntensity<T>) new TemplateNCC.F32();
+				if (imageType == GrayU8.class || imageType == GrayF32.class) {
+					return new TemplateNCCIntegral<T>();
 				} else {
 					throw new IllegalArgumentException("Image type not supported. " + imageType.getSimpleName());
 				}
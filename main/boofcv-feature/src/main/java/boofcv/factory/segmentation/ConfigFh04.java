@@ -45,6 +45,11 @@ public class ConfigFh04 {
 	 */
 	public int approximateSortBins = 0;
 
+	/**
+	 * If true the edge weights will be computed using multiple threads.  Output is identical.
+	 */
+	public boolean concurrent = false;
+
 	public ConfigFh04() {
 	}
 
@@ -47,6 +47,11 @@ public class ConfigSegmentMeanShift {
 	 * Connection rule when segmenting disconnected regions. Try FOUR
 	 */
 	public ConnectRule connectRule = ConnectRule.FOUR;
+	/**
+	 * If true the mean-shift search will run on multiple threads.  Results are identical to the single threaded
+	 * algorithm if fast is false.
+	 */
+	public boolean concurrent = false;
 
 
 	public ConfigSegmentMeanShift() {
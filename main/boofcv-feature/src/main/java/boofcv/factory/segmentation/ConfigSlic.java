@@ -44,6 +44,18 @@ public class ConfigSlic {
 	 * Connection rule that is used when merging small regions.
 	 */
 	public ConnectRule connectRule = ConnectRule.EIGHT;
+	/**
+	 * If true the expectation and maximization steps are computed using multiple threads.  Output is identical.
+	 */
+	public boolean concurrent = false;
+	/**
+	 * If true clusters found in the previous frame are used as the initial seeds for the next frame.
+	 */
+	public boolean video = false;
+	/**
+	 * Number of iterations when seeded from the previous frame.  Only used in video mode.
+	 */
+	public int videoIterations = 3;
 
 	public ConfigSlic(int numberOfRegions) {
 		this.numberOfRegions = numberOfRegions;
@@ -28,12 +28,16 @@ import boofcv.alg.segmentation.fh04.impl.*;
 import boofcv.alg.segmentation.ms.*;
 import boofcv.alg.segmentation.slic.*;
 import boofcv.alg.segmentation.watershed.WatershedVincentSoille1991;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.core.image.border.BorderType;
 import boofcv.factory.interpolate.FactoryInterpolation;
 import boofcv.struct.ConnectRule;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Factory for low level segmentation algorithms.
  *
@@ -91,15 +95,17 @@ public class FactorySegmentationAlg {
 
 		SegmentMeanShiftSearch<T> search;
 
-		if( imageType.getFamily() == ImageType.Family.GRAY) {
-			InterpolatePixelS interp = FactoryInterpolation.bilinearPixelS(imageType.getImageClass(), BorderType.EXTENDED);
-			search = new SegmentMeanShiftSearchGray(maxIterations,convergenceTol,interp,
-					spacialRadius,spacialRadius,colorRadius,config.fast);
+		if( config.concurrent ) {
+			// each thread needs its own search since interpolation isn't thread safe
+			List<SegmentMeanShiftSearch<T>> searches = new ArrayList<>();
+			for (int i = 0; i < BoofConcurrency.getMaxThreads(); i++) {
+				searches.add(meanShiftSearch(maxIterations, convergenceTol, spacialRadius, colorRadius,
+						config.fast, imageType));
+			}
+			search = new SegmentMeanShiftSearchConcurrent<>(searches);
 		} else {
-			InterpolatePixelMB interp = FactoryInterpolation.createPixelMB(0,255,
-					InterpolationType.BILINEAR, BorderType.EXTENDED,(ImageType)imageType);
-			search = new SegmentMeanShiftSearchColor(maxIterations,convergenceTol,interp,
-					spacialRadius,spacialRadius,colorRadius,config.fast,imageType);
+			search = meanShiftSearch(maxIterations, convergenceTol, spacialRadius, colorRadius,
+					config.fast, imageType);
 		}
 
 		ComputeRegionMeanColor<T> regionColor = regionMeanColor(imageType);
@@ -111,6 +117,22 @@ public class FactorySegmentationAlg {
 		return new SegmentMeanShift<>(search, merge, prune, config.connectRule);
 	}
 
+	private static <T extends ImageBase<T>>
+	SegmentMeanShiftSearch<T> meanShiftSearch( int maxIterations , float convergenceTol ,
+											   int spacialRadius , float colorRadius , boolean fast ,
+											   ImageType<T> imageType ) {
+		if( imageType.getFamily() == ImageType.Family.GRAY) {
+			InterpolatePixelS interp = FactoryInterpolation.bilinearPixelS(imageType.getImageClass(), BorderType.EXTENDED);
+			return new SegmentMeanShiftSearchGray(maxIterations,convergenceTol,interp,
+					spacialRadius,spacialRadius,colorRadius,fast);
+		} else {
+			InterpolatePixelMB interp = FactoryInterpolation.createPixelMB(0,255,
+					InterpolationType.BILINEAR, BorderType.EXTENDED,(ImageType)imageType);
+			return new SegmentMeanShiftSearchColor(maxIterations,convergenceTol,interp,
+					spacialRadius,spacialRadius,colorRadius,fast,imageType);
+		}
+	}
+
 	public static <T extends ImageBase<T>>
 	FhEdgeWeights<T> weightsFelzenszwalb04( ConnectRule rule , ImageType<T> imageType) {
 		if( imageType.getFamily() == ImageType.Family.GRAY) {
@@ -166,6 +188,7 @@ public class FactorySegmentationAlg {
 		if( config.approximateSortBins > 0 ) {
 			alg.configureApproximateSort(config.approximateSortBins);
 		}
+		alg.setConcurrent(config.concurrent);
 
 		return alg;
 	}
@@ -176,27 +199,38 @@ public class FactorySegmentationAlg {
 		if( config == null )
 			throw new IllegalArgumentException("No default configuration since the number of segments must be specified.");
 
+		SegmentSlic<T> alg = null;
 		if( imageType.getFamily() == ImageType.Family.GRAY) {
 				switch( imageType.getDataType() ) {
 					case U8:
-						return (SegmentSlic)new SegmentSlic_U8(config.numberOfRegions,
+						alg = (SegmentSlic)new SegmentSlic_U8(config.numberOfRegions,
 								config.spacialWeight,config.totalIterations,config.connectRule);
+						break;
 					case F32:
-						return (SegmentSlic)new SegmentSlic_F32(config.numberOfRegions,
+						alg = (SegmentSlic)new SegmentSlic_F32(config.numberOfRegions,
 								config.spacialWeight,config.totalIterations,config.connectRule);
+						break;
 				}
 		} else if( imageType.getFamily() == ImageType.Family.PLANAR) {
 			int N = imageType.getNumBands();
 				switch( imageType.getDataType() ) {
 					case U8:
-						return (SegmentSlic)new SegmentSlic_PlU8(config.numberOfRegions,
+						alg = (SegmentSlic)new SegmentSlic_PlU8(config.numberOfRegions,
 								config.spacialWeight,config.totalIterations,config.connectRule,N);
+						break;
 					case F32:
-						return (SegmentSlic)new SegmentSlic_PlF32(config.numberOfRegions,
+						alg = (SegmentSlic)new SegmentSlic_PlF32(config.numberOfRegions,
 								config.spacialWeight,config.totalIterations,config.connectRule,N);
+						break;
 				}
 		}
-		throw new IllegalArgumentException("Unknown imageType or connect rule");
+		if( alg == null )
+			throw new IllegalArgumentException("Unknown imageType or connect rule");
+
+		alg.setConcurrent(config.concurrent);
+		alg.setVideo(config.video);
+		alg.setVideoIterations(config.videoIterations);
+		return alg;
 	}
 
 	public static WatershedVincentSoille1991 watershed( ConnectRule rule ) {
@@ -18,12 +18,20 @@
 
 package boofcv.abst.segmentation;
 
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.factory.segmentation.ConfigSegmentMeanShift;
 import boofcv.factory.segmentation.FactoryImageSegmentation;
 import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayS32;
 import boofcv.struct.image.GrayU8;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
 
 /**
  * @author Peter Abeles
@@ -40,4 +48,37 @@ public class TestMeanShift_to_ImageSuperpixels<T extends ImageBase<T>> extends G
 	public ImageSuperpixels<T> createAlg( ImageType<T> imageType ) {
 		return FactoryImageSegmentation.meanShift(new ConfigSegmentMeanShift(2,20,3,true), imageType);
 	}
+
+	/**
+	 * Concurrent mean-shift should produce identical results when the fast approximation is off
+	 */
+	@Test
+	public void concurrent() {
+		ImageType<T> imageType = (ImageType)ImageType.pl(3, GrayU8.class);
+		T image = imageType.createImage(40,35);
+		GImageMiscOps.fillUniform(image, new Random(234), 0, 255);
+
+		ConfigSegmentMeanShift config = new ConfigSegmentMeanShift(2,20,3,false);
+		ImageSuperpixels<T> expected = FactoryImageSegmentation.meanShift(config, imageType);
+		config.concurrent = true;
+
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		ImageSuperpixels<T> found;
+		try {
+			BoofConcurrency.setMaxThreads(3);
+			found = FactoryImageSegmentation.meanShift(config, imageType);
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+
+		GrayS32 labelsE = new GrayS32(image.width,image.height);
+		GrayS32 labelsF = new GrayS32(image.width,image.height);
+		expected.segment(image, labelsE);
+		found.segment(image, labelsF);
+
+		assertEquals(expected.getTotalSuperpixels(), found.getTotalSuperpixels());
+		for (int i = 0; i < labelsE.data.length; i++) {
+			assertEquals(labelsE.data[i], labelsF.data[i]);
+		}
+	}
 }
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boofcv.alg.background;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBackgroundGmmCommon {
+
+	Random rand = new Random(234);
+
+	/**
+	 * The first observation should create a Gaussian which is the entire model
+	 */
+	@Test
+	public void updateMixture_first() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(0.05f,9,0.05f,3,2);
+		alg.setInitialVariance(20);
+
+		float[] data = new float[alg.getModelStride()+2];
+		alg.updateMixture(new float[]{10,20},data,2);
+
+		assertEquals(1,data[2],1e-6f);
+		assertEquals(20,data[3],1e-6f);
+		assertEquals(10,data[4],1e-6f);
+		assertEquals(20,data[5],1e-6f);
+		for (int i = 2+alg.getGaussianStride(); i < data.length; i++) {
+			assertEquals(0,data[i],0);
+		}
+		// should work even if learning has been turned off
+		data = new float[alg.getModelStride()];
+		alg.setLearnRate(0);
+		alg.updateMixture(new float[]{10,20},data,0);
+		assertEquals(1,data[0],1e-6f);
+	}
+
+	/**
+	 * Observations which match the Gaussian move its mean towards the observation
+	 */
+	@Test
+	public void updateMixture_match() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(0.1f,9,0.05f,3,1);
+
+		float[] data = new float[alg.getModelStride()];
+		alg.updateMixture(10,data,0);
+		alg.updateMixture(12,data,0);
+
+		assertEquals(1,data[0],1e-6f);
+		assertTrue(data[1] < alg.getInitialVariance());
+		assertTrue(data[2] > 10 && data[2] < 12);
+		assertEquals(0,data[alg.getGaussianStride()],0);
+	}
+
+	/**
+	 * Observations which don't match create a new Gaussian
+	 */
+	@Test
+	public void updateMixture_newGaussian() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(0.1f,9,0.05f,3,1);
+
+		float[] data = new float[alg.getModelStride()];
+		alg.updateMixture(10,data,0);
+		alg.updateMixture(100,data,0);
+
+		int s = alg.getGaussianStride();
+		assertEquals(10,data[2],1e-6f);
+		assertEquals(100,data[s+2],1e-6f);
+		assertTrue(data[0] > data[s]);
+		assertEquals(1,data[0]+data[s],1e-6f);
+		assertEquals(0,data[2*s],0);
+	}
+
+	/**
+	 * When there's no more room the Gaussian with the smallest weight should be replaced
+	 */
+	@Test
+	public void updateMixture_replaceSmallest() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(0.1f,9,0.0f,2,1);
+
+		float[] data = new float[alg.getModelStride()];
+		alg.updateMixture(10,data,0);
+		alg.updateMixture(100,data,0);
+		alg.updateMixture(200,data,0);
+
+		int s = alg.getGaussianStride();
+		assertEquals(10,data[2],1e-6f);
+		assertEquals(200,data[s+2],1e-6f);
+		assertEquals(1,data[0]+data[s],1e-6f);
+	}
+
+	/**
+	 * If learning is turned off an outlier should not remove a Gaussian from a full mixture
+	 */
+	@Test
+	public void updateMixture_noLearning() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(0.1f,9,0.0f,2,1);
+
+		float[] data = new float[alg.getModelStride()];
+		alg.updateMixture(10,data,0);
+		alg.updateMixture(100,data,0);
+		alg.setLearnRate(0);
+
+		float[] expected = data.clone();
+		alg.updateMixture(200,data,0);
+		assertArrayEquals(expected,data,0.0f);
+
+		// same for multi-band images
+		alg = new BackgroundGmmCommon(0.1f,9,0.0f,2,3);
+		data = new float[alg.getModelStride()];
+		alg.updateMixture(new float[]{10,20,30},data,0);
+		alg.updateMixture(new float[]{100,120,130},data,0);
+		alg.setLearnRate(0);
+
+		expected = data.clone();
+		alg.updateMixture(new float[]{200,220,230},data,0);
+		assertArrayEquals(expected,data,0.0f);
+
+		// a pixel without a model should still get one
+		data = new float[alg.getModelStride()];
+		alg.updateMixture(new float[]{10,20,30},data,0);
+		assertEquals(1,data[0],1e-6f);
+		assertEquals(30,data[4],1e-6f);
+	}
+
+	/**
+	 * Gaussians should always be sorted by weight
+	 */
+	@Test
+	public void updateMixture_sorted() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(0.1f,9,0.05f,4,1);
+
+		float[] data = new float[alg.getModelStride()];
+		alg.updateMixture(10,data,0);
+		for (int i = 0; i < 30; i++) {
+			alg.updateMixture(100,data,0);
+		}
+		int s = alg.getGaussianStride();
+		assertEquals(100,data[2],1);
+		assertEquals(10,data[s+2],1e-6f);
+
+		for (int i = 0; i < 200; i++) {
+			alg.updateMixture(rand.nextFloat()*250,data,0);
+
+			float total = 0;
+			for (int j = 0; j < alg.getMaxGaussians(); j++) {
+				total += data[j*s];
+				if( j > 0 )
+					assertTrue(data[(j-1)*s] >= data[j*s]);
+			}
+			assertEquals(1,total,1e-4f);
+		}
+	}
+
+	/**
+	 * Gaussians which are not supported by the data should be removed
+	 */
+	@Test
+	public void updateMixture_decay() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(0.1f,9,0.05f,3,1);
+
+		float[] data = new float[alg.getModelStride()];
+		alg.updateMixture(10,data,0);
+		alg.updateMixture(100,data,0);
+
+		int s = alg.getGaussianStride();
+		assertTrue(data[s] > 0);
+		for (int i = 0; i < 20; i++) {
+			alg.updateMixture(10,data,0);
+		}
+		assertEquals(1,data[0],1e-6f);
+		assertEquals(0,data[s],0);
+	}
+
+	/**
+	 * The single band and multi-band implementations should produce identical results
+	 */
+	@Test
+	public void updateMixture_compareSingleToMulti() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(0.05f,9,0.05f,4,1);
+
+		float[] single = new float[alg.getModelStride()];
+		float[] multi = new float[alg.getModelStride()];
+		float[] pixel = new float[1];
+
+		for (int i = 0; i < 200; i++) {
+			pixel[0] = rand.nextInt(3)*50 + rand.nextFloat()*4;
+			alg.updateMixture(pixel[0],single,0);
+			alg.updateMixture(pixel,multi,0);
+
+			for (int j = 0; j < single.length; j++) {
+				assertEquals(single[j],multi[j],1e-4f);
+			}
+			assertEquals(alg.checkBackground(pixel[0],single,0),alg.checkBackground(pixel,multi,0));
+		}
+	}
+
+	@Test
+	public void checkBackground() {
+		BackgroundGmmCommon alg = new BackgroundGmmCommon(0.1f,9,0.05f,3,2);
+
+		float[] data = new float[alg.getModelStride()];
+		assertEquals(BackgroundGmmCommon.UNKNOWN,alg.checkBackground(new float[]{10,20},data,0));
+
+		alg.updateMixture(new float[]{10,20},data,0);
+		alg.updateMixture(new float[]{100,20},data,0);
+
+		assertEquals(0,alg.checkBackground(new float[]{10,20},data,0));
+		assertEquals(1,alg.checkBackground(new float[]{200,20},data,0));
+
+		// the second Gaussian isn't significant yet
+		alg.setSignificantWeight(0.2f);
+		assertEquals(1,alg.checkBackground(new float[]{100,20},data,0));
+		alg.setSignificantWeight(0.05f);
+		assertEquals(0,alg.checkBackground(new float[]{100,20},data,0));
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boofcv.alg.background;
+
+import boofcv.alg.distort.PointTransformHomography_F32;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.background.ConfigBackgroundBasic;
+import boofcv.factory.background.FactoryBackgroundModel;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageType;
+import boofcv.testing.BoofTesting;
+import georegression.struct.homography.Homography2D_F32;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBackgroundMovingBatch {
+
+	Random rand = new Random(234);
+
+	int width = 40;
+	int height = 30;
+	int numStreams = 4;
+
+	ImageType<GrayU8> imageType = ImageType.single(GrayU8.class);
+
+	/**
+	 * Compare the batch results to processing each stream by itself
+	 */
+	@Test
+	public void compareToIndividual() {
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			List<BackgroundModelMoving<GrayU8,Homography2D_F32>> individual = new ArrayList<>();
+			List<BackgroundModelMoving<GrayU8,Homography2D_F32>> models = new ArrayList<>();
+			List<GrayU8> frames = new ArrayList<>();
+			List<GrayU8> segmented = new ArrayList<>();
+			List<Homography2D_F32> motions = new ArrayList<>();
+			Homography2D_F32 homeToWorld = new Homography2D_F32(1,0,width/2,0,1,height/2,0,0,1);
+			for (int i = 0; i < numStreams; i++) {
+				individual.add(create());
+				models.add(create());
+				individual.get(i).initialize(width*2,height*2,homeToWorld);
+				models.get(i).initialize(width*2,height*2,homeToWorld);
+				frames.add(new GrayU8(width,height));
+				segmented.add(new GrayU8(width,height));
+				motions.add(new Homography2D_F32());
+			}
+
+			BackgroundMovingBatch<GrayU8,Homography2D_F32> alg = FactoryBackgroundModel.movingBatch(models);
+
+			GrayU8 expected = new GrayU8(width,height);
+			for (int trial = 0; trial < 5; trial++) {
+				for (int i = 0; i < numStreams; i++) {
+					motions.get(i).a13 = rand.nextFloat()*5-2.5f;
+					motions.get(i).a23 = rand.nextFloat()*5-2.5f;
+					GImageMiscOps.fillUniform(frames.get(i),rand,0,200);
+					individual.get(i).updateBackground(motions.get(i),frames.get(i));
+				}
+				alg.updateBackground(motions,frames);
+			}
+
+			for (int i = 0; i < numStreams; i++) {
+				GImageMiscOps.fillUniform(frames.get(i),rand,0,200);
+			}
+			alg.segment(motions,frames,segmented);
+
+			for (int i = 0; i < numStreams; i++) {
+				individual.get(i).segment(motions.get(i),frames.get(i),expected);
+				BoofTesting.assertEquals(expected,segmented.get(i),0);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+
+	private BackgroundModelMoving<GrayU8,Homography2D_F32> create() {
+		return FactoryBackgroundModel.movingBasic(new ConfigBackgroundBasic(12),
+				new PointTransformHomography_F32(),imageType);
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boofcv.alg.background;
+
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.background.ConfigBackgroundGaussian;
+import boofcv.factory.background.FactoryBackgroundModel;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageType;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBackgroundStationaryBatch {
+
+	Random rand = new Random(234);
+
+	int width = 40;
+	int height = 30;
+	int numStreams = 4;
+
+	ImageType<GrayU8> imageType = ImageType.single(GrayU8.class);
+
+	/**
+	 * Compare the batch results to processing each stream by itself
+	 */
+	@Test
+	public void compareToIndividual() {
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			List<BackgroundModelStationary<GrayU8>> individual = new ArrayList<>();
+			List<BackgroundModelStationary<GrayU8>> models = new ArrayList<>();
+			List<GrayU8> frames = new ArrayList<>();
+			List<GrayU8> segmented = new ArrayList<>();
+			for (int i = 0; i < numStreams; i++) {
+				individual.add(create());
+				models.add(create());
+				frames.add(new GrayU8(width,height));
+				segmented.add(new GrayU8(width,height));
+			}
+
+			BackgroundStationaryBatch<GrayU8> alg = FactoryBackgroundModel.stationaryBatch(models);
+
+			GrayU8 expected = new GrayU8(width,height);
+			for (int trial = 0; trial < 5; trial++) {
+				for (int i = 0; i < numStreams; i++) {
+					GImageMiscOps.fillUniform(frames.get(i),rand,0,200);
+					individual.get(i).updateBackground(frames.get(i));
+				}
+				alg.updateBackground(frames);
+			}
+
+			for (int i = 0; i < numStreams; i++) {
+				GImageMiscOps.fillUniform(frames.get(i),rand,0,200);
+			}
+			alg.segment(frames,segmented);
+
+			for (int i = 0; i < numStreams; i++) {
+				individual.get(i).segment(frames.get(i),expected);
+				BoofTesting.assertEquals(expected,segmented.get(i),0);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void wrongNumberOfFrames() {
+		List<BackgroundModelStationary<GrayU8>> models = new ArrayList<>();
+		models.add(create());
+		models.add(create());
+
+		List<GrayU8> frames = new ArrayList<>();
+		frames.add(new GrayU8(width,height));
+
+		new BackgroundStationaryBatch<>(models).updateBackground(frames);
+	}
+
+	private BackgroundModelStationary<GrayU8> create() {
+		return FactoryBackgroundModel.stationaryGaussian(new ConfigBackgroundGaussian(12),imageType);
+	}
+}
@@ -21,6 +21,7 @@ package boofcv.alg.background.moving;
 import boofcv.alg.background.BackgroundModelMoving;
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.image.GrayU8;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
@@ -310,14 +311,14 @@ public abstract class GenericBackgroundModelMovingChecks {
 		T frame = imageType.createImage(width, height);
 		GrayU8 segmented = new GrayU8(width,height);
 
-		checkSubImage_process(frame, segmented);
+		checkSubImage_process(frame, segmented, false);
 		GrayU8 expected = segmented.clone();
 
 		frame = BoofTesting.createSubImageOf(frame);
 		segmented = BoofTesting.createSubImageOf(segmented);
 		ImageMiscOps.fill(segmented,0);
 
-		checkSubImage_process(frame, segmented);
+		checkSubImage_process(frame, segmented, false);
 		GrayU8 found = segmented.clone();
 
 		// see if both produce the same result
@@ -325,12 +326,41 @@ public abstract class GenericBackgroundModelMovingChecks {
 		BoofTesting.assertEquals(expected,found,1e-8);
 	}
 
+	/**
+	 * Processing blocks of rows in parallel should produce identical results
+	 */
+	@Test
+	public void concurrent() {
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+			for( ImageType type : imageTypes ) {
+				concurrent(type);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+
+	private <T extends ImageBase<T>>
+	void concurrent( ImageType<T> imageType ) {
+		T frame = imageType.createImage(width, height);
+		GrayU8 expected = new GrayU8(width,height);
+		GrayU8 found = new GrayU8(width,height);
+
+		checkSubImage_process(frame, expected, false);
+		checkSubImage_process(frame, found, true);
+
+		BoofTesting.assertEquals(expected,found,0);
+	}
+
 	private <T extends ImageBase<T>>
-	void checkSubImage_process( T frame, GrayU8 segmented)
+	void checkSubImage_process( T frame, GrayU8 segmented, boolean concurrent )
 	{
 		rand = new Random(2345);
 
 		BackgroundModelMoving<T, Homography2D_F32> alg = create(frame.getImageType());
+		alg.setConcurrent(concurrent);
 		Homography2D_F32 homeToWorld = new Homography2D_F32(1,0,width/2,0,1,height/2,0,0,1);
 		alg.initialize(width*2,height*2,homeToWorld);
 
@@ -21,6 +21,7 @@ package boofcv.alg.background.stationary;
 import boofcv.alg.background.BackgroundModelStationary;
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.core.image.GeneralizedImageOps;
 import boofcv.struct.image.GrayU8;
 import boofcv.struct.image.ImageBase;
@@ -167,14 +168,14 @@ public abstract class GenericBackgroundModelStationaryChecks {
 		T frame = imageType.createImage(width, height);
 		GrayU8 segmented = new GrayU8(width,height);
 
-		checkSubImage_process(frame, segmented);
+		checkSubImage_process(frame, segmented, false);
 		GrayU8 expected = segmented.clone();
 
 		frame = BoofTesting.createSubImageOf(frame);
 		segmented = BoofTesting.createSubImageOf(segmented);
 		ImageMiscOps.fill(segmented,0);
 
-		checkSubImage_process(frame, segmented);
+		checkSubImage_process(frame, segmented, false);
 		GrayU8 found = segmented.clone();
 
 		// see if both produce the same result
@@ -182,12 +183,41 @@ public abstract class GenericBackgroundModelStationaryChecks {
 		BoofTesting.assertEquals(expected,found,1e-8);
 	}
 
+	/**
+	 * Processing blocks of rows in parallel should produce identical results
+	 */
+	@Test
+	public void concurrent() {
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+			for( ImageType type : imageTypes ) {
+				concurrent(type);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+
+	private <T extends ImageBase<T>>
+	void concurrent( ImageType<T> imageType ) {
+		T frame = imageType.createImage(width, height);
+		GrayU8 expected = new GrayU8(width,height);
+		GrayU8 found = new GrayU8(width,height);
+
+		checkSubImage_process(frame, expected, false);
+		checkSubImage_process(frame, found, true);
+
+		BoofTesting.assertEquals(expected,found,0);
+	}
+
 	private <T extends ImageBase<T>>
-	void checkSubImage_process( T frame, GrayU8 segmented)
+	void checkSubImage_process( T frame, GrayU8 segmented, boolean concurrent )
 	{
 		rand = new Random(2345);
 
 		BackgroundModelStationary<T> alg = create(frame.getImageType());
+		alg.setConcurrent(concurrent);
 
 		for (int i = 0; i < 5; i++) {
 			noise(100, 30, frame);
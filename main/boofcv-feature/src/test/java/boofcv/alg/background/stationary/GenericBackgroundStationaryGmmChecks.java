@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boofcv.alg.background.stationary;
+
+import boofcv.alg.background.BackgroundModelStationary;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageType;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public abstract class GenericBackgroundStationaryGmmChecks extends GenericBackgroundModelStationaryChecks {
+
+	/**
+	 * The background alternates between two values.  A single Gaussian can't model that but a mixture can.
+	 */
+	@Test
+	public void multiModal() {
+		for( ImageType type : imageTypes ) {
+			multiModal(type);
+		}
+	}
+
+	private <T extends ImageBase<T>> void multiModal( ImageType<T> imageType ) {
+		BackgroundModelStationary<T> alg = create(imageType);
+
+		T frame = imageType.createImage(width,height);
+		GrayU8 segmented = new GrayU8(width,height);
+
+		for (int i = 0; i < 40; i++) {
+			GImageMiscOps.fill(frame, i%2 == 0 ? 50 : 150);
+			alg.updateBackground(frame);
+		}
+
+		GImageMiscOps.fill(frame,50);
+		alg.segment(frame,segmented);
+		checkAll(segmented,0);
+
+		GImageMiscOps.fill(frame,150);
+		alg.segment(frame,segmented);
+		checkAll(segmented,0);
+
+		GImageMiscOps.fill(frame,250);
+		alg.segment(frame,segmented);
+		checkAll(segmented,1);
+	}
+
+	private void checkAll( GrayU8 segmented , int expected ) {
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				assertEquals(expected,segmented.get(x,y));
+			}
+		}
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.template;
+
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.core.image.GeneralizedImageOps;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.ImageGray;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the intensity computed by two implementations of the same template score
+ *
+ * @author Peter Abeles
+ */
+public class CompareTemplateIntensity {
+
+	public static <T extends ImageGray<T>>
+	void compare( TemplateMatchingIntensity<T> found , TemplateMatchingIntensity<T> expected , Class<T> imageType ) {
+		Random rand = new Random(234);
+
+		T image = GeneralizedImageOps.createSingleBand(imageType, 35, 40);
+		T template = GeneralizedImageOps.createSingleBand(imageType, 9, 6);
+		T mask = GeneralizedImageOps.createSingleBand(imageType, 9, 6);
+
+		GImageMiscOps.fillUniform(image, rand, 0, 200);
+		GImageMiscOps.fillUniform(template, rand, 0, 200);
+		GImageMiscOps.fillUniform(mask, rand, 0, 2);
+
+		found.setInputImage(image);
+		expected.setInputImage(image);
+
+		found.process(template);
+		expected.process(template);
+		compare(found, expected, template);
+
+		found.process(template,mask);
+		expected.process(template,mask);
+		compare(found, expected, template);
+	}
+
+	private static <T extends ImageGray<T>>
+	void compare( TemplateMatchingIntensity<T> found , TemplateMatchingIntensity<T> expected , T template ) {
+		GrayF32 a = found.getIntensity();
+		GrayF32 b = expected.getIntensity();
+
+		int x0 = expected.getBorderX0(), y0 = expected.getBorderY0();
+		int x1 = a.width - template.width + x0;
+		int y1 = a.height - template.height + y0;
+
+		for (int y = y0; y < y1; y++) {
+			for (int x = x0; x < x1; x++) {
+				float e = b.get(x,y);
+				assertEquals(e, a.get(x,y), Math.max(1,Math.abs(e))*1e-4);
+			}
+		}
+	}
+}
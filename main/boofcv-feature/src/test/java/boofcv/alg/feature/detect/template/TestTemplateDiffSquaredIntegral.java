@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.template;
+
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU8;
+import org.junit.Test;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestTemplateDiffSquaredIntegral {
+
+	@Test
+	public void instanceF32() {
+		for( BaseTemplateIntegral.Mode mode : BaseTemplateIntegral.Mode.values() ) {
+			TemplateDiffSquaredIntegral<GrayF32> alg = new TemplateDiffSquaredIntegral<>(GrayF32.class);
+			alg.setMode(mode);
+
+			new GeneralTemplateMatchTests<GrayF32>(alg, GrayF32.class) {
+			}.allTests();
+		}
+	}
+
+	@Test
+	public void instanceU8() {
+		for( BaseTemplateIntegral.Mode mode : BaseTemplateIntegral.Mode.values() ) {
+			TemplateDiffSquaredIntegral<GrayU8> alg = new TemplateDiffSquaredIntegral<>(GrayU8.class);
+			alg.setMode(mode);
+
+			new GeneralTemplateMatchTests<GrayU8>(alg, GrayU8.class) {
+			}.allTests();
+		}
+	}
+
+	/**
+	 * Should produce the same results as the brute force implementation
+	 */
+	@Test
+	public void compareToTemplateDiffSquared() {
+		for( BaseTemplateIntegral.Mode mode : BaseTemplateIntegral.Mode.values() ) {
+			TemplateDiffSquaredIntegral<GrayF32> alg = new TemplateDiffSquaredIntegral<>(GrayF32.class);
+			alg.setMode(mode);
+			CompareTemplateIntensity.compare(alg, new TemplateDiffSquared.F32(), GrayF32.class);
+
+			TemplateDiffSquaredIntegral<GrayU8> algU8 = new TemplateDiffSquaredIntegral<>(GrayU8.class);
+			algU8.setMode(mode);
+			CompareTemplateIntensity.compare(algU8, new TemplateDiffSquared.U8(), GrayU8.class);
+		}
+	}
+}
@@ -18,6 +18,7 @@
 
 package boofcv.alg.feature.detect.template;
 
+import boofcv.alg.filter.blur.BlurImageOps;
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.struct.feature.Match;
 import boofcv.struct.image.GrayF32;
@@ -26,6 +27,7 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -125,8 +127,56 @@ public class TestTemplateMatching {
 		assertTrue(intensity.maskedCalled);
 	}
 
+	/**
+	 * Coarse to fine pyramid search should find the same matches with the same scores as a full search
+	 */
+	@Test
+	public void pyramid() {
+		Random rand = new Random(234);
+		GrayF32 image = new GrayF32(160, 120);
+		GImageMiscOps.fillUniform(image, rand, 0, 200);
+		image = BlurImageOps.gaussian(image, null, 2, -1, null);
+
+		// insert two copies of the template
+		GrayF32 template = image.subimage(37, 51, 37 + 24, 51 + 20, null).clone();
+		image.subimage(101, 23, 101 + 24, 23 + 20, null).setTo(template);
+
+		TemplateMatching<GrayF32> full = new TemplateMatching<>(new TemplateDiffSquaredIntegral<>(GrayF32.class));
+		full.setImage(image);
+		full.setTemplate(template, null, 2);
+		full.process();
+
+		TemplateMatching<GrayF32> pyramid = new TemplateMatching<>(new TemplateDiffSquaredIntegral<>(GrayF32.class));
+		pyramid.setPyramid(3, 10);
+		pyramid.setImage(image);
+		pyramid.setTemplate(template, null, 2);
+		pyramid.process();
+
+		List<Match> expected = full.getResults().toList();
+		assertEquals(2, expected.size());
+		checkResults(pyramid.getResults().toList(), expected, 0, 0, 1e-4);
+
+		// see if a mask is handled
+		GrayF32 mask = new GrayF32(24, 20);
+		GImageMiscOps.fill(mask, 1);
+		pyramid.setTemplate(template, mask, 2);
+		pyramid.process();
+		checkResults(pyramid.getResults().toList(), expected, 0, 0, 1e-4);
+
+		// switching back to a full search should work after the pyramid has been used
+		pyramid.setPyramid(1, 0);
+		pyramid.setTemplate(template, null, 2);
+		pyramid.process();
+		checkResults(pyramid.getResults().toList(), expected, 0, 0);
+	}
+
 	private void checkResults(List<Match> found, List<Match> expected,
 							  int offsetX, int offsetY) {
+		checkResults(found, expected, offsetX, offsetY, 1e-8);
+	}
+
+	private void checkResults(List<Match> found, List<Match> expected,
+							  int offsetX, int offsetY, double tol) {
 		assertEquals(expected.size(), found.size());
 
 		for (Match f : found) {
@@ -134,7 +184,7 @@ public class TestTemplateMatching {
 			for (Match e : expected) {
 				if (e.x - offsetX == f.x & e.y - offsetY == f.y) {
 					assertFalse(matched);
-					assertEquals(e.score, f.score, 1e-8);
+					assertEquals(e.score, f.score, tol);
 					matched = true;
 				}
 			}
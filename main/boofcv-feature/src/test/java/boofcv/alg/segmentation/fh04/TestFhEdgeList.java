@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.segmentation.fh04;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestFhEdgeList {
+
+	@Test
+	public void add() {
+		FhEdgeList alg = new FhEdgeList();
+
+		for( int i = 0; i < 100; i++ ) {
+			alg.add(i*0.5f,i,i+2);
+		}
+
+		assertEquals(100,alg.size());
+		for( int i = 0; i < 100; i++ ) {
+			assertEquals(i*0.5f,alg.getWeight(i),0);
+			assertEquals(i,alg.getIndexA(i));
+			assertEquals(i+2,alg.getIndexB(i));
+		}
+
+		alg.reset();
+		assertEquals(0,alg.size());
+	}
+
+	@Test
+	public void resize() {
+		FhEdgeList alg = new FhEdgeList();
+
+		alg.add(2,3,4);
+		alg.resize(50);
+		assertEquals(50,alg.size());
+
+		// original edge should not be modified
+		assertEquals(2,alg.getWeight(0),0);
+		assertEquals(3,alg.getIndexA(0));
+		assertEquals(4,alg.getIndexB(0));
+
+		alg.set(49,5,6,7);
+		assertEquals(5,alg.getWeight(49),0);
+		assertEquals(6,alg.getIndexA(49));
+		assertEquals(7,alg.getIndexB(49));
+
+		// shrinking keeps existing values
+		alg.resize(1);
+		assertEquals(1,alg.size());
+		assertEquals(2,alg.getWeight(0),0);
+	}
+}
@@ -20,17 +20,19 @@ package boofcv.alg.segmentation.fh04;
 
 import boofcv.alg.misc.ImageMiscOps;
 import boofcv.alg.segmentation.fh04.impl.FhEdgeWeights4_U8;
+import boofcv.alg.segmentation.fh04.impl.FhEdgeWeights8_U8;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.image.GrayS32;
 import boofcv.struct.image.GrayU8;
 import boofcv.testing.BoofTesting;
 import org.ddogleg.struct.GrowQueue_I32;
 import org.junit.Test;
 
-import java.util.Collections;
 import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author Peter Abeles
@@ -75,6 +77,102 @@ public class TestSegmentFelzenszwalbHuttenlocher04 {
 		}
 	}
 
+	/**
+	 * The concurrent implementation should produce identical results
+	 */
+	@Test
+	public void process_concurrent() {
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			GrayU8 image = new GrayU8(40,35);
+			ImageMiscOps.fillUniform(image,rand,0,50);
+			GrayS32 expected = new GrayS32(40,35);
+			GrayS32 found = new GrayS32(40,35);
+
+			SegmentFelzenszwalbHuttenlocher04<GrayU8> alg =
+					new SegmentFelzenszwalbHuttenlocher04<>(200,10,new FhEdgeWeights8_U8());
+			alg.process(image,expected);
+			alg.setConcurrent(true);
+			assertTrue(alg.isConcurrent());
+			alg.process(image,found);
+
+			BoofTesting.assertEquals(expected,found,0);
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+
+	/**
+	 * Edges should be in order of increasing weight and ties should keep their original order
+	 */
+	@Test
+	public void sortExact() {
+		SegmentFelzenszwalbHuttenlocher04 alg = new SegmentFelzenszwalbHuttenlocher04(0,10,null);
+
+		for( int i = 0; i < 2000; i++ ) {
+			float weight;
+			switch( i%3 ) {
+				case 0: weight = rand.nextInt(20); break;
+				case 1: weight = rand.nextFloat()*0.001f; break;
+				default: weight = rand.nextFloat()*1e5f; break;
+			}
+			alg.edges.add(weight,i,i+1);
+		}
+
+		alg.sortExact();
+
+		checkSorted(alg, 0);
+	}
+
+	/**
+	 * Bins are only approximate, but the weights should be close and ties in the same bin are kept in order
+	 */
+	@Test
+	public void sortApproximate() {
+		SegmentFelzenszwalbHuttenlocher04 alg = new SegmentFelzenszwalbHuttenlocher04(0,10,null);
+
+		for( int i = 0; i < 2000; i++ ) {
+			alg.edges.add(rand.nextFloat()*100,i,i+1);
+		}
+
+		alg.sortApproximate(1000);
+
+		checkSorted(alg, 100.0f/999);
+
+		// all the weights are the same
+		alg.edges.reset();
+		for( int i = 0; i < 20; i++ ) {
+			alg.edges.add(5,i,i+1);
+		}
+		alg.sortApproximate(1000);
+		checkSorted(alg, 0);
+	}
+
+	/**
+	 * The original index of each edge was saved in indexA, which is used to check the order of ties
+	 */
+	private void checkSorted( SegmentFelzenszwalbHuttenlocher04 alg , float tol ) {
+		FhEdgeList edges = alg.edges;
+
+		boolean used[] = new boolean[edges.size];
+		for( int i = 0; i < edges.size; i++ ) {
+			int e = edges.getIndexA(i);
+			assertTrue(!used[e]);
+			used[e] = true;
+			assertEquals(e+1,edges.getIndexB(i));
+
+			if( i > 0 ) {
+				float delta = edges.getWeight(i) - edges.getWeight(i-1);
+				if( delta < -tol )
+					fail("Not sorted");
+				if( edges.getWeight(i) == edges.getWeight(i-1) )
+					assertTrue( edges.getIndexA(i-1) < e );
+			}
+		}
+	}
+
 	@Test
 	public void mergeRegions() {
 
@@ -83,19 +181,15 @@ public class TestSegmentFelzenszwalbHuttenlocher04 {
 
 		// add edges.  Design it such that order is important and to make sure the equality checks
 		// are done correctly
-		alg.edges.add( edge(1, 0, 20));
-		alg.edges.add( edge(2, 0, 25));
-		alg.edges.add( edge(14, 0, 40));
-		alg.edges.add( edge(3,4,20));
-		alg.edges.add( edge(5,4,20));
-		alg.edges.add( edge(10,11,20));
-		alg.edges.add( edge(12,11,5));
-		alg.edges.add( edge(13,11,5));
-
-		// randomize their order
-		Collections.shuffle(alg.edges.toList(),rand);
-		// NOTE the order after sorting is undefined.  So the checks below could be incorrect if they are processed
-		// in a different order
+		alg.edges.add(40,14,0);
+		alg.edges.add(20,3,4);
+		alg.edges.add(5,12,11);
+		alg.edges.add(25,2,0);
+		alg.edges.add(20,1,0);
+		alg.edges.add(20,5,4);
+		alg.edges.add(20,10,11);
+		alg.edges.add(5,13,11);
+		// NOTE edges with the same weight are processed in the order they were added
 
 		alg.graph = new GrayS32(4,5);
 		alg.graph.data = new int[]{
@@ -162,8 +256,10 @@ public class TestSegmentFelzenszwalbHuttenlocher04 {
 				15,15,15,15,
 				15,15,15,15};
 
-		alg.edgesNotMatched.add( new SegmentFelzenszwalbHuttenlocher04.Edge(1,5));
-		alg.edgesNotMatched.add( new SegmentFelzenszwalbHuttenlocher04.Edge(12,8));
+		alg.edges.add(0,1,5);
+		alg.edges.add(0,12,8);
+		alg.edgesNotMatched.add(0);
+		alg.edgesNotMatched.add(1);
 
 		alg.mergeSmallRegions();
 
@@ -232,12 +328,4 @@ public class TestSegmentFelzenszwalbHuttenlocher04 {
 
 		BoofTesting.assertEquals(expected, alg.graph, 1e-4);
 	}
-
-	private SegmentFelzenszwalbHuttenlocher04.Edge edge( int indexA , int indexB , float weight ) {
-		SegmentFelzenszwalbHuttenlocher04.Edge e = new SegmentFelzenszwalbHuttenlocher04.Edge();
-		e.indexA = indexA;
-		e.indexB = indexB;
-		e.sortValue = weight;
-		return e;
-	}
 }
@@ -19,18 +19,19 @@
 package boofcv.alg.segmentation.fh04.impl;
 
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.alg.segmentation.fh04.FhEdgeList;
 import boofcv.alg.segmentation.fh04.FhEdgeWeights;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.ConnectRule;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
 import boofcv.testing.BoofTesting;
-import org.ddogleg.struct.FastQueue;
 import org.junit.Test;
 
 import java.util.Random;
 
-import static boofcv.alg.segmentation.fh04.SegmentFelzenszwalbHuttenlocher04.Edge;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Peter Abeles
@@ -57,23 +58,21 @@ public abstract class GenericFhEdgeWeightsChecks<T extends ImageBase<T>> {
 		GImageMiscOps.fillUniform(input, rand, 0, 200);
 
 		FhEdgeWeights<T> alg = createAlg();
-		FastQueue<Edge> edges = new FastQueue<>(Edge.class, true);
+		FhEdgeList edges = new FhEdgeList();
 		alg.process(input,edges);
 
 		int hist[] = new int[input.width*input.height];
 
 		// see if the edges computed the expected weight
 		for( int i = 0; i < edges.size(); i++ ) {
-			Edge e = edges.get(i);
-
-			int indexA = e.indexA;
-			int indexB = e.indexB;
+			int indexA = edges.getIndexA(i);
+			int indexB = edges.getIndexB(i);
 
 			hist[indexA]++;
 			hist[indexB]++;
 
 			float expected = weight(input,indexA,indexB);
-			assertEquals(expected,e.weight(),1e-4f);
+			assertEquals(expected,edges.getWeight(i),1e-4f);
 		}
 
 		// make sure each pixel was inspected
@@ -126,22 +125,69 @@ public abstract class GenericFhEdgeWeightsChecks<T extends ImageBase<T>> {
 		T inputSub = BoofTesting.createSubImageOf(input);
 
 		FhEdgeWeights<T> alg = createAlg();
-		FastQueue<Edge> edges0 = new FastQueue<>(Edge.class, true);
-		FastQueue<Edge> edges1 = new FastQueue<>(Edge.class, true);
+		FhEdgeList edges0 = new FhEdgeList();
+		FhEdgeList edges1 = new FhEdgeList();
 
 		alg.process(input,edges0);
 		alg.process(inputSub,edges1);
 
 		// both should be identical
+		checkIdentical(edges0, edges1, 1e-4f);
+	}
+
+	/**
+	 * Results should be identical when computed using multiple threads
+	 */
+	@Test
+	public void concurrent() {
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			T input = imageType.createImage(25,32);
+			GImageMiscOps.fillUniform(input, rand, 0, 200);
+
+			FhEdgeWeights<T> alg = createAlg();
+			FhEdgeList edges0 = new FhEdgeList();
+			FhEdgeList edges1 = new FhEdgeList();
+
+			alg.process(input,edges0);
+			alg.setConcurrent(true);
+			assertTrue(alg.isConcurrent());
+			alg.process(input,edges1);
+
+			checkIdentical(edges0, edges1, 0);
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+
+	/**
+	 * Previous edges should be discarded when called multiple times
+	 */
+	@Test
+	public void multipleCalls() {
+		T input = imageType.createImage(10,12);
+		GImageMiscOps.fillUniform(input, rand, 0, 200);
+
+		FhEdgeWeights<T> alg = createAlg();
+		FhEdgeList edges0 = new FhEdgeList();
+		FhEdgeList edges1 = new FhEdgeList();
+
+		alg.process(input,edges0);
+		alg.process(input,edges1);
+		alg.process(input,edges1);
+
+		checkIdentical(edges0, edges1, 0);
+	}
+
+	private void checkIdentical( FhEdgeList edges0 , FhEdgeList edges1 , float tol ) {
 		assertEquals(edges0.size, edges1.size);
 
 		for( int i = 0; i < edges0.size; i++ ) {
-			Edge e0 = edges0.get(i);
-			Edge e1 = edges1.get(i);
-
-			assertEquals("i = "+i,e0.indexA,e1.indexA);
-			assertEquals("i = "+i,e0.indexB,e1.indexB);
-			assertEquals("i = "+i,e0.sortValue,e1.sortValue,1e-4f);
+			assertEquals("i = "+i,edges0.getIndexA(i),edges1.getIndexA(i));
+			assertEquals("i = "+i,edges0.getIndexB(i),edges1.getIndexB(i));
+			assertEquals("i = "+i,edges0.getWeight(i),edges1.getWeight(i),tol);
 		}
 	}
 }
@@ -69,6 +69,12 @@ public class TestSegmentMeanShiftSearch {
 		@Override
 		public void process(ImageBase image) {}
 
+		@Override
+		protected void setSearchImage(ImageBase image) {}
+
+		@Override
+		protected void searchRows(int y0, int y1) {}
+
 		@Override
 		public ImageType getImageType() {
 			return null;
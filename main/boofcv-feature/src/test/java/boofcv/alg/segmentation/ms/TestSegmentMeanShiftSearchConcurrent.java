@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.segmentation.ms;
+
+import boofcv.alg.filter.blur.GBlurImageOps;
+import boofcv.alg.interpolate.InterpolationType;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.core.image.border.BorderType;
+import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.struct.image.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSegmentMeanShiftSearchConcurrent {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Without the fast approximation the results should be identical no matter the number of threads
+	 */
+	@Test
+	public void compareToSequential_gray() {
+		ImageType<GrayF32> imageType = ImageType.single(GrayF32.class);
+		GrayF32 image = createImage(imageType);
+
+		for( int numThreads = 1; numThreads <= 4; numThreads++ ) {
+			SegmentMeanShiftSearch<GrayF32> expected = createSearch(false, imageType);
+			SegmentMeanShiftSearch<GrayF32> found = createConcurrent(numThreads, false, imageType);
+
+			compareIdentical(image, expected, found);
+		}
+	}
+
+	@Test
+	public void compareToSequential_color() {
+		ImageType<Planar<GrayF32>> imageType = ImageType.pl(3, GrayF32.class);
+		Planar<GrayF32> image = createImage(imageType);
+
+		for( int numThreads = 1; numThreads <= 4; numThreads++ ) {
+			SegmentMeanShiftSearch<Planar<GrayF32>> expected = createSearch(false, imageType);
+			SegmentMeanShiftSearch<Planar<GrayF32>> found = createConcurrent(numThreads, false, imageType);
+
+			compareIdentical(image, expected, found);
+		}
+	}
+
+	/**
+	 * With the fast approximation and a single thread it should be identical. With more threads the output
+	 * should still be valid
+	 */
+	@Test
+	public void fast() {
+		ImageType<GrayF32> imageType = ImageType.single(GrayF32.class);
+		GrayF32 image = createImage(imageType);
+
+		compareIdentical(image, createSearch(true, imageType), createConcurrent(1, true, imageType));
+
+		SegmentMeanShiftSearch<GrayF32> expected = createSearch(true, imageType);
+		expected.process(image);
+
+		SegmentMeanShiftSearch<GrayF32> found = createConcurrent(3, true, imageType);
+		runConcurrent(found, image);
+
+		// should be similar to the single threaded approximation
+		int numExpected = expected.getModeLocation().size;
+		int numFound = found.getModeLocation().size;
+		assertTrue(Math.abs(numExpected-numFound) <= numExpected*0.2);
+
+		// every pixel should be a member of a valid mode
+		int total = 0;
+		for (int i = 0; i < found.getRegionMemberCount().size; i++) {
+			assertTrue(found.getRegionMemberCount().get(i) > 0);
+			total += found.getRegionMemberCount().get(i);
+		}
+		assertEquals(image.width*image.height, total);
+
+		GrayS32 pixelToRegion = found.getPixelToRegion();
+		for (int i = 0; i < image.width*image.height; i++) {
+			assertTrue(pixelToRegion.data[i] >= 0 && pixelToRegion.data[i] < numFound);
+		}
+	}
+
+	private <T extends ImageBase<T>>
+	void compareIdentical( T image , SegmentMeanShiftSearch<T> expected , SegmentMeanShiftSearch<T> found ) {
+		expected.process(image);
+		// process twice to make sure it cleans up after itself
+		runConcurrent(found, image);
+		runConcurrent(found, image);
+
+		assertTrue(expected.getModeLocation().size > 5);
+		assertEquals(expected.getModeLocation().size, found.getModeLocation().size);
+
+		for (int i = 0; i < expected.getModeLocation().size; i++) {
+			assertEquals(expected.getModeLocation().get(i).x, found.getModeLocation().get(i).x);
+			assertEquals(expected.getModeLocation().get(i).y, found.getModeLocation().get(i).y);
+			assertEquals(expected.getRegionMemberCount().get(i), found.getRegionMemberCount().get(i));
+
+			float[] colorE = expected.getModeColor().get(i);
+			float[] colorF = found.getModeColor().get(i);
+			assertEquals(colorE.length, colorF.length);
+			for (int j = 0; j < colorE.length; j++) {
+				assertEquals(colorE[j], colorF[j], 0);
+			}
+		}
+
+		GrayS32 a = expected.getPixelToRegion();
+		GrayS32 b = found.getPixelToRegion();
+		for (int i = 0; i < image.width*image.height; i++) {
+			assertEquals(a.data[i], b.data[i]);
+		}
+	}
+
+	private void runConcurrent( SegmentMeanShiftSearch alg , ImageBase image ) {
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+			alg.process(image);
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+
+	private <T extends ImageBase<T>> T createImage( ImageType<T> imageType ) {
+		T image = imageType.createImage(40, 35);
+		GImageMiscOps.fillUniform(image, rand, 0, 255);
+		T blurred = image.createSameShape();
+		GBlurImageOps.gaussian(image, blurred, -1, 3, null);
+		return blurred;
+	}
+
+	private <T extends ImageBase<T>>
+	SegmentMeanShiftSearch<T> createConcurrent( int numThreads , boolean fast , ImageType<T> imageType ) {
+		List<SegmentMeanShiftSearch<T>> searches = new ArrayList<>();
+		for (int i = 0; i < numThreads; i++) {
+			searches.add(createSearch(fast, imageType));
+		}
+		SegmentMeanShiftSearchConcurrent<T> alg = new SegmentMeanShiftSearchConcurrent<>(searches);
+		assertEquals(numThreads, alg.getNumberOfThreads());
+		return alg;
+	}
+
+	private <T extends ImageBase<T>>
+	SegmentMeanShiftSearch<T> createSearch( boolean fast , ImageType<T> imageType ) {
+		if( imageType.getFamily() == ImageType.Family.GRAY ) {
+			return (SegmentMeanShiftSearch)new SegmentMeanShiftSearchGray(20, 0.1f,
+					FactoryInterpolation.bilinearPixelS(GrayF32.class, BorderType.EXTENDED), 3, 3, 20, fast);
+		} else {
+			return new SegmentMeanShiftSearchColor(20, 0.1f,
+					FactoryInterpolation.createPixelMB(0, 255, InterpolationType.BILINEAR, BorderType.EXTENDED,
+							imageType), 3, 3, 30, fast, imageType);
+		}
+	}
+}
@@ -20,12 +20,14 @@ package boofcv.alg.segmentation.slic;
 
 import boofcv.alg.misc.GImageMiscOps;
 import boofcv.alg.segmentation.ImageSegmentationOps;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.core.image.GeneralizedImageOps;
 import boofcv.struct.ConnectRule;
 import boofcv.struct.feature.ColorQueue_F32;
 import boofcv.struct.image.GrayS32;
 import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageType;
+import boofcv.testing.BoofTesting;
 import org.ddogleg.struct.FastQueue;
 import org.ddogleg.struct.GrowQueue_I32;
 import org.junit.Test;
@@ -33,7 +35,7 @@ import org.junit.Test;
 import java.util.Arrays;
 import java.util.Random;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 /**
  * @author Peter Abeles
@@ -75,6 +77,98 @@ public abstract class GeneralSegmentSlicColorChecks<T extends ImageBase<T>> {
 		}
 	}
 
+	/**
+	 * The concurrent implementation should produce identical results
+	 */
+	@Test
+	public void concurrent_identical() {
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			T input = imageType.createImage(45,50);
+			GImageMiscOps.fillUniform(input, rand, 0, 200);
+			GrayS32 expected = new GrayS32(45,50);
+			GrayS32 found = new GrayS32(45,50);
+
+			SegmentSlic<T> sequential = createAlg(15,200,10, ConnectRule.EIGHT );
+			SegmentSlic<T> concurrent = createAlg(15,200,10, ConnectRule.EIGHT );
+			concurrent.setConcurrent(true);
+
+			sequential.process(input,expected);
+			concurrent.process(input,found);
+
+			BoofTesting.assertEquals(expected,found,0);
+			assertEquals(sequential.getClusters().size,concurrent.getClusters().size);
+			for (int i = 0; i < sequential.getClusters().size; i++) {
+				SegmentSlic.Cluster a = sequential.getClusters().get(i);
+				SegmentSlic.Cluster b = concurrent.getClusters().get(i);
+				assertEquals(a.x,b.x,0);
+				assertEquals(a.y,b.y,0);
+				assertArrayEquals(a.color,b.color,0);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+
+	/**
+	 * In video mode the previous solution should be used as the seed.  If the same image is processed again
+	 * a similar segmentation should be found
+	 */
+	@Test
+	public void video() {
+		T input = imageType.createImage(30,40);
+		GrayS32 expected = new GrayS32(30,40);
+		GrayS32 found = new GrayS32(30,40);
+
+		GImageMiscOps.fillRectangle(input, 100, 0, 0, 15, 40);
+
+		SegmentSlic<T> alg = createAlg(12,200,10, ConnectRule.EIGHT );
+		alg.setVideo(true);
+		alg.setVideoIterations(1);
+
+		assertFalse(alg.previousValid);
+		alg.process(input,expected);
+		assertTrue(alg.previousValid);
+		int numRegions = alg.getRegionMemberCount().size;
+
+		alg.process(input,found);
+		assertTrue(alg.canSeedFromPrevious());
+		assertEquals(numRegions,alg.getRegionMemberCount().size);
+		checkUnique(alg,found,alg.getRegionMemberCount().size);
+
+		// With no iterations the clusters should be exactly the ones from the previous frame
+		int numClusters = alg.clusters.size;
+		float previousX[] = new float[numClusters];
+		float previousY[] = new float[numClusters];
+		for( int i = 0; i < numClusters; i++ ) {
+			previousX[i] = alg.clusters.get(i).x;
+			previousY[i] = alg.clusters.get(i).y;
+		}
+		alg.setVideoIterations(0);
+		alg.process(input,found);
+		assertEquals(numClusters,alg.clusters.size);
+		boolean notGrid = false;
+		for( int i = 0; i < numClusters; i++ ) {
+			SegmentSlic.Cluster c = alg.clusters.get(i);
+			assertEquals(previousX[i],c.x,0);
+			assertEquals(previousY[i],c.y,0);
+			// seeds from the grid are always at a pixel
+			notGrid |= c.x != (int)c.x || c.y != (int)c.y;
+		}
+		assertTrue(notGrid);
+
+		// a change in shape should force it to use a grid
+		T smaller = imageType.createImage(20,40);
+		alg.process(smaller,new GrayS32(20,40));
+		alg.input = input;
+		assertFalse(alg.canSeedFromPrevious());
+
+		alg.reset();
+		assertFalse(alg.previousValid);
+	}
+
 	@Test
 	public void setColor() {
 		T input = imageType.createImage(30,40);
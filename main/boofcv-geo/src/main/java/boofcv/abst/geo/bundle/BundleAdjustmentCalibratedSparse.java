@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.bundle;
+
+import boofcv.abst.geo.BundleAdjustmentCalibrated;
+import boofcv.alg.geo.bundle.BundleAdjustmentSchur;
+import boofcv.alg.geo.bundle.CalibratedPoseAndPoint;
+import boofcv.alg.geo.bundle.ViewPointObservations;
+
+import java.util.List;
+
+/**
+ * Performs bundle adjustment by taking advantage of the problem's sparse structure.  Can handle a much larger
+ * number of points than {@link BundleAdjustmentCalibratedDense}.  See {@link BundleAdjustmentSchur}.
+ *
+ * @author Peter Abeles
+ */
+public class BundleAdjustmentCalibratedSparse
+		implements BundleAdjustmentCalibrated
+{
+	// sparse optimization algorithm
+	BundleAdjustmentSchur alg = new BundleAdjustmentSchur();
+
+	int maxIterations;
+	double convergenceTol;
+
+	/**
+	 * Configures bundle adjustment
+	 *
+	 * @param convergenceTol Convergence tolerance for the gradient.  Try 1e-8
+	 * @param maxIterations Maximum number of iterations.
+	 * @param concurrent If true then computations are done in parallel
+	 */
+	public BundleAdjustmentCalibratedSparse(double convergenceTol,
+											int maxIterations ,
+											boolean concurrent ) {
+		this.convergenceTol = convergenceTol;
+		this.maxIterations = maxIterations;
+		alg.setConcurrent(concurrent);
+	}
+
+	@Override
+	public boolean process(CalibratedPoseAndPoint initialModel,
+						   List<ViewPointObservations> observations)
+	{
+		alg.configure(initialModel,observations);
+		alg.initialize(0, convergenceTol * observations.size());
+
+		for( int i = 0; i < maxIterations; i++ ) {
+			if( alg.iterate() )
+				break;
+		}
+
+		alg.decode(initialModel);
+
+		return true;
+	}
+
+	public BundleAdjustmentSchur getAlgorithm() {
+		return alg;
+	}
+}
@@ -0,0 +1,624 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import org.ddogleg.struct.FastQueue;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.factory.LinearSolverFactory_DDRM;
+import org.ejml.interfaces.linsol.LinearSolverDense;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Sparse Levenberg-Marquardt bundle adjustment for cameras with known intrinsic parameters.  The Jacobian is
+ * stored as blocks for each observation, see {@link CalibPoseAndPointSparseJacobian}.  The normal equations
+ * have the following structure:
+ * </p>
+ * <pre>
+ * [ U   W ] [ dc ]   [ gc ]
+ * [ W^T V ] [ dp ] = [ gp ]
+ * </pre>
+ * <p>
+ * where U is block diagonal with a 6x6 block for each view, V is block diagonal with a 3x3 block for each point,
+ * and W couples views to the points they observe.  Points are eliminated using the Schur complement, leaving
+ * a system which is the size of the camera parameters, (U - W*V<sup>-1</sup>*W<sup>T</sup>)*dc = gc -
+ * W*V<sup>-1</sup>*gp, which is solved using a Cholesky decomposition.  The change in each point is then
+ * found independently.  Memory scales linearly with the number of points and observations and quadratically
+ * with the number of views.
+ * </p>
+ *
+ * <p>
+ * Residuals, the Jacobian, and the blocks of the normal equations are computed in parallel when concurrent
+ * is set to true.  Work is split by view or by point so that threads never write to the same memory and the
+ * results are identical to the single threaded case.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class BundleAdjustmentSchur {
+
+	// converts to and from a parameterized version of the model
+	CalibPoseAndPointRodriguesCodec codec = new CalibPoseAndPointRodriguesCodec();
+	// computes residuals for least-squares
+	CalibPoseAndPointResiduals function = new CalibPoseAndPointResiduals();
+	// computes Jacobian blocks
+	CalibPoseAndPointSparseJacobian jacobian = new CalibPoseAndPointSparseJacobian();
+
+	// model which is being optimized
+	CalibratedPoseAndPoint model;
+	List<ViewPointObservations> observations;
+
+	// number of views, points, and unknown views
+	int numViews, numPoints, numViewsUnknown;
+	// number of observations
+	int numObservations;
+	// index of the first point parameter
+	int indexFirstPoint;
+
+	// observations of each point.  pointObs[pointStart[i]] to pointObs[pointStart[i+1]-1]
+	int pointStart[] = new int[0];
+	int pointObs[] = new int[0];
+	// the view each observation belongs to
+	int obsView[] = new int[0];
+	// the point each observation belongs to
+	int obsPoint[] = new int[0];
+
+	// current state and the candidate state
+	double[] x = new double[0], candidate = new double[0];
+	double[] residuals = new double[0], residualsCandidate = new double[0];
+	// current cost
+	double fx;
+
+	// convergence tolerances
+	double ftol, gtol;
+
+	// Levenberg-Marquardt damping parameter
+	double initialDamping = 1e-3;
+	double lambda;
+	static final double MAX_LAMBDA = 1e20;
+
+	// if true the normal equations need to be recomputed because the state changed
+	boolean updateJacobian;
+
+	// blocks in the normal equations.  U = views, V = points, W = coupling for each observation
+	double U[] = new double[0], gc[] = new double[0];
+	double V[] = new double[0], gp[] = new double[0];
+	double W[] = new double[0];
+	// V inverse with damping and W*inv(V)
+	double Vinv[] = new double[0];
+	double Y[] = new double[0];
+
+	// reduced camera system
+	DMatrixRMaj S = new DMatrixRMaj(1,1);
+	DMatrixRMaj rhs = new DMatrixRMaj(1,1);
+	DMatrixRMaj deltaC = new DMatrixRMaj(1,1);
+	LinearSolverDense<DMatrixRMaj> solver = LinearSolverFactory_DDRM.chol(6);
+
+	// if true then computations are done in parallel
+	boolean concurrent = false;
+
+	/**
+	 * Specifies the model being optimized and the observations
+	 *
+	 * @param model Initial estimate at parameters. Modified during optimization. Pose of known views is not changed.
+	 * @param observations Observation of image features in each frame. Normalized coordinates.
+	 */
+	public void configure( CalibratedPoseAndPoint model , List<ViewPointObservations> observations ) {
+		this.model = model;
+		this.observations = observations;
+
+		numViews = model.getNumViews();
+		numPoints = model.getNumPoints();
+		numViewsUnknown = model.getNumUnknownViews();
+
+		codec.configure(numViews,numPoints,numViewsUnknown,model.getKnownArray());
+		function.configure(codec,model,observations);
+		jacobian.configure(model,observations);
+		numObservations = jacobian.getNumObservations();
+		indexFirstPoint = jacobian.getIndexFirstPoint();
+
+		int N = codec.getParamLength();
+		if( x.length < N ) {
+			x = new double[N];
+			candidate = new double[N];
+		}
+		int M = numObservations*2;
+		if( residuals.length < M ) {
+			residuals = new double[M];
+			residualsCandidate = new double[M];
+		}
+
+		if( U.length < numViewsUnknown*36 ) {
+			U = new double[numViewsUnknown*36];
+			gc = new double[numViewsUnknown*6];
+		}
+		if( V.length < numPoints*9 ) {
+			V = new double[numPoints*9];
+			Vinv = new double[numPoints*9];
+			gp = new double[numPoints*3];
+		}
+		if( W.length < numObservations*18 ) {
+			W = new double[numObservations*18];
+			Y = new double[numObservations*18];
+		}
+		S.reshape(numViewsUnknown*6,numViewsUnknown*6);
+		rhs.reshape(numViewsUnknown*6,1);
+		deltaC.reshape(numViewsUnknown*6,1);
+
+		createPointLookup();
+	}
+
+	/**
+	 * Creates a look up table from a point to the observations of that point
+	 */
+	private void createPointLookup() {
+		if( pointStart.length < numPoints+1 )
+			pointStart = new int[numPoints+1];
+		if( pointObs.length < numObservations ) {
+			pointObs = new int[numObservations];
+			obsView = new int[numObservations];
+			obsPoint = new int[numObservations];
+		}
+
+		for (int i = 0; i <= numPoints; i++) {
+			pointStart[i] = 0;
+		}
+		int indexObs = 0;
+		for (int view = 0; view < numViews; view++) {
+			FastQueue<PointIndexObservation> points = observations.get(view).getPoints();
+			for (int j = 0; j < points.size; j++, indexObs++) {
+				int pointIndex = points.data[j].pointIndex;
+				obsView[indexObs] = view;
+				obsPoint[indexObs] = pointIndex;
+				pointStart[pointIndex+1]++;
+			}
+		}
+		for (int i = 0; i < numPoints; i++) {
+			pointStart[i+1] += pointStart[i];
+		}
+		// pointStart is used as a counter then restored
+		for (indexObs = 0; indexObs < numObservations; indexObs++) {
+			pointObs[pointStart[obsPoint[indexObs]]++] = indexObs;
+		}
+		for (int i = numPoints; i > 0; i--) {
+			pointStart[i] = pointStart[i-1];
+		}
+		pointStart[0] = 0;
+	}
+
+	/**
+	 * Initializes the optimization using the current state of the model
+	 *
+	 * @param ftol Relative tolerance for change in the cost function
+	 * @param gtol Absolute tolerance for the gradient
+	 */
+	public void initialize( double ftol , double gtol ) {
+		this.ftol = ftol;
+		this.gtol = gtol;
+		this.lambda = initialDamping;
+		this.updateJacobian = true;
+
+		codec.encode(model,x);
+		fx = computeCost(x,residuals);
+	}
+
+	/**
+	 * Performs a single step of the optimization.
+	 *
+	 * @return true if it has converged or can't make any more progress
+	 */
+	public boolean iterate() {
+		if( updateJacobian ) {
+			computeNormalEquations();
+			if( maxAbs(gc,numViewsUnknown*6) <= gtol && maxAbs(gp,numPoints*3) <= gtol )
+				return true;
+			updateJacobian = false;
+		}
+
+		if( !computeStep() ) {
+			lambda *= 10;
+			return lambda >= MAX_LAMBDA;
+		}
+
+		double fc = computeCost(candidate, residualsCandidate);
+
+		if( fc < fx ) {
+			boolean converged = ftol*fx >= fx - fc;
+
+			double[] tmp = x; x = candidate; candidate = tmp;
+			tmp = residuals; residuals = residualsCandidate; residualsCandidate = tmp;
+			fx = fc;
+			lambda = Math.max(lambda*0.1, UtilEjml.EPS);
+			updateJacobian = true;
+			return converged;
+		} else {
+			lambda *= 10;
+			return lambda >= MAX_LAMBDA;
+		}
+	}
+
+	/**
+	 * Writes the best solution found into the model
+	 */
+	public void decode( CalibratedPoseAndPoint output ) {
+		codec.decode(x,output);
+	}
+
+	private double computeCost( double[] state , double[] output ) {
+		codec.decode(state,model);
+		function.process(model,output);
+
+		double total = 0;
+		for (int i = 0; i < numObservations*2; i++) {
+			total += output[i]*output[i];
+		}
+		return total/2.0;
+	}
+
+	private static double maxAbs( double[] data , int length ) {
+		double max = 0;
+		for (int i = 0; i < length; i++) {
+			max = Math.max(max,Math.abs(data[i]));
+		}
+		return max;
+	}
+
+	/**
+	 * Computes the blocks in the normal equations J<sup>T</sup>J and the gradient J<sup>T</sup>r
+	 */
+	void computeNormalEquations() {
+		jacobian.process(x);
+
+		loop(numViews, new IntRangeTask() {
+			@Override
+			public void process(int idx0, int idx1) {
+				for (int view = idx0; view < idx1; view++) {
+					computeViewBlocks(view);
+				}
+			}
+		});
+		loop(numPoints, new IntRangeTask() {
+			@Override
+			public void process(int idx0, int idx1) {
+				for (int point = idx0; point < idx1; point++) {
+					computePointBlocks(point);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Computes U, gc, and W for the view
+	 */
+	private void computeViewBlocks( int view ) {
+		int paramIndex = jacobian.getViewParam(view);
+		if( paramIndex < 0 )
+			return;
+
+		double[] jacView = jacobian.getJacView();
+		double[] jacPoint = jacobian.getJacPoint();
+
+		int indexU = paramIndex*6;
+		for (int i = 0; i < 36; i++) {
+			U[indexU+i] = 0;
+		}
+		for (int i = 0; i < 6; i++) {
+			gc[paramIndex+i] = 0;
+		}
+
+		int obs0 = jacobian.getViewOffset(view);
+		int obs1 = jacobian.getViewOffset(view+1);
+		for (int indexObs = obs0; indexObs < obs1; indexObs++) {
+			int indexJV = indexObs*12;
+			int indexJP = indexObs*6;
+			double rx = residuals[indexObs*2];
+			double ry = residuals[indexObs*2+1];
+
+			for (int a = 0; a < 6; a++) {
+				double ax = jacView[indexJV+a];
+				double ay = jacView[indexJV+6+a];
+				gc[paramIndex+a] += ax*rx + ay*ry;
+				for (int b = a; b < 6; b++) {
+					U[indexU+a*6+b] += ax*jacView[indexJV+b] + ay*jacView[indexJV+6+b];
+				}
+				int indexW = indexObs*18 + a*3;
+				for (int b = 0; b < 3; b++) {
+					W[indexW+b] = ax*jacPoint[indexJP+b] + ay*jacPoint[indexJP+3+b];
+				}
+			}
+		}
+		copyUpperToLower(U,indexU,6);
+	}
+
+	/**
+	 * Computes V and gp for the point
+	 */
+	private void computePointBlocks( int point ) {
+		double[] jacPoint = jacobian.getJacPoint();
+
+		int indexV = point*9;
+		for (int i = 0; i < 9; i++) {
+			V[indexV+i] = 0;
+		}
+		for (int i = 0; i < 3; i++) {
+			gp[point*3+i] = 0;
+		}
+
+		for (int i = pointStart[point]; i < pointStart[point+1]; i++) {
+			int indexObs = pointObs[i];
+			int indexJP = indexObs*6;
+			double rx = residuals[indexObs*2];
+			double ry = residuals[indexObs*2+1];
+
+			for (int a = 0; a < 3; a++) {
+				double ax = jacPoint[indexJP+a];
+				double ay = jacPoint[indexJP+3+a];
+				gp[point*3+a] += ax*rx + ay*ry;
+				for (int b = a; b < 3; b++) {
+					V[indexV+a*3+b] += ax*jacPoint[indexJP+b] + ay*jacPoint[indexJP+3+b];
+				}
+			}
+		}
+		copyUpperToLower(V,indexV,3);
+	}
+
+	/**
+	 * Solves the damped normal equations for the step using the Schur complement and computes the candidate state
+	 *
+	 * @return true if successful or false if the system was singular
+	 */
+	boolean computeStep() {
+		// invert the damped point blocks and compute W*inv(V)
+		loop(numPoints, new IntRangeTask() {
+			@Override
+			public void process(int idx0, int idx1) {
+				for (int point = idx0; point < idx1; point++) {
+					invertPointBlock(point);
+				}
+			}
+		});
+
+		// construct the reduced camera system one block row at a time
+		loop(numViews, new IntRangeTask() {
+			@Override
+			public void process(int idx0, int idx1) {
+				for (int view = idx0; view < idx1; view++) {
+					computeReducedRow(view);
+				}
+			}
+		});
+
+		if( numViewsUnknown > 0 ) {
+			if( !solver.setA(S) )
+				return false;
+			solver.solve(rhs,deltaC);
+		}
+
+		for (int i = 0; i < numViewsUnknown*6; i++) {
+			candidate[i] = x[i] + deltaC.data[i];
+		}
+
+		// back substitute to find the change in each point
+		loop(numPoints, new IntRangeTask() {
+			@Override
+			public void process(int idx0, int idx1) {
+				for (int point = idx0; point < idx1; point++) {
+					computePointStep(point);
+				}
+			}
+		});
+
+		return true;
+	}
+
+	/**
+	 * Applies damping to the point's V block then inverts it.  Then computes Y = W*inv(V) for each
+	 * observation of the point.
+	 */
+	private void invertPointBlock( int point ) {
+		int index = point*9;
+		if( pointStart[point] == pointStart[point+1] ) {
+			for (int i = 0; i < 9; i++) {
+				Vinv[index+i] = 0;
+			}
+			return;
+		}
+
+		double a11 = damp(V[index  ]), a12 = V[index+1], a13 = V[index+2];
+		double a22 = damp(V[index+4]), a23 = V[index+5];
+		double a33 = damp(V[index+8]);
+
+		// inverse of a symmetric 3x3 matrix using the adjugate
+		double m11 = a22*a33 - a23*a23;
+		double m12 = a13*a23 - a12*a33;
+		double m13 = a12*a23 - a13*a22;
+		double m22 = a11*a33 - a13*a13;
+		double m23 = a12*a13 - a11*a23;
+		double m33 = a11*a22 - a12*a12;
+
+		double det = a11*m11 + a12*m12 + a13*m13;
+
+		Vinv[index  ] = m11/det; Vinv[index+1] = m12/det; Vinv[index+2] = m13/det;
+		Vinv[index+3] = m12/det; Vinv[index+4] = m22/det; Vinv[index+5] = m23/det;
+		Vinv[index+6] = m13/det; Vinv[index+7] = m23/det; Vinv[index+8] = m33/det;
+
+		for (int i = pointStart[point]; i < pointStart[point+1]; i++) {
+			int indexObs = pointObs[i];
+			if( jacobian.getViewParam(obsView[indexObs]) < 0 )
+				continue;
+
+			int indexW = indexObs*18;
+			for (int row = 0; row < 6; row++) {
+				int indexRow = indexW + row*3;
+				for (int col = 0; col < 3; col++) {
+					Y[indexRow+col] = W[indexRow  ]*Vinv[index+col] +
+							W[indexRow+1]*Vinv[index+3+col] +
+							W[indexRow+2]*Vinv[index+6+col];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Computes the block row in the reduced camera system and right hand side for a view.
+	 *
+	 * S(i,k) = U(i)*delta(i,k) - sum W(i,j)*inv(V(j))*W(k,j)<sup>T</sup>
+	 * rhs(i) = -gc(i) + sum W(i,j)*inv(V(j))*gp(j)
+	 */
+	private void computeReducedRow( int view ) {
+		int paramIndex = jacobian.getViewParam(view);
+		if( paramIndex < 0 )
+			return;
+
+		final int N = S.numCols;
+		double[] s = S.data;
+
+		// copy the damped U into the diagonal and zero the rest of the block row
+		for (int row = 0; row < 6; row++) {
+			int indexS = (paramIndex+row)*N;
+			for (int col = 0; col < N; col++) {
+				s[indexS+col] = 0;
+			}
+			for (int col = 0; col < 6; col++) {
+				double value = U[paramIndex*6+row*6+col];
+				s[indexS+paramIndex+col] = row == col ? damp(value) : value;
+			}
+			rhs.data[paramIndex+row] = -gc[paramIndex+row];
+		}
+
+		int obs0 = jacobian.getViewOffset(view);
+		int obs1 = jacobian.getViewOffset(view+1);
+		for (int obsA = obs0; obsA < obs1; obsA++) {
+			int point = obsPoint[obsA];
+			int indexY = obsA*18;
+
+			// right hand side
+			for (int row = 0; row < 6; row++) {
+				int indexRow = indexY + row*3;
+				rhs.data[paramIndex+row] += Y[indexRow]*gp[point*3] +
+						Y[indexRow+1]*gp[point*3+1] + Y[indexRow+2]*gp[point*3+2];
+			}
+
+			// go through all the other views which observed this point
+			for (int i = pointStart[point]; i < pointStart[point+1]; i++) {
+				int obsB = pointObs[i];
+				int paramB = jacobian.getViewParam(obsView[obsB]);
+				if( paramB < 0 )
+					continue;
+
+				int indexW = obsB*18;
+				for (int row = 0; row < 6; row++) {
+					int indexRow = indexY + row*3;
+					double y0 = Y[indexRow], y1 = Y[indexRow+1], y2 = Y[indexRow+2];
+					int indexS = (paramIndex+row)*N + paramB;
+					for (int col = 0; col < 6; col++) {
+						int indexCol = indexW + col*3;
+						s[indexS+col] -= y0*W[indexCol] + y1*W[indexCol+1] + y2*W[indexCol+2];
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Computes the change in a point's location: inv(V(j))*(-gp(j) - sum W(i,j)<sup>T</sup>*dc(i))
+	 */
+	private void computePointStep( int point ) {
+		double b0 = -gp[point*3], b1 = -gp[point*3+1], b2 = -gp[point*3+2];
+
+		for (int i = pointStart[point]; i < pointStart[point+1]; i++) {
+			int indexObs = pointObs[i];
+			int paramIndex = jacobian.getViewParam(obsView[indexObs]);
+			if( paramIndex < 0 )
+				continue;
+
+			int indexW = indexObs*18;
+			for (int row = 0; row < 6; row++) {
+				double dc = deltaC.data[paramIndex+row];
+				b0 -= W[indexW+row*3  ]*dc;
+				b1 -= W[indexW+row*3+1]*dc;
+				b2 -= W[indexW+row*3+2]*dc;
+			}
+		}
+
+		int index = point*9;
+		int indexParam = indexFirstPoint + point*3;
+		candidate[indexParam  ] = x[indexParam  ] + Vinv[index  ]*b0 + Vinv[index+1]*b1 + Vinv[index+2]*b2;
+		candidate[indexParam+1] = x[indexParam+1] + Vinv[index+3]*b0 + Vinv[index+4]*b1 + Vinv[index+5]*b2;
+		candidate[indexParam+2] = x[indexParam+2] + Vinv[index+6]*b0 + Vinv[index+7]*b1 + Vinv[index+8]*b2;
+	}
+
+	/**
+	 * Applies Levenberg-Marquardt damping to a diagonal element
+	 */
+	private double damp( double value ) {
+		return value + lambda*Math.max(value,UtilEjml.EPS);
+	}
+
+	private static void copyUpperToLower( double[] M , int offset , int width ) {
+		for (int i = 0; i < width; i++) {
+			for (int j = 0; j < i; j++) {
+				M[offset+i*width+j] = M[offset+j*width+i];
+			}
+		}
+	}
+
+	/**
+	 * Processes the range in parallel if concurrent is true
+	 */
+	private void loop( int length , IntRangeTask task ) {
+		if( concurrent )
+			BoofConcurrency.loopBlocks(0,length,task);
+		else
+			task.process(0,length);
+	}
+
+	/**
+	 * Returns the value of the cost function, which is half the sum of the residuals squared.
+	 */
+	public double getFunctionValue() {
+		return fx;
+	}
+
+	public double getInitialDamping() {
+		return initialDamping;
+	}
+
+	public void setInitialDamping(double initialDamping) {
+		this.initialDamping = initialDamping;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * If true then residuals, the Jacobian, and the normal equations are computed in parallel using
+	 * {@link BoofConcurrency}
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+		function.setConcurrent(concurrent);
+		jacobian.setConcurrent(concurrent);
+	}
+}
@@ -18,6 +18,8 @@
 
 package boofcv.alg.geo.bundle;
 
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
 import georegression.struct.point.Point3D_F64;
 import georegression.struct.se.Se3_F64;
 import georegression.transform.se.SePointOps_F64;
@@ -52,6 +54,11 @@ public class CalibPoseAndPointResiduals
 
 	// number of observations.  2 for each point in each view
 	int numObservations;
+	// index of the first residual in each view
+	int viewOffset[] = new int[0];
+
+	// if true the residuals for different views are computed in parallel
+	boolean concurrent = false;
 
 	// local variable which stores the predicted location of the feature in the camera frame
 	Point3D_F64 cameraPt = new Point3D_F64();
@@ -70,8 +77,12 @@ public class CalibPoseAndPointResiduals
 		this.codec = codec;
 		this.observations = obs;
 
+		if( viewOffset.length < model.getNumViews() )
+			viewOffset = new int[ model.getNumViews() ];
+
 		numObservations = 0;
 		for( int view = 0; view < model.getNumViews(); view++ ) {
+			viewOffset[view] = numObservations;
 			numObservations += obs.get(view).getPoints().size()*2;
 		}
 	}
@@ -94,14 +105,30 @@ public class CalibPoseAndPointResiduals
 		process(model,output);
 	}
 
-	public void process(CalibratedPoseAndPoint model , double[] output) {
-		int outputIndex = 0;
+	public void process(final CalibratedPoseAndPoint model , final double[] output) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, model.getNumViews(), new IntRangeTask() {
+				@Override
+				public void process(int idx0, int idx1) {
+					processViews(model, output, idx0, idx1, new Point3D_F64());
+				}
+			});
+		} else {
+			processViews(model, output, 0, model.getNumViews(), cameraPt);
+		}
+	}
 
-		for( int view = 0; view < model.getNumViews(); view++) {
+	/**
+	 * Computes the residuals for views in the specified range
+	 */
+	private void processViews(CalibratedPoseAndPoint model , double[] output , int view0 , int view1 ,
+							  Point3D_F64 cameraPt ) {
+		for( int view = view0; view < view1; view++) {
 			Se3_F64 worldToCamera = model.getWorldToCamera(view);
 
 			FastQueue<PointIndexObservation> observedPts = observations.get(view).getPoints();
 
+			int outputIndex = viewOffset[view];
 			for( int i = 0; i < observedPts.size; i++ ) {
 				PointIndexObservation o = observedPts.data[i];
 
@@ -114,4 +141,15 @@ public class CalibPoseAndPointResiduals
 			}
 		}
 	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * If true then the residuals for different views will be computed in parallel using {@link BoofConcurrency}
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
 }
@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import boofcv.alg.geo.RodriguesRotationJacobian;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectTask;
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.geometry.GeometryMath_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.so.Rodrigues_F64;
+import org.ddogleg.struct.FastQueue;
+import org.ejml.data.DMatrixRMaj;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Computes the Jacobian for {@link CalibPoseAndPointResiduals} in a sparse block format.  Each observation of a
+ * point only depends on the pose of the view it was observed in and the point's location.  Instead of a dense
+ * matrix two blocks are saved for each observation, a 2x6 block for the view's parameters and a 2x3 block for
+ * the point's location. Parameters are encoded the same way as {@link CalibPoseAndPointRodriguesCodec}.
+ * </p>
+ *
+ * <p>
+ * Observations are indexed in the order they appear in, e.g. all the observations in view 0 followed by all
+ * the observations in view 1.  Views are processed in parallel when concurrent is set to true.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CalibPoseAndPointSparseJacobian {
+
+	// observed location of features in each view
+	List<ViewPointObservations> observations;
+	// the model being optimized.  Used to look up the pose of known views.
+	CalibratedPoseAndPoint model;
+
+	// number of camera views
+	int numViews;
+	// number of views with unknown extrinsic parameters
+	int numViewsUnknown;
+	// number of observations across all views
+	int numObservations;
+
+	// index of the first observation in each view
+	int viewOffset[] = new int[0];
+	// index of each view's first parameter.  -1 if the view is known
+	int viewParam[] = new int[0];
+	// index in parameters of the first point
+	int indexFirstPoint;
+
+	// Jacobian of the view parameters.  2x6 row major block for each observation.  Zero if the view is known.
+	double jacView[] = new double[0];
+	// Jacobian of the point location.  2x3 row major block for each observation
+	double jacPoint[] = new double[0];
+
+	// if true the views will be processed in parallel
+	boolean concurrent = false;
+
+	// storage for each thread
+	FastQueue<Workspace> workspaces = new FastQueue<>(Workspace.class,true);
+
+	/**
+	 * Specifies the structure of the problem
+	 *
+	 * @param model The model being optimized. Pose of known views is read from it.
+	 * @param observations Observations of points in each view
+	 */
+	public void configure( CalibratedPoseAndPoint model , List<ViewPointObservations> observations ) {
+		if( observations.size() != model.getNumViews() )
+			throw new IllegalArgumentException("There must be a set of observations for each view");
+
+		this.model = model;
+		this.observations = observations;
+		this.numViews = model.getNumViews();
+
+		if( viewOffset.length < numViews+1 ) {
+			viewOffset = new int[ numViews+1 ];
+			viewParam = new int[ numViews ];
+		}
+
+		numViewsUnknown = 0;
+		numObservations = 0;
+		for( int i = 0; i < numViews; i++ ) {
+			viewOffset[i] = numObservations;
+			numObservations += observations.get(i).points.size;
+			if( model.isViewKnown(i) ) {
+				viewParam[i] = -1;
+			} else {
+				viewParam[i] = numViewsUnknown*6;
+				numViewsUnknown++;
+			}
+		}
+		viewOffset[numViews] = numObservations;
+		indexFirstPoint = numViewsUnknown*6;
+
+		if( jacPoint.length < numObservations*6 ) {
+			jacView = new double[ numObservations*12 ];
+			jacPoint = new double[ numObservations*6 ];
+		}
+	}
+
+	/**
+	 * Computes the Jacobian blocks at the specified parameters
+	 *
+	 * @param input Encoded parameters
+	 */
+	public void process( final double[] input ) {
+		if( concurrent ) {
+			BoofConcurrency.loopBlocks(0, numViews, workspaces, new IntRangeObjectTask<Workspace>() {
+				@Override
+				public void process(Workspace work, int idx0, int idx1) {
+					processViews(input, work, idx0, idx1);
+				}
+			});
+		} else {
+			workspaces.reset();
+			processViews(input, workspaces.grow(), 0, numViews);
+		}
+	}
+
+	private void processViews( double[] input , Workspace work , int view0 , int view1 ) {
+		for (int view = view0; view < view1; view++) {
+			int paramIndex = viewParam[view];
+			boolean known = paramIndex < 0;
+
+			if( known ) {
+				Se3_F64 se = model.getWorldToCamera(view);
+				work.R.set(se.getR());
+				work.T.set(se.getT().x, se.getT().y, se.getT().z);
+			} else {
+				double rodX = input[paramIndex];
+				double rodY = input[paramIndex+1];
+				double rodZ = input[paramIndex+2];
+
+				work.rodrigues.setParamVector(rodX,rodY,rodZ);
+				work.rodJacobian.process(rodX,rodY,rodZ);
+				ConvertRotation3D_F64.rodriguesToMatrix(work.rodrigues,work.R);
+				work.T.set(input[paramIndex+3],input[paramIndex+4],input[paramIndex+5]);
+			}
+
+			FastQueue<PointIndexObservation> points = observations.get(view).points;
+			for (int j = 0; j < points.size; j++) {
+				int indexObs = viewOffset[view] + j;
+				int indexParamWorld = indexFirstPoint + points.data[j].pointIndex*3;
+
+				Point3D_F64 worldPt = work.worldPt;
+				Point3D_F64 cameraPt = work.cameraPt;
+				worldPt.x = input[indexParamWorld];
+				worldPt.y = input[indexParamWorld+1];
+				worldPt.z = input[indexParamWorld+2];
+
+				// location of point in camera view
+				GeometryMath_F64.mult(work.R, worldPt, cameraPt);
+				cameraPt.x += work.T.x;
+				cameraPt.y += work.T.y;
+				cameraPt.z += work.T.z;
+
+				int indexView = indexObs*12;
+				if( known ) {
+					for (int i = 0; i < 12; i++) {
+						jacView[indexView+i] = 0;
+					}
+				} else {
+					addRodriguesJacobian(work.rodJacobian.Rx, worldPt, cameraPt, indexView);
+					addRodriguesJacobian(work.rodJacobian.Ry, worldPt, cameraPt, indexView+1);
+					addRodriguesJacobian(work.rodJacobian.Rz, worldPt, cameraPt, indexView+2);
+					addTranslationJacobian(cameraPt, indexView+3);
+				}
+				addWorldPointGradient(work.R, cameraPt, indexObs*6);
+			}
+		}
+	}
+
+	/**
+	 * Partial for a Rodrigues parameter.  See {@link CalibPoseAndPointRodriguesJacobian}.
+	 *
+	 * @param index Index of the partial in the x row of the view block
+	 */
+	private void addRodriguesJacobian( DMatrixRMaj Rj , Point3D_F64 worldPt , Point3D_F64 cameraPt , int index )
+	{
+		double Rx = (Rj.data[0]*worldPt.x + Rj.data[1]*worldPt.y + Rj.data[2]*worldPt.z)/cameraPt.z;
+		double Ry = (Rj.data[3]*worldPt.x + Rj.data[4]*worldPt.y + Rj.data[5]*worldPt.z)/cameraPt.z;
+
+		double zDot_div_z2 = (Rj.data[6]*worldPt.x + Rj.data[7]*worldPt.y + Rj.data[8]*worldPt.z)/
+				(cameraPt.z*cameraPt.z);
+
+		jacView[index] = -zDot_div_z2*cameraPt.x + Rx;
+		jacView[index+6] = -zDot_div_z2*cameraPt.y + Ry;
+	}
+
+	/**
+	 * Partials for the translation. See {@link CalibPoseAndPointRodriguesJacobian}.
+	 */
+	private void addTranslationJacobian( Point3D_F64 cameraPt , int index )
+	{
+		double divZ = 1.0/cameraPt.z;
+		double divZ2 = 1.0/(cameraPt.z*cameraPt.z);
+
+		jacView[index  ] = divZ;
+		jacView[index+1] = 0;
+		jacView[index+2] = -cameraPt.x*divZ2;
+		jacView[index+6] = 0;
+		jacView[index+7] = divZ;
+		jacView[index+8] = -cameraPt.y*divZ2;
+	}
+
+	/**
+	 * Partials for the point's location. See {@link CalibPoseAndPointRodriguesJacobian}.
+	 */
+	private void addWorldPointGradient( DMatrixRMaj R , Point3D_F64 cameraPt , int index ) {
+		double divZ = 1.0/cameraPt.z;
+		double divZ2 = 1.0/(cameraPt.z*cameraPt.z);
+
+		for (int i = 0; i < 3; i++) {
+			jacPoint[index+i]   = -R.data[6+i]*divZ2*cameraPt.x + R.data[i]*divZ;
+			jacPoint[index+3+i] = -R.data[6+i]*divZ2*cameraPt.y + R.data[3+i]*divZ;
+		}
+	}
+
+	/**
+	 * Returns the index of the first observation in the view
+	 */
+	public int getViewOffset( int view ) {
+		return viewOffset[view];
+	}
+
+	/**
+	 * Returns the index of the view's first parameter or -1 if the view is known
+	 */
+	public int getViewParam( int view ) {
+		return viewParam[view];
+	}
+
+	public int getNumObservations() {
+		return numObservations;
+	}
+
+	public int getNumViewsUnknown() {
+		return numViewsUnknown;
+	}
+
+	public int getIndexFirstPoint() {
+		return indexFirstPoint;
+	}
+
+	/**
+	 * 2x6 blocks for the view parameters of each observation
+	 */
+	public double[] getJacView() {
+		return jacView;
+	}
+
+	/**
+	 * 2x3 blocks for the point parameters of each observation
+	 */
+	public double[] getJacPoint() {
+		return jacPoint;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * If true then the views will be processed in parallel using {@link BoofConcurrency}
+	 */
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	/**
+	 * Storage used by each thread
+	 */
+	public static class Workspace {
+		RodriguesRotationJacobian rodJacobian = new RodriguesRotationJacobian();
+		Rodrigues_F64 rodrigues = new Rodrigues_F64();
+		DMatrixRMaj R = new DMatrixRMaj(3,3);
+		Point3D_F64 T = new Point3D_F64();
+		Point3D_F64 worldPt = new Point3D_F64();
+		Point3D_F64 cameraPt = new Point3D_F64();
+	}
+}
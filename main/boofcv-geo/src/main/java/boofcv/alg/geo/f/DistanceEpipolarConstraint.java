@@ -18,9 +18,10 @@
 
 package boofcv.alg.geo.f;
 
+import boofcv.alg.geo.robust.DistanceFromModelBatch;
 import boofcv.struct.geo.AssociatedPair;
+import boofcv.struct.geo.AssociatedPairArrays;
 import georegression.geometry.GeometryMath_F64;
-import org.ddogleg.fitting.modelset.DistanceFromModel;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.dense.row.CommonOps_DDRM;
 
@@ -28,14 +29,18 @@ import java.util.List;
 
 /**
  * Computes error using the epipolar constraint.  The input matrix is normalized so that different matrices
- * can be compared at the same scale.
+ * can be compared at the same scale.  Implements {@link DistanceFromModelBatch} so that large sets of points
+ * can be processed from a struct of arrays.
  *
  * @author Peter Abeles
  */
-public class DistanceEpipolarConstraint implements DistanceFromModel<DMatrixRMaj,AssociatedPair> {
+public class DistanceEpipolarConstraint implements DistanceFromModelBatch<DMatrixRMaj,AssociatedPair> {
 
 	DMatrixRMaj M = new DMatrixRMaj(3,3);
 
+	// points in struct of arrays format for batch processing
+	AssociatedPairArrays arrays = new AssociatedPairArrays();
+
 	@Override
 	public void setModel(DMatrixRMaj F )
 	{
@@ -56,6 +61,45 @@ public class DistanceEpipolarConstraint implements DistanceFromModel<DMatrixRMaj
 		}
 	}
 
+	@Override
+	public void setPoints(List<AssociatedPair> points) {
+		arrays.set(points);
+	}
+
+	@Override
+	public void computeDistance(int idx0, int idx1, double[] distance) {
+		final double[] m = M.data;
+		final double[] x1 = arrays.x1, y1 = arrays.y1, x2 = arrays.x2, y2 = arrays.y2;
+
+		for( int i = idx0; i < idx1; i++ ) {
+			double x = x1[i], y = y1[i];
+			// M*p1
+			double a = m[0]*x + m[1]*y + m[2];
+			double b = m[3]*x + m[4]*y + m[5];
+			double c = m[6]*x + m[7]*y + m[8];
+
+			distance[i-idx0] = Math.abs(x2[i]*a + y2[i]*b + c);
+		}
+	}
+
+	@Override
+	public int countInliers(int idx0, int idx1, double threshold) {
+		final double[] m = M.data;
+		final double[] x1 = arrays.x1, y1 = arrays.y1, x2 = arrays.x2, y2 = arrays.y2;
+
+		int total = 0;
+		for( int i = idx0; i < idx1; i++ ) {
+			double x = x1[i], y = y1[i];
+			double a = m[0]*x + m[1]*y + m[2];
+			double b = m[3]*x + m[4]*y + m[5];
+			double c = m[6]*x + m[7]*y + m[8];
+
+			if( Math.abs(x2[i]*a + y2[i]*b + c) < threshold )
+				total++;
+		}
+		return total;
+	}
+
 	@Override
 	public Class<AssociatedPair> getPointType() {
 		return AssociatedPair.class;
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.robust;
+
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+
+import java.util.List;
+
+/**
+ * {@link DistanceFromModel} which can process a range of points at once after they have been copied into an
+ * internal struct of arrays format, e.g. {@link boofcv.struct.geo.AssociatedPairArrays}.  Used by robust
+ * estimators to speed up scoring of hypotheses when there are a large number of points.
+ *
+ * @author Peter Abeles
+ */
+public interface DistanceFromModelBatch<Model,Point> extends DistanceFromModel<Model,Point> {
+
+	/**
+	 * Copies the points into internal storage.  Must be called again if the points change.
+	 *
+	 * @param points Points which are to be processed
+	 */
+	void setPoints( List<Point> points );
+
+	/**
+	 * Computes the distance for points with indexes from idx0 to idx1-1.
+	 *
+	 * @param idx0 First point, inclusive
+	 * @param idx1 Last point, exclusive
+	 * @param distance (Output) Distance of each point. distance[i-idx0] is the distance for point i.
+	 */
+	void computeDistance( int idx0 , int idx1 , double[] distance );
+
+	/**
+	 * Counts the points with indexes from idx0 to idx1-1 whose distance is less than the threshold.
+	 *
+	 * @param idx0 First point, inclusive
+	 * @param idx1 Last point, exclusive
+	 * @param threshold A point is an inlier if its distance is less than this value
+	 * @return Number of inliers
+	 */
+	int countInliers( int idx0 , int idx1 , double threshold );
+}
@@ -20,10 +20,10 @@ package boofcv.alg.geo.robust;
 
 import boofcv.alg.geo.NormalizedToPixelError;
 import boofcv.struct.geo.AssociatedPair;
+import boofcv.struct.geo.AssociatedPairArrays;
 import georegression.struct.homography.Homography2D_F64;
 import georegression.struct.point.Point2D_F64;
 import georegression.transform.homography.HomographyPointOps_F64;
-import org.ddogleg.fitting.modelset.DistanceFromModel;
 
 import java.util.List;
 
@@ -36,11 +36,14 @@ import java.util.List;
  * 
  * @author Peter Abeles
  */
-public class DistanceHomographyPixelSq implements DistanceFromModel<Homography2D_F64,AssociatedPair> {
+public class DistanceHomographyPixelSq implements DistanceFromModelBatch<Homography2D_F64,AssociatedPair> {
 
 	Homography2D_F64 model;
 	Point2D_F64 expected = new Point2D_F64();
 
+	// points in struct of arrays format for batch processing
+	AssociatedPairArrays arrays = new AssociatedPairArrays();
+
 	NormalizedToPixelError errorCam2 = new NormalizedToPixelError();
 
 	/**
@@ -76,6 +79,46 @@ public class DistanceHomographyPixelSq implements DistanceFromModel<Homography2D
 		}
 	}
 
+	@Override
+	public void setPoints(List<AssociatedPair> points) {
+		arrays.set(points);
+	}
+
+	@Override
+	public void computeDistance(int idx0, int idx1, double[] distance) {
+		final double a11 = model.a11, a12 = model.a12, a13 = model.a13;
+		final double a21 = model.a21, a22 = model.a22, a23 = model.a23;
+		final double a31 = model.a31, a32 = model.a32, a33 = model.a33;
+
+		final double[] x1 = arrays.x1, y1 = arrays.y1, x2 = arrays.x2, y2 = arrays.y2;
+
+		for( int i = idx0; i < idx1; i++ ) {
+			double x = x1[i], y = y1[i];
+			double z = a31*x + a32*y + a33;
+
+			distance[i-idx0] = errorCam2.errorSq((a11*x + a12*y + a13)/z,(a21*x + a22*y + a23)/z,x2[i],y2[i]);
+		}
+	}
+
+	@Override
+	public int countInliers(int idx0, int idx1, double threshold) {
+		final double a11 = model.a11, a12 = model.a12, a13 = model.a13;
+		final double a21 = model.a21, a22 = model.a22, a23 = model.a23;
+		final double a31 = model.a31, a32 = model.a32, a33 = model.a33;
+
+		final double[] x1 = arrays.x1, y1 = arrays.y1, x2 = arrays.x2, y2 = arrays.y2;
+
+		int total = 0;
+		for( int i = idx0; i < idx1; i++ ) {
+			double x = x1[i], y = y1[i];
+			double z = a31*x + a32*y + a33;
+
+			if( errorCam2.errorSq((a11*x + a12*y + a13)/z,(a21*x + a22*y + a23)/z,x2[i],y2[i]) < threshold )
+				total++;
+		}
+		return total;
+	}
+
 	@Override
 	public Class<AssociatedPair> getPointType() {
 		return AssociatedPair.class;
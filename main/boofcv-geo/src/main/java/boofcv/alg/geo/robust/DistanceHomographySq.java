@@ -19,10 +19,10 @@
 package boofcv.alg.geo.robust;
 
 import boofcv.struct.geo.AssociatedPair;
+import boofcv.struct.geo.AssociatedPairArrays;
 import georegression.struct.homography.Homography2D_F64;
 import georegression.struct.point.Point2D_F64;
 import georegression.transform.homography.HomographyPointOps_F64;
-import org.ddogleg.fitting.modelset.DistanceFromModel;
 
 import java.util.List;
 
@@ -38,14 +38,21 @@ import java.util.List;
  * error = (p2'.x - p2.x)<sup>2</sup>  + (p2'.y - p2.y)<sup>2</sup>, where p2' is the predicted location and p2 is
  * the observed location.
  * </p>
+ *
+ * <p>
+ * Implements {@link DistanceFromModelBatch} so that large sets of points can be processed from a struct of arrays.
+ * </p>
  * 
  * @author Peter Abeles
  */
-public class DistanceHomographySq implements DistanceFromModel<Homography2D_F64,AssociatedPair> {
+public class DistanceHomographySq implements DistanceFromModelBatch<Homography2D_F64,AssociatedPair> {
 
 	Homography2D_F64 model;
 	Point2D_F64 expected = new Point2D_F64();
 
+	// points in struct of arrays format for batch processing
+	AssociatedPairArrays arrays = new AssociatedPairArrays();
+
 	@Override
 	public void setModel(Homography2D_F64 model ) {
 		this.model = model;
@@ -68,6 +75,50 @@ public class DistanceHomographySq implements DistanceFromModel<Homography2D_F64,
 		}
 	}
 
+	@Override
+	public void setPoints(List<AssociatedPair> points) {
+		arrays.set(points);
+	}
+
+	@Override
+	public void computeDistance(int idx0, int idx1, double[] distance) {
+		final double a11 = model.a11, a12 = model.a12, a13 = model.a13;
+		final double a21 = model.a21, a22 = model.a22, a23 = model.a23;
+		final double a31 = model.a31, a32 = model.a32, a33 = model.a33;
+
+		final double[] x1 = arrays.x1, y1 = arrays.y1, x2 = arrays.x2, y2 = arrays.y2;
+
+		for( int i = idx0; i < idx1; i++ ) {
+			double x = x1[i], y = y1[i];
+			double z = a31*x + a32*y + a33;
+			double dx = (a11*x + a12*y + a13)/z - x2[i];
+			double dy = (a21*x + a22*y + a23)/z - y2[i];
+
+			distance[i-idx0] = dx*dx + dy*dy;
+		}
+	}
+
+	@Override
+	public int countInliers(int idx0, int idx1, double threshold) {
+		final double a11 = model.a11, a12 = model.a12, a13 = model.a13;
+		final double a21 = model.a21, a22 = model.a22, a23 = model.a23;
+		final double a31 = model.a31, a32 = model.a32, a33 = model.a33;
+
+		final double[] x1 = arrays.x1, y1 = arrays.y1, x2 = arrays.x2, y2 = arrays.y2;
+
+		int total = 0;
+		for( int i = idx0; i < idx1; i++ ) {
+			double x = x1[i], y = y1[i];
+			double z = a31*x + a32*y + a33;
+			double dx = (a11*x + a12*y + a13)/z - x2[i];
+			double dy = (a21*x + a22*y + a23)/z - y2[i];
+
+			if( dx*dx + dy*dy < threshold )
+				total++;
+		}
+		return total;
+	}
+
 	@Override
 	public Class<AssociatedPair> getPointType() {
 		return AssociatedPair.class;
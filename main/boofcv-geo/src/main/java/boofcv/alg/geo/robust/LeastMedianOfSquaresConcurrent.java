@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.robust;
+
+import boofcv.concurrency.BoofConcurrency;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.ddogleg.fitting.modelset.ModelManager;
+import org.ddogleg.fitting.modelset.lmeds.LeastMedianOfSquares;
+import org.ddogleg.sorting.QuickSelect;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p>
+ * Variant of {@link LeastMedianOfSquares} which generates and scores hypotheses on multiple threads.  Each thread
+ * has its own {@link ModelGenerator} and {@link DistanceFromModel} since those are not thread safe.  The number of
+ * threads used is the number of generators it was provided.
+ * </p>
+ *
+ * <p>
+ * Results are the same no matter how many threads are used.  Each cycle draws its sample using a random number
+ * generator with a seed derived from the random seed and the cycle's index, see
+ * {@link RansacConcurrent#seedForIteration}.  Ties are broken by selecting the hypothesis from the earlier cycle.
+ * </p>
+ *
+ * <p>
+ * If a distance function implements {@link DistanceFromModelBatch} then errors are computed from its internal
+ * struct of arrays copy of the points.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LeastMedianOfSquaresConcurrent<Model,Point> extends LeastMedianOfSquares<Model,Point> {
+
+	// seed for the random number generator
+	long randSeed;
+	// number of cycles it will perform
+	int totalCycles;
+	// number of points in the sample
+	int sampleSize;
+	// if the best median error is more than this it will fail
+	double maxMedianError;
+	// fraction of points which are considered inliers
+	double inlierFrac;
+
+	// used to create and copy models
+	ModelManager<Model> manager;
+
+	// storage for each thread
+	List<Worker> workers = new ArrayList<>();
+
+	// best hypothesis
+	Model bestParam;
+	double bestMedian;
+	int bestCycle;
+
+	// input points and the inliers
+	List<Point> dataSet = new ArrayList<>();
+	List<Point> inlierSet = new ArrayList<>();
+	int matchToInput[] = new int[1];
+	double errors[] = new double[1];
+
+	/**
+	 * Creates LMedS
+	 *
+	 * @param randSeed Random seed
+	 * @param totalCycles Number of hypotheses it will generate
+	 * @param maxMedianError If the best median error is larger than this it is considered a failure
+	 * @param inlierFraction Fraction of points with the lowest error which are considered inliers.  If &le; 0
+	 *                       then all the points are returned as inliers
+	 * @param manager Used to create and copy models
+	 * @param generators Generates models from a minimal set of points.  One for each thread.
+	 * @param distances Distance of a point from the model.  One for each thread.
+	 */
+	public LeastMedianOfSquaresConcurrent(long randSeed, int totalCycles,
+										  double maxMedianError, double inlierFraction,
+										  ModelManager<Model> manager,
+										  List<ModelGenerator<Model,Point>> generators,
+										  List<DistanceFromModel<Model,Point>> distances) {
+		super(randSeed, totalCycles, maxMedianError, inlierFraction, manager, generators.get(0), distances.get(0));
+		if( generators.size() != distances.size() )
+			throw new IllegalArgumentException("Must be the same number of generators and distances");
+
+		this.randSeed = randSeed;
+		this.totalCycles = totalCycles;
+		this.maxMedianError = maxMedianError;
+		this.inlierFrac = inlierFraction;
+		this.manager = manager;
+		this.sampleSize = generators.get(0).getMinimumPoints();
+		this.bestParam = manager.createModelInstance();
+
+		for (int i = 0; i < generators.size(); i++) {
+			workers.add(new Worker(generators.get(i),distances.get(i)));
+		}
+	}
+
+	/**
+	 * Creates LMedS which returns all the points as inliers and never fails because of a large median error
+	 */
+	public LeastMedianOfSquaresConcurrent(long randSeed, int totalCycles,
+										  ModelManager<Model> manager,
+										  List<ModelGenerator<Model,Point>> generators,
+										  List<DistanceFromModel<Model,Point>> distances) {
+		this(randSeed, totalCycles, Double.MAX_VALUE, 0, manager, generators, distances);
+	}
+
+	@Override
+	public void setSampleSize(int sampleSize) {
+		super.setSampleSize(sampleSize);
+		this.sampleSize = sampleSize;
+	}
+
+	@Override
+	public boolean process(List<Point> _dataSet) {
+		if( _dataSet.size() < sampleSize )
+			return false;
+
+		dataSet.clear();
+		dataSet.addAll(_dataSet);
+
+		int N = dataSet.size();
+		if( errors.length < N ) {
+			errors = new double[N];
+			matchToInput = new int[N];
+		}
+
+		for (int i = 0; i < workers.size(); i++) {
+			workers.get(i).setup(i, workers.size());
+			workers.get(i).setPoints(dataSet);
+		}
+		BoofConcurrency.runAll(workers);
+
+		bestMedian = Double.MAX_VALUE;
+		bestCycle = -1;
+		for (int i = 0; i < workers.size(); i++) {
+			Worker w = workers.get(i);
+			if( w.bestCycle < 0 )
+				continue;
+			if( w.bestMedian < bestMedian || (w.bestMedian == bestMedian && w.bestCycle < bestCycle) ) {
+				bestMedian = w.bestMedian;
+				bestCycle = w.bestCycle;
+				manager.copyModel(w.bestModel, bestParam);
+			}
+		}
+
+		computeInlierSet(N);
+
+		return bestCycle >= 0 && bestMedian <= maxMedianError;
+	}
+
+	/**
+	 * Selects the points with the lowest error as the inlier set
+	 */
+	private void computeInlierSet( int N ) {
+		int numPts = (int)(N*inlierFrac);
+
+		if( inlierFrac > 0 && numPts > sampleSize && bestCycle >= 0 ) {
+			inlierSet.clear();
+			DistanceFromModel<Model,Point> distance = workers.get(0).distance;
+			distance.setModel(bestParam);
+			distance.computeDistance(dataSet,errors);
+
+			int indexes[] = new int[N];
+			QuickSelect.selectIndex(errors,numPts,N,indexes);
+			for (int i = 0; i < numPts; i++) {
+				int origIndex = indexes[i];
+				inlierSet.add( dataSet.get(origIndex) );
+				matchToInput[i] = origIndex;
+			}
+		} else {
+			inlierSet.clear();
+			inlierSet.addAll(dataSet);
+			for (int i = 0; i < N; i++) {
+				matchToInput[i] = i;
+			}
+		}
+	}
+
+	@Override
+	public Model getModelParameters() {
+		return bestParam;
+	}
+
+	@Override
+	public List<Point> getMatchSet() {
+		return inlierSet;
+	}
+
+	@Override
+	public int getInputIndex(int matchIndex) {
+		return matchToInput[matchIndex];
+	}
+
+	@Override
+	public double getFitQuality() {
+		return bestMedian;
+	}
+
+	@Override
+	public int getMinimumSize() {
+		return sampleSize;
+	}
+
+	/**
+	 * Processes a set of cycles on a single thread
+	 */
+	class Worker implements Runnable {
+		ModelGenerator<Model,Point> generator;
+		DistanceFromModel<Model,Point> distance;
+
+		Random rand = new Random();
+		List<Point> sample = new ArrayList<>();
+		int sampleIndexes[] = new int[0];
+		double errors[] = new double[1];
+		Model candidate;
+		Model bestModel;
+
+		// cycles to process
+		int cycle0, step;
+
+		// best found by this worker
+		double bestMedian;
+		int bestCycle;
+
+		// not null if the distance function can process points in batches
+		DistanceFromModelBatch<Model,Point> batch;
+
+		Worker(ModelGenerator<Model, Point> generator, DistanceFromModel<Model, Point> distance) {
+			this.generator = generator;
+			this.distance = distance;
+			if( distance instanceof DistanceFromModelBatch )
+				this.batch = (DistanceFromModelBatch<Model,Point>)distance;
+			this.candidate = manager.createModelInstance();
+			this.bestModel = manager.createModelInstance();
+		}
+
+		void setPoints( List<Point> points ) {
+			if( batch != null )
+				batch.setPoints(points);
+		}
+
+		void setup( int cycle0 , int step ) {
+			this.cycle0 = cycle0;
+			this.step = step;
+		}
+
+		@Override
+		public void run() {
+			bestMedian = Double.MAX_VALUE;
+			bestCycle = -1;
+
+			final int N = dataSet.size();
+			if( errors.length < N )
+				errors = new double[N];
+			if( sampleIndexes.length < sampleSize )
+				sampleIndexes = new int[sampleSize];
+
+			for (int cycle = cycle0; cycle < totalCycles; cycle += step) {
+				rand.setSeed(RansacConcurrent.seedForIteration(randSeed,cycle));
+				RansacConcurrent.drawSample(dataSet, sampleSize, sampleIndexes, sample, rand);
+
+				if( !generator.generate(sample, candidate) )
+					continue;
+
+				distance.setModel(candidate);
+				if( batch != null )
+					batch.computeDistance(0,N,errors);
+				else
+					distance.computeDistance(dataSet,errors);
+
+				double median = QuickSelect.select(errors, N/2, N);
+
+				if( median < bestMedian ) {
+					bestMedian = median;
+					bestCycle = cycle;
+					Model tmp = bestModel; bestModel = candidate; candidate = tmp;
+				}
+			}
+		}
+	}
+}
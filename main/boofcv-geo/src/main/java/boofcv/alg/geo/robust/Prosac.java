@@ -0,0 +1,424 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.robust;
+
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.ddogleg.fitting.modelset.ModelManager;
+import org.ddogleg.fitting.modelset.ransac.Ransac;
+
+import java.util.List;
+
+/**
+ * <p>
+ * PROSAC (PROgressive SAmple Consensus) [1] is a variant of {@link Ransac} which takes advantage of the input
+ * points being sorted by quality.  Initially samples are only drawn from the highest quality points, then the set
+ * which samples are drawn from progressively grows until it includes every point.  If the best points are inliers
+ * a good hypothesis is typically found after very few iterations.  <b>The input list must be sorted from best to
+ * worst quality</b>, e.g. by the fit score returned by association.  In the worst case it behaves like RANSAC.
+ * </p>
+ *
+ * <p>
+ * Optionally a hypothesis can be rejected after only a few points have been checked, instead of computing the
+ * distance for every point:
+ * </p>
+ * <ul>
+ *     <li>{@link Verification#ALL}: Every point is checked. Stops once the hypothesis can't beat the best.</li>
+ *     <li>{@link Verification#TDD}: T(d,d) test [2]. d randomly selected points are checked first.  If any of them
+ *     are outliers the hypothesis is rejected.</li>
+ *     <li>{@link Verification#SPRT}: Wald's Sequential Probability Ratio Test [3].  Points are checked in a random
+ *     order and the hypothesis is rejected once the likelihood ratio of it being bad exceeds a threshold. The
+ *     probability of a good hypothesis being consistent with a point is the inlier fraction of the best
+ *     hypothesis.  SPRT is only used once that is greater than delta.</li>
+ * </ul>
+ *
+ * <p>
+ * It stops once the maximum number of iterations has been reached or the probability that a sample with all
+ * inliers has been drawn exceeds the confidence.  The termination criteria is the same as RANSAC's, which
+ * is conservative for PROSAC.
+ * </p>
+ *
+ * <p>
+ * Sampling differs slightly from [1].  Until every point can be sampled from, each sample always contains the
+ * newest point n-1 and m-1 points drawn from the first n-1 points.  The original T'<sub>n</sub> rule only
+ * forces the newest point into the sample at the iteration where the sampling set grows and draws all m points
+ * from the first n points otherwise.
+ * </p>
+ *
+ * <p>
+ * If the distance function implements {@link DistanceFromModelBatch} then inliers are counted in batches
+ * when every point is checked.
+ * </p>
+ *
+ * <p>
+ * [1] Chum, Ondrej, and Jiri Matas. "Matching with PROSAC-progressive sample consensus." CVPR 2005<br>
+ * [2] Matas, Jiri, and Ondrej Chum. "Randomized RANSAC with T(d,d) test." Image and Vision Computing 2004<br>
+ * [3] Matas, Jiri, and Ondrej Chum. "Randomized RANSAC with sequential probability ratio test." ICCV 2005
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class Prosac<Model,Point> extends Ransac<Model,Point> {
+
+	/**
+	 * How hypotheses are verified
+	 */
+	public enum Verification {
+		ALL,
+		TDD,
+		SPRT
+	}
+
+	// seed for the random number generator
+	long randSeed;
+	// used to copy models
+	ModelManager<Model> manager;
+
+	// how hypotheses are verified
+	Verification verification = Verification.ALL;
+	// number of points checked in the T(d,d) test
+	int tddPoints = 1;
+	// SPRT: probability that a point is consistent with a bad hypothesis
+	double sprtDelta = 0.05;
+	// SPRT: time to generate a hypothesis relative to the time to check a single point
+	double sprtModelTime = 200;
+	// SPRT: threshold for rejecting a hypothesis
+	double sprtThreshold;
+	// SPRT: probability of a point being an inlier.  SPRT is only used if this is more than delta
+	double sprtEpsilon;
+
+	// probability of drawing an all inlier sample needed for early termination.  Disabled if &le; 0
+	double confidence = 0.99;
+
+	// order points are checked in when doing a preemptive test
+	int order[] = new int[0];
+	int sampleIndexes[] = new int[0];
+
+	// not null if the distance function can process points in batches
+	DistanceFromModelBatch<Model,Point> batch;
+
+	// best hypothesis found so far
+	int bestCount;
+
+	// number of iterations processed and hypotheses rejected
+	int totalIterations;
+	int totalRejected;
+
+	/**
+	 * Creates PROSAC
+	 *
+	 * @param randSeed Random seed
+	 * @param manager Used to create and copy models
+	 * @param generator Generates models from a minimal set of points
+	 * @param distance Distance of a point from the model
+	 * @param maxIterations Maximum number of iterations
+	 * @param thresholdFit A point is an inlier if its distance is less than this value
+	 */
+	public Prosac(long randSeed,
+				  ModelManager<Model> manager,
+				  ModelGenerator<Model,Point> generator,
+				  DistanceFromModel<Model,Point> distance,
+				  int maxIterations, double thresholdFit) {
+		super(randSeed, manager, generator, distance, maxIterations, thresholdFit);
+		this.randSeed = randSeed;
+		this.manager = manager;
+		if( distance instanceof DistanceFromModelBatch )
+			this.batch = (DistanceFromModelBatch<Model,Point>)distance;
+	}
+
+	@Override
+	public boolean process(List<Point> _dataSet) {
+		final int N = _dataSet.size();
+		final int m = sampleSize;
+		if( N < m )
+			return false;
+
+		dataSet.clear();
+		dataSet.addAll(_dataSet);
+		initialize(dataSet);
+		if( batch != null )
+			batch.setPoints(dataSet);
+
+		rand.setSeed(randSeed);
+		createVerificationOrder(N);
+		if( sampleIndexes.length < m )
+			sampleIndexes = new int[m];
+
+		bestCount = 0;
+		totalRejected = 0;
+		sprtEpsilon = 0;
+		Model bestModel = null;
+
+		// number of samples drawn from the first n points which RANSAC would draw from all the points
+		double Tn = maxIterations;
+		for (int i = 0; i < m; i++) {
+			Tn *= (m-i)/(double)(N-i);
+		}
+		// iteration at which the sampling set grows
+		int TnPrime = 1;
+		// size of the sampling set
+		int n = m;
+		// number of iterations needed to reach the confidence given the best hypothesis
+		int requiredIterations = Integer.MAX_VALUE;
+
+		totalIterations = 0;
+		while( totalIterations < maxIterations && totalIterations < requiredIterations ) {
+			totalIterations++;
+			while( totalIterations >= TnPrime && n < N ) {
+				double Tn1 = Tn*(n+1)/(n+1-m);
+				TnPrime += (int)Math.ceil(Tn1-Tn);
+				Tn = Tn1;
+				n++;
+			}
+
+			// always include the newest point in the sample unless every point can be sampled from
+			if( n < N ) {
+				RansacConcurrent.drawSample(dataSet.subList(0,n-1), m-1, sampleIndexes, initialSample, rand);
+				initialSample.add(dataSet.get(n-1));
+			} else {
+				RansacConcurrent.drawSample(dataSet, m, sampleIndexes, initialSample, rand);
+			}
+
+			if( !modelGenerator.generate(initialSample, candidateParam) )
+				continue;
+
+			int count = verify(candidateParam, N);
+			if( count < 0 ) {
+				totalRejected++;
+				continue;
+			}
+
+			if( count > bestCount ) {
+				bestCount = count;
+				Model tmp = bestFitParam; bestFitParam = candidateParam; candidateParam = tmp;
+				bestModel = bestFitParam;
+				updateSprt(count/(double)N);
+
+				if( count == N )
+					break;
+				if( confidence > 0 )
+					requiredIterations = requiredIterations(count/(double)N);
+			}
+		}
+
+		if( bestModel == null )
+			return false;
+
+		// find the inliers using the best model
+		manager.copyModel(bestModel,candidateParam);
+		selectMatchSet(dataSet, thresholdFit, candidateParam);
+		swapCandidateWithBest();
+
+		return bestFitPoints.size() > 0;
+	}
+
+	/**
+	 * Random order that points are checked in for preemptive tests. Points are sorted by quality so a
+	 * random order is needed to avoid bias.
+	 */
+	private void createVerificationOrder( int N ) {
+		if( order.length < N )
+			order = new int[N];
+		for (int i = 0; i < N; i++) {
+			order[i] = i;
+		}
+		for (int i = N-1; i > 0; i--) {
+			int j = rand.nextInt(i+1);
+			int tmp = order[i]; order[i] = order[j]; order[j] = tmp;
+		}
+	}
+
+	/**
+	 * Checks the hypothesis against the points
+	 *
+	 * @return number of inliers or -1 if it was rejected early
+	 */
+	int verify( Model model , int N ) {
+		modelDistance.setModel(model);
+
+		switch( verification ) {
+			case TDD:
+				for (int i = 0; i < tddPoints; i++) {
+					if( modelDistance.computeDistance(dataSet.get(rand.nextInt(N))) >= thresholdFit )
+						return -1;
+				}
+				return countInliers(N);
+
+			case SPRT:
+				if( sprtEpsilon > sprtDelta )
+					return sprt(N);
+				return countInliers(N);
+
+			default:
+				return countInliers(N);
+		}
+	}
+
+	/**
+	 * Counts the inliers.  Stops early and returns -1 if it can't beat the best hypothesis
+	 */
+	private int countInliers( int N ) {
+		if( batch != null )
+			return countInliersBatch(N);
+
+		int count = 0;
+		for (int i = 0; i < N; i++) {
+			if( count + (N-i) <= bestCount )
+				return -1;
+			if( modelDistance.computeDistance(dataSet.get(i)) < thresholdFit )
+				count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Counts inliers in batches.  Only checks to see if it should give up between batches
+	 */
+	private int countInliersBatch( int N ) {
+		int count = 0;
+		for (int i = 0; i < N; i += RansacConcurrent.BATCH_SIZE) {
+			if( count + (N-i) <= bestCount )
+				return -1;
+			count += batch.countInliers(i, Math.min(N, i + RansacConcurrent.BATCH_SIZE), thresholdFit);
+		}
+		return count;
+	}
+
+	/**
+	 * Sequential probability ratio test.  Returns -1 if the hypothesis is rejected
+	 */
+	private int sprt( int N ) {
+		double inlierRatio = sprtDelta/sprtEpsilon;
+		double outlierRatio = (1.0-sprtDelta)/(1.0-sprtEpsilon);
+
+		double lambda = 1.0;
+		int count = 0;
+		for (int i = 0; i < N; i++) {
+			if( modelDistance.computeDistance(dataSet.get(order[i])) < thresholdFit ) {
+				count++;
+				lambda *= inlierRatio;
+			} else {
+				lambda *= outlierRatio;
+			}
+			if( lambda > sprtThreshold )
+				return -1;
+		}
+		return count;
+	}
+
+	/**
+	 * Updates the SPRT's decision threshold given the new estimate of the inlier fraction
+	 */
+	void updateSprt( double epsilon ) {
+		sprtEpsilon = epsilon;
+		if( epsilon <= sprtDelta || epsilon >= 1.0 )
+			return;
+
+		double delta = sprtDelta;
+		double C = (1.0-delta)*Math.log((1.0-delta)/(1.0-epsilon)) + delta*Math.log(delta/epsilon);
+		double K = sprtModelTime*C;
+
+		// solve A = K + 1 + log(A) using fixed point iteration
+		double A = K + 1;
+		for (int i = 0; i < 10; i++) {
+			A = K + 1 + Math.log(A);
+		}
+		sprtThreshold = A;
+	}
+
+	/**
+	 * Number of iterations needed to draw an all inlier sample with the specified confidence
+	 */
+	int requiredIterations( double inlierFraction ) {
+		double probAllInliers = Math.pow(inlierFraction, sampleSize);
+		if( probAllInliers >= 1.0 )
+			return 0;
+		if( probAllInliers <= 0 )
+			return Integer.MAX_VALUE;
+		double n = Math.log(1.0-confidence)/Math.log(1.0-probAllInliers);
+		return n >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int)Math.ceil(n);
+	}
+
+	/**
+	 * Returns the number of iterations processed in the last call to {@link #process}
+	 */
+	public int getTotalIterations() {
+		return totalIterations;
+	}
+
+	/**
+	 * Returns the number of hypotheses which were rejected early in the last call to {@link #process}
+	 */
+	public int getTotalRejected() {
+		return totalRejected;
+	}
+
+	public Verification getVerification() {
+		return verification;
+	}
+
+	public void setVerification(Verification verification) {
+		this.verification = verification;
+	}
+
+	public int getTddPoints() {
+		return tddPoints;
+	}
+
+	/**
+	 * Number of points which are checked in the T(d,d) test
+	 */
+	public void setTddPoints(int tddPoints) {
+		this.tddPoints = tddPoints;
+	}
+
+	public double getSprtDelta() {
+		return sprtDelta;
+	}
+
+	/**
+	 * Probability of a point being consistent with a bad hypothesis.  Used in SPRT.
+	 */
+	public void setSprtDelta(double sprtDelta) {
+		this.sprtDelta = sprtDelta;
+	}
+
+	public double getSprtModelTime() {
+		return sprtModelTime;
+	}
+
+	/**
+	 * Time to generate a hypothesis relative to checking a single point.  Used in SPRT.
+	 */
+	public void setSprtModelTime(double sprtModelTime) {
+		this.sprtModelTime = sprtModelTime;
+	}
+
+	public double getConfidence() {
+		return confidence;
+	}
+
+	/**
+	 * Probability of having drawn a sample which is all inliers which is needed for early termination.
+	 * Set to zero to disable.
+	 */
+	public void setConfidence(double confidence) {
+		this.confidence = confidence;
+	}
+}
@@ -0,0 +1,354 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.robust;
+
+import boofcv.concurrency.BoofConcurrency;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.ddogleg.fitting.modelset.ModelManager;
+import org.ddogleg.fitting.modelset.ransac.Ransac;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p>
+ * Variant of {@link Ransac} which generates and scores hypotheses on multiple threads.  Each thread has its own
+ * {@link ModelGenerator} and {@link DistanceFromModel} since those are not thread safe.  The number of threads
+ * used is the number of generators it was provided.
+ * </p>
+ *
+ * <p>
+ * Results are the same no matter how many threads are used.  Each iteration has its own random number generator
+ * with a seed derived from the random seed and the iteration's index.  Ties between hypotheses are broken by
+ * selecting the one from the earlier iteration.  Iterations are processed in blocks of a fixed size.  After each
+ * block the best hypothesis found so far is used to abandon scoring of later hypotheses once they can no longer
+ * be better, and to decide if it can stop early.
+ * </p>
+ *
+ * <p>
+ * Early termination: Stops once all the points are inliers or, if confidence is more than zero, once the
+ * probability that an all inlier sample has been drawn exceeds the confidence.  The inlier fraction is estimated
+ * from the best hypothesis.
+ * </p>
+ *
+ * <p>
+ * If a distance function implements {@link DistanceFromModelBatch} then the points are copied into its
+ * internal storage once and inliers are counted in batches, which is faster for large point sets.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class RansacConcurrent<Model,Point> extends Ransac<Model,Point> {
+
+	// seed for the random number generator
+	long randSeed;
+
+	// used to create and copy models
+	ModelManager<Model> manager;
+
+	// storage for each thread
+	List<Worker> workers = new ArrayList<>();
+
+	// number of points processed at once by a DistanceFromModelBatch
+	static final int BATCH_SIZE = 256;
+
+	// number of iterations in each block
+	int blockSize = 32;
+
+	// probability of drawing an all inlier sample needed for early termination.  Disabled if &le; 0
+	double confidence = 0;
+
+	// best hypothesis found so far
+	Model bestModel;
+	int bestCount;
+	int bestIteration;
+
+	// number of iterations processed
+	int totalIterations;
+
+	/**
+	 * Creates RANSAC
+	 *
+	 * @param randSeed Random seed
+	 * @param manager Used to create and copy models
+	 * @param generators Generates models from a minimal set of points.  One for each thread.
+	 * @param distances Distance of a point from the model.  One for each thread.
+	 * @param maxIterations Maximum number of iterations
+	 * @param thresholdFit A point is an inlier if its distance is less than this value
+	 */
+	public RansacConcurrent(long randSeed,
+							ModelManager<Model> manager,
+							List<ModelGenerator<Model,Point>> generators,
+							List<DistanceFromModel<Model,Point>> distances,
+							int maxIterations, double thresholdFit) {
+		super(randSeed, manager, generators.get(0), distances.get(0), maxIterations, thresholdFit);
+		if( generators.size() != distances.size() )
+			throw new IllegalArgumentException("Must be the same number of generators and distances");
+
+		this.randSeed = randSeed;
+		this.manager = manager;
+		this.bestModel = manager.createModelInstance();
+
+		for (int i = 0; i < generators.size(); i++) {
+			workers.add(new Worker(generators.get(i),distances.get(i)));
+		}
+	}
+
+	@Override
+	public boolean process(List<Point> _dataSet) {
+		if( _dataSet.size() < sampleSize )
+			return false;
+
+		dataSet.clear();
+		dataSet.addAll(_dataSet);
+		initialize(dataSet);
+
+		final int N = dataSet.size();
+		bestCount = 0;
+		bestIteration = -1;
+		totalIterations = 0;
+
+		for (int i = 0; i < workers.size(); i++) {
+			workers.get(i).setPoints(dataSet);
+		}
+
+		while( totalIterations < maxIterations && bestCount < N ) {
+			final int iteration0 = totalIterations;
+			final int iteration1 = Math.min(maxIterations, iteration0 + blockSize);
+			final int previousBest = bestCount;
+
+			for (int i = 0; i < workers.size(); i++) {
+				workers.get(i).setup(iteration0 + i, iteration1, workers.size(), previousBest);
+			}
+			BoofConcurrency.runAll(workers);
+
+			// select the best hypothesis.  Ties go to the earlier iteration
+			for (int i = 0; i < workers.size(); i++) {
+				Worker w = workers.get(i);
+				if( w.bestIteration < 0 )
+					continue;
+				if( w.bestCount > bestCount || (w.bestCount == bestCount && w.bestIteration < bestIteration)) {
+					bestCount = w.bestCount;
+					bestIteration = w.bestIteration;
+					manager.copyModel(w.bestModel,bestModel);
+				}
+			}
+
+			totalIterations = iteration1;
+
+			if( confidence > 0 && bestCount > 0 && totalIterations >= requiredIterations(bestCount/(double)N) )
+				break;
+		}
+
+		if( bestIteration < 0 )
+			return false;
+
+		// find the inliers using the best model
+		manager.copyModel(bestModel,candidateParam);
+		selectMatchSet(dataSet, thresholdFit, candidateParam);
+		swapCandidateWithBest();
+
+		return bestFitPoints.size() > 0;
+	}
+
+	/**
+	 * Number of iterations needed to draw an all inlier sample with the specified confidence
+	 */
+	int requiredIterations( double inlierFraction ) {
+		double probAllInliers = Math.pow(inlierFraction, sampleSize);
+		if( probAllInliers >= 1.0 )
+			return 0;
+		if( probAllInliers <= 0 )
+			return Integer.MAX_VALUE;
+		double n = Math.log(1.0-confidence)/Math.log(1.0-probAllInliers);
+		return n >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int)Math.ceil(n);
+	}
+
+	/**
+	 * Randomly selects points without replacement.  Unlike {@link Ransac#randomDraw} the input list isn't
+	 * modified, making it safe to call from multiple threads at once.
+	 *
+	 * @param dataSet Points which are to be sampled from
+	 * @param sampleSize Number of points in the sample
+	 * @param indexes Storage for selected indexes.  Must be at least sampleSize in length
+	 * @param output (Output) the selected points
+	 * @param rand Random number generator
+	 */
+	public static <T> void drawSample( List<T> dataSet , int sampleSize , int[] indexes ,
+									   List<T> output , Random rand ) {
+		output.clear();
+		int N = dataSet.size();
+		for (int i = 0; i < sampleSize; i++) {
+			int selected;
+			boolean unique;
+			do {
+				selected = rand.nextInt(N);
+				unique = true;
+				for (int j = 0; j < i; j++) {
+					if( indexes[j] == selected ) {
+						unique = false;
+						break;
+					}
+				}
+			} while( !unique );
+			indexes[i] = selected;
+			output.add(dataSet.get(selected));
+		}
+	}
+
+	/**
+	 * Computes the seed for the random number generator used in a specific iteration
+	 */
+	public static long seedForIteration( long randSeed , int iteration ) {
+		// SplitMix64 finalizer so that adjacent iterations have unrelated seeds
+		long z = randSeed + (iteration+1)*0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Returns the number of iterations processed in the last call to {@link #process}
+	 */
+	public int getTotalIterations() {
+		return totalIterations;
+	}
+
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	/**
+	 * Number of iterations which are processed before checking the termination conditions
+	 */
+	public void setBlockSize(int blockSize) {
+		this.blockSize = blockSize;
+	}
+
+	public double getConfidence() {
+		return confidence;
+	}
+
+	/**
+	 * Probability of having drawn a sample which is all inliers which is needed for early termination.
+	 * Set to zero to disable.  Try 0.99
+	 */
+	public void setConfidence(double confidence) {
+		this.confidence = confidence;
+	}
+
+	/**
+	 * Processes a set of iterations on a single thread
+	 */
+	class Worker implements Runnable {
+		ModelGenerator<Model,Point> generator;
+		DistanceFromModel<Model,Point> distance;
+
+		Random rand = new Random();
+		List<Point> sample = new ArrayList<>();
+		int sampleIndexes[] = new int[0];
+		Model candidate;
+		Model bestModel;
+
+		// iterations to process
+		int iteration0, iteration1, step;
+		// best score from previous blocks
+		int previousBest;
+
+		// best found by this worker
+		int bestCount, bestIteration;
+
+		// not null if the distance function can process points in batches
+		DistanceFromModelBatch<Model,Point> batch;
+
+		Worker(ModelGenerator<Model, Point> generator, DistanceFromModel<Model, Point> distance) {
+			this.generator = generator;
+			this.distance = distance;
+			if( distance instanceof DistanceFromModelBatch )
+				this.batch = (DistanceFromModelBatch<Model,Point>)distance;
+			this.candidate = manager.createModelInstance();
+			this.bestModel = manager.createModelInstance();
+		}
+
+		void setPoints( List<Point> points ) {
+			if( batch != null )
+				batch.setPoints(points);
+		}
+
+		void setup( int iteration0 , int iteration1 , int step , int previousBest ) {
+			this.iteration0 = iteration0;
+			this.iteration1 = iteration1;
+			this.step = step;
+			this.previousBest = previousBest;
+		}
+
+		@Override
+		public void run() {
+			bestCount = previousBest;
+			bestIteration = -1;
+
+			if( sampleIndexes.length < sampleSize )
+				sampleIndexes = new int[sampleSize];
+
+			final int N = dataSet.size();
+			for (int iteration = iteration0; iteration < iteration1; iteration += step) {
+				rand.setSeed(seedForIteration(randSeed,iteration));
+				drawSample(dataSet, sampleSize, sampleIndexes, sample, rand);
+
+				if( !generator.generate(sample, candidate) )
+					continue;
+
+				distance.setModel(candidate);
+
+				int count = batch == null ? countInliers(N) : countInliersBatch(N);
+
+				if( count > bestCount ) {
+					bestCount = count;
+					bestIteration = iteration;
+					Model tmp = bestModel; bestModel = candidate; candidate = tmp;
+				}
+			}
+		}
+
+		/**
+		 * Counts the inliers and gives up once it can't beat the best hypothesis
+		 */
+		private int countInliers( int N ) {
+			int count = 0;
+			for (int i = 0; i < N && count + (N-i) > bestCount; i++) {
+				if( distance.computeDistance(dataSet.get(i)) < thresholdFit )
+					count++;
+			}
+			return count;
+		}
+
+		/**
+		 * Counts inliers in batches.  Only checks to see if it should give up between batches
+		 */
+		private int countInliersBatch( int N ) {
+			int count = 0;
+			for (int i = 0; i < N && count + (N-i) > bestCount; i += BATCH_SIZE) {
+				count += batch.countInliers(i, Math.min(N, i + BATCH_SIZE), thresholdFit);
+			}
+			return count;
+		}
+	}
+}
@@ -35,6 +35,11 @@ public class ConfigLMedS implements Configuration {
 	 * Number of cycles it will perform when minimizing the median error
 	 */
 	public int totalCycles;
+	/**
+	 * If true then hypotheses are generated and scored using multiple threads.
+	 * See {@link boofcv.alg.geo.robust.LeastMedianOfSquaresConcurrent}
+	 */
+	public boolean concurrent = false;
 
 	public ConfigLMedS() {
 	}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.factory.geo;
+
+import boofcv.alg.geo.robust.Prosac;
+import boofcv.struct.Configuration;
+
+/**
+ * Configuration for {@link Prosac PROSAC}.
+ *
+ * @author Peter Abeles
+ */
+public class ConfigProsac implements Configuration {
+	/**
+	 * Random seed that's used internally
+	 */
+	public long randSeed = 0xDEADBEEF;
+	/**
+	 * Maximum number of iterations PROSAC will perform
+	 */
+	public int maxIterations;
+	/**
+	 * Inlier threshold.
+	 */
+	public double inlierThreshold;
+	/**
+	 * It will stop once the probability of having drawn a sample which is all inliers exceeds this value.
+	 * If zero it will only stop at maxIterations.
+	 */
+	public double confidence = 0.99;
+	/**
+	 * How each hypothesis is verified. Preemptive tests can reject a bad hypothesis after only a few points.
+	 */
+	public Prosac.Verification verification = Prosac.Verification.ALL;
+	/**
+	 * Number of points checked in the T(d,d) test
+	 */
+	public int tddPoints = 1;
+	/**
+	 * SPRT: Probability that a point is consistent with a bad hypothesis
+	 */
+	public double sprtDelta = 0.05;
+	/**
+	 * SPRT: Time to generate a hypothesis relative to the time it takes to check a single point
+	 */
+	public double sprtModelTime = 200;
+
+	public ConfigProsac(int maxIterations, double inlierThreshold) {
+		this.maxIterations = maxIterations;
+		this.inlierThreshold = inlierThreshold;
+	}
+
+	public ConfigProsac() {
+	}
+
+	@Override
+	public void checkValidity() {
+		if( confidence < 0 || confidence >= 1 )
+			throw new IllegalArgumentException("confidence must be 0 <= confidence < 1");
+		if( tddPoints <= 0 )
+			throw new IllegalArgumentException("tddPoints must be more than zero");
+		if( sprtDelta <= 0 || sprtDelta >= 1 )
+			throw new IllegalArgumentException("sprtDelta must be 0 < sprtDelta < 1");
+	}
+}
@@ -38,6 +38,16 @@ public class ConfigRansac implements Configuration {
 	 * Inlier threshold.
 	 */
 	public double inlierThreshold;
+	/**
+	 * If true then hypotheses are generated and scored using multiple threads.
+	 * See {@link boofcv.alg.geo.robust.RansacConcurrent}
+	 */
+	public boolean concurrent = false;
+	/**
+	 * Only used when concurrent. If more than zero it will stop early once the probability of having drawn
+	 * a sample which is all inliers exceeds this value. Try 0.99
+	 */
+	public double confidence = 0;
 
 	public ConfigRansac(int maxIterations, double inlierThreshold) {
 		this.maxIterations = maxIterations;
@@ -49,6 +59,7 @@ public class ConfigRansac implements Configuration {
 
 	@Override
 	public void checkValidity() {
-
+		if( confidence < 0 || confidence >= 1 )
+			throw new IllegalArgumentException("confidence must be 0 <= confidence < 1");
 	}
 }
@@ -20,6 +20,7 @@ package boofcv.factory.geo;
 
 import boofcv.abst.geo.*;
 import boofcv.abst.geo.bundle.BundleAdjustmentCalibratedDense;
+import boofcv.abst.geo.bundle.BundleAdjustmentCalibratedSparse;
 import boofcv.abst.geo.f.*;
 import boofcv.abst.geo.h.LeastSquaresHomography;
 import boofcv.abst.geo.h.WrapHomographyLinear;
@@ -66,6 +67,22 @@ public class FactoryMultiView {
 		return new BundleAdjustmentCalibratedDense(tol,maxIterations);
 	}
 
+	/**
+	 * Creates sparse bundle adjustment for a camera with a know and fixed intrinsic calibration.  Points are
+	 * eliminated using the Schur complement, allowing much larger problems than {@link #bundleCalibrated}.
+	 *
+	 * @see boofcv.alg.geo.bundle.BundleAdjustmentSchur
+	 *
+	 * @param tol Convergence tolerance.  Try 1e-8
+	 * @param maxIterations Maximum number of iterations. Try 200 or more
+	 * @param concurrent If true then residuals and the Jacobian are computed using multiple threads
+	 * @return Bundle Adjustment
+	 */
+	public static BundleAdjustmentCalibrated bundleCalibratedSparse(double tol , int maxIterations ,
+																	boolean concurrent ) {
+		return new BundleAdjustmentCalibratedSparse(tol,maxIterations,concurrent);
+	}
+
 	/**
 	 * Returns an algorithm for estimating a homography matrix given a set of
 	 * {@link AssociatedPair}.
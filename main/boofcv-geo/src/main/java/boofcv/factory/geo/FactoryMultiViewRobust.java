@@ -26,7 +26,11 @@ import boofcv.alg.geo.pose.PnPDistanceReprojectionSq;
 import boofcv.alg.geo.robust.DistanceHomographySq;
 import boofcv.alg.geo.robust.DistanceSe3SymmetricSq;
 import boofcv.alg.geo.robust.GenerateHomographyLinear;
+import boofcv.alg.geo.robust.LeastMedianOfSquaresConcurrent;
+import boofcv.alg.geo.robust.Prosac;
+import boofcv.alg.geo.robust.RansacConcurrent;
 import boofcv.alg.geo.robust.Se3FromEssentialGenerator;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.calib.CameraPinholeRadial;
 import boofcv.struct.geo.AssociatedPair;
 import boofcv.struct.geo.Point2D3D;
@@ -40,11 +44,19 @@ import org.ddogleg.fitting.modelset.ModelManager;
 import org.ddogleg.fitting.modelset.lmeds.LeastMedianOfSquares;
 import org.ddogleg.fitting.modelset.ransac.Ransac;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Factory for creating robust false-positive tolerant estimation algorithms in multi-view geometry.  These
  * algorithms tend to have a lot of boilerplate associated with them and the goal of this factory
  * is to make their use much easier and less error prone.
  *
+ * If concurrent is set to true in {@link ConfigRansac} or {@link ConfigLMedS} then the returned estimator will
+ * generate and score hypotheses using multiple threads, see {@link RansacConcurrent} and
+ * {@link LeastMedianOfSquaresConcurrent}.  Each thread gets its own model generator and distance function.
+ *
  * @author Peter Abeles
  */
 public class FactoryMultiViewRobust {
@@ -66,14 +78,17 @@ public class FactoryMultiViewRobust {
 	public static LeastMedianOfSquares<Se3_F64, Point2D3D> pnpLMedS( ConfigPnP pnp,
 																	 ConfigLMedS lmeds)
 	{
-		Estimate1ofPnP estimatorPnP = FactoryMultiView.computePnP_1(EnumPNP.P3P_FINSTERWALDER, -1, 1);
-		DistanceModelMonoPixels<Se3_F64,Point2D3D> distance = new PnPDistanceReprojectionSq();
-		distance.setIntrinsic(pnp.intrinsic.fx,pnp.intrinsic.fy,pnp.intrinsic.skew);
 		ModelManagerSe3_F64 manager = new ModelManagerSe3_F64();
-		EstimatorToGenerator<Se3_F64,Point2D3D> generator =
-				new EstimatorToGenerator<>(estimatorPnP);
+		List<ModelGenerator<Se3_F64,Point2D3D>> generators = new ArrayList<>();
+		List<DistanceFromModel<Se3_F64,Point2D3D>> distances = new ArrayList<>();
 
-		return new LeastMedianOfSquares<>(lmeds.randSeed, lmeds.totalCycles, manager, generator, distance);
+		for (int i = 0; i < numThreads(lmeds); i++) {
+			Estimate1ofPnP estimatorPnP = FactoryMultiView.computePnP_1(EnumPNP.P3P_FINSTERWALDER, -1, 1);
+			generators.add(new EstimatorToGenerator<>(estimatorPnP));
+			distances.add(pnpDistance(pnp));
+		}
+
+		return createLMedS(lmeds, manager, generators, distances);
 	}
 
 	/**
@@ -89,17 +104,53 @@ public class FactoryMultiViewRobust {
 	public static Ransac<Se3_F64, Point2D3D> pnpRansac( ConfigPnP pnp,
 														ConfigRansac ransac)
 	{
-		Estimate1ofPnP estimatorPnP = FactoryMultiView.computePnP_1(pnp.which, -1, pnp.numResolve);
-		DistanceModelMonoPixels<Se3_F64,Point2D3D> distance = new PnPDistanceReprojectionSq();
-		distance.setIntrinsic(pnp.intrinsic.fx,pnp.intrinsic.fy,pnp.intrinsic.skew);
+		ransac.checkValidity();
+
 		ModelManagerSe3_F64 manager = new ModelManagerSe3_F64();
-		EstimatorToGenerator<Se3_F64,Point2D3D> generator =
-				new EstimatorToGenerator<>(estimatorPnP);
+		List<ModelGenerator<Se3_F64,Point2D3D>> generators = new ArrayList<>();
+		List<DistanceFromModel<Se3_F64,Point2D3D>> distances = new ArrayList<>();
+
+		for (int i = 0; i < numThreads(ransac); i++) {
+			Estimate1ofPnP estimatorPnP = FactoryMultiView.computePnP_1(pnp.which, -1, pnp.numResolve);
+			generators.add(new EstimatorToGenerator<>(estimatorPnP));
+			distances.add(pnpDistance(pnp));
+		}
 
 		// convert from pixels to pixels squared
 		double threshold = ransac.inlierThreshold*ransac.inlierThreshold;
 
-		return new Ransac<>(ransac.randSeed, manager, generator, distance, ransac.maxIterations, threshold);
+		return createRansac(ransac, threshold, manager, generators, distances);
+	}
+
+	/**
+	 * Robust solution to PnP problem using {@link Prosac PROSAC}.  Input observations are in normalized
+	 * image coordinates and must be sorted from best to worst quality.
+	 *
+	 * <p>See code for all the details.</p>
+	 *
+	 * @param pnp PnP parameters.  Can't be null.
+	 * @param prosac Parameters for PROSAC.  Can't be null.
+	 * @return Robust Se3_F64 estimator
+	 */
+	public static Prosac<Se3_F64, Point2D3D> pnpProsac( ConfigPnP pnp,
+														ConfigProsac prosac)
+	{
+		prosac.checkValidity();
+
+		Estimate1ofPnP estimatorPnP = FactoryMultiView.computePnP_1(pnp.which, -1, pnp.numResolve);
+		ModelManagerSe3_F64 manager = new ModelManagerSe3_F64();
+		EstimatorToGenerator<Se3_F64,Point2D3D> generator = new EstimatorToGenerator<>(estimatorPnP);
+
+		// convert from pixels to pixels squared
+		double threshold = prosac.inlierThreshold*prosac.inlierThreshold;
+
+		return createProsac(prosac, threshold, manager, generator, pnpDistance(pnp));
+	}
+
+	private static DistanceFromModel<Se3_F64,Point2D3D> pnpDistance( ConfigPnP pnp ) {
+		DistanceModelMonoPixels<Se3_F64,Point2D3D> distance = new PnPDistanceReprojectionSq();
+		distance.setIntrinsic(pnp.intrinsic.fx,pnp.intrinsic.fy,pnp.intrinsic.skew);
+		return distance;
 	}
 
 	/**
@@ -121,10 +172,12 @@ public class FactoryMultiViewRobust {
 
 		essential.checkValidity();
 
-		Estimate1ofEpipolar essentialAlg = FactoryMultiView.
-				computeEssential_1(essential.which, essential.numResolve);
+		List<Estimate1ofEpipolar> epipolar = new ArrayList<>();
+		for (int i = 0; i < numThreads(lmeds); i++) {
+			epipolar.add(FactoryMultiView.computeEssential_1(essential.which, essential.numResolve));
+		}
 
-		return epipolarLMedS(essentialAlg, essential.intrinsic, lmeds);
+		return epipolarLMedS(epipolar, essential.intrinsic, lmeds);
 
 	}
 
@@ -133,28 +186,23 @@ public class FactoryMultiViewRobust {
 
 		fundamental.checkValidity();
 
-		Estimate1ofEpipolar essentialAlg = FactoryMultiView.
-				computeEssential_1(fundamental.which, fundamental.numResolve);
+		List<Estimate1ofEpipolar> epipolar = new ArrayList<>();
+		for (int i = 0; i < numThreads(lmeds); i++) {
+			epipolar.add(FactoryMultiView.computeEssential_1(fundamental.which, fundamental.numResolve));
+		}
 
-		return epipolarLMedS(essentialAlg, fundamental.intrinsic, lmeds);
+		return epipolarLMedS(epipolar, fundamental.intrinsic, lmeds);
 	}
 
-	private static LeastMedianOfSquares<Se3_F64, AssociatedPair> epipolarLMedS( Estimate1ofEpipolar epipolar,
+	private static LeastMedianOfSquares<Se3_F64, AssociatedPair> epipolarLMedS( List<Estimate1ofEpipolar> epipolar,
 																				CameraPinholeRadial intrinsic,
 																				ConfigLMedS lmeds ) {
-		TriangulateTwoViewsCalibrated triangulate = FactoryMultiView.triangulateTwoGeometric();
 		ModelManager<Se3_F64> manager = new ModelManagerSe3_F64();
-		ModelGenerator<Se3_F64, AssociatedPair> generateEpipolarMotion =
-				new Se3FromEssentialGenerator(epipolar, triangulate);
-
-		DistanceFromModel<Se3_F64, AssociatedPair> distanceSe3 =
-				new DistanceSe3SymmetricSq(triangulate,
-						intrinsic.fx, intrinsic.fy, intrinsic.skew,
-						intrinsic.fx, intrinsic.fy, intrinsic.skew);
+		List<ModelGenerator<Se3_F64, AssociatedPair>> generators = new ArrayList<>();
+		List<DistanceFromModel<Se3_F64, AssociatedPair>> distances = new ArrayList<>();
+		epipolarGeneratorDistance(epipolar, intrinsic, generators, distances);
 
-
-		return new LeastMedianOfSquares<>
-				(lmeds.randSeed, lmeds.totalCycles, manager, generateEpipolarMotion, distanceSe3);
+		return createLMedS(lmeds, manager, generators, distances);
 	}
 
 	/**
@@ -173,10 +221,12 @@ public class FactoryMultiViewRobust {
 		essential.checkValidity();
 		ransac.checkValidity();
 
-		Estimate1ofEpipolar essentialAlg = FactoryMultiView.
-				computeEssential_1(essential.which, essential.numResolve);
+		List<Estimate1ofEpipolar> epipolar = new ArrayList<>();
+		for (int i = 0; i < numThreads(ransac); i++) {
+			epipolar.add(FactoryMultiView.computeEssential_1(essential.which, essential.numResolve));
+		}
 
-		return epipolarRansac(essentialAlg, essential.intrinsic, ransac);
+		return epipolarRansac(epipolar, essential.intrinsic, ransac);
 	}
 
 	public static Ransac<Se3_F64, AssociatedPair> fundamentalRansac( ConfigFundamental essential,
@@ -185,30 +235,88 @@ public class FactoryMultiViewRobust {
 		essential.checkValidity();
 		ransac.checkValidity();
 
-		Estimate1ofEpipolar essentialAlg = FactoryMultiView.
-				computeFundamental_1(essential.which, essential.numResolve);
+		List<Estimate1ofEpipolar> epipolar = new ArrayList<>();
+		for (int i = 0; i < numThreads(ransac); i++) {
+			epipolar.add(FactoryMultiView.computeFundamental_1(essential.which, essential.numResolve));
+		}
 
-		return epipolarRansac(essentialAlg, essential.intrinsic, ransac);
+		return epipolarRansac(epipolar, essential.intrinsic, ransac);
 	}
 
-	private static Ransac<Se3_F64, AssociatedPair> epipolarRansac(Estimate1ofEpipolar epipolar,
+	private static Ransac<Se3_F64, AssociatedPair> epipolarRansac(List<Estimate1ofEpipolar> epipolar,
 																 CameraPinholeRadial intrinsic,
 																 ConfigRansac ransac ) {
 
-		TriangulateTwoViewsCalibrated triangulate = FactoryMultiView.triangulateTwoGeometric();
 		ModelManager<Se3_F64> manager = new ModelManagerSe3_F64();
-		ModelGenerator<Se3_F64, AssociatedPair> generateEpipolarMotion =
-				new Se3FromEssentialGenerator(epipolar, triangulate);
-
-		DistanceFromModel<Se3_F64, AssociatedPair> distanceSe3 =
-				new DistanceSe3SymmetricSq(triangulate,
-						intrinsic.fx, intrinsic.fy, intrinsic.skew,
-						intrinsic.fx, intrinsic.fy, intrinsic.skew);
+		List<ModelGenerator<Se3_F64, AssociatedPair>> generators = new ArrayList<>();
+		List<DistanceFromModel<Se3_F64, AssociatedPair>> distances = new ArrayList<>();
+		epipolarGeneratorDistance(epipolar, intrinsic, generators, distances);
 
 		double ransacTOL = ransac.inlierThreshold * ransac.inlierThreshold * 2.0;
 
-		return new Ransac<>(ransac.randSeed, manager, generateEpipolarMotion, distanceSe3,
-				ransac.maxIterations, ransacTOL);
+		return createRansac(ransac, ransacTOL, manager, generators, distances);
+	}
+
+	/**
+	 * Robust solution for estimating {@link Se3_F64} using epipolar geometry from two views with
+	 * {@link Prosac PROSAC}.  Input observations are in normalized image coordinates and must be sorted from best
+	 * to worst quality.
+	 *
+	 * <p>See code for all the details.</p>
+	 *
+	 * @param essential Essential matrix estimation parameters.  Can't be null.
+	 * @param prosac Parameters for PROSAC.  Can't be null.
+	 * @return Robust Se3_F64 estimator
+	 */
+	public static Prosac<Se3_F64, AssociatedPair> essentialProsac( ConfigEssential essential,
+																   ConfigProsac prosac ) {
+		essential.checkValidity();
+
+		Estimate1ofEpipolar essentialAlg = FactoryMultiView.
+				computeEssential_1(essential.which, essential.numResolve);
+
+		return epipolarProsac(essentialAlg, essential.intrinsic, prosac);
+	}
+
+	public static Prosac<Se3_F64, AssociatedPair> fundamentalProsac( ConfigFundamental fundamental,
+																	 ConfigProsac prosac ) {
+		fundamental.checkValidity();
+
+		Estimate1ofEpipolar fundamentalAlg = FactoryMultiView.
+				computeFundamental_1(fundamental.which, fundamental.numResolve);
+
+		return epipolarProsac(fundamentalAlg, fundamental.intrinsic, prosac);
+	}
+
+	private static Prosac<Se3_F64, AssociatedPair> epipolarProsac( Estimate1ofEpipolar epipolar,
+																  CameraPinholeRadial intrinsic,
+																  ConfigProsac prosac ) {
+		prosac.checkValidity();
+
+		ModelManager<Se3_F64> manager = new ModelManagerSe3_F64();
+		List<ModelGenerator<Se3_F64, AssociatedPair>> generators = new ArrayList<>();
+		List<DistanceFromModel<Se3_F64, AssociatedPair>> distances = new ArrayList<>();
+		epipolarGeneratorDistance(Collections.singletonList(epipolar), intrinsic, generators, distances);
+
+		double tol = prosac.inlierThreshold * prosac.inlierThreshold * 2.0;
+
+		return createProsac(prosac, tol, manager, generators.get(0), distances.get(0));
+	}
+
+	/**
+	 * Creates a generator and distance function for each epipolar estimator.  Each pair has its own triangulation
+	 */
+	private static void epipolarGeneratorDistance( List<Estimate1ofEpipolar> epipolar,
+												   CameraPinholeRadial intrinsic,
+												   List<ModelGenerator<Se3_F64, AssociatedPair>> generators,
+												   List<DistanceFromModel<Se3_F64, AssociatedPair>> distances ) {
+		for( Estimate1ofEpipolar e : epipolar ) {
+			TriangulateTwoViewsCalibrated triangulate = FactoryMultiView.triangulateTwoGeometric();
+			generators.add(new Se3FromEssentialGenerator(e, triangulate));
+			distances.add(new DistanceSe3SymmetricSq(triangulate,
+					intrinsic.fx, intrinsic.fy, intrinsic.skew,
+					intrinsic.fx, intrinsic.fy, intrinsic.skew));
+		}
 	}
 
 	/**
@@ -233,11 +341,14 @@ public class FactoryMultiViewRobust {
 			homography = new ConfigHomography();
 
 		ModelManager<Homography2D_F64> manager = new ModelManagerHomography2D_F64();
-		GenerateHomographyLinear modelFitter = new GenerateHomographyLinear(homography.normalize);
-		DistanceHomographySq distance = new DistanceHomographySq();
-
-		return new LeastMedianOfSquares<>
-				(lmeds.randSeed, lmeds.totalCycles, manager, modelFitter, distance);
+		List<ModelGenerator<Homography2D_F64,AssociatedPair>> generators = new ArrayList<>();
+		List<DistanceFromModel<Homography2D_F64,AssociatedPair>> distances = new ArrayList<>();
+		for (int i = 0; i < numThreads(lmeds); i++) {
+			generators.add(new GenerateHomographyLinear(homography.normalize));
+			distances.add(new DistanceHomographySq());
+		}
+
+		return createLMedS(lmeds, manager, generators, distances);
 	}
 
 	/**
@@ -261,13 +372,109 @@ public class FactoryMultiViewRobust {
 		if( homography == null )
 			homography = new ConfigHomography();
 
+		ransac.checkValidity();
+
+		ModelManager<Homography2D_F64> manager = new ModelManagerHomography2D_F64();
+		List<ModelGenerator<Homography2D_F64,AssociatedPair>> generators = new ArrayList<>();
+		List<DistanceFromModel<Homography2D_F64,AssociatedPair>> distances = new ArrayList<>();
+		for (int i = 0; i < numThreads(ransac); i++) {
+			generators.add(new GenerateHomographyLinear(homography.normalize));
+			distances.add(new DistanceHomographySq());
+		}
+
+		double ransacTol = ransac.inlierThreshold*ransac.inlierThreshold;
+
+		return createRansac(ransac, ransacTol, manager, generators, distances);
+	}
+
+	/**
+	 * Robust solution for estimating {@link Homography2D_F64} with {@link Prosac PROSAC}.  Input
+	 * observations are in pixel coordinates and must be sorted from best to worst quality.
+	 *
+	 * <ul>
+	 *     <li>Four point linear is used internally</p>
+	 *     <li>inlierThreshold is in pixels</p>
+	 * </ul>
+	 *
+	 * <p>See code for all the details.</p>
+	 *
+	 * @param homography Homography estimation parameters.  If null default is used.
+	 * @param prosac Parameters for PROSAC.  Can't be null.
+	 * @return Homography estimator
+	 */
+	public static Prosac<Homography2D_F64,AssociatedPair>
+	homographyProsac( ConfigHomography homography , ConfigProsac prosac )
+	{
+		if( homography == null )
+			homography = new ConfigHomography();
+		prosac.checkValidity();
+
 		ModelManager<Homography2D_F64> manager = new ModelManagerHomography2D_F64();
 		GenerateHomographyLinear modelFitter = new GenerateHomographyLinear(homography.normalize);
 		DistanceHomographySq distance = new DistanceHomographySq();
 
-		double ransacTol = ransac.inlierThreshold*ransac.inlierThreshold;
+		double tol = prosac.inlierThreshold*prosac.inlierThreshold;
+
+		return createProsac(prosac, tol, manager, modelFitter, distance);
+	}
+
+	private static int numThreads( ConfigRansac ransac ) {
+		return ransac.concurrent ? BoofConcurrency.getMaxThreads() : 1;
+	}
+
+	private static int numThreads( ConfigLMedS lmeds ) {
+		return lmeds.concurrent ? BoofConcurrency.getMaxThreads() : 1;
+	}
+
+	/**
+	 * Creates {@link Ransac} or {@link RansacConcurrent} depending on the configuration.  There must be one
+	 * generator and distance function for each thread.
+	 */
+	private static <Model,Point> Ransac<Model,Point>
+	createRansac( ConfigRansac ransac , double threshold , ModelManager<Model> manager ,
+				  List<ModelGenerator<Model,Point>> generators ,
+				  List<DistanceFromModel<Model,Point>> distances )
+	{
+		if( ransac.concurrent ) {
+			RansacConcurrent<Model,Point> alg = new RansacConcurrent<>(ransac.randSeed, manager,
+					generators, distances, ransac.maxIterations, threshold);
+			alg.setConfidence(ransac.confidence);
+			return alg;
+		} else {
+			return new Ransac<>(ransac.randSeed, manager, generators.get(0), distances.get(0),
+					ransac.maxIterations, threshold);
+		}
+	}
+
+	private static <Model,Point> Prosac<Model,Point>
+	createProsac( ConfigProsac prosac , double threshold , ModelManager<Model> manager ,
+				  ModelGenerator<Model,Point> generator , DistanceFromModel<Model,Point> distance )
+	{
+		Prosac<Model,Point> alg = new Prosac<>(prosac.randSeed, manager, generator, distance,
+				prosac.maxIterations, threshold);
+		alg.setConfidence(prosac.confidence);
+		alg.setVerification(prosac.verification);
+		alg.setTddPoints(prosac.tddPoints);
+		alg.setSprtDelta(prosac.sprtDelta);
+		alg.setSprtModelTime(prosac.sprtModelTime);
+		return alg;
+	}
 
-		return new Ransac<>
-				(ransac.randSeed, manager, modelFitter, distance, ransac.maxIterations, ransacTol);
+	/**
+	 * Creates {@link LeastMedianOfSquares} or {@link LeastMedianOfSquaresConcurrent} depending on the
+	 * configuration.  There must be one generator and distance function for each thread.
+	 */
+	private static <Model,Point> LeastMedianOfSquares<Model,Point>
+	createLMedS( ConfigLMedS lmeds , ModelManager<Model> manager ,
+				 List<ModelGenerator<Model,Point>> generators ,
+				 List<DistanceFromModel<Model,Point>> distances )
+	{
+		if( lmeds.concurrent ) {
+			return new LeastMedianOfSquaresConcurrent<>(lmeds.randSeed, lmeds.totalCycles,
+					manager, generators, distances);
+		} else {
+			return new LeastMedianOfSquares<>(lmeds.randSeed, lmeds.totalCycles,
+					manager, generators.get(0), distances.get(0));
+		}
 	}
 }
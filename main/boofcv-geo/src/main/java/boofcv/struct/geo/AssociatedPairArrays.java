@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.geo;
+
+import java.util.List;
+
+/**
+ * Stores a set of {@link AssociatedPair} in a struct of arrays format.  Each coordinate is saved in its own
+ * array so that functions which process every pair read memory sequentially, which is much faster than
+ * going through a list of objects for large sets.
+ *
+ * @author Peter Abeles
+ */
+public class AssociatedPairArrays {
+	/**
+	 * Location of each feature in the first image
+	 */
+	public double x1[] = new double[0], y1[] = new double[0];
+	/**
+	 * Location of each feature in the second image
+	 */
+	public double x2[] = new double[0], y2[] = new double[0];
+
+	/**
+	 * Number of pairs
+	 */
+	public int size;
+
+	/**
+	 * Discards all pairs
+	 */
+	public void reset() {
+		size = 0;
+	}
+
+	/**
+	 * Makes sure the arrays can store at least this many pairs without growing.  Existing pairs are preserved.
+	 */
+	public void reserve( int length ) {
+		if( x1.length >= length )
+			return;
+
+		x1 = copy(x1,length);
+		y1 = copy(y1,length);
+		x2 = copy(x2,length);
+		y2 = copy(y2,length);
+	}
+
+	private double[] copy( double[] src , int length ) {
+		double[] dst = new double[length];
+		System.arraycopy(src,0,dst,0,size);
+		return dst;
+	}
+
+	/**
+	 * Adds a pair to the end
+	 */
+	public void add( double x1 , double y1 , double x2 , double y2 ) {
+		if( size == this.x1.length )
+			reserve(Math.max(10,size*2));
+
+		this.x1[size] = x1;
+		this.y1[size] = y1;
+		this.x2[size] = x2;
+		this.y2[size] = y2;
+		size++;
+	}
+
+	/**
+	 * Copies the pairs from the list, replacing the previous contents
+	 */
+	public void set( List<AssociatedPair> pairs ) {
+		size = 0;
+		reserve(pairs.size());
+		for (int i = 0; i < pairs.size(); i++) {
+			AssociatedPair p = pairs.get(i);
+			x1[i] = p.p1.x;
+			y1[i] = p.p1.y;
+			x2[i] = p.p2.x;
+			y2[i] = p.p2.y;
+		}
+		size = pairs.size();
+	}
+
+	/**
+	 * Copies the pair at the specified index into 'output'
+	 */
+	public void get( int index , AssociatedPair output ) {
+		output.p1.set(x1[index],y1[index]);
+		output.p2.set(x2[index],y2[index]);
+	}
+}
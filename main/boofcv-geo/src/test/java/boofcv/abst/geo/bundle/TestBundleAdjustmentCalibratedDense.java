@@ -88,8 +88,8 @@ public class TestBundleAdjustmentCalibratedDense {
 		assertTrue(errorAfter<errorBefore*0.1);
 	}
 
-	private double computeError( CalibratedPoseAndPoint model ,
-								 List<ViewPointObservations> observations )
+	public static double computeError( CalibratedPoseAndPoint model ,
+									   List<ViewPointObservations> observations )
 	{
 		CalibPoseAndPointResiduals func = new CalibPoseAndPointResiduals();
 		func.configure(null,model,observations);
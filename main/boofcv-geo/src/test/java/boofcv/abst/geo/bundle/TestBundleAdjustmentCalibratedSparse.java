@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.bundle;
+
+import boofcv.alg.geo.bundle.CalibratedPoseAndPoint;
+import boofcv.alg.geo.bundle.ViewPointObservations;
+import georegression.struct.point.Point3D_F64;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBundleAdjustmentCalibratedSparse {
+
+	Random rand = new Random(234);
+	int numViews = 2;
+	int numPoints = 4;
+
+	/**
+	 * Perfect observations and model
+	 */
+	@Test
+	public void perfect() {
+		CalibratedPoseAndPoint model = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = createObservations(model,numViews,numPoints);
+
+		BundleAdjustmentCalibratedSparse alg = new BundleAdjustmentCalibratedSparse(1e-8,500,false);
+
+		assertTrue(alg.process(model, observations));
+
+		assertEquals(0,computeError(model,observations),1e-8);
+	}
+
+	/**
+	 * Perfect observations with a corrupted model.  See if the error decreases
+	 */
+	@Test
+	public void noisy() {
+		for( boolean concurrent : new boolean[]{false,true}) {
+			CalibratedPoseAndPoint model = createModel(numViews,numPoints,rand);
+			List<ViewPointObservations> observations = createObservations(model,numViews,numPoints);
+
+			BundleAdjustmentCalibratedSparse alg = new BundleAdjustmentCalibratedSparse(1e-12,500,concurrent);
+
+			model.getWorldToCamera(0).getT().x += 0.02;
+			model.getWorldToCamera(1).getT().y -= 0.01;
+
+			double errorBefore = computeError(model,observations);
+
+			assertTrue(alg.process(model, observations));
+
+			double errorAfter = computeError(model,observations);
+
+			assertTrue(errorAfter<errorBefore*0.1);
+		}
+	}
+
+	/**
+	 * Many views and points with noise added to the points and one view with a known pose.
+	 * Results should be the same when run in parallel.
+	 */
+	@Test
+	public void largerProblem_knownView() {
+		int numViews = 10;
+		int numPoints = 200;
+
+		CalibratedPoseAndPoint expected = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = createObservations(expected,numViews,numPoints);
+		expected.setViewKnown(0,true);
+
+		CalibratedPoseAndPoint modelA = copy(expected);
+		for (int i = 0; i < numPoints; i++) {
+			Point3D_F64 p = modelA.getPoint(i);
+			p.x += rand.nextGaussian()*0.01;
+			p.y += rand.nextGaussian()*0.01;
+			p.z += rand.nextGaussian()*0.01;
+		}
+		modelA.getWorldToCamera(3).getT().x += 0.01;
+		CalibratedPoseAndPoint modelB = copy(modelA);
+
+		double errorBefore = computeError(modelA,observations);
+
+		assertTrue(new BundleAdjustmentCalibratedSparse(1e-12,200,false).process(modelA, observations));
+		assertTrue(new BundleAdjustmentCalibratedSparse(1e-12,200,true).process(modelB, observations));
+
+		double errorAfter = computeError(modelA,observations);
+		assertTrue(errorAfter < errorBefore*1e-6);
+
+		// the known view should not be modified
+		assertEquals(0,expected.getWorldToCamera(0).getT().distance(modelA.getWorldToCamera(0).getT()),1e-12);
+
+		// multiple threads should produce identical results
+		for (int i = 0; i < numPoints; i++) {
+			assertEquals(0,modelA.getPoint(i).distance(modelB.getPoint(i)),1e-12);
+		}
+	}
+
+	private static CalibratedPoseAndPoint copy( CalibratedPoseAndPoint src ) {
+		CalibratedPoseAndPoint dst = new CalibratedPoseAndPoint();
+		dst.configure(src.getNumViews(),src.getNumPoints());
+		for (int i = 0; i < src.getNumViews(); i++) {
+			dst.getWorldToCamera(i).set(src.getWorldToCamera(i));
+			dst.setViewKnown(i,src.isViewKnown(i));
+		}
+		for (int i = 0; i < src.getNumPoints(); i++) {
+			dst.getPoint(i).set(src.getPoint(i));
+		}
+		return dst;
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import georegression.struct.se.Se3_F64;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createModel;
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createObservations;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCalibPoseAndPointSparseJacobian {
+
+	Random rand = new Random(48854);
+	int numViews = 3;
+	int numPoints = 4;
+
+	CalibPoseAndPointRodriguesCodec codec = new CalibPoseAndPointRodriguesCodec();
+
+	@Test
+	public void allUnknown() {
+		compareToDense(false, false, false, false);
+		compareToDense(true, false, false, false);
+	}
+
+	@Test
+	public void someKnown() {
+		compareToDense(false, true, false, true);
+		compareToDense(true, true, false, true);
+	}
+
+	/**
+	 * The blocks should be identical to the elements in the dense Jacobian
+	 */
+	private void compareToDense( boolean concurrent , boolean ...known ) {
+		CalibratedPoseAndPoint model = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = createObservations(model,numViews,numPoints);
+
+		Se3_F64 extrinsic[] = new Se3_F64[known.length];
+		for( int i = 0; i < known.length; i++ ) {
+			model.setViewKnown(i,known[i]);
+			if( known[i] ) {
+				extrinsic[i] = model.getWorldToCamera(i).copy();
+			}
+		}
+
+		codec.configure(numViews,numPoints,model.getNumUnknownViews(),known);
+		double []param = new double[ codec.getParamLength() ];
+		codec.encode(model,param);
+
+		CalibPoseAndPointRodriguesJacobian dense = new CalibPoseAndPointRodriguesJacobian();
+		dense.configure(observations,numPoints,extrinsic);
+		int N = dense.getNumOfInputsN();
+		double expected[] = new double[ N*dense.getNumOfOutputsM() ];
+		dense.process(param,expected);
+
+		CalibPoseAndPointSparseJacobian alg = new CalibPoseAndPointSparseJacobian();
+		alg.setConcurrent(concurrent);
+		alg.configure(model,observations);
+		alg.process(param);
+
+		assertEquals(dense.getNumOfOutputsM(),alg.getNumObservations()*2);
+
+		for (int view = 0; view < numViews; view++) {
+			int paramView = alg.getViewParam(view);
+			List<PointIndexObservation> points = observations.get(view).getPoints().toList();
+			for (int j = 0; j < points.size(); j++) {
+				int indexObs = alg.getViewOffset(view) + j;
+				int indexPoint = alg.getIndexFirstPoint() + points.get(j).pointIndex*3;
+
+				for (int row = 0; row < 2; row++) {
+					int indexRow = (indexObs*2+row)*N;
+					for (int i = 0; i < 6; i++) {
+						double found = alg.getJacView()[indexObs*12+row*6+i];
+						if( paramView < 0 )
+							assertEquals(0,found,1e-8);
+						else
+							assertEquals(expected[indexRow+paramView+i],found,1e-8);
+					}
+					for (int i = 0; i < 3; i++) {
+						assertEquals(expected[indexRow+indexPoint+i],
+								alg.getJacPoint()[indexObs*6+row*3+i],1e-8);
+					}
+				}
+			}
+		}
+	}
+}
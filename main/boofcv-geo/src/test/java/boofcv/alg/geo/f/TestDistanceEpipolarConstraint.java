@@ -28,6 +28,10 @@ import org.ejml.data.DMatrixRMaj;
 import org.ejml.dense.row.CommonOps_DDRM;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -96,4 +100,34 @@ public class TestDistanceEpipolarConstraint {
 
 		assertEquals(orig,after,1e-8);
 	}
+
+	/**
+	 * Compare the batch functions against processing one point at a time
+	 */
+	@Test
+	public void checkBatch() {
+		DistanceEpipolarConstraint alg = new DistanceEpipolarConstraint();
+		alg.setModel(F);
+
+		Random rand = new Random(234);
+		List<AssociatedPair> pairs = new ArrayList<>();
+		double expected[] = new double[20];
+		for (int i = 0; i < 20; i++) {
+			AssociatedPair p = new AssociatedPair(p1.x+rand.nextGaussian(),p1.y+rand.nextGaussian(),p2.x,p2.y);
+			pairs.add(p);
+			expected[i] = alg.computeDistance(p);
+		}
+		alg.setPoints(pairs);
+
+		double found[] = new double[20];
+		alg.computeDistance(2,20,found);
+		int count = 0;
+		for (int i = 2; i < 20; i++) {
+			assertEquals(expected[i],found[i-2],1e-8);
+			if( expected[i] < expected[0] )
+				count++;
+		}
+
+		assertEquals(count,alg.countInliers(2,20,expected[0]));
+	}
 }
@@ -22,6 +22,7 @@ import org.ddogleg.fitting.modelset.DistanceFromModel;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
@@ -79,4 +80,45 @@ public abstract class StandardDistanceTest<Model,Data> {
 			assertEquals(expected[i],found[i],1e-4);
 		}
 	}
+
+	/**
+	 * If it implements {@link DistanceFromModelBatch} see if a range of points produces the same results
+	 */
+	@Test
+	public void testBatch() {
+		DistanceFromModel<Model,Data> alg = create();
+		if( !(alg instanceof DistanceFromModelBatch) )
+			return;
+		DistanceFromModelBatch<Model,Data> batch = (DistanceFromModelBatch<Model,Data>)alg;
+
+		Model m = createRandomModel();
+		batch.setModel(m);
+
+		List<Data> obs = new ArrayList<>();
+		double expected[] = new double[20];
+		for( int i = 0; i < 20; i++ ) {
+			Data d = createRandomData();
+			obs.add(d);
+			expected[i] = distance(m,d);
+		}
+		batch.setPoints(obs);
+
+		// only part of the points
+		double found[] = new double[20];
+		batch.computeDistance(5,15,found);
+		for( int i = 0; i < 10; i++ ) {
+			assertEquals(expected[i+5],found[i],1e-4);
+		}
+
+		// use the median as the threshold so there's a mix of inliers and outliers
+		double sorted[] = expected.clone();
+		Arrays.sort(sorted);
+		double threshold = sorted[10];
+		int count = 0;
+		for( int i = 3; i < 17; i++ ) {
+			if( expected[i] < threshold )
+				count++;
+		}
+		assertEquals(count,batch.countInliers(3,17,threshold));
+	}
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.robust;
+
+import boofcv.struct.geo.AssociatedPair;
+import georegression.fitting.homography.ModelManagerHomography2D_F64;
+import georegression.struct.homography.Homography2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.transform.homography.HomographyPointOps_F64;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static boofcv.alg.geo.robust.TestRansacConcurrent.createPairs;
+import static boofcv.alg.geo.robust.TestRansacConcurrent.difference;
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLeastMedianOfSquaresConcurrent {
+
+	Random rand = new Random(234);
+
+	Homography2D_F64 model = new Homography2D_F64(1.2,0.05,10,-0.02,0.9,-5,0.0001,0.0002,1);
+
+	@Test
+	public void process() {
+		List<AssociatedPair> pairs = createPairs(model, 200, 0.3, rand);
+
+		LeastMedianOfSquaresConcurrent<Homography2D_F64,AssociatedPair> alg = create(3, 0.5);
+		assertTrue(alg.process(pairs));
+		assertEquals(0, alg.getFitQuality(), 1e-8);
+
+		Point2D_F64 expected = new Point2D_F64();
+		Point2D_F64 p = new Point2D_F64();
+		for (int i = 0; i < 20; i++) {
+			p.set(rand.nextDouble()*400, rand.nextDouble()*300);
+			HomographyPointOps_F64.transform(model, p, expected);
+			HomographyPointOps_F64.transform(alg.getModelParameters(), p, p);
+			assertEquals(0, expected.distance(p), 1e-4);
+		}
+
+		// inliers are the points with the smallest error
+		assertEquals(100, alg.getMatchSet().size());
+		for (int i = 0; i < alg.getMatchSet().size(); i++) {
+			assertTrue(alg.getInputIndex(i) >= 60);
+			assertTrue(alg.getMatchSet().get(i) == pairs.get(alg.getInputIndex(i)));
+		}
+	}
+
+	/**
+	 * The same solution should be found no matter how many threads are used
+	 */
+	@Test
+	public void sameResultAnyNumberOfThreads() {
+		List<AssociatedPair> pairs = createPairs(model, 200, 0.5, rand);
+		// add noise so that the median is different for each hypothesis
+		for( AssociatedPair p : pairs ) {
+			p.p2.x += rand.nextGaussian()*0.5;
+			p.p2.y += rand.nextGaussian()*0.5;
+		}
+
+		LeastMedianOfSquaresConcurrent<Homography2D_F64,AssociatedPair> expected = create(1, 0);
+		assertTrue(expected.process(pairs));
+
+		for (int numThreads = 2; numThreads <= 5; numThreads++) {
+			LeastMedianOfSquaresConcurrent<Homography2D_F64,AssociatedPair> alg = create(numThreads, 0);
+			assertTrue(alg.process(pairs));
+
+			assertEquals(expected.getFitQuality(), alg.getFitQuality(), 0);
+			assertEquals(0, difference(expected.getModelParameters(), alg.getModelParameters()), 0);
+			assertEquals(pairs.size(), alg.getMatchSet().size());
+		}
+	}
+
+	private LeastMedianOfSquaresConcurrent<Homography2D_F64,AssociatedPair> create( int numThreads ,
+																				  double inlierFraction ) {
+		List<ModelGenerator<Homography2D_F64,AssociatedPair>> generators = new ArrayList<>();
+		List<DistanceFromModel<Homography2D_F64,AssociatedPair>> distances = new ArrayList<>();
+		for (int i = 0; i < numThreads; i++) {
+			generators.add(new GenerateHomographyLinear(true));
+			distances.add(new DistanceHomographySq());
+		}
+
+		return new LeastMedianOfSquaresConcurrent<>(0xBEEF, 200, Double.MAX_VALUE, inlierFraction,
+				new ModelManagerHomography2D_F64(), generators, distances);
+	}
+}
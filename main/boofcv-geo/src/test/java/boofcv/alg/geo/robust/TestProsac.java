@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.robust;
+
+import boofcv.struct.geo.AssociatedPair;
+import georegression.fitting.homography.ModelManagerHomography2D_F64;
+import georegression.struct.homography.Homography2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.transform.homography.HomographyPointOps_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static boofcv.alg.geo.robust.TestRansacConcurrent.createPairs;
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestProsac {
+
+	Random rand = new Random(234);
+
+	Homography2D_F64 model = new Homography2D_F64(1.2,0.05,10,-0.02,0.9,-5,0.0001,0.0002,1);
+
+	/**
+	 * Most of the high quality points at the start of the list are inliers.  Should find the solution with
+	 * far fewer iterations than RANSAC would need
+	 */
+	@Test
+	public void sortedByQuality() {
+		List<AssociatedPair> pairs = sortedPairs(300, 0.6);
+
+		for( Prosac.Verification v : Prosac.Verification.values() ) {
+			Prosac<Homography2D_F64,AssociatedPair> alg = create(v);
+			alg.setMaxIterations(15);
+			assertTrue(alg.process(pairs));
+
+			checkSolution(alg, pairs, 120);
+		}
+	}
+
+	/**
+	 * The points are in a random order.  Should behave like RANSAC and still find the solution
+	 */
+	@Test
+	public void randomOrder() {
+		List<AssociatedPair> pairs = createPairs(model, 300, 0.5, rand);
+		Collections.shuffle(pairs, rand);
+
+		for( Prosac.Verification v : Prosac.Verification.values() ) {
+			Prosac<Homography2D_F64,AssociatedPair> alg = create(v);
+			assertTrue(alg.process(pairs));
+
+			checkSolution(alg, pairs, 150);
+		}
+	}
+
+	/**
+	 * Preemptive tests should reject bad hypotheses
+	 */
+	@Test
+	public void preemptiveRejects() {
+		List<AssociatedPair> pairs = createPairs(model, 300, 0.5, rand);
+		Collections.shuffle(pairs, rand);
+
+		for( Prosac.Verification v : new Prosac.Verification[]{Prosac.Verification.TDD,Prosac.Verification.SPRT}) {
+			Prosac<Homography2D_F64,AssociatedPair> alg = create(v);
+			alg.setConfidence(0);
+			assertTrue(alg.process(pairs));
+			assertEquals(500, alg.getTotalIterations());
+			assertTrue(alg.getTotalRejected() > 250);
+			checkSolution(alg, pairs, 150);
+		}
+	}
+
+	/**
+	 * Once enough iterations have been done to reach the confidence it should stop, even if the best hypothesis
+	 * hasn't improved recently
+	 */
+	@Test
+	public void earlyTermination() {
+		List<AssociatedPair> pairs = createPairs(model, 300, 0.1, rand);
+		Collections.shuffle(pairs, rand);
+
+		for( Prosac.Verification v : Prosac.Verification.values() ) {
+			Prosac<Homography2D_F64,AssociatedPair> alg = create(v);
+			alg.setMaxIterations(5000);
+			alg.setConfidence(0.99);
+			assertTrue(alg.process(pairs));
+
+			// 90% inliers and a sample of 4 needs about 5 iterations
+			assertTrue(alg.getTotalIterations() < 50);
+			assertTrue(alg.getTotalIterations() >= alg.requiredIterations(0.9)-1);
+			checkSolution(alg, pairs, 260);
+		}
+	}
+
+	@Test
+	public void notEnoughPoints() {
+		List<AssociatedPair> pairs = createPairs(model, 3, 0, rand);
+
+		assertFalse(create(Prosac.Verification.ALL).process(pairs));
+	}
+
+	/**
+	 * Same seed and input should produce the same output
+	 */
+	@Test
+	public void repeatable() {
+		List<AssociatedPair> pairs = createPairs(model, 200, 0.5, rand);
+		Collections.shuffle(pairs, rand);
+
+		Prosac<Homography2D_F64,AssociatedPair> alg = create(Prosac.Verification.SPRT);
+		assertTrue(alg.process(pairs));
+		List<Integer> expected = new ArrayList<>();
+		for (int i = 0; i < alg.getMatchSet().size(); i++) {
+			expected.add(alg.getInputIndex(i));
+		}
+		int iterations = alg.getTotalIterations();
+
+		assertTrue(alg.process(pairs));
+		assertEquals(iterations, alg.getTotalIterations());
+		assertEquals(expected.size(), alg.getMatchSet().size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals((int)expected.get(i), alg.getInputIndex(i));
+		}
+	}
+
+	@Test
+	public void updateSprt() {
+		Prosac<Homography2D_F64,AssociatedPair> alg = create(Prosac.Verification.SPRT);
+
+		alg.updateSprt(0.5);
+		double A = alg.sprtThreshold;
+		assertTrue(A > 1);
+		// should be a solution to A = K + 1 + log(A)
+		double delta = alg.getSprtDelta();
+		double C = (1-delta)*Math.log((1-delta)/0.5) + delta*Math.log(delta/0.5);
+		assertEquals(alg.getSprtModelTime()*C + 1 + Math.log(A), A, 1e-6);
+	}
+
+	/**
+	 * Creates pairs where inliers are much more likely to be at the start of the list
+	 */
+	private List<AssociatedPair> sortedPairs( int N , double fractionOutliers ) {
+		List<AssociatedPair> pairs = createPairs(model, N, fractionOutliers, rand);
+		List<AssociatedPair> outliers = new ArrayList<>(pairs.subList(0, (int)(N*fractionOutliers)));
+		List<AssociatedPair> inliers = new ArrayList<>(pairs.subList((int)(N*fractionOutliers), N));
+
+		// the first 20 points are mostly inliers then it's a mix
+		List<AssociatedPair> sorted = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			sorted.add(i % 10 == 0 ? outliers.remove(0) : inliers.remove(0));
+		}
+		List<AssociatedPair> remaining = new ArrayList<>(outliers);
+		remaining.addAll(inliers);
+		Collections.shuffle(remaining, rand);
+		sorted.addAll(remaining);
+		return sorted;
+	}
+
+	private void checkSolution( Prosac<Homography2D_F64,AssociatedPair> alg , List<AssociatedPair> pairs ,
+								int minInliers ) {
+		assertTrue(alg.getMatchSet().size() >= minInliers);
+		for (int i = 0; i < alg.getMatchSet().size(); i++) {
+			assertTrue(alg.getMatchSet().get(i) == pairs.get(alg.getInputIndex(i)));
+		}
+
+		Homography2D_F64 found = alg.getModelParameters();
+		Point2D_F64 expected = new Point2D_F64();
+		Point2D_F64 p = new Point2D_F64();
+		for (int i = 0; i < 20; i++) {
+			p.set(rand.nextDouble()*400, rand.nextDouble()*300);
+			HomographyPointOps_F64.transform(model, p, expected);
+			HomographyPointOps_F64.transform(found, p, p);
+			assertEquals(0, expected.distance(p), 1e-4);
+		}
+	}
+
+	private Prosac<Homography2D_F64,AssociatedPair> create( Prosac.Verification verification ) {
+		Prosac<Homography2D_F64,AssociatedPair> alg = new Prosac<>(0xBEEF, new ModelManagerHomography2D_F64(),
+				new GenerateHomographyLinear(true), new DistanceHomographySq(), 500, 1.0);
+		alg.setVerification(verification);
+		return alg;
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.robust;
+
+import boofcv.struct.geo.AssociatedPair;
+import georegression.fitting.homography.ModelManagerHomography2D_F64;
+import georegression.struct.homography.Homography2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.transform.homography.HomographyPointOps_F64;
+import org.ddogleg.fitting.modelset.DistanceFromModel;
+import org.ddogleg.fitting.modelset.ModelGenerator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestRansacConcurrent {
+
+	Random rand = new Random(234);
+
+	Homography2D_F64 model = new Homography2D_F64(1.2,0.05,10,-0.02,0.9,-5,0.0001,0.0002,1);
+
+	/**
+	 * Should find the correct model and inliers when there are outliers
+	 */
+	@Test
+	public void process() {
+		List<AssociatedPair> pairs = createPairs(model, 200, 0.3, rand);
+
+		RansacConcurrent<Homography2D_F64,AssociatedPair> alg = create(3, 200);
+		assertTrue(alg.process(pairs));
+
+		checkSolution(alg.getModelParameters(), alg.getMatchSet(), 140);
+		for (int i = 0; i < alg.getMatchSet().size(); i++) {
+			assertTrue(alg.getMatchSet().get(i) == pairs.get(alg.getInputIndex(i)));
+		}
+	}
+
+	/**
+	 * The same solution should be found no matter how many threads are used
+	 */
+	@Test
+	public void sameResultAnyNumberOfThreads() {
+		List<AssociatedPair> pairs = createPairs(model, 200, 0.5, rand);
+
+		RansacConcurrent<Homography2D_F64,AssociatedPair> expected = create(1, 100);
+		assertTrue(expected.process(pairs));
+
+		for (int numThreads = 2; numThreads <= 5; numThreads++) {
+			RansacConcurrent<Homography2D_F64,AssociatedPair> alg = create(numThreads, 100);
+			assertTrue(alg.process(pairs));
+
+			assertEquals(expected.getMatchSet().size(), alg.getMatchSet().size());
+			for (int i = 0; i < alg.getMatchSet().size(); i++) {
+				assertEquals(expected.getInputIndex(i), alg.getInputIndex(i));
+			}
+			assertEquals(0, difference(expected.getModelParameters(), alg.getModelParameters()), 0);
+		}
+	}
+
+	/**
+	 * With a confidence specified it should stop well before the maximum number of iterations
+	 */
+	@Test
+	public void earlyTermination() {
+		List<AssociatedPair> pairs = createPairs(model, 200, 0.1, rand);
+
+		RansacConcurrent<Homography2D_F64,AssociatedPair> alg = create(2, 5000);
+		alg.setConfidence(0.99);
+		assertTrue(alg.process(pairs));
+		assertTrue(alg.getTotalIterations() < 200);
+		checkSolution(alg.getModelParameters(), alg.getMatchSet(), 180);
+
+		alg.setConfidence(0);
+		assertTrue(alg.process(pairs));
+		assertEquals(5000, alg.getTotalIterations());
+	}
+
+	/**
+	 * If all the points are inliers it should stop after the first block
+	 */
+	@Test
+	public void allInliers() {
+		List<AssociatedPair> pairs = createPairs(model, 50, 0, rand);
+
+		RansacConcurrent<Homography2D_F64,AssociatedPair> alg = create(2, 5000);
+		assertTrue(alg.process(pairs));
+		assertEquals(alg.getBlockSize(), alg.getTotalIterations());
+		assertEquals(50, alg.getMatchSet().size());
+	}
+
+	@Test
+	public void notEnoughPoints() {
+		List<AssociatedPair> pairs = createPairs(model, 3, 0, rand);
+
+		assertFalse(create(2, 100).process(pairs));
+	}
+
+	private RansacConcurrent<Homography2D_F64,AssociatedPair> create( int numThreads , int maxIterations ) {
+		List<ModelGenerator<Homography2D_F64,AssociatedPair>> generators = new ArrayList<>();
+		List<DistanceFromModel<Homography2D_F64,AssociatedPair>> distances = new ArrayList<>();
+		for (int i = 0; i < numThreads; i++) {
+			generators.add(new GenerateHomographyLinear(true));
+			distances.add(new DistanceHomographySq());
+		}
+
+		return new RansacConcurrent<>(0xBEEF, new ModelManagerHomography2D_F64(), generators, distances,
+				maxIterations, 1.0);
+	}
+
+	/**
+	 * Creates pairs of points related by the homography.  A fraction of them are outliers
+	 */
+	public static List<AssociatedPair> createPairs( Homography2D_F64 model , int N , double fractionOutliers ,
+													Random rand ) {
+		List<AssociatedPair> pairs = new ArrayList<>();
+		for (int i = 0; i < N; i++) {
+			AssociatedPair p = new AssociatedPair();
+			p.p1.set(rand.nextDouble()*400, rand.nextDouble()*300);
+			if( i < N*fractionOutliers ) {
+				p.p2.set(rand.nextDouble()*400, rand.nextDouble()*300);
+			} else {
+				HomographyPointOps_F64.transform(model, p.p1, p.p2);
+			}
+			pairs.add(p);
+		}
+		return pairs;
+	}
+
+	/**
+	 * Checks to see if the found model is correct and that the number of inliers is reasonable
+	 */
+	public void checkSolution( Homography2D_F64 found , List<AssociatedPair> inliers , int minInliers ) {
+		assertTrue(inliers.size() >= minInliers);
+
+		Point2D_F64 expected = new Point2D_F64();
+		Point2D_F64 p = new Point2D_F64();
+		for (int i = 0; i < 20; i++) {
+			p.set(rand.nextDouble()*400, rand.nextDouble()*300);
+			HomographyPointOps_F64.transform(model, p, expected);
+			HomographyPointOps_F64.transform(found, p, p);
+			assertEquals(0, expected.distance(p), 1e-4);
+		}
+	}
+
+	public static double difference( Homography2D_F64 a , Homography2D_F64 b ) {
+		double total = 0;
+		for (int i = 0; i < 9; i++) {
+			total += Math.abs(a.get(i/3,i%3) - b.get(i/3,i%3));
+		}
+		return total;
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.geo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestAssociatedPairArrays {
+
+	@Test
+	public void add() {
+		AssociatedPairArrays alg = new AssociatedPairArrays();
+
+		for (int i = 0; i < 25; i++) {
+			alg.add(i,i+1,i+2,i+3);
+		}
+		assertEquals(25,alg.size);
+
+		for (int i = 0; i < 25; i++) {
+			assertEquals(i,alg.x1[i],0);
+			assertEquals(i+1,alg.y1[i],0);
+			assertEquals(i+2,alg.x2[i],0);
+			assertEquals(i+3,alg.y2[i],0);
+		}
+	}
+
+	@Test
+	public void set_get() {
+		List<AssociatedPair> pairs = new ArrayList<>();
+		for (int i = 0; i < 15; i++) {
+			pairs.add(new AssociatedPair(i,i+1,i+2,i+3));
+		}
+
+		AssociatedPairArrays alg = new AssociatedPairArrays();
+		alg.add(1,2,3,4);
+		alg.set(pairs);
+		assertEquals(15,alg.size);
+
+		AssociatedPair found = new AssociatedPair();
+		for (int i = 0; i < 15; i++) {
+			alg.get(i,found);
+			assertEquals(0,found.p1.distance(pairs.get(i).p1),0);
+			assertEquals(0,found.p2.distance(pairs.get(i).p2),0);
+		}
+	}
+
+	@Test
+	public void reserve() {
+		AssociatedPairArrays alg = new AssociatedPairArrays();
+		alg.add(1,2,3,4);
+		alg.reserve(100);
+
+		assertEquals(100,alg.x1.length);
+		assertEquals(100,alg.y2.length);
+		assertEquals(1,alg.size);
+		assertEquals(1,alg.x1[0],0);
+		assertEquals(4,alg.y2[0],0);
+	}
+}
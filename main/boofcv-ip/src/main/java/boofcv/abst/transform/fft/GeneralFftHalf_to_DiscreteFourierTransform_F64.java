@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boofcv.abst.transform.fft;
+
+import boofcv.alg.transform.fft.DiscreteFourierTransformOps;
+import boofcv.alg.transform.fft.FftPlanCache_F64;
+import boofcv.alg.transform.fft.GeneralPurposeFFT_F64_2D;
+import boofcv.struct.image.GrayF64;
+import boofcv.struct.image.InterleavedF64;
+
+/**
+ * <p>
+ * Wrapper around {@link GeneralPurposeFFT_F64_2D} which implements {@link DiscreteFourierTransform} and only
+ * computes the non-redundant half of the spectrum.  The transform of a real image is Hermitian so the
+ * transform only has width/2+1 columns, instead of width, and the same number of rows as the image.
+ * Element-wise operations, e.g. {@link DiscreteFourierTransformOps#multiplyComplex}, can be applied to it directly
+ * and {@link DiscreteFourierTransformOps#halfToFull} will expand it into the full transform.
+ * </p>
+ *
+ * <pre>
+ * a[i*2*w+2*j] = Re[i][j],
+ * a[i*2*w+2*j+1] = Im[i][j], 0&le;i&lt;height, 0&le;j&lt;w, w = width/2+1
+ * </pre>
+ *
+ * @see GeneralPurposeFFT_F64_2D#realForwardHalf
+ *
+ * @author Peter Abeles
+ */
+public class GeneralFftHalf_to_DiscreteFourierTransform_F64
+		implements DiscreteFourierTransform<GrayF64,InterleavedF64>
+{
+	// previous size of input image
+	private int prevWidth = -1;
+	private int prevHeight = -1;
+
+	// performs the FFT
+	private GeneralPurposeFFT_F64_2D alg;
+
+	// storage for temporary results
+	private InterleavedF64 tmp = new InterleavedF64(1,1,2);
+
+	// if true then it can modify the input images
+	private boolean modifyInputs = false;
+
+	// provides a transform for each image shape
+	private FftPlanCache_F64 plans;
+
+	/**
+	 * Creates a transform which gets its plans from the provided cache
+	 *
+	 * @param plans Cache that plans are taken from.  Can be shared with other transforms.
+	 */
+	public GeneralFftHalf_to_DiscreteFourierTransform_F64( FftPlanCache_F64 plans ) {
+		this.plans = plans;
+	}
+
+	public GeneralFftHalf_to_DiscreteFourierTransform_F64() {
+		this(new FftPlanCache_F64(1,false));
+	}
+
+	@Override
+	public void forward(GrayF64 image, InterleavedF64 transform ) {
+		DiscreteFourierTransformOps.checkImageArgumentsHalf(image,transform);
+		if( image.isSubimage() || transform.isSubimage() )
+			throw new IllegalArgumentException("Subimages are not supported");
+
+		checkDeclareAlg(image);
+
+		alg.realForwardHalf(image.data,transform.data);
+	}
+
+	@Override
+	public void inverse(InterleavedF64 transform, GrayF64 image ) {
+		DiscreteFourierTransformOps.checkImageArgumentsHalf(image,transform);
+		if( image.isSubimage() || transform.isSubimage() )
+			throw new IllegalArgumentException("Subimages are not supported");
+
+		checkDeclareAlg(image);
+
+		// If the user lets us, modify the transform
+		InterleavedF64 workImage;
+		if(modifyInputs) {
+			workImage = transform;
+		} else {
+			tmp.reshape(transform.width,transform.height);
+			tmp.setTo(transform);
+			workImage = tmp;
+		}
+
+		alg.realInverseHalf(workImage.data, image.data, true);
+	}
+
+	/**
+	 * Declare the algorithm if the image size has changed
+	 */
+	private void checkDeclareAlg(GrayF64 image) {
+		if( prevWidth != image.width || prevHeight != image.height ) {
+			prevWidth = image.width;
+			prevHeight = image.height;
+			alg = plans.get(image.height,image.width);
+		}
+	}
+
+	@Override
+	public void setModifyInputs(boolean modify) {
+		this.modifyInputs = modify;
+	}
+
+	@Override
+	public boolean isModifyInputs() {
+		return modifyInputs;
+	}
+
+	public FftPlanCache_F64 getPlans() {
+		return plans;
+	}
+}
@@ -19,6 +19,7 @@
 package boofcv.abst.transform.fft;
 
 import boofcv.alg.transform.fft.DiscreteFourierTransformOps;
+import boofcv.alg.transform.fft.FftPlanCache_F64;
 import boofcv.alg.transform.fft.GeneralPurposeFFT_F64_2D;
 import boofcv.struct.image.GrayF64;
 import boofcv.struct.image.InterleavedF64;
@@ -44,6 +45,31 @@ public class GeneralFft_to_DiscreteFourierTransform_F64
 	// if true then it can modify the input images
 	private boolean modifyInputs = false;
 
+	// provides a transform for each image shape
+	private FftPlanCache_F64 plans;
+
+	/**
+	 * Creates a transform which gets its plans from the provided cache
+	 *
+	 * @param plans Cache that plans are taken from.  Can be shared with other transforms.
+	 */
+	public GeneralFft_to_DiscreteFourierTransform_F64( FftPlanCache_F64 plans ) {
+		this.plans = plans;
+	}
+
+	/**
+	 * Specifies if the transform should be computed using multiple threads
+	 *
+	 * @param concurrent true for a multi-threaded transform
+	 */
+	public GeneralFft_to_DiscreteFourierTransform_F64( boolean concurrent ) {
+		this(new FftPlanCache_F64(1,concurrent));
+	}
+
+	public GeneralFft_to_DiscreteFourierTransform_F64() {
+		this(false);
+	}
+
 	@Override
 	public void forward(GrayF64 image, InterleavedF64 transform ) {
 		DiscreteFourierTransformOps.checkImageArguments(image,transform);
@@ -93,7 +119,7 @@ public class GeneralFft_to_DiscreteFourierTransform_F64
 		if( prevWidth != image.width || prevHeight != image.height ) {
 			prevWidth = image.width;
 			prevHeight = image.height;
-			alg = new GeneralPurposeFFT_F64_2D(image.height,image.width);
+			alg = plans.get(image.height,image.width);
 		}
 	}
 
@@ -106,4 +132,8 @@ public class GeneralFft_to_DiscreteFourierTransform_F64
 	public boolean isModifyInputs() {
 		return modifyInputs;
 	}
+
+	public FftPlanCache_F64 getPlans() {
+		return plans;
+	}
 }
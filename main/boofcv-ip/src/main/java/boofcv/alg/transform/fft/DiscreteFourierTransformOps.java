@@ -19,6 +19,8 @@
 package boofcv.alg.transform.fft;
 
 import boofcv.abst.transform.fft.DiscreteFourierTransform;
+import boofcv.abst.transform.fft.GeneralFftHalf_to_DiscreteFourierTransform_F32;
+import boofcv.abst.transform.fft.GeneralFftHalf_to_DiscreteFourierTransform_F64;
 import boofcv.abst.transform.fft.GeneralFft_to_DiscreteFourierTransform_F32;
 import boofcv.abst.transform.fft.GeneralFft_to_DiscreteFourierTransform_F64;
 import boofcv.alg.InputSanityCheck;
@@ -42,6 +44,57 @@ public class DiscreteFourierTransformOps {
 		return new GeneralFft_to_DiscreteFourierTransform_F32();
 	}
 
+	/**
+	 * Creates a {@link DiscreteFourierTransform} for images of type {@link GrayF32} which can optionally
+	 * distribute the row and column transforms across multiple threads.
+	 *
+	 * @see GeneralPurposeFFT_F32_2D
+	 *
+	 * @param concurrent if true then a multi-threaded transform is created
+	 * @return {@link DiscreteFourierTransform}
+	 */
+	public static DiscreteFourierTransform<GrayF32,InterleavedF32>  createTransformF32( boolean concurrent ) {
+		return new GeneralFft_to_DiscreteFourierTransform_F32(concurrent);
+	}
+
+	/**
+	 * Creates a {@link DiscreteFourierTransform} for images of type {@link GrayF32} which gets its plans from
+	 * a cache that can be shared between several transforms.
+	 *
+	 * @see FftPlanCache_F32
+	 *
+	 * @param plans Cache of transform plans
+	 * @return {@link DiscreteFourierTransform}
+	 */
+	public static DiscreteFourierTransform<GrayF32,InterleavedF32>  createTransformF32( FftPlanCache_F32 plans ) {
+		return new GeneralFft_to_DiscreteFourierTransform_F32(plans);
+	}
+
+	/**
+	 * Creates a {@link DiscreteFourierTransform} for images of type {@link GrayF32} which only computes
+	 * the non-redundant half of the spectrum. The transform has a width of width/2+1.
+	 *
+	 * @see GeneralFftHalf_to_DiscreteFourierTransform_F32
+	 *
+	 * @return {@link DiscreteFourierTransform}
+	 */
+	public static DiscreteFourierTransform<GrayF32,InterleavedF32>  createHalfTransformF32() {
+		return new GeneralFftHalf_to_DiscreteFourierTransform_F32();
+	}
+
+	/**
+	 * Creates a {@link DiscreteFourierTransform} for images of type {@link GrayF32} which only computes
+	 * the non-redundant half of the spectrum and gets its plans from a cache.
+	 *
+	 * @see GeneralFftHalf_to_DiscreteFourierTransform_F32
+	 *
+	 * @param plans Cache of transform plans
+	 * @return {@link DiscreteFourierTransform}
+	 */
+	public static DiscreteFourierTransform<GrayF32,InterleavedF32>  createHalfTransformF32( FftPlanCache_F32 plans ) {
+		return new GeneralFftHalf_to_DiscreteFourierTransform_F32(plans);
+	}
+
 	/**
 	 * Creates a {@link DiscreteFourierTransform} for images of type {@link GrayF64}.
 	 *
@@ -53,6 +106,57 @@ public class DiscreteFourierTransformOps {
 		return new GeneralFft_to_DiscreteFourierTransform_F64();
 	}
 
+	/**
+	 * Creates a {@link DiscreteFourierTransform} for images of type {@link GrayF64} which can optionally
+	 * distribute the row and column transforms across multiple threads.
+	 *
+	 * @see GeneralPurposeFFT_F64_2D
+	 *
+	 * @param concurrent if true then a multi-threaded transform is created
+	 * @return {@link DiscreteFourierTransform}
+	 */
+	public static DiscreteFourierTransform<GrayF64,InterleavedF64>  createTransformF64( boolean concurrent ) {
+		return new GeneralFft_to_DiscreteFourierTransform_F64(concurrent);
+	}
+
+	/**
+	 * Creates a {@link DiscreteFourierTransform} for images of type {@link GrayF64} which gets its plans from
+	 * a cache that can be shared between several transforms.
+	 *
+	 * @see FftPlanCache_F64
+	 *
+	 * @param plans Cache of transform plans
+	 * @return {@link DiscreteFourierTransform}
+	 */
+	public static DiscreteFourierTransform<GrayF64,InterleavedF64>  createTransformF64( FftPlanCache_F64 plans ) {
+		return new GeneralFft_to_DiscreteFourierTransform_F64(plans);
+	}
+
+	/**
+	 * Creates a {@link DiscreteFourierTransform} for images of type {@link GrayF64} which only computes
+	 * the non-redundant half of the spectrum. The transform has a width of width/2+1.
+	 *
+	 * @see GeneralFftHalf_to_DiscreteFourierTransform_F64
+	 *
+	 * @return {@link DiscreteFourierTransform}
+	 */
+	public static DiscreteFourierTransform<GrayF64,InterleavedF64>  createHalfTransformF64() {
+		return new GeneralFftHalf_to_DiscreteFourierTransform_F64();
+	}
+
+	/**
+	 * Creates a {@link DiscreteFourierTransform} for images of type {@link GrayF64} which only computes
+	 * the non-redundant half of the spectrum and gets its plans from a cache.
+	 *
+	 * @see GeneralFftHalf_to_DiscreteFourierTransform_F64
+	 *
+	 * @param plans Cache of transform plans
+	 * @return {@link DiscreteFourierTransform}
+	 */
+	public static DiscreteFourierTransform<GrayF64,InterleavedF64>  createHalfTransformF64( FftPlanCache_F64 plans ) {
+		return new GeneralFftHalf_to_DiscreteFourierTransform_F64(plans);
+	}
+
 	/**
 	 * true if the number provided is a power of two
 	 * @param x number
@@ -101,6 +205,20 @@ public class DiscreteFourierTransformOps {
 			throw new IllegalArgumentException("The transform must have two bands");
 	}
 
+	/**
+	 * Checks to see if the image and its half spectrum transform are appropriate sizes.  The transform should
+	 * have a width of image.width/2+1 and the same height as the image.
+	 *
+	 * @param image Storage for an image
+	 * @param transform Storage for the half spectrum of a Fourier Transform
+	 */
+	public static void checkImageArgumentsHalf( ImageBase image , ImageInterleaved transform ) {
+		if( image.width/2+1 != transform.width || image.height != transform.height )
+			throw new IllegalArgumentException("Transform must have a width of image.width/2+1 and the same height");
+		if( 2 != transform.getNumBands() )
+			throw new IllegalArgumentException("The transform must have two bands");
+	}
+
 	/**
 	 * Moves the zero-frequency component into the image center (width/2,height/2).   This function can
 	 * be called to undo the transform.
@@ -508,4 +626,64 @@ public class DiscreteFourierTransformOps {
 			}
 		}
 	}
+
+	/**
+	 * Expands the non-redundant half of a real image's transform into the full transform using its Hermitian
+	 * symmetry, X[y][x] = conj(X[-y][-x]).
+	 *
+	 * @param half (Input) Half spectrum with a width of full.width/2+1
+	 * @param full (Output) Full spectrum
+	 */
+	public static void halfToFull( InterleavedF32 half , InterleavedF32 full ) {
+		if( full.width/2+1 != half.width || full.height != half.height )
+			throw new IllegalArgumentException("Half must have a width of full.width/2+1 and the same height");
+
+		for( int y = 0; y < full.height; y++ ) {
+			int indexFull = full.startIndex + y*full.stride;
+			int indexHalf = half.startIndex + y*half.stride;
+
+			// copy the half which was computed
+			System.arraycopy(half.data,indexHalf,full.data,indexFull,half.width*2);
+
+			// fill in the other half using symmetry
+			int yy = (full.height - y) % full.height;
+			int rowMirror = half.startIndex + yy*half.stride;
+			for( int x = half.width; x < full.width; x++ ) {
+				int indexMirror = rowMirror + (full.width - x)*2;
+				int index = indexFull + x*2;
+				full.data[index] = half.data[indexMirror];
+				full.data[index+1] = -half.data[indexMirror+1];
+			}
+		}
+	}
+
+	/**
+	 * Expands the non-redundant half of a real image's transform into the full transform using its Hermitian
+	 * symmetry, X[y][x] = conj(X[-y][-x]).
+	 *
+	 * @param half (Input) Half spectrum with a width of full.width/2+1
+	 * @param full (Output) Full spectrum
+	 */
+	public static void halfToFull( InterleavedF64 half , InterleavedF64 full ) {
+		if( full.width/2+1 != half.width || full.height != half.height )
+			throw new IllegalArgumentException("Half must have a width of full.width/2+1 and the same height");
+
+		for( int y = 0; y < full.height; y++ ) {
+			int indexFull = full.startIndex + y*full.stride;
+			int indexHalf = half.startIndex + y*half.stride;
+
+			// copy the half which was computed
+			System.arraycopy(half.data,indexHalf,full.data,indexFull,half.width*2);
+
+			// fill in the other half using symmetry
+			int yy = (full.height - y) % full.height;
+			int rowMirror = half.startIndex + yy*half.stride;
+			for( int x = half.width; x < full.width; x++ ) {
+				int indexMirror = rowMirror + (full.width - x)*2;
+				int index = indexFull + x*2;
+				full.data[index] = half.data[indexMirror];
+				full.data[index+1] = -half.data[indexMirror+1];
+			}
+		}
+	}
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boofcv.alg.transform.fft;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * Cache of {@link GeneralPurposeFFT_F64_2D} which are looked up using the image's shape.  Creating a new transform
+ * requires its twiddle factors and work space to be computed, which can take more time than the transform
+ * itself for small images.  By sharing a cache between several transforms that process images with the same shape
+ * that cost is only paid once. When more than the maximum number of plans have been created the one used least
+ * recently is discarded.
+ * </p>
+ *
+ * <p>
+ * Transforms are NOT thread safe. A cache should only be shared between transforms that are invoked by the same
+ * thread.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class FftPlanCache_F64 {
+	// maximum number of plans it will store
+	private int maxPlans;
+	// if true then the created plans are multi-threaded
+	private boolean concurrent;
+
+	// plans in order of when they were last used
+	private LinkedHashMap<Long,GeneralPurposeFFT_F64_2D> plans;
+
+	/**
+	 * Configures the cache
+	 *
+	 * @param maxPlans Maximum number of plans which are stored.
+	 * @param concurrent If true then created plans will use multiple threads
+	 */
+	public FftPlanCache_F64( final int maxPlans , boolean concurrent ) {
+		if( maxPlans < 1 )
+			throw new IllegalArgumentException("maxPlans must be greater than 0");
+		this.maxPlans = maxPlans;
+		this.concurrent = concurrent;
+		this.plans = new LinkedHashMap<Long,GeneralPurposeFFT_F64_2D>(16,0.75f,true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long,GeneralPurposeFFT_F64_2D> eldest) {
+				return size() > FftPlanCache_F64.this.maxPlans;
+			}
+		};
+	}
+
+	public FftPlanCache_F64() {
+		this(10,false);
+	}
+
+	/**
+	 * Returns a transform for the specified shape.  If none exists then a new one is created.
+	 *
+	 * @param rows Number of rows in the image, i.e. height
+	 * @param columns Number of columns in the image, i.e. width
+	 * @return The transform
+	 */
+	public GeneralPurposeFFT_F64_2D get( int rows , int columns ) {
+		Long key = ((long)rows << 32) | columns;
+		GeneralPurposeFFT_F64_2D plan = plans.get(key);
+		if( plan == null ) {
+			plan = new GeneralPurposeFFT_F64_2D(rows,columns,concurrent);
+			plans.put(key,plan);
+		}
+		return plan;
+	}
+
+	/**
+	 * Discards all the plans
+	 */
+	public void clear() {
+		plans.clear();
+	}
+
+	/**
+	 * Number of plans currently in the cache
+	 */
+	public int size() {
+		return plans.size();
+	}
+
+	public int getMaxPlans() {
+		return maxPlans;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+}
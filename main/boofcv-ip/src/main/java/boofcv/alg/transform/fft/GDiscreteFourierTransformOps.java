@@ -47,6 +47,24 @@ public class GDiscreteFourierTransformOps {
 		throw new IllegalArgumentException("Unsupported image type "+type);
 	}
 
+	/**
+	 * Creates a {@link boofcv.abst.transform.fft.DiscreteFourierTransform} for the specified type which only
+	 * computes the non-redundant half of the spectrum.
+	 *
+	 * @see DiscreteFourierTransformOps#createHalfTransformF32()
+	 *
+	 * @param type Image data type
+	 * @return {@link boofcv.abst.transform.fft.DiscreteFourierTransform}
+	 */
+	public static <T extends GrayF<T>, W extends ImageInterleaved>
+	DiscreteFourierTransform<T,W> createHalfTransform( ImageDataType type ) {
+		switch( type ) {
+			case F32: return (DiscreteFourierTransform)DiscreteFourierTransformOps.createHalfTransformF32();
+			case F64: return (DiscreteFourierTransform)DiscreteFourierTransformOps.createHalfTransformF64();
+		}
+		throw new IllegalArgumentException("Unsupported image type "+type);
+	}
+
 	/**
 	 * Moves the zero-frequency component into the image center (width/2,height/2).   This function can
 	 * be called to undo the transform.
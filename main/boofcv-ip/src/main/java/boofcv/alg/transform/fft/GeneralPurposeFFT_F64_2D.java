@@ -18,6 +18,12 @@
 
 package boofcv.alg.transform.fft;
 
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectTask;
+import org.ddogleg.struct.FastQueue;
+
+import java.util.Arrays;
+
 /**
  * Computes 2D Discrete Fourier Transform (DFT) of complex and real, double
  * precision data. The size of the data can be an arbitrary number. The code originally comes from
@@ -26,8 +32,10 @@ package boofcv.alg.transform.fft;
  * <p></p>
  * This code has a bit of a history.  Originally from General Purpose FFT.  Which was then ported into
  * JFFTPack written by Baoshe Zhang (http://jfftpack.sourceforge.net/), and then into JTransforms by Piotr Wendykier.
- * The major modification from JTransforms is that the SMP code has been stripped out.  It might be added back in
- * once an SMP strategy has been finalized in BoofCV.
+ * The major modification from JTransforms is that the SMP code has been stripped out.  Instead, a concurrent mode
+ * can be selected in the constructor which uses {@link BoofConcurrency} to distribute the 1D row and column
+ * transforms across threads. Each thread has its own 1D transforms since they contain internal work space.
+ * The packed real formats, {@link #realForward} and {@link #realInverse}, are always computed in a single thread.
  * <p></p>
  * Code License:  The original license of General Purpose FFT Package is shown below.  This file will fall
  * under the same license:
@@ -58,6 +66,11 @@ public class GeneralPurposeFFT_F64_2D {
 	private double[] temp;
 	private double[][] temp2;
 
+	// if true then the transform is computed using multiple threads
+	private boolean concurrent;
+	// work space for each thread in concurrent mode
+	private FastQueue<Worker> workers;
+
 	/**
 	 * Creates new instance of DoubleFFT_2D.
 	 *
@@ -67,6 +80,20 @@ public class GeneralPurposeFFT_F64_2D {
 	 *            number of columns
 	 */
 	public GeneralPurposeFFT_F64_2D(int rows, int columns) {
+		this(rows,columns,false);
+	}
+
+	/**
+	 * Creates new instance and specifies if the transform should be computed using multiple threads.
+	 *
+	 * @param rows
+	 *            number of rows
+	 * @param columns
+	 *            number of columns
+	 * @param concurrent
+	 *            if true then rows and columns are transformed in parallel
+	 */
+	public GeneralPurposeFFT_F64_2D(int rows, int columns, boolean concurrent) {
 		if (rows < 1 || columns < 1 ) {
 			throw new IllegalArgumentException("rows and columns must be greater than 0");
 		}
@@ -94,6 +121,7 @@ public class GeneralPurposeFFT_F64_2D {
 		}
 
 		temp = new double[2 * rows];
+		this.concurrent = concurrent;
 	}
 
 	/**
@@ -121,6 +149,11 @@ public class GeneralPurposeFFT_F64_2D {
 			return;
 		}
 
+		if( concurrent ) {
+			concurrentComplex(a, true, true);
+			return;
+		}
+
 		if (isPowerOfTwo) {
 			int oldn2 = columns;
 			columns = 2 * columns;
@@ -184,6 +217,11 @@ public class GeneralPurposeFFT_F64_2D {
 			return;
 		}
 
+		if( concurrent ) {
+			concurrentComplex(a, false, scale);
+			return;
+		}
+
 		if (isPowerOfTwo) {
 			int oldn2 = columns;
 			columns = 2 * columns;
@@ -292,6 +330,11 @@ public class GeneralPurposeFFT_F64_2D {
 			return;
 		}
 
+		if( concurrent ) {
+			concurrentRealFull(a, true, true);
+			return;
+		}
+
 		if (isPowerOfTwo) {
 			for (int r = 0; r < rows; r++) {
 				fftColumns.realForward(a, r * columns);
@@ -384,6 +427,11 @@ public class GeneralPurposeFFT_F64_2D {
 			return;
 		}
 
+		if( concurrent ) {
+			concurrentRealFull(a, false, scale);
+			return;
+		}
+
 		if (isPowerOfTwo) {
 			for (int r = 0; r < rows; r++) {
 				fftColumns.realInverse2(a, r * columns, scale);
@@ -397,6 +445,239 @@ public class GeneralPurposeFFT_F64_2D {
 		}
 	}
 
+	/**
+	 * Computes the 2D forward DFT of real data and only saves the non-redundant half of the spectrum. The
+	 * transform of real data is Hermitian, X[k1][k2] = conj(X[-k1][-k2]), so only the first columns/2+1
+	 * columns need to be computed and stored.  Output layout:<br>
+	 *
+	 * <pre>
+	 * output[k1*2*w+2*k2] = Re[k1][k2],
+	 * output[k1*2*w+2*k2+1] = Im[k1][k2], 0&lt;=k1&lt;rows, 0&lt;=k2&lt;w, w = columns/2+1
+	 * </pre>
+	 *
+	 * @param input
+	 *            real data of size rows*columns.  Not modified.
+	 * @param output
+	 *            half of the transform, size rows*2*(columns/2+1).  Modified.
+	 */
+	public void realForwardHalf(final double[] input, final double[] output) {
+		final int halfColumns = columns / 2 + 1;
+
+		if( concurrent ) {
+			declareWorkers();
+			BoofConcurrency.loopBlocks(0, rows, workers, new IntRangeObjectTask<Worker>() {
+				@Override
+				public void process(Worker w, int idx0, int idx1) {
+					forwardHalfRows(w.fftColumns, input, output, idx0, idx1);
+				}
+			});
+			BoofConcurrency.loopBlocks(0, halfColumns, workers, new IntRangeObjectTask<Worker>() {
+				@Override
+				public void process(Worker w, int idx0, int idx1) {
+					transformColumns(w.fftRows, w.temp, output, halfColumns, idx0, idx1, true, true);
+				}
+			});
+		} else {
+			forwardHalfRows(fftColumns, input, output, 0, rows);
+			transformColumns(fftRows, temp, output, halfColumns, 0, halfColumns, true, true);
+		}
+	}
+
+	/**
+	 * Computes the 2D inverse DFT of a transform stored in the half spectrum format created by
+	 * {@link #realForwardHalf}.  Only the real part of the result is computed since the imaginary part is zero.
+	 *
+	 * @param input
+	 *            half of the transform, size rows*2*(columns/2+1).  Modified.
+	 * @param output
+	 *            real data of size rows*columns.  Modified.
+	 * @param scale
+	 *            if true then scaling is performed
+	 */
+	public void realInverseHalf(final double[] input, final double[] output, final boolean scale) {
+		final int halfColumns = columns / 2 + 1;
+
+		if( concurrent ) {
+			declareWorkers();
+			BoofConcurrency.loopBlocks(0, halfColumns, workers, new IntRangeObjectTask<Worker>() {
+				@Override
+				public void process(Worker w, int idx0, int idx1) {
+					transformColumns(w.fftRows, w.temp, input, halfColumns, idx0, idx1, false, scale);
+				}
+			});
+			BoofConcurrency.loopBlocks(0, rows, workers, new IntRangeObjectTask<Worker>() {
+				@Override
+				public void process(Worker w, int idx0, int idx1) {
+					inverseHalfRows(w.fftColumns, input, output, idx0, idx1, scale);
+				}
+			});
+		} else {
+			transformColumns(fftRows, temp, input, halfColumns, 0, halfColumns, false, scale);
+			inverseHalfRows(fftColumns, input, output, 0, rows, scale);
+		}
+	}
+
+	/**
+	 * Computes the complex transform by first transforming each row then each column in parallel
+	 */
+	private void concurrentComplex(final double[] a, final boolean forward, final boolean scale) {
+		declareWorkers();
+		final int rowStride = 2 * columns;
+
+		BoofConcurrency.loopBlocks(0, rows, workers, new IntRangeObjectTask<Worker>() {
+			@Override
+			public void process(Worker w, int idx0, int idx1) {
+				for (int r = idx0; r < idx1; r++) {
+					if( forward )
+						w.fftColumns.complexForward(a, r * rowStride);
+					else
+						w.fftColumns.complexInverse(a, r * rowStride, scale);
+				}
+			}
+		});
+
+		concurrentColumns(a, forward, scale);
+	}
+
+	/**
+	 * Computes the full complex transform of real data. Rows are spread out so that there is enough
+	 * room to store their full complex transform, which is then computed in parallel followed by the columns.
+	 */
+	private void concurrentRealFull(final double[] a, final boolean forward, final boolean scale) {
+		declareWorkers();
+		final int rowStride = 2 * columns;
+
+		// start from the last row so that nothing is overwritten before it has been moved. The second half
+		// of each row is zeroed since not every 1D plan writes to all of its elements
+		for (int r = rows - 1; r >= 0; r--) {
+			System.arraycopy(a, r * columns, a, r * rowStride, columns);
+			Arrays.fill(a, r * rowStride + columns, (r + 1) * rowStride, 0);
+		}
+
+		BoofConcurrency.loopBlocks(0, rows, workers, new IntRangeObjectTask<Worker>() {
+			@Override
+			public void process(Worker w, int idx0, int idx1) {
+				for (int r = idx0; r < idx1; r++) {
+					if( forward )
+						w.fftColumns.realForwardFull(a, r * rowStride);
+					else
+						w.fftColumns.realInverseFull(a, r * rowStride, scale);
+				}
+			}
+		});
+
+		concurrentColumns(a, forward, scale);
+	}
+
+	/**
+	 * Transforms each column of complex data in parallel.
+	 */
+	private void concurrentColumns(final double[] a, final boolean forward, final boolean scale) {
+		BoofConcurrency.loopBlocks(0, columns, workers, new IntRangeObjectTask<Worker>() {
+			@Override
+			public void process(Worker w, int idx0, int idx1) {
+				transformColumns(w.fftRows, w.temp, a, columns, idx0, idx1, forward, scale);
+			}
+		});
+	}
+
+	/**
+	 * Transforms columns col0 to col1-1 of complex data.  Each column is copied into temp, transformed,
+	 * then copied back.
+	 *
+	 * @param width Number of complex elements in a row
+	 */
+	private void transformColumns(GeneralPurposeFFT_F64_1D fft, double[] temp, double[] a, int width,
+								  int col0, int col1, boolean forward, boolean scale) {
+		final int rowStride = 2 * width;
+
+		for (int c = col0; c < col1; c++) {
+			int idxC = 2 * c;
+			for (int r = 0; r < rows; r++) {
+				int idxT = 2 * r;
+				int idxA = r * rowStride + idxC;
+				temp[idxT] = a[idxA];
+				temp[idxT + 1] = a[idxA + 1];
+			}
+			if( forward )
+				fft.complexForward(temp);
+			else
+				fft.complexInverse(temp, scale);
+			for (int r = 0; r < rows; r++) {
+				int idxT = 2 * r;
+				int idxA = r * rowStride + idxC;
+				a[idxA] = temp[idxT];
+				a[idxA + 1] = temp[idxT + 1];
+			}
+		}
+	}
+
+	/**
+	 * Computes the 1D transform of each row and converts it from the packed format into the half spectrum format
+	 */
+	private void forwardHalfRows(GeneralPurposeFFT_F64_1D fft, double[] input, double[] output, int row0, int row1) {
+		final int rowStride = 2 * (columns / 2 + 1);
+
+		for (int r = row0; r < row1; r++) {
+			int off = r * rowStride;
+			System.arraycopy(input, r * columns, output, off, columns);
+			fft.realForward(output, off);
+
+			// for even columns a[1] = Re[n/2] and for odd a[1] = Im[(n-1)/2]. Both belong in a[n]
+			if( columns % 2 == 0 )
+				output[off + columns + 1] = 0;
+			output[off + columns] = output[off + 1];
+			output[off + 1] = 0;
+		}
+	}
+
+	/**
+	 * Converts each row from the half spectrum format into the packed format, then computes its inverse
+	 */
+	private void inverseHalfRows(GeneralPurposeFFT_F64_1D fft, double[] input, double[] output,
+								 int row0, int row1, boolean scale) {
+		final int rowStride = 2 * (columns / 2 + 1);
+
+		for (int r = row0; r < row1; r++) {
+			int off = r * rowStride;
+			input[off + 1] = input[off + columns];
+			fft.realInverse(input, off, scale);
+			System.arraycopy(input, off, output, r * columns, columns);
+		}
+	}
+
+	private void declareWorkers() {
+		if( workers == null ) {
+			workers = new FastQueue<Worker>(1, Worker.class, true) {
+				@Override
+				protected Worker createInstance() {
+					return new Worker();
+				}
+			};
+		}
+	}
+
+	/**
+	 * Work space for a single thread.
+	 */
+	private class Worker {
+		GeneralPurposeFFT_F64_1D fftRows = new GeneralPurposeFFT_F64_1D(rows);
+		GeneralPurposeFFT_F64_1D fftColumns = rows == columns ? fftRows : new GeneralPurposeFFT_F64_1D(columns);
+		double[] temp = new double[2 * rows];
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	public int getColumns() {
+		return columns;
+	}
+
 	private void declareRadixRealData() {
 		if( temp2 == null ) {
 			final int n2d2 = columns / 2 + 1;
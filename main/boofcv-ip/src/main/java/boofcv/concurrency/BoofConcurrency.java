@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.concurrency;
+
+import org.ddogleg.struct.FastQueue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * <p>
+ * Utilities for running algorithms on multiple threads.  All work is done using a single shared pool of daemon
+ * threads whose size is specified by {@link #setMaxThreads(int)}, which defaults to the number of processors.
+ * </p>
+ *
+ * <p>
+ * The thread which invokes a function is used to process part of the work and blocks until all the work is done.
+ * If called from inside one of the pool's threads then the work is done sequentially on that thread, which
+ * prevents a dead lock when concurrent algorithms are nested inside each other.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class BoofConcurrency {
+
+	// maximum number of threads which can be used at once.  Includes the calling thread.
+	private static int maxThreads = Runtime.getRuntime().availableProcessors();
+
+	// pool of threads which is shared by all the algorithms
+	private static ExecutorService pool;
+
+	/**
+	 * Specifies the maximum number of threads which can be used at once, including the calling thread.  If
+	 * set to 1 then everything will be run on the calling thread.
+	 *
+	 * @param maxThreads Maximum number of threads.  Must be &ge; 1
+	 */
+	public static synchronized void setMaxThreads( int maxThreads ) {
+		if( maxThreads <= 0 )
+			throw new IllegalArgumentException("maxThreads must be more than zero");
+		BoofConcurrency.maxThreads = maxThreads;
+		if( pool != null ) {
+			pool.shutdown();
+			pool = null;
+		}
+	}
+
+	public static synchronized int getMaxThreads() {
+		return maxThreads;
+	}
+
+	/**
+	 * Returns the shared thread pool.  Created the first time it's requested.
+	 */
+	public static synchronized ExecutorService getExecutor() {
+		if( pool == null ) {
+			pool = Executors.newFixedThreadPool(Math.max(1,maxThreads-1), new ThreadFactory() {
+				int count = 0;
+				@Override
+				public synchronized Thread newThread(Runnable r) {
+					return new WorkerThread(r,"BoofConcurrency-"+(count++));
+				}
+			});
+		}
+		return pool;
+	}
+
+	/**
+	 * Returns true if the calling thread belongs to the shared thread pool
+	 */
+	public static boolean isWorkerThread() {
+		return Thread.currentThread() instanceof WorkerThread;
+	}
+
+	/**
+	 * Splits the range of indexes into blocks which are processed in parallel.  One block for each thread.
+	 *
+	 * @param start First index, inclusive
+	 * @param end Last index, exclusive
+	 * @param task Processes a block of indexes
+	 */
+	public static void loopBlocks( int start , int end , final IntRangeTask task ) {
+		final int numBlocks = computeBlocks(start, end);
+		if( numBlocks <= 1 ) {
+			if( end > start )
+				task.process(start,end);
+			return;
+		}
+
+		List<Runnable> tasks = new ArrayList<>();
+		for (int i = 0; i < numBlocks; i++) {
+			final int idx0 = blockStart(start,end,numBlocks,i);
+			final int idx1 = blockStart(start,end,numBlocks,i+1);
+			tasks.add(new Runnable() {
+				@Override
+				public void run() {
+					task.process(idx0,idx1);
+				}
+			});
+		}
+		runAll(tasks);
+	}
+
+	/**
+	 * Splits the range of indexes into blocks which are processed in parallel.  Each block is given its own
+	 * workspace.  After this function returns the workspace will contain one element for each block which
+	 * was processed, allowing results to be merged.  Elements in the workspace are recycled.
+	 *
+	 * @param start First index, inclusive
+	 * @param end Last index, exclusive
+	 * @param workspace Storage for workspaces.  Must declare instances.
+	 * @param task Processes a block of indexes
+	 */
+	public static <T> void loopBlocks( int start , int end , FastQueue<T> workspace ,
+									   final IntRangeObjectTask<T> task ) {
+		workspace.reset();
+		final int numBlocks = computeBlocks(start, end);
+		if( numBlocks <= 1 ) {
+			if( end > start )
+				task.process(workspace.grow(),start,end);
+			return;
+		}
+
+		List<Runnable> tasks = new ArrayList<>();
+		for (int i = 0; i < numBlocks; i++) {
+			final T data = workspace.grow();
+			final int idx0 = blockStart(start,end,numBlocks,i);
+			final int idx1 = blockStart(start,end,numBlocks,i+1);
+			tasks.add(new Runnable() {
+				@Override
+				public void run() {
+					task.process(data,idx0,idx1);
+				}
+			});
+		}
+		runAll(tasks);
+	}
+
+	/**
+	 * Runs all the tasks in parallel and blocks until they have all finished.  The first task is run on the
+	 * calling thread.  If any of the tasks throws an exception then it's rethrown once all the tasks are done.
+	 *
+	 * @param tasks List of tasks which are to be run
+	 */
+	public static void runAll( List<? extends Runnable> tasks ) {
+		if( tasks.isEmpty() )
+			return;
+
+		if( tasks.size() == 1 || getMaxThreads() == 1 || isWorkerThread() ) {
+			for (int i = 0; i < tasks.size(); i++) {
+				tasks.get(i).run();
+			}
+			return;
+		}
+
+		ExecutorService executor = getExecutor();
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 1; i < tasks.size(); i++) {
+			futures.add(executor.submit(tasks.get(i)));
+		}
+
+		Throwable failure = null;
+		try {
+			tasks.get(0).run();
+		} catch( RuntimeException | Error e ) {
+			failure = e;
+		}
+
+		for (int i = 0; i < futures.size(); i++) {
+			try {
+				futures.get(i).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				if( failure == null )
+					failure = e;
+			} catch (ExecutionException e) {
+				if( failure == null )
+					failure = e.getCause();
+			}
+		}
+
+		if( failure instanceof RuntimeException )
+			throw (RuntimeException)failure;
+		else if( failure instanceof Error )
+			throw (Error)failure;
+		else if( failure != null )
+			throw new RuntimeException(failure);
+	}
+
+	/**
+	 * Number of blocks a range is split into
+	 */
+	private static int computeBlocks( int start , int end ) {
+		if( isWorkerThread() )
+			return 1;
+		return Math.min(getMaxThreads(), end-start);
+	}
+
+	/**
+	 * Returns the first index in the specified block.  Blocks are evenly sized.
+	 */
+	private static int blockStart( int start , int end , int numBlocks , int block ) {
+		return start + (int)((end-start)*(long)block/numBlocks);
+	}
+
+	/**
+	 * Daemon thread inside the shared pool.  Used to identify nested calls.
+	 */
+	private static class WorkerThread extends Thread {
+		WorkerThread(Runnable target, String name) {
+			super(target, name);
+			setDaemon(true);
+		}
+	}
+}
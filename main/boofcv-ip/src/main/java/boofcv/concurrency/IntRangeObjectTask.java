@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.concurrency;
+
+/**
+ * Processes a range of indexes while using a workspace which is owned by the thread processing the range.
+ * Used when each thread needs its own storage, e.g. to accumulate results which are later merged.
+ *
+ * @author Peter Abeles
+ */
+public interface IntRangeObjectTask<T> {
+	/**
+	 * Process indexes in the range idx0 &le; i &lt; idx1
+	 *
+	 * @param workspace Data which is exclusively used by this range
+	 * @param idx0 Lower extent, inclusive
+	 * @param idx1 Upper extent, exclusive
+	 */
+	void process( T workspace , int idx0 , int idx1 );
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boofcv.abst.filter.transform.fft;
+
+import boofcv.abst.transform.fft.DiscreteFourierTransform;
+import boofcv.abst.transform.fft.GeneralFftHalf_to_DiscreteFourierTransform_F32;
+import boofcv.abst.transform.fft.GeneralFft_to_DiscreteFourierTransform_F32;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.alg.transform.fft.DiscreteFourierTransformOps;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.InterleavedF32;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestGeneralFftHalf_to_DiscreteFourierTransform_F32
+		extends GenericTestDiscreteFourierTransform<GrayF32,InterleavedF32> {
+
+	public TestGeneralFftHalf_to_DiscreteFourierTransform_F32() {
+		super(false,1e-3);
+	}
+
+	@Override
+	public DiscreteFourierTransform<GrayF32,InterleavedF32> createAlgorithm() {
+		return new GeneralFftHalf_to_DiscreteFourierTransform_F32();
+	}
+
+	@Override
+	public GrayF32 createImage(int width, int height) {
+		return new GrayF32(width,height);
+	}
+
+	@Override
+	public InterleavedF32 createTransform(int width, int height) {
+		return new InterleavedF32(width/2+1,height,2);
+	}
+
+	/**
+	 * Only half the transform is saved so the mirrored coefficients can't be compared.  Instead
+	 * compare against the full transform
+	 */
+	@Override
+	@Test
+	public void format_even() {
+		compareToFull(10,1);
+		compareToFull(10,6);
+	}
+
+	@Override
+	@Test
+	public void format_odd() {
+		compareToFull(7,1);
+		compareToFull(7,9);
+	}
+
+	private void compareToFull( int width , int height ) {
+		GrayF32 input = createImage(width,height);
+		GImageMiscOps.fillUniform(input,rand,-20,20);
+
+		InterleavedF32 half = createTransform(width,height);
+		InterleavedF32 full = new InterleavedF32(width,height,2);
+		InterleavedF32 expected = new InterleavedF32(width,height,2);
+
+		createAlgorithm().forward(input,half);
+		new GeneralFft_to_DiscreteFourierTransform_F32().forward(input,expected);
+
+		DiscreteFourierTransformOps.halfToFull(half,full);
+		BoofTesting.assertEquals(expected,full,1e-3);
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boofcv.abst.filter.transform.fft;
+
+import boofcv.abst.transform.fft.DiscreteFourierTransform;
+import boofcv.abst.transform.fft.GeneralFftHalf_to_DiscreteFourierTransform_F64;
+import boofcv.abst.transform.fft.GeneralFft_to_DiscreteFourierTransform_F64;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.alg.transform.fft.DiscreteFourierTransformOps;
+import boofcv.struct.image.GrayF64;
+import boofcv.struct.image.InterleavedF64;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestGeneralFftHalf_to_DiscreteFourierTransform_F64
+		extends GenericTestDiscreteFourierTransform<GrayF64,InterleavedF64> {
+
+	public TestGeneralFftHalf_to_DiscreteFourierTransform_F64() {
+		super(false,1e-8);
+	}
+
+	@Override
+	public DiscreteFourierTransform<GrayF64,InterleavedF64> createAlgorithm() {
+		return new GeneralFftHalf_to_DiscreteFourierTransform_F64();
+	}
+
+	@Override
+	public GrayF64 createImage(int width, int height) {
+		return new GrayF64(width,height);
+	}
+
+	@Override
+	public InterleavedF64 createTransform(int width, int height) {
+		return new InterleavedF64(width/2+1,height,2);
+	}
+
+	/**
+	 * Only half the transform is saved so the mirrored coefficients can't be compared.  Instead
+	 * compare against the full transform
+	 */
+	@Override
+	@Test
+	public void format_even() {
+		compareToFull(10,1);
+		compareToFull(10,6);
+	}
+
+	@Override
+	@Test
+	public void format_odd() {
+		compareToFull(7,1);
+		compareToFull(7,9);
+	}
+
+	private void compareToFull( int width , int height ) {
+		GrayF64 input = createImage(width,height);
+		GImageMiscOps.fillUniform(input,rand,-20,20);
+
+		InterleavedF64 half = createTransform(width,height);
+		InterleavedF64 full = new InterleavedF64(width,height,2);
+		InterleavedF64 expected = new InterleavedF64(width,height,2);
+
+		createAlgorithm().forward(input,half);
+		new GeneralFft_to_DiscreteFourierTransform_F64().forward(input,expected);
+
+		DiscreteFourierTransformOps.halfToFull(half,full);
+		BoofTesting.assertEquals(expected,full,1e-8);
+	}
+}
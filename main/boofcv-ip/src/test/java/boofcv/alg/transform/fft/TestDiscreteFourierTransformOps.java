@@ -310,4 +310,52 @@ public class TestDiscreteFourierTransformOps {
 			}
 		}
 	}
+
+	@Test
+	public void checkImageArgumentsHalf() {
+		DiscreteFourierTransformOps.checkImageArgumentsHalf(new GrayF32(10,12),new InterleavedF32(6,12,2));
+		DiscreteFourierTransformOps.checkImageArgumentsHalf(new GrayF64(11,12),new InterleavedF64(6,12,2));
+
+		try {
+			DiscreteFourierTransformOps.checkImageArgumentsHalf(new GrayF32(10,12),new InterleavedF32(10,12,2));
+			fail("Should have thrown an exception");
+		} catch( IllegalArgumentException ignore ){}
+		try {
+			DiscreteFourierTransformOps.checkImageArgumentsHalf(new GrayF32(10,12),new InterleavedF32(6,11,2));
+			fail("Should have thrown an exception");
+		} catch( IllegalArgumentException ignore ){}
+	}
+
+	/**
+	 * Compute the half and full transform then see if the expanded half matches the full
+	 */
+	@Test
+	public void halfToFull() {
+		int sizes[][] = new int[][]{{1,1},{8,6},{7,5}};
+		for( int[] s : sizes ) {
+			int width = s[0], height = s[1];
+
+			GrayF32 input32 = new GrayF32(width,height);
+			GImageMiscOps.fillUniform(input32,rand,-5,5);
+			InterleavedF32 half32 = new InterleavedF32(width/2+1,height,2);
+			InterleavedF32 full32 = new InterleavedF32(width,height,2);
+			InterleavedF32 expected32 = new InterleavedF32(width,height,2);
+
+			DiscreteFourierTransformOps.createHalfTransformF32().forward(input32,half32);
+			DiscreteFourierTransformOps.createTransformF32().forward(input32,expected32);
+			DiscreteFourierTransformOps.halfToFull(half32,full32);
+			BoofTesting.assertEquals(expected32,full32,1e-4);
+
+			GrayF64 input64 = new GrayF64(width,height);
+			GImageMiscOps.fillUniform(input64,rand,-5,5);
+			InterleavedF64 half64 = new InterleavedF64(width/2+1,height,2);
+			InterleavedF64 full64 = new InterleavedF64(width,height,2);
+			InterleavedF64 expected64 = new InterleavedF64(width,height,2);
+
+			DiscreteFourierTransformOps.createHalfTransformF64().forward(input64,half64);
+			DiscreteFourierTransformOps.createTransformF64().forward(input64,expected64);
+			DiscreteFourierTransformOps.halfToFull(half64,full64);
+			BoofTesting.assertEquals(expected64,full64,1e-8);
+		}
+	}
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boofcv.alg.transform.fft;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestFftPlanCache_F64 {
+
+	@Test
+	public void get_reuse() {
+		FftPlanCache_F64 alg = new FftPlanCache_F64(5,false);
+
+		GeneralPurposeFFT_F64_2D a = alg.get(10,12);
+		assertEquals(10,a.getRows());
+		assertEquals(12,a.getColumns());
+		assertFalse(a.isConcurrent());
+
+		// same shape should return the same plan
+		assertSame(a,alg.get(10,12));
+		// transposed shape is a different plan
+		assertNotSame(a,alg.get(12,10));
+		assertEquals(2,alg.size());
+
+		alg.clear();
+		assertEquals(0,alg.size());
+		assertNotSame(a,alg.get(10,12));
+	}
+
+	/**
+	 * The least recently used plan should be discarded
+	 */
+	@Test
+	public void get_evict() {
+		FftPlanCache_F64 alg = new FftPlanCache_F64(2,true);
+
+		GeneralPurposeFFT_F64_2D a = alg.get(4,4);
+		GeneralPurposeFFT_F64_2D b = alg.get(5,5);
+		assertTrue(a.isConcurrent());
+
+		// touch 'a' so that 'b' is now the oldest
+		assertSame(a,alg.get(4,4));
+		alg.get(6,6);
+		assertEquals(2,alg.size());
+
+		assertSame(a,alg.get(4,4));
+		assertNotSame(b,alg.get(5,5));
+	}
+}
@@ -18,6 +18,7 @@
 
 package boofcv.alg.transform.fft;
 
+import boofcv.concurrency.BoofConcurrency;
 import org.junit.Test;
 
 import java.util.Random;
@@ -114,4 +115,106 @@ public class TestGeneralPurposeFFT_F32_2D {
 		}
 	}
 
+	/**
+	 * Compare the concurrent transform against the single threaded transform
+	 */
+	@Test
+	public void concurrent() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+			int sizes[] = new int[]{1,3,16,33};
+			for( int i = 0; i < sizes.length; i++ ) {
+				for( int j = 0; j < sizes.length; j++ ) {
+					checkConcurrent(sizes[i], sizes[j]);
+				}
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
+	private void checkConcurrent(int numRows, int numColumns) {
+		float input[] = new float[numRows*numColumns*2];
+		for( int i = 0; i < input.length; i++ ) {
+			input[i] = (float)rand.nextGaussian();
+		}
+
+		GeneralPurposeFFT_F32_2D sequential = new GeneralPurposeFFT_F32_2D(numRows,numColumns);
+		GeneralPurposeFFT_F32_2D concurrent = new GeneralPurposeFFT_F32_2D(numRows,numColumns,true);
+
+		float expected[] = input.clone();
+		float found[] = input.clone();
+		sequential.complexForward(expected);
+		concurrent.complexForward(found);
+		checkEquals(expected, found);
+
+		sequential.complexInverse(expected, true);
+		concurrent.complexInverse(found, true);
+		checkEquals(expected, found);
+
+		expected = input.clone();
+		found = input.clone();
+		sequential.realForwardFull(expected);
+		concurrent.realForwardFull(found);
+		checkEquals(expected, found);
+
+		expected = input.clone();
+		found = input.clone();
+		sequential.realInverseFull(expected, true);
+		concurrent.realInverseFull(found, true);
+		checkEquals(expected, found);
+	}
+
+	private void checkEquals( float expected[] , float found[] ) {
+		for( int i = 0; i < expected.length; i++ ) {
+			assertEquals(expected[i], found[i], tol);
+		}
+	}
+
+	/**
+	 * Compare the half spectrum against the full transform and see if the inverse recovers the input
+	 */
+	@Test
+	public void realHalf() {
+		for( int i = 0; i < sizes.length; i++ ) {
+			for( int j = 0; j < sizes.length; j++ ) {
+				checkRealHalf(sizes[i], sizes[j], false);
+				checkRealHalf(sizes[i], sizes[j], true);
+			}
+		}
+	}
+
+	private void checkRealHalf(int numRows, int numColumns, boolean concurrent) {
+		int halfColumns = numColumns/2+1;
+		float input[] = new float[numRows*numColumns];
+		float full[] = new float[numRows*numColumns*2];
+
+		for( int i = 0; i < input.length; i++ ) {
+			input[i] = (float)rand.nextGaussian();
+			full[i*2] = input[i];
+		}
+
+		GeneralPurposeFFT_F32_2D alg = new GeneralPurposeFFT_F32_2D(numRows,numColumns,concurrent);
+		alg.complexForward(full);
+
+		float half[] = new float[numRows*halfColumns*2];
+		alg.realForwardHalf(input,half);
+
+		for( int row = 0; row < numRows; row++ ) {
+			for( int col = 0; col < halfColumns; col++ ) {
+				int indexFull = (row*numColumns + col)*2;
+				int indexHalf = (row*halfColumns + col)*2;
+				assertEquals(full[indexFull  ],half[indexHalf  ],tol*numRows*numColumns);
+				assertEquals(full[indexFull+1],half[indexHalf+1],tol*numRows*numColumns);
+			}
+		}
+
+		float found[] = new float[input.length];
+		alg.realInverseHalf(half,found,true);
+
+		for( int i = 0; i < input.length; i++ ) {
+			assertEquals(input[i],found[i],tol*10);
+		}
+	}
 }
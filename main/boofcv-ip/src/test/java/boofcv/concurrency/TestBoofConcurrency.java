@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.concurrency;
+
+import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_I32;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBoofConcurrency {
+
+	/**
+	 * Every index should be processed exactly once
+	 */
+	@Test
+	public void loopBlocks() {
+		for( int end : new int[]{0,1,5,101} ) {
+			final int[] counts = new int[end];
+			BoofConcurrency.loopBlocks(0, end, new IntRangeTask() {
+				@Override
+				public void process(int idx0, int idx1) {
+					for (int i = idx0; i < idx1; i++) {
+						counts[i]++;
+					}
+				}
+			});
+			for (int i = 0; i < end; i++) {
+				assertEquals(1,counts[i]);
+			}
+		}
+	}
+
+	@Test
+	public void loopBlocks_workspace() {
+		FastQueue<GrowQueue_I32> workspace = new FastQueue<>(GrowQueue_I32.class,true);
+
+		BoofConcurrency.loopBlocks(2, 203, workspace, new IntRangeObjectTask<GrowQueue_I32>() {
+			@Override
+			public void process(GrowQueue_I32 data, int idx0, int idx1) {
+				data.reset();
+				for (int i = idx0; i < idx1; i++) {
+					data.add(i);
+				}
+			}
+		});
+
+		assertTrue(workspace.size >= 1);
+		int total = 0;
+		int expected = 2;
+		for (int i = 0; i < workspace.size; i++) {
+			GrowQueue_I32 data = workspace.get(i);
+			for (int j = 0; j < data.size; j++) {
+				assertEquals(expected++, data.get(j));
+			}
+			total += data.size;
+		}
+		assertEquals(201,total);
+	}
+
+	/**
+	 * Nested calls should not dead lock
+	 */
+	@Test
+	public void loopBlocks_nested() {
+		final int[] counts = new int[50*50];
+		BoofConcurrency.loopBlocks(0, 50, new IntRangeTask() {
+			@Override
+			public void process(int idx0, int idx1) {
+				for (int i = idx0; i < idx1; i++) {
+					final int row = i;
+					BoofConcurrency.loopBlocks(0, 50, new IntRangeTask() {
+						@Override
+						public void process(int idx0, int idx1) {
+							for (int j = idx0; j < idx1; j++) {
+								counts[row*50+j]++;
+							}
+						}
+					});
+				}
+			}
+		});
+		for (int i = 0; i < counts.length; i++) {
+			assertEquals(1,counts[i]);
+		}
+	}
+
+	@Test
+	public void runAll_exception() {
+		List<Runnable> tasks = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			final int which = i;
+			tasks.add(new Runnable() {
+				@Override
+				public void run() {
+					if( which == 2 )
+						throw new IllegalArgumentException("Test");
+				}
+			});
+		}
+
+		try {
+			BoofConcurrency.runAll(tasks);
+			fail("Exception should have been thrown");
+		} catch( IllegalArgumentException ignore ){}
+	}
+}
@@ -19,6 +19,7 @@
 package boofcv.alg.bow;
 
 import boofcv.struct.feature.TupleDesc_F64;
+import boofcv.struct.learning.PackedTuples_F64;
 import org.ddogleg.clustering.AssignCluster;
 import org.ddogleg.clustering.ComputeClusters;
 
@@ -26,9 +27,18 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
+ * <p>
  * Finds clusters of {@link TupleDesc_F64} which can be used to identify frequent features, a.k.a words.
  * Internally it uses {@link org.ddogleg.clustering.ComputeClusters} and simply extracts the inner array
  * from the tuple.
+ * </p>
+ *
+ * <p>
+ * For very large data sets use the constructor which takes in {@link KMeansPacked_F64}.  Features are then
+ * copied into a single {@link PackedTuples_F64}, which can be memory mapped to a file, and clustered in parallel.
+ * If the vocabulary is large use the constructor which takes in {@link LearnVocabularyTree_F64} instead, which
+ * learns a {@link boofcv.alg.scene.VocabularyTree_F64} that can assign words in logarithmic time.
+ * </p>
  *
  * @author Peter Abeles
  */
@@ -41,6 +51,13 @@ public class ClusterVisualWords {
 	// inner arrays extracted from the input features
 	List<double[]> tuples = new ArrayList<>();
 
+	// used instead of computeClusters for large data sets
+	KMeansPacked_F64 kmeans;
+	// used to learn a hierarchical vocabulary
+	LearnVocabularyTree_F64 learnTree;
+	// storage for features when kmeans or learnTree is used
+	PackedTuples_F64 packed;
+
 	/**
 	 * Constructor which configures the cluster finder.
 	 *
@@ -54,27 +71,65 @@ public class ClusterVisualWords {
 		computeClusters.init(featureDOF,randomSeed);
 	}
 
+	/**
+	 * Constructor for large data sets.  Features are copied into packed storage.
+	 *
+	 * @param kmeans K-Means clustering for packed data
+	 * @param storage Storage for the features.  Use {@link boofcv.struct.learning.PackedTuplesMapped_F64}
+	 *                if they don't fit inside the heap.
+	 */
+	public ClusterVisualWords(KMeansPacked_F64 kmeans, PackedTuples_F64 storage ) {
+		this.kmeans = kmeans;
+		this.packed = storage;
+	}
+
+	/**
+	 * Constructor for large vocabularies.  Words are found using a vocabulary tree.
+	 *
+	 * @param learnTree Learns the vocabulary tree.  Its max depth is selected when {@link #process(int)} is called.
+	 * @param storage Storage for the features.
+	 */
+	public ClusterVisualWords(LearnVocabularyTree_F64 learnTree, PackedTuples_F64 storage ) {
+		this.learnTree = learnTree;
+		this.packed = storage;
+	}
+
 	/**
 	 * Add a feature to the list.
 	 *
-	 * @param feature image feature. Reference to inner array is saved.
+	 * @param feature image feature. Reference to inner array is saved, unless packed storage is used then it is copied.
 	 */
 	public void addReference(TupleDesc_F64 feature) {
-		tuples.add(feature.getValue());
+		if( packed != null )
+			packed.add(feature.getValue());
+		else
+			tuples.add(feature.getValue());
 	}
 
 	/**
-	 * Clusters the list of features into the specified number of words
+	 * Clusters the list of features into the specified number of words.  When a vocabulary tree is used the
+	 * depth is selected so that it has at least this many words, if there are enough features.
+	 *
 	 * @param numberOfWords Number of words/clusters it should find
 	 */
 	public void process( int numberOfWords ) {
-		computeClusters.process(tuples,numberOfWords);
+		if( learnTree != null ) {
+			learnTree.setMaxDepth(LearnVocabularyTree_F64.selectDepth(learnTree.getBranchFactor(),numberOfWords));
+			learnTree.process(packed);
+		} else if( kmeans != null )
+			kmeans.process(packed,numberOfWords);
+		else
+			computeClusters.process(tuples,numberOfWords);
 	}
 
 	/**
 	 * Returns a transform from point to cluster.
 	 */
 	public AssignCluster<double[]> getAssignment() {
+		if( learnTree != null )
+			return learnTree.getTree().copy();
+		if( kmeans != null )
+			return kmeans.getAssignment();
 		return computeClusters.getAssignment();
 	}
 
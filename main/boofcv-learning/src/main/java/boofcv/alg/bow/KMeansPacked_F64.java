@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.bow;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectTask;
+import boofcv.struct.learning.PackedTuples_F64;
+import org.ddogleg.clustering.kmeans.AssignKMeans_F64;
+import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_I32;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p>
+ * K-Means clustering for very large data sets which are stored in {@link PackedTuples_F64}.  Each point is
+ * assigned to its closest cluster in parallel, with each thread accumulating its own partial sums which are then
+ * merged.  Initial seeds are randomly selected points.
+ * </p>
+ *
+ * <p>
+ * Two modes are supported. Standard k-means, where every point is used in each iteration, and mini-batch
+ * k-means [1], where a random sample of points is used in each iteration and clusters are updated using a per
+ * cluster learning rate.  Mini-batch is much faster and only needs to access a small subset of the points in each
+ * iteration, making it well suited for data sets which are stored on disk.
+ * </p>
+ *
+ * <p>
+ * [1] Sculley, David. "Web-scale k-means clustering." Proceedings of the 19th international conference on
+ * World wide web. ACM, 2010.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class KMeansPacked_F64 {
+
+	// maximum number of iterations
+	int maxIterations;
+	// convergence tolerance for standard k-means.  Relative change in the sum of distances
+	double convergeTol;
+	// number of points in each mini-batch.  If &le; 0 then standard k-means is used
+	int miniBatchSize;
+
+	Random rand;
+
+	// number of elements in each point
+	int dof;
+
+	// cluster centers
+	List<double[]> clusters = new ArrayList<>();
+	// number of points which have been assigned to each cluster. used in mini-batch learning rate
+	int counts[] = new int[0];
+
+	// sum of distance squared from each point to its cluster in the last standard iteration
+	double distanceMeasure;
+
+	// storage for each thread
+	FastQueue<Workspace> workspaces;
+
+	// indexes of points in the current mini-batch and the cluster they were assigned to
+	GrowQueue_I32 batch = new GrowQueue_I32();
+	GrowQueue_I32 batchLabels = new GrowQueue_I32();
+	double[] point = new double[0];
+
+	/**
+	 * Configures k-means
+	 *
+	 * @param maxIterations Maximum number of iterations
+	 * @param convergeTol Standard k-means stops when the relative change in the sum of distances is less than this
+	 * @param miniBatchSize Number of points in each mini-batch.  If &le; 0 then standard k-means is used
+	 * @param randomSeed Seed for random number generator
+	 */
+	public KMeansPacked_F64( int maxIterations , double convergeTol , int miniBatchSize , long randomSeed ) {
+		this.maxIterations = maxIterations;
+		this.convergeTol = convergeTol;
+		this.miniBatchSize = miniBatchSize;
+		this.rand = new Random(randomSeed);
+	}
+
+	/**
+	 * Finds clusters in the set of points
+	 *
+	 * @param points Points which are to be clustered
+	 * @param numClusters Number of clusters
+	 */
+	public void process( final PackedTuples_F64 points , final int numClusters ) {
+		if( points.size() < numClusters )
+			throw new IllegalArgumentException("Must have at least as many points as clusters");
+
+		dof = points.getDOF();
+		workspaces = new FastQueue<Workspace>(Workspace.class,true) {
+			@Override
+			protected Workspace createInstance() {
+				return new Workspace(numClusters,dof);
+			}
+		};
+		if( point.length != dof )
+			point = new double[dof];
+
+		selectSeeds(points, numClusters);
+
+		if( miniBatchSize > 0 )
+			processMiniBatch(points);
+		else
+			processStandard(points);
+	}
+
+	/**
+	 * Randomly selects unique points to be the initial seeds
+	 */
+	void selectSeeds( PackedTuples_F64 points , int numClusters ) {
+		clusters.clear();
+		counts = new int[numClusters];
+
+		GrowQueue_I32 selected = new GrowQueue_I32(numClusters);
+		int N = points.size();
+		while( selected.size < numClusters ) {
+			int index = rand.nextInt(N);
+			if( selected.indexOf(index) >= 0 )
+				continue;
+			selected.add(index);
+			double[] c = new double[dof];
+			points.getCopy(index,c);
+			clusters.add(c);
+		}
+	}
+
+	/**
+	 * Every point is used in each iteration
+	 */
+	void processStandard( final PackedTuples_F64 points ) {
+		double previous = Double.MAX_VALUE;
+		for (int iteration = 0; iteration < maxIterations; iteration++) {
+			BoofConcurrency.loopBlocks(0, points.size(), workspaces, new IntRangeObjectTask<Workspace>() {
+				@Override
+				public void process(Workspace work, int idx0, int idx1) {
+					work.reset();
+					for (int i = idx0; i < idx1; i++) {
+						points.getCopy(i, work.point);
+						work.add(work.point);
+					}
+				}
+			});
+
+			// merge the results from each thread
+			Workspace total = workspaces.get(0);
+			for (int i = 1; i < workspaces.size; i++) {
+				total.merge(workspaces.get(i));
+			}
+			distanceMeasure = total.sumDistance;
+
+			for (int c = 0; c < clusters.size(); c++) {
+				int count = total.counts[c];
+				// empty clusters keep their previous location
+				if( count == 0 )
+					continue;
+				double[] center = clusters.get(c);
+				for (int j = 0; j < dof; j++) {
+					center[j] = total.sums[c*dof+j]/count;
+				}
+			}
+
+			if( previous - distanceMeasure <= convergeTol*previous )
+				break;
+			previous = distanceMeasure;
+		}
+	}
+
+	/**
+	 * A random sample of points is used in each iteration
+	 */
+	void processMiniBatch( final PackedTuples_F64 points ) {
+		final int N = points.size();
+		final int B = Math.min(N, miniBatchSize);
+
+		for (int iteration = 0; iteration < maxIterations; iteration++) {
+			batch.reset();
+			for (int i = 0; i < B; i++) {
+				batch.add(rand.nextInt(N));
+			}
+			batchLabels.resize(B);
+
+			// assign points to clusters in parallel
+			BoofConcurrency.loopBlocks(0, B, workspaces, new IntRangeObjectTask<Workspace>() {
+				@Override
+				public void process(Workspace work, int idx0, int idx1) {
+					for (int i = idx0; i < idx1; i++) {
+						points.getCopy(batch.data[i], work.point);
+						batchLabels.data[i] = work.findBestMatch(work.point);
+					}
+				}
+			});
+
+			// gradient step with a per-cluster learning rate
+			for (int i = 0; i < B; i++) {
+				points.getCopy(batch.data[i], point);
+				int label = batchLabels.data[i];
+				double[] center = clusters.get(label);
+				double eta = 1.0/(++counts[label]);
+				for (int j = 0; j < dof; j++) {
+					center[j] = (1.0-eta)*center[j] + eta*point[j];
+				}
+			}
+		}
+
+		// distance measure for the final set of clusters is computed from the last batch
+		distanceMeasure = 0;
+		for (int i = 0; i < B; i++) {
+			points.getCopy(batch.data[i], point);
+			double[] center = clusters.get(batchLabels.data[i]);
+			distanceMeasure += distanceSq(point, center, dof);
+		}
+	}
+
+	static double distanceSq( double[] a , double[] b , int dof ) {
+		double total = 0;
+		for (int i = 0; i < dof; i++) {
+			double d = a[i]-b[i];
+			total += d*d;
+		}
+		return total;
+	}
+
+	/**
+	 * Creates an assignment using the found clusters.  The clusters are copied.
+	 */
+	public AssignKMeans_F64 getAssignment() {
+		List<double[]> copy = new ArrayList<>();
+		for (int i = 0; i < clusters.size(); i++) {
+			copy.add(clusters.get(i).clone());
+		}
+		return new AssignKMeans_F64(copy);
+	}
+
+	/**
+	 * Returns the cluster centers
+	 */
+	public List<double[]> getClusterMeans() {
+		return clusters;
+	}
+
+	/**
+	 * Sum of distance squared between each point and its cluster.  In mini-batch mode this is computed
+	 * using only the last batch.
+	 */
+	public double getDistanceMeasure() {
+		return distanceMeasure;
+	}
+
+	/**
+	 * Storage used by a single thread
+	 */
+	public class Workspace {
+		double[] point;
+		// sum of points assigned to each cluster
+		double[] sums;
+		int[] counts;
+		double sumDistance;
+
+		public Workspace( int numClusters , int dof ) {
+			point = new double[dof];
+			sums = new double[numClusters*dof];
+			counts = new int[numClusters];
+		}
+
+		void reset() {
+			Arrays.fill(sums,0);
+			Arrays.fill(counts,0);
+			sumDistance = 0;
+		}
+
+		int findBestMatch( double[] p ) {
+			int best = -1;
+			double bestDistance = Double.MAX_VALUE;
+			for (int c = 0; c < clusters.size(); c++) {
+				double d = distanceSq(p, clusters.get(c), dof);
+				if( d < bestDistance ) {
+					bestDistance = d;
+					best = c;
+				}
+			}
+			sumDistance += bestDistance;
+			return best;
+		}
+
+		void add( double[] p ) {
+			int c = findBestMatch(p);
+			counts[c]++;
+			for (int j = 0; j < dof; j++) {
+				sums[c*dof+j] += p[j];
+			}
+		}
+
+		void merge( Workspace src ) {
+			for (int i = 0; i < sums.length; i++) {
+				sums[i] += src.sums[i];
+			}
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] += src.counts[i];
+			}
+			sumDistance += src.sumDistance;
+		}
+	}
+}
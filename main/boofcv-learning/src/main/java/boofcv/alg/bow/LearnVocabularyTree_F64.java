@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.bow;
+
+import boofcv.alg.scene.VocabularyTree_F64;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectTask;
+import boofcv.struct.learning.PackedTuples_F64;
+import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_I32;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Learns a {@link VocabularyTree_F64} using hierarchical k-means [1].  The points are first clustered into
+ * 'branch factor' clusters.  Then each cluster is recursively split using only the points which were assigned
+ * to it until the maximum depth is reached or there are too few points.  Clustering is done by
+ * {@link KMeansPacked_F64}, so it can handle very large data sets.
+ * </p>
+ *
+ * <p>
+ * [1] Nister, David, and Henrik Stewenius. "Scalable recognition with a vocabulary tree." CVPR 2006.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LearnVocabularyTree_F64 {
+
+	// clustering algorithm used at each node
+	KMeansPacked_F64 kmeans;
+
+	// number of children for each node
+	int branchFactor;
+	// maximum number of levels below the root
+	int maxDepth;
+	// a node must have at least this many points per child to be split
+	int minPointsPerChild = 2;
+
+	// the tree being learned
+	VocabularyTree_F64 tree;
+
+	// nodes which still need to be processed
+	List<NodeData> open = new ArrayList<>();
+
+	// view of the points which belong to a single node
+	SubsetTuples subset = new SubsetTuples();
+
+	// the child each point in the subset was assigned to
+	GrowQueue_I32 labels = new GrowQueue_I32();
+
+	// storage for each thread
+	FastQueue<double[]> workspaces;
+
+	/**
+	 * Configures the learning
+	 *
+	 * @param kmeans Clustering algorithm used to split each node
+	 * @param branchFactor Number of children each node has
+	 * @param maxDepth Maximum number of levels in the tree.  Max words = branchFactor<sup>maxDepth</sup>
+	 */
+	public LearnVocabularyTree_F64( KMeansPacked_F64 kmeans , int branchFactor , int maxDepth ) {
+		if( branchFactor < 2 )
+			throw new IllegalArgumentException("Branch factor must be at least 2");
+		this.kmeans = kmeans;
+		this.branchFactor = branchFactor;
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * Learns the tree from the set of points
+	 *
+	 * @param points Points which the tree is learned from
+	 */
+	public void process( PackedTuples_F64 points ) {
+		final int dof = points.getDOF();
+		tree = new VocabularyTree_F64(dof);
+		workspaces = new FastQueue<double[]>(double[].class,true) {
+			@Override
+			protected double[] createInstance() {
+				return new double[dof];
+			}
+		};
+
+		subset.points = points;
+
+		NodeData root = new NodeData(0,0,points.size());
+		root.members.resize(points.size());
+		for (int i = 0; i < points.size(); i++) {
+			root.members.data[i] = i;
+		}
+
+		// breadth first, so that only the point indexes for two levels are in memory at any time
+		open.clear();
+		open.add(root);
+		while( !open.isEmpty() ) {
+			List<NodeData> next = new ArrayList<>();
+			for (int i = 0; i < open.size(); i++) {
+				split(open.get(i), next);
+			}
+			open = next;
+		}
+
+		tree.assignWords();
+	}
+
+	/**
+	 * Clusters the points in the node and adds children to the tree
+	 */
+	void split( NodeData node , List<NodeData> next ) {
+		if( node.depth >= maxDepth || node.members.size < branchFactor*minPointsPerChild )
+			return;
+
+		subset.members = node.members;
+		kmeans.process(subset, branchFactor);
+		final List<double[]> centers = kmeans.getClusterMeans();
+		final int firstChild = tree.addChildren(node.index, centers);
+
+		// Find which child each point belongs to
+		labels.resize(subset.size());
+		BoofConcurrency.loopBlocks(0, subset.size(), workspaces, new IntRangeObjectTask<double[]>() {
+			@Override
+			public void process(double[] point, int idx0, int idx1) {
+				for (int i = idx0; i < idx1; i++) {
+					subset.getCopy(i, point);
+					int best = -1;
+					double bestDistance = Double.MAX_VALUE;
+					for (int c = 0; c < centers.size(); c++) {
+						double d = tree.distanceSq(point, firstChild + c);
+						if( d < bestDistance ) {
+							bestDistance = d;
+							best = c;
+						}
+					}
+					labels.data[i] = best;
+				}
+			}
+		});
+
+		int[] counts = new int[centers.size()];
+		for (int i = 0; i < labels.size; i++) {
+			counts[labels.data[i]]++;
+		}
+		NodeData[] children = new NodeData[centers.size()];
+		for (int c = 0; c < children.length; c++) {
+			children[c] = new NodeData(firstChild+c, node.depth+1, counts[c]);
+			next.add(children[c]);
+		}
+		for (int i = 0; i < labels.size; i++) {
+			children[labels.data[i]].members.add(node.members.data[i]);
+		}
+
+		// free memory since it's no longer needed
+		node.members = null;
+	}
+
+	/**
+	 * Selects the smallest depth which will have at least the specified number of words
+	 */
+	public static int selectDepth( int branchFactor , int numberOfWords ) {
+		int depth = 0;
+		long words = 1;
+		while( words < numberOfWords ) {
+			words *= branchFactor;
+			depth++;
+		}
+		return depth;
+	}
+
+	/**
+	 * Returns the learned tree
+	 */
+	public VocabularyTree_F64 getTree() {
+		return tree;
+	}
+
+	public int getBranchFactor() {
+		return branchFactor;
+	}
+
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	public void setMaxDepth(int maxDepth) {
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * A node needs to have at least this many points for each child before it will be split. Default = 2
+	 */
+	public void setMinPointsPerChild(int minPointsPerChild) {
+		this.minPointsPerChild = minPointsPerChild;
+	}
+
+	/**
+	 * Information on a node which has yet to be split
+	 */
+	static class NodeData {
+		// index of the node in the tree
+		int index;
+		int depth;
+		// index of the points which belong to this node
+		GrowQueue_I32 members;
+
+		public NodeData(int index, int depth, int maxMembers) {
+			this.index = index;
+			this.depth = depth;
+			this.members = new GrowQueue_I32(maxMembers);
+		}
+	}
+
+	/**
+	 * Provides access to a subset of the points
+	 */
+	static class SubsetTuples implements PackedTuples_F64 {
+		PackedTuples_F64 points;
+		GrowQueue_I32 members;
+
+		@Override
+		public int getDOF() {
+			return points.getDOF();
+		}
+
+		@Override
+		public int size() {
+			return members.size;
+		}
+
+		@Override
+		public void add(double[] tuple) {
+			throw new UnsupportedOperationException("Read only");
+		}
+
+		@Override
+		public void getCopy(int index, double[] output) {
+			points.getCopy(members.data[index], output);
+		}
+
+		@Override
+		public void reset() {
+			throw new UnsupportedOperationException("Read only");
+		}
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.learning;
+
+/**
+ * Stores all the tuples inside a single double[] array in the heap.  The array grows as tuples are added.
+ *
+ * @author Peter Abeles
+ */
+public class PackedTuplesArray_F64 implements PackedTuples_F64 {
+	// number of elements in each tuple
+	final int dof;
+	// storage for all the tuples
+	double[] data = new double[0];
+	// number of tuples
+	int size;
+
+	public PackedTuplesArray_F64( int dof ) {
+		this.dof = dof;
+	}
+
+	/**
+	 * Ensures there's enough storage for the specified number of tuples without the array growing
+	 */
+	public void reserve( int numTuples ) {
+		long length = (long)numTuples*dof;
+		if( length > Integer.MAX_VALUE-8 )
+			throw new IllegalArgumentException("Too many tuples to be stored in a single array");
+		if( data.length >= length )
+			return;
+
+		double[] tmp = new double[(int)length];
+		System.arraycopy(data,0,tmp,0,size*dof);
+		data = tmp;
+	}
+
+	@Override
+	public int getDOF() {
+		return dof;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void add(double[] tuple) {
+		if( (size+1)*(long)dof > data.length ) {
+			long desired = Math.max(10,size*2L);
+			reserve((int)Math.min(desired,(Integer.MAX_VALUE-8)/dof));
+		}
+		System.arraycopy(tuple,0,data,size*dof,dof);
+		size++;
+	}
+
+	@Override
+	public void getCopy(int index, double[] output) {
+		System.arraycopy(data,index*dof,output,0,dof);
+	}
+
+	@Override
+	public void reset() {
+		size = 0;
+	}
+
+	/**
+	 * Returns the internal array.  Tuple 'i' starts at index i*DOF.
+	 */
+	public double[] getData() {
+		return data;
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.learning;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores tuples inside a memory mapped file so that data sets which are larger than the heap can be processed.
+ * The operating system decides which parts of the file are kept in memory.  Since a single mapping is limited
+ * to 2 GB the file is mapped in multiple blocks.
+ *
+ * @author Peter Abeles
+ */
+public class PackedTuplesMapped_F64 implements PackedTuples_F64 {
+	// number of elements in each tuple
+	final int dof;
+	// number of tuples in each mapped block
+	final int tuplesPerBlock;
+
+	RandomAccessFile file;
+	FileChannel channel;
+	List<DoubleBuffer> blocks = new ArrayList<>();
+
+	// number of tuples
+	int size;
+
+	/**
+	 * Creates a new file for storage. If the file already exists it is overwritten.
+	 *
+	 * @param path File the tuples are saved into
+	 * @param dof Number of elements in each tuple
+	 */
+	public PackedTuplesMapped_F64( File path , int dof ) {
+		this(path,dof,(1 << 27)/dof);
+	}
+
+	/**
+	 * Creates a new file for storage. If the file already exists it is overwritten.
+	 *
+	 * @param path File the tuples are saved into
+	 * @param dof Number of elements in each tuple
+	 * @param tuplesPerBlock Number of tuples in each memory mapped block.
+	 */
+	public PackedTuplesMapped_F64( File path , int dof , int tuplesPerBlock ) {
+		if( (long)tuplesPerBlock*dof*8 > Integer.MAX_VALUE )
+			throw new IllegalArgumentException("Blocks can't be larger than 2 GB");
+		this.dof = dof;
+		this.tuplesPerBlock = tuplesPerBlock;
+		try {
+			file = new RandomAccessFile(path,"rw");
+			file.setLength(0);
+			channel = file.getChannel();
+		} catch( IOException e ) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public int getDOF() {
+		return dof;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void add(double[] tuple) {
+		int block = size/tuplesPerBlock;
+		if( block == blocks.size() ) {
+			long blockBytes = (long)tuplesPerBlock*dof*8;
+			try {
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, block*blockBytes, blockBytes);
+				blocks.add(buffer.asDoubleBuffer());
+			} catch( IOException e ) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		DoubleBuffer buffer = blocks.get(block);
+		int offset = (size%tuplesPerBlock)*dof;
+		for (int i = 0; i < dof; i++) {
+			buffer.put(offset+i,tuple[i]);
+		}
+		size++;
+	}
+
+	@Override
+	public void getCopy(int index, double[] output) {
+		// absolute get doesn't modify the buffer's state so this is thread safe
+		DoubleBuffer buffer = blocks.get(index/tuplesPerBlock);
+		int offset = (index%tuplesPerBlock)*dof;
+		for (int i = 0; i < dof; i++) {
+			output[i] = buffer.get(offset+i);
+		}
+	}
+
+	@Override
+	public void reset() {
+		size = 0;
+	}
+
+	/**
+	 * Closes the file.  The tuples can no longer be accessed after this is called.
+	 */
+	public void close() {
+		blocks.clear();
+		try {
+			channel.close();
+			file.close();
+		} catch( IOException e ) {
+			throw new RuntimeException(e);
+		}
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.learning;
+
+/**
+ * Storage for a large number of tuples, e.g. feature descriptors, which are all the same length.  Instead
+ * of each tuple being its own array they are packed together into a single block of memory, avoiding the
+ * overhead of many small objects.  Reading a tuple with {@link #getCopy(int, double[])} must be thread safe.
+ *
+ * @author Peter Abeles
+ */
+public interface PackedTuples_F64 {
+
+	/**
+	 * Number of elements in each tuple
+	 */
+	int getDOF();
+
+	/**
+	 * Number of tuples being stored
+	 */
+	int size();
+
+	/**
+	 * Adds a tuple to the end.  The array is copied.
+	 *
+	 * @param tuple Tuple being added.  Must be at least DOF in length.
+	 */
+	void add( double[] tuple );
+
+	/**
+	 * Copies the tuple into the provided array
+	 *
+	 * @param index Index of the tuple
+	 * @param output (Output) Storage for the tuple.  Must be at least DOF in length.
+	 */
+	void getCopy( int index , double[] output );
+
+	/**
+	 * Discards all the tuples
+	 */
+	void reset();
+}
@@ -19,6 +19,7 @@
 package boofcv.alg.bow;
 
 import boofcv.struct.feature.TupleDesc_F64;
+import boofcv.struct.learning.PackedTuplesArray_F64;
 import org.ddogleg.clustering.AssignCluster;
 import org.ddogleg.clustering.ComputeClusters;
 import org.junit.Test;
@@ -54,6 +55,58 @@ public class TestClusterVisualWords {
 		assertEquals(DISTANCE,clusters.getDistanceMeasure(),1e-8);
 	}
 
+	/**
+	 * Features are copied into packed storage and clustered with KMeansPacked_F64
+	 */
+	@Test
+	public void process_packed() {
+		KMeansPacked_F64 kmeans = new KMeansPacked_F64(100,1e-8,0,SEED);
+		ClusterVisualWords alg = new ClusterVisualWords(kmeans,new PackedTuplesArray_F64(DOF));
+
+		TupleDesc_F64 desc = new TupleDesc_F64(DOF);
+		for (int i = 0; i < 20; i++) {
+			desc.value[0] = i%2 == 0 ? -5 : 5;
+			desc.value[1] = i*0.01;
+			alg.addReference(desc);
+		}
+		alg.process(2);
+
+		AssignCluster<double[]> assign = alg.getAssignment();
+		assertEquals(2, assign.getNumberOfClusters());
+		int a = assign.assign(new double[]{-5,0});
+		int b = assign.assign(new double[]{5,0});
+		assertTrue(a != b);
+	}
+
+	/**
+	 * Features are clustered using a vocabulary tree
+	 */
+	@Test
+	public void process_tree() {
+		KMeansPacked_F64 kmeans = new KMeansPacked_F64(100,1e-8,0,SEED);
+		LearnVocabularyTree_F64 learn = new LearnVocabularyTree_F64(kmeans,2,10);
+		ClusterVisualWords alg = new ClusterVisualWords(learn,new PackedTuplesArray_F64(DOF));
+
+		TupleDesc_F64 desc = new TupleDesc_F64(DOF);
+		for (int i = 0; i < 40; i++) {
+			desc.value[0] = (i%4)*10;
+			desc.value[1] = i*0.01;
+			alg.addReference(desc);
+		}
+		alg.process(4);
+
+		assertEquals(2, learn.getMaxDepth());
+		AssignCluster<double[]> assign = alg.getAssignment();
+		assertEquals(4, assign.getNumberOfClusters());
+		boolean[] found = new boolean[4];
+		for (int i = 0; i < 4; i++) {
+			found[assign.assign(new double[]{i*10,0.2})] = true;
+		}
+		for (int i = 0; i < 4; i++) {
+			assertTrue(found[i]);
+		}
+	}
+
 	protected class DummyClusters implements ComputeClusters<double[]> {
 
 		int numInit = 0;
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.bow;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.learning.PackedTuplesArray_F64;
+import org.ddogleg.clustering.kmeans.AssignKMeans_F64;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestKMeansPacked_F64 {
+
+	Random rand = new Random(234);
+	int DOF = 3;
+
+	// centers of the clusters which points are generated around
+	double[][] truth = new double[][]{{0,0,0},{10,0,0},{0,10,5},{-10,-5,10}};
+
+	private PackedTuplesArray_F64 createPoints( int pointsPerCluster ) {
+		PackedTuplesArray_F64 points = new PackedTuplesArray_F64(DOF);
+		double[] p = new double[DOF];
+		for (int i = 0; i < pointsPerCluster; i++) {
+			for (int c = 0; c < truth.length; c++) {
+				for (int j = 0; j < DOF; j++) {
+					p[j] = truth[c][j] + rand.nextGaussian()*0.5;
+				}
+				points.add(p);
+			}
+		}
+		return points;
+	}
+
+	@Test
+	public void standard() {
+		PackedTuplesArray_F64 points = createPoints(200);
+
+		KMeansPacked_F64 alg = new KMeansPacked_F64(100,1e-8,0,234);
+		alg.process(points,truth.length);
+
+		checkClusters(alg, 0.2);
+		// should be close to the variance times the number of points
+		assertEquals(0.25*DOF*points.size(), alg.getDistanceMeasure(), 0.25*DOF*points.size()*0.2);
+	}
+
+	@Test
+	public void miniBatch() {
+		PackedTuplesArray_F64 points = createPoints(500);
+
+		KMeansPacked_F64 alg = new KMeansPacked_F64(200,0,100,234);
+		alg.process(points,truth.length);
+
+		checkClusters(alg, 0.3);
+	}
+
+	/**
+	 * The number of threads shouldn't change the solution
+	 */
+	@Test
+	public void standard_threads() {
+		PackedTuplesArray_F64 points = createPoints(200);
+
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(1);
+			KMeansPacked_F64 single = new KMeansPacked_F64(100,1e-8,0,234);
+			single.process(points,truth.length);
+
+			BoofConcurrency.setMaxThreads(4);
+			KMeansPacked_F64 multi = new KMeansPacked_F64(100,1e-8,0,234);
+			multi.process(points,truth.length);
+
+			for (int i = 0; i < truth.length; i++) {
+				double[] a = single.getClusterMeans().get(i);
+				double[] b = multi.getClusterMeans().get(i);
+				assertEquals(0, KMeansPacked_F64.distanceSq(a,b,DOF), 1e-16);
+			}
+			assertEquals(single.getDistanceMeasure(), multi.getDistanceMeasure(), 1e-6);
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
+	/**
+	 * Each true cluster should have a found cluster close to it
+	 */
+	private void checkClusters( KMeansPacked_F64 alg , double tol ) {
+		List<double[]> found = alg.getClusterMeans();
+		assertEquals(truth.length, found.size());
+
+		AssignKMeans_F64 assign = alg.getAssignment();
+		boolean matched[] = new boolean[truth.length];
+		for (int c = 0; c < truth.length; c++) {
+			int which = assign.assign(truth[c]);
+			assertTrue(Math.sqrt(KMeansPacked_F64.distanceSq(truth[c], found.get(which), DOF)) < tol);
+			matched[which] = true;
+		}
+		for (int i = 0; i < matched.length; i++) {
+			assertTrue(matched[i]);
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.bow;
+
+import boofcv.alg.scene.VocabularyTree_F64;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.learning.PackedTuplesArray_F64;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLearnVocabularyTree_F64 {
+
+	Random rand = new Random(234);
+	int DOF = 2;
+
+	/**
+	 * Creates 8 clusters which are hierarchically grouped into pairs
+	 */
+	private PackedTuplesArray_F64 createPoints( int pointsPerCluster ) {
+		PackedTuplesArray_F64 points = new PackedTuplesArray_F64(DOF);
+		double[] p = new double[DOF];
+		for (int i = 0; i < pointsPerCluster; i++) {
+			for (int c = 0; c < 8; c++) {
+				p[0] = center(c)[0] + rand.nextGaussian()*0.1;
+				p[1] = center(c)[1] + rand.nextGaussian()*0.1;
+				points.add(p);
+			}
+		}
+		return points;
+	}
+
+	private double[] center( int cluster ) {
+		int a = cluster/4;
+		int b = (cluster/2)%2;
+		int c = cluster%2;
+		return new double[]{a*1000 + b*100 + c*10, 0};
+	}
+
+	@Test
+	public void process() {
+		PackedTuplesArray_F64 points = createPoints(50);
+
+		LearnVocabularyTree_F64 alg = new LearnVocabularyTree_F64(new KMeansPacked_F64(100,1e-8,0,234),2,3);
+		alg.process(points);
+
+		VocabularyTree_F64 tree = alg.getTree();
+		assertEquals(8,tree.getNumberOfClusters());
+		assertEquals(3,tree.getDepth());
+		assertEquals(1+2+4+8,tree.getNumberOfNodes());
+
+		// each cluster should be assigned to a unique word and the word's center should be the cluster center
+		boolean[] found = new boolean[8];
+		double[] c = new double[DOF];
+		for (int i = 0; i < 8; i++) {
+			int word = tree.assign(center(i));
+			assertTrue(!found[word]);
+			found[word] = true;
+
+			tree.getCenter(tree.getWordNode(word),c);
+			assertEquals(center(i)[0],c[0],0.1);
+			assertEquals(center(i)[1],c[1],0.1);
+		}
+	}
+
+	/**
+	 * Nodes with too few points should not be split
+	 */
+	@Test
+	public void process_fewPoints() {
+		PackedTuplesArray_F64 points = createPoints(1);
+
+		LearnVocabularyTree_F64 alg = new LearnVocabularyTree_F64(new KMeansPacked_F64(100,1e-8,0,234),2,5);
+		alg.setMinPointsPerChild(2);
+		alg.process(points);
+
+		VocabularyTree_F64 tree = alg.getTree();
+		// 8 points. Only nodes with 4 or more points can be split
+		assertEquals(4,tree.getNumberOfClusters());
+		assertEquals(2,tree.getDepth());
+	}
+
+	/**
+	 * The number of threads shouldn't change the solution
+	 */
+	@Test
+	public void compareThreads() {
+		PackedTuplesArray_F64 points = createPoints(50);
+
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(1);
+			LearnVocabularyTree_F64 single = new LearnVocabularyTree_F64(new KMeansPacked_F64(100,1e-8,0,234),2,3);
+			single.process(points);
+			BoofConcurrency.setMaxThreads(4);
+			LearnVocabularyTree_F64 multi = new LearnVocabularyTree_F64(new KMeansPacked_F64(100,1e-8,0,234),2,3);
+			multi.process(points);
+
+			VocabularyTree_F64 a = single.getTree();
+			VocabularyTree_F64 b = multi.getTree();
+			assertEquals(a.getNumberOfNodes(),b.getNumberOfNodes());
+			double[] ca = new double[DOF];
+			double[] cb = new double[DOF];
+			for (int i = 0; i < a.getNumberOfNodes(); i++) {
+				a.getCenter(i,ca);
+				b.getCenter(i,cb);
+				assertEquals(ca[0],cb[0],1e-8);
+				assertEquals(ca[1],cb[1],1e-8);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+
+	@Test
+	public void selectDepth() {
+		assertEquals(0,LearnVocabularyTree_F64.selectDepth(4,1));
+		assertEquals(1,LearnVocabularyTree_F64.selectDepth(4,4));
+		assertEquals(2,LearnVocabularyTree_F64.selectDepth(4,5));
+		assertEquals(3,LearnVocabularyTree_F64.selectDepth(10,1000));
+	}
+}
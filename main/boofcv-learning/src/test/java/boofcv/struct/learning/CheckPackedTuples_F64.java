@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.learning;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Standard checks for implementations of {@link PackedTuples_F64}
+ *
+ * @author Peter Abeles
+ */
+public class CheckPackedTuples_F64 {
+
+	/**
+	 * Adds tuples then reads them back.  DOF must be 5.
+	 */
+	public static void addAndGet( PackedTuples_F64 alg ) {
+		assertEquals(5, alg.getDOF());
+
+		for (int i = 0; i < 50; i++) {
+			alg.add(new double[]{i,i+1,i+2,i+3,i+4});
+		}
+		assertEquals(50, alg.size());
+
+		double[] found = new double[5];
+		for (int i = 0; i < 50; i++) {
+			alg.getCopy(i, found);
+			for (int j = 0; j < 5; j++) {
+				assertEquals(i+j, found[j], 0);
+			}
+		}
+
+		alg.reset();
+		assertEquals(0, alg.size());
+		alg.add(new double[]{9,8,7,6,5});
+		alg.getCopy(0, found);
+		assertEquals(9, found[0], 0);
+		assertEquals(5, found[4], 0);
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.learning;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPackedTuplesMapped_F64 {
+	@Test
+	public void addAndGet() throws IOException {
+		File file = File.createTempFile("packed",".bin");
+		file.deleteOnExit();
+
+		// small blocks so that multiple blocks are used
+		PackedTuplesMapped_F64 alg = new PackedTuplesMapped_F64(file,5,7);
+		CheckPackedTuples_F64.addAndGet(alg);
+		alg.close();
+	}
+}
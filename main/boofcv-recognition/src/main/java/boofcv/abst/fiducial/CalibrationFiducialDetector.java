@@ -23,6 +23,7 @@ import boofcv.abst.geo.calibration.DetectorFiducialCalibration;
 import boofcv.alg.geo.calibration.CalibrationObservation;
 import boofcv.core.image.GConvertImage;
 import boofcv.factory.fiducial.FactoryFiducialCalibration;
+import boofcv.struct.ImageRectangle;
 import boofcv.struct.geo.Point2D3D;
 import boofcv.struct.geo.PointIndex2D_F64;
 import boofcv.struct.image.GrayF32;
@@ -41,6 +42,7 @@ import java.util.List;
  */
 public class CalibrationFiducialDetector<T extends ImageGray<T>>
 		extends FiducialDetectorPnP<T>
+		implements FiducialDetectorRegions<T>
 {
 	// detects the calibration target
 	private DetectorFiducialCalibration detector;
@@ -50,6 +52,11 @@ public class CalibrationFiducialDetector<T extends ImageGray<T>>
 
 	// storage for converted input image.  Detector only can process GrayF32
 	private GrayF32 converted;
+	// storage for the region being searched when only part of the image is processed
+	private GrayF32 region = new GrayF32(1,1);
+
+	// detected points in the input image's coordinate system
+	private CalibrationObservation detected = new CalibrationObservation();
 
 	// Expected type of input image
 	private ImageType<T> type;
@@ -163,6 +170,46 @@ public class CalibrationFiducialDetector<T extends ImageGray<T>>
 		} else {
 			targetDetected = true;
 		}
+
+		detected.setTo(detector.getDetectedPoints());
+	}
+
+	/**
+	 * Only the single rectangle which contains all the regions is searched since there can be at most
+	 * one calibration target in the image.
+	 */
+	@Override
+	public void detect(T input, List<ImageRectangle> regions) {
+		targetDetected = false;
+		if( regions.isEmpty() )
+			return;
+
+		int x0 = Integer.MAX_VALUE, y0 = Integer.MAX_VALUE;
+		int x1 = -Integer.MAX_VALUE, y1 = -Integer.MAX_VALUE;
+		for (int i = 0; i < regions.size(); i++) {
+			ImageRectangle r = regions.get(i);
+			x0 = Math.min(x0,r.x0); y0 = Math.min(y0,r.y0);
+			x1 = Math.max(x1,r.x1); y1 = Math.max(y1,r.y1);
+		}
+		if( x1 <= x0 || y1 <= y0 )
+			return;
+
+		// copy into its own image so that the detector doesn't need to handle sub-images
+		T sub = input.subimage(x0,y0,x1,y1,null);
+		region.reshape(sub.width,sub.height);
+		GConvertImage.convert(sub, region);
+
+		if( !detector.process(region) )
+			return;
+		targetDetected = true;
+
+		// convert the observations back into input image coordinates
+		detected.setTo(detector.getDetectedPoints());
+		for (int i = 0; i < detected.size(); i++) {
+			PointIndex2D_F64 p = detected.get(i);
+			p.x += x0;
+			p.y += y0;
+		}
 	}
 
 	/**
@@ -173,7 +220,7 @@ public class CalibrationFiducialDetector<T extends ImageGray<T>>
 	 */
 	@Override
 	public void getImageLocation(int which, Point2D_F64 location) {
-		CalibrationObservation view = detector.getDetectedPoints();
+		CalibrationObservation view = detected;
 
 		location.set(0,0);
 		for (int i = 0; i < view.size(); i++) {
@@ -235,8 +282,7 @@ public class CalibrationFiducialDetector<T extends ImageGray<T>>
 
 	@Override
 	public List<PointIndex2D_F64> getDetectedControl(int which) {
-		CalibrationObservation view = getCalibDetector().getDetectedPoints();
-		return view.points;
+		return detected.points;
 	}
 
 	@Override
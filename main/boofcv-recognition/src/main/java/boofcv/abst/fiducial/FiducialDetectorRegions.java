@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.fiducial;
+
+import boofcv.struct.ImageRectangle;
+import boofcv.struct.geo.PointIndex2D_F64;
+import boofcv.struct.image.ImageBase;
+
+import java.util.List;
+
+/**
+ * {@link FiducialDetector} which can restrict its search to a set of regions inside the image.  Typically used
+ * when tracking fiducials across video frames, where their location can be predicted from the previous frame.
+ * See {@link FiducialRegionTracker}.
+ *
+ * @author Peter Abeles
+ */
+public interface FiducialDetectorRegions<T extends ImageBase<T>> extends FiducialDetector<T> {
+
+	/**
+	 * Detects fiducials but only searches inside the specified regions.  Fiducials which lie outside or
+	 * straddle the border of a region might not be found.  All results are in the input image's
+	 * coordinate system.
+	 *
+	 * @param input Input image.  Not modified.
+	 * @param regions Regions which are searched.  Must lie inside the image.  Not modified.
+	 */
+	void detect( T input , List<ImageRectangle> regions );
+
+	/**
+	 * Returns a list of detected control points in the image for the specified fiducial.  Observations
+	 * will be in distorted image pixels.
+	 */
+	List<PointIndex2D_F64> getDetectedControl( int which );
+}
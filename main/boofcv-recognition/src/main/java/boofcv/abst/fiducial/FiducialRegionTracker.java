@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.fiducial;
+
+import boofcv.alg.distort.LensDistortionNarrowFOV;
+import boofcv.struct.ImageRectangle;
+import boofcv.struct.geo.PointIndex2D_F64;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageType;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.se.Se3_F64;
+import org.ddogleg.struct.FastQueue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Speeds up fiducial detection in video sequences by only searching regions around where each fiducial
+ * is predicted to be.  The location of each fiducial is predicted using its location in the previous frame
+ * and a constant velocity model.  The predicted bounding box is padded and overlapping regions are merged before
+ * being passed to {@link FiducialDetectorRegions#detect(ImageBase, List)}.
+ * </p>
+ *
+ * <p>
+ * The entire image is searched when there are no known fiducials, when a known fiducial was not found
+ * inside its region (the same frame is then processed again using the whole image), and periodically so that
+ * new fiducials can be discovered.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class FiducialRegionTracker<T extends ImageBase<T>> implements FiducialDetector<T> {
+
+	// detector which is used to process the image
+	FiducialDetectorRegions<T> detector;
+
+	// the bounding box of each fiducial is padded by this fraction of its largest side
+	double padFraction;
+	// minimum number of pixels each bounding box is padded by
+	int padMinimum;
+	// the entire image is searched at least once every this number of frames
+	int periodFull;
+
+	// number of frames since the entire image was processed
+	int framesSinceFull;
+	// true if the most recent frame was processed by searching the entire image
+	boolean processedFull;
+
+	// fiducials found in the previous frame
+	FastQueue<Track> tracks = new FastQueue<>(Track.class,true);
+	// fiducials found in the current frame
+	FastQueue<Track> found = new FastQueue<>(Track.class,true);
+
+	// regions which are searched
+	List<ImageRectangle> regions = new ArrayList<>();
+	private FastQueue<ImageRectangle> storageRegions = new FastQueue<>(ImageRectangle.class,true);
+
+	// used to mark which tracks have already been matched
+	private boolean[] matched = new boolean[0];
+
+	/**
+	 * Configures the tracker
+	 *
+	 * @param detector The fiducial detector
+	 * @param padFraction Bounding box of each fiducial is padded by this fraction of its largest side. Try 0.3
+	 * @param padMinimum Minimum number of pixels each bounding box is padded by. Try 10
+	 * @param periodFull The entire image is searched at least once every this many frames.  Try 30
+	 */
+	public FiducialRegionTracker(FiducialDetectorRegions<T> detector,
+								 double padFraction, int padMinimum, int periodFull) {
+		if( periodFull <= 0 )
+			throw new IllegalArgumentException("periodFull must be more than zero");
+		this.detector = detector;
+		this.padFraction = padFraction;
+		this.padMinimum = padMinimum;
+		this.periodFull = periodFull;
+	}
+
+	/**
+	 * Discard all knowledge of previously found fiducials.  The next image will be processed in its entirety.
+	 */
+	public void reset() {
+		tracks.reset();
+		found.reset();
+		framesSinceFull = 0;
+	}
+
+	@Override
+	public void detect(T input) {
+		processedFull = tracks.size == 0 || framesSinceFull >= periodFull-1;
+
+		if( !processedFull ) {
+			predictRegions(input.width, input.height);
+			detector.detect(input, regions);
+
+			// if a fiducial was lost then process the whole image again
+			if( !associate() ) {
+				processedFull = true;
+			}
+		}
+
+		if( processedFull ) {
+			detector.detect(input);
+			associate();
+			framesSinceFull = 0;
+		} else {
+			framesSinceFull++;
+		}
+
+		// the current frame becomes the previous frame
+		FastQueue<Track> tmp = tracks;
+		tracks = found;
+		found = tmp;
+	}
+
+	/**
+	 * Predicts where each known fiducial will be and creates padded regions around it.  Overlapping regions
+	 * are merged together.
+	 */
+	void predictRegions( int width , int height ) {
+		storageRegions.reset();
+		regions.clear();
+
+		for (int i = 0; i < tracks.size; i++) {
+			Track t = tracks.get(i);
+
+			double pad = padMinimum + padFraction*Math.max(t.x1-t.x0,t.y1-t.y0);
+
+			ImageRectangle r = storageRegions.grow();
+			r.x0 = clamp((int)Math.floor(t.x0 + t.vx - pad), width);
+			r.y0 = clamp((int)Math.floor(t.y0 + t.vy - pad), height);
+			r.x1 = clamp((int)Math.ceil(t.x1 + t.vx + pad) + 1, width);
+			r.y1 = clamp((int)Math.ceil(t.y1 + t.vy + pad) + 1, height);
+
+			if( r.x1 > r.x0 && r.y1 > r.y0 )
+				regions.add(r);
+		}
+
+		// merge overlapping regions until none overlap
+		boolean merged = true;
+		while( merged ) {
+			merged = false;
+			for (int i = 0; i < regions.size() && !merged; i++) {
+				ImageRectangle a = regions.get(i);
+				for (int j = i+1; j < regions.size(); j++) {
+					ImageRectangle b = regions.get(j);
+					if( a.x0 < b.x1 && b.x0 < a.x1 && a.y0 < b.y1 && b.y0 < a.y1 ) {
+						a.x0 = Math.min(a.x0,b.x0); a.y0 = Math.min(a.y0,b.y0);
+						a.x1 = Math.max(a.x1,b.x1); a.y1 = Math.max(a.y1,b.y1);
+						regions.remove(j);
+						merged = true;
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	private static int clamp( int value , int length ) {
+		if( value < 0 )
+			return 0;
+		else if( value > length )
+			return length;
+		return value;
+	}
+
+	/**
+	 * Computes the bounding box of each detected fiducial and associates it to the fiducial with the same ID and
+	 * closest center in the previous frame, which is used to estimate its velocity.
+	 *
+	 * @return true if every previously known fiducial was found
+	 */
+	boolean associate() {
+		found.reset();
+		if( matched.length < tracks.size )
+			matched = new boolean[tracks.size];
+		for (int i = 0; i < tracks.size; i++) {
+			matched[i] = false;
+		}
+
+		int total = detector.totalFound();
+		for (int i = 0; i < total; i++) {
+			List<PointIndex2D_F64> control = detector.getDetectedControl(i);
+			if( control.isEmpty() )
+				continue;
+
+			Track f = found.grow();
+			f.id = detector.getId(i);
+			f.x0 = f.y0 = Double.MAX_VALUE;
+			f.x1 = f.y1 = -Double.MAX_VALUE;
+			for (int j = 0; j < control.size(); j++) {
+				Point2D_F64 p = control.get(j);
+				f.x0 = Math.min(f.x0,p.x); f.y0 = Math.min(f.y0,p.y);
+				f.x1 = Math.max(f.x1,p.x); f.y1 = Math.max(f.y1,p.y);
+			}
+
+			double cx = (f.x0+f.x1)/2.0, cy = (f.y0+f.y1)/2.0;
+
+			int best = -1;
+			double bestDistance = Double.MAX_VALUE;
+			for (int j = 0; j < tracks.size; j++) {
+				Track t = tracks.get(j);
+				if( matched[j] || t.id != f.id )
+					continue;
+				double dx = cx - (t.x0+t.x1)/2.0, dy = cy - (t.y0+t.y1)/2.0;
+				double d = dx*dx + dy*dy;
+				if( d < bestDistance ) {
+					bestDistance = d;
+					best = j;
+				}
+			}
+
+			if( best >= 0 ) {
+				Track t = tracks.get(best);
+				matched[best] = true;
+				f.vx = cx - (t.x0+t.x1)/2.0;
+				f.vy = cy - (t.y0+t.y1)/2.0;
+			} else {
+				f.vx = f.vy = 0;
+			}
+		}
+
+		for (int i = 0; i < tracks.size; i++) {
+			if( !matched[i] )
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns true if the entire image was searched in the most recently processed frame
+	 */
+	public boolean isProcessedFull() {
+		return processedFull;
+	}
+
+	/**
+	 * Regions which were searched in the most recent frame.  Only valid if {@link #isProcessedFull()} is false.
+	 */
+	public List<ImageRectangle> getRegions() {
+		return regions;
+	}
+
+	public FiducialDetectorRegions<T> getDetector() {
+		return detector;
+	}
+
+	@Override
+	public int totalFound() {
+		return detector.totalFound();
+	}
+
+	@Override
+	public void getImageLocation(int which, Point2D_F64 location) {
+		detector.getImageLocation(which, location);
+	}
+
+	@Override
+	public long getId(int which) {
+		return detector.getId(which);
+	}
+
+	@Override
+	public String getMessage(int which) {
+		return detector.getMessage(which);
+	}
+
+	@Override
+	public void setLensDistortion(LensDistortionNarrowFOV distortion) {
+		detector.setLensDistortion(distortion);
+	}
+
+	@Override
+	public LensDistortionNarrowFOV getLensDistortion() {
+		return detector.getLensDistortion();
+	}
+
+	@Override
+	public boolean computeStability(int which, double disturbance, FiducialStability results) {
+		return detector.computeStability(which, disturbance, results);
+	}
+
+	@Override
+	public boolean getFiducialToCamera(int which, Se3_F64 fiducialToCamera) {
+		return detector.getFiducialToCamera(which, fiducialToCamera);
+	}
+
+	@Override
+	public double getWidth(int which) {
+		return detector.getWidth(which);
+	}
+
+	@Override
+	public boolean is3D() {
+		return detector.is3D();
+	}
+
+	@Override
+	public boolean hasUniqueID() {
+		return detector.hasUniqueID();
+	}
+
+	@Override
+	public boolean hasMessage() {
+		return detector.hasMessage();
+	}
+
+	@Override
+	public ImageType<T> getInputType() {
+		return detector.getInputType();
+	}
+
+	/**
+	 * Bounding box and motion of a fiducial in the image
+	 */
+	public static class Track {
+		public long id;
+		// bounding box of the control points
+		public double x0,y0,x1,y1;
+		// motion of the bounding box's center from the previous frame
+		public double vx,vy;
+	}
+}
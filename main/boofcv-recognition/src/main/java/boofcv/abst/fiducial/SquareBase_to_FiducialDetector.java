@@ -22,6 +22,7 @@ import boofcv.alg.distort.LensDistortionNarrowFOV;
 import boofcv.alg.fiducial.square.BaseDetectFiducialSquare;
 import boofcv.alg.fiducial.square.FoundFiducial;
 import boofcv.alg.fiducial.square.QuadPoseEstimator;
+import boofcv.struct.ImageRectangle;
 import boofcv.struct.distort.DoNothing2Transform2_F64;
 import boofcv.struct.distort.Point2Transform2_F64;
 import boofcv.struct.geo.Point2D3D;
@@ -45,6 +46,7 @@ import java.util.List;
  */
 public abstract class SquareBase_to_FiducialDetector<T extends ImageGray<T>,Detector extends BaseDetectFiducialSquare<T>>
 	extends FiducialDetectorPnP<T>
+	implements FiducialDetectorRegions<T>
 {
 	Detector alg;
 
@@ -90,6 +92,12 @@ public abstract class SquareBase_to_FiducialDetector<T extends ImageGray<T>,Dete
 	public void detect(T input) {
 		alg.process(input);
 	}
+
+	@Override
+	public void detect(T input, List<ImageRectangle> regions) {
+		alg.process(input, regions);
+	}
+
 	/**
 	 * Return the intersection of two lines defined by opposing corners.  This should also be the geometric center
 	 * @param which Fiducial's index
@@ -27,11 +27,13 @@ import boofcv.alg.interpolate.InterpolatePixelS;
 import boofcv.alg.shapes.polygon.DetectPolygonBinaryGrayRefine;
 import boofcv.alg.shapes.polygon.DetectPolygonFromContour;
 import boofcv.core.image.border.BorderType;
+import boofcv.core.image.GeneralizedImageOps;
 import boofcv.core.image.border.FactoryImageBorder;
 import boofcv.factory.distort.FactoryDistort;
 import boofcv.factory.geo.EpipolarError;
 import boofcv.factory.geo.FactoryMultiView;
 import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.struct.ImageRectangle;
 import boofcv.struct.distort.*;
 import boofcv.struct.geo.AssociatedPair;
 import boofcv.struct.image.GrayF32;
@@ -44,6 +46,7 @@ import georegression.struct.point.Point2D_F64;
 import georegression.struct.shapes.Polygon2D_F64;
 import georegression.struct.shapes.Quadrilateral_F64;
 import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_F64;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.ops.ConvertDMatrixStruct;
 
@@ -85,6 +88,16 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 
 	// storage for binary image
 	GrayU8 binary = new GrayU8(1,1);
+	// storage for a single region when only part of the image is processed
+	private T grayRegion;
+	private GrayU8 binaryRegion = new GrayU8(1,1);
+	// lens distortion for the whole image. null if there is no lens distortion
+	private PixelTransform2_F32 distToUndistFull, undistToDistFull;
+	// lens distortion for pixels inside a region
+	private RegionPixelTransform regionDistToUndist = new RegionPixelTransform();
+	private RegionPixelTransform regionUndistToDist = new RegionPixelTransform();
+	// copy of the squares found inside each region
+	private FastQueue<Polygon2D_F64> regionPolygons = new FastQueue<>(Polygon2D_F64.class,true);
 
 	// Used to compute/remove perspective distortion
 	private HomographyLinear4 computeHomography = new HomographyLinear4(true);
@@ -145,6 +158,7 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 		this.squareDetector = squareDetector;
 		this.inputType = inputType;
 		this.square = new GrayF32(squarePixels,squarePixels);
+		this.grayRegion = GeneralizedImageOps.createSingleBand(inputType,1,1);
 
 		for (int i = 0; i < 4; i++) {
 			pairsRemovePerspective.add(new AssociatedPair());
@@ -182,6 +196,8 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 		}
 
 		squareDetector.setLensDistortion(width, height,distToUndist,undistToDist);
+		distToUndistFull = distToUndist;
+		undistToDistFull = undistToDist;
 
 		pointSquareToInput = new SequencePoint2Transform2_F32(transformHomography,pointUndistToDist);
 
@@ -196,6 +212,10 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 	private Quadrilateral_F64 q = new Quadrilateral_F64(); // interpolation hack in quadrilateral format
 
 	List<Polygon2D_F64> candidates = new ArrayList<>();
+	// intensity inside and outside the edge of each candidate
+	private GrowQueue_F64 candidateEdgeInside = new GrowQueue_F64();
+	private GrowQueue_F64 candidateEdgeOutside = new GrowQueue_F64();
+
 	/**
 	 * Examines the input image to detect fiducials inside of it
 	 *
@@ -211,6 +231,85 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 		// These are in undistorted pixels
 		squareDetector.getPolygons(candidates);
 
+		candidateEdgeInside.reset();
+		candidateEdgeOutside.reset();
+		List<DetectPolygonFromContour.Info> infos = squareDetector.getPolygonInfo();
+		for (int i = 0; i < candidates.size(); i++) {
+			candidateEdgeInside.add(infos.get(i).edgeInside);
+			candidateEdgeOutside.add(infos.get(i).edgeOutside);
+		}
+
+		processCandidates(gray);
+	}
+
+	/**
+	 * Examines the input image to detect fiducials, but only inside the specified regions.  Each region is
+	 * copied out of the input image, thresholded, and searched for squares independently, so pixels outside
+	 * of the regions are never examined.  Squares which touch the border of a region are ignored, so regions
+	 * should be padded.  Coordinates of found fiducials are in the input image's reference frame and lens
+	 * distortion is handled.  Useful when tracking since the location of each fiducial can be predicted.
+	 *
+	 * @param gray Undistorted input image
+	 * @param regions Regions inside the image which are searched.  Must be inside the image and not overlap.
+	 */
+	public void process( T gray , List<ImageRectangle> regions ) {
+		configureContourDetector(gray);
+		squareDetector.getDetector().setFullImageShape(gray.width,gray.height);
+
+		regionPolygons.reset();
+		candidateEdgeInside.reset();
+		candidateEdgeOutside.reset();
+
+		for (int i = 0; i < regions.size(); i++) {
+			ImageRectangle r = regions.get(i);
+			if( r.getWidth() <= 0 || r.getHeight() <= 0 )
+				continue;
+
+			// copy into its own image so that the detector doesn't need to handle sub-images
+			grayRegion.reshape(r.getWidth(),r.getHeight());
+			grayRegion.setTo(gray.subimage(r.x0,r.y0,r.x1,r.y1,null));
+			binaryRegion.reshape(r.getWidth(),r.getHeight());
+			inputToBinary.process(grayRegion,binaryRegion);
+
+			// Polygons are found in the region's coordinate system and shifted into the image's afterwards.
+			// Lens distortion is applied in the image's coordinate system
+			if( distToUndistFull != null ) {
+				regionDistToUndist.configure(distToUndistFull,r.x0,r.y0);
+				regionUndistToDist.configure(undistToDistFull,r.x0,r.y0);
+				squareDetector.setLensDistortion(r.getWidth(),r.getHeight(),regionDistToUndist,regionUndistToDist);
+			}
+
+			squareDetector.process(grayRegion,binaryRegion);
+			squareDetector.refineAll();
+			squareDetector.getPolygons(candidates);
+
+			List<DetectPolygonFromContour.Info> infos = squareDetector.getPolygonInfo();
+			for (int j = 0; j < candidates.size(); j++) {
+				Polygon2D_F64 p = regionPolygons.grow();
+				p.set(candidates.get(j));
+				for (int k = 0; k < p.size(); k++) {
+					p.get(k).x += r.x0;
+					p.get(k).y += r.y0;
+				}
+				candidateEdgeInside.add(infos.get(j).edgeInside);
+				candidateEdgeOutside.add(infos.get(j).edgeOutside);
+			}
+		}
+
+		// restore the detector to process the whole image
+		squareDetector.getDetector().setFullImageShape(0,0);
+		if( distToUndistFull != null )
+			squareDetector.setLensDistortion(gray.width,gray.height,distToUndistFull,undistToDistFull);
+
+		candidates.clear();
+		candidates.addAll(regionPolygons.toList());
+		processCandidates(gray);
+	}
+
+	/**
+	 * Removes perspective distortion from each candidate square and decodes it
+	 */
+	private void processCandidates( T gray ) {
 		found.reset();
 
 		if( verbose ) System.out.println("---------- Got Polygons! "+candidates.size());
@@ -266,18 +365,19 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 			// remove the perspective distortion and process it
 			removePerspective.apply(gray, square);
 
-			DetectPolygonFromContour.Info info = squareDetector.getPolygonInfo().get(i);
+			double edgeInside = candidateEdgeInside.get(i);
+			double edgeOutside = candidateEdgeOutside.get(i);
 
 			// see if the black border is actually black
 			if( minimumBorderBlackFraction > 0 ) {
-				double pixelThreshold = (info.edgeInside + info.edgeOutside) / 2;
+				double pixelThreshold = (edgeInside + edgeOutside) / 2;
 				double foundFraction = computeFractionBoundary((float) pixelThreshold);
 				if( foundFraction < minimumBorderBlackFraction ) {
 					if( verbose ) System.out.println("rejected black border fraction "+foundFraction);
 					continue;
 				}
 			}
-			if( processSquare(square,result,info.edgeInside,info.edgeOutside)) {
+			if( processSquare(square,result,edgeInside,edgeOutside)) {
 				prepareForOutput(q,result);
 
 				if( verbose ) System.out.println("accepted!");
@@ -408,6 +508,9 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 		return squareDetector;
 	}
 
+	/**
+	 * Binary image of the last image processed in its entirety.  Not modified when only regions are processed.
+	 */
 	public GrayU8 getBinary() {
 		return binary;
 	}
@@ -429,4 +532,28 @@ public abstract class BaseDetectFiducialSquare<T extends ImageGray<T>> {
 		// is a counter-clockwise rotation when you look at the actual coordinates
 		int rotation;
 	}
+
+	/**
+	 * Applies a transform for the whole image to pixels inside of a region.  The region's offset is added to
+	 * the input and subtracted from the output.
+	 */
+	private static class RegionPixelTransform extends PixelTransform2_F32 {
+		// transform for the whole image
+		PixelTransform2_F32 transform;
+		// location of the region inside the image
+		int offsetX, offsetY;
+
+		void configure( PixelTransform2_F32 transform , int offsetX , int offsetY ) {
+			this.transform = transform;
+			this.offsetX = offsetX;
+			this.offsetY = offsetY;
+		}
+
+		@Override
+		public void compute(int x, int y) {
+			transform.compute(x + offsetX, y + offsetY);
+			distX = transform.distX - offsetX;
+			distY = transform.distY - offsetY;
+		}
+	}
 }
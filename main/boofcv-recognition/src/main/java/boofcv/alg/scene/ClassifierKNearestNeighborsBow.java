@@ -24,6 +24,7 @@ import boofcv.struct.image.ImageBase;
 import org.ddogleg.nn.NearestNeighbor;
 import org.ddogleg.nn.NnData;
 import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_I32;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -43,6 +44,12 @@ import java.util.List;
  * (the mode) of the k-neighbors is the selected scene type of the image being considered.
  * </p>
  *
+ * <p>
+ * For large data sets an {@link InvertedFileIndex} can be used instead of a generic nearest-neighbor search.
+ * Histograms are then stored sparsely and the neighbors are the images with the highest TF-IDF similarity.
+ * Classification data can also be added incrementally with {@link #addClassificationData}.
+ * </p>
+ *
  * @author Peter Abeles
  */
 // todo add option to do weighted histogram from NN data
@@ -59,6 +66,14 @@ public class ClassifierKNearestNeighborsBow<T extends ImageBase<T>,Desc extends
 	// storage for NN results
 	private FastQueue<NnData<HistogramScene>> resultsNN = new FastQueue(NnData.class,true);
 
+	// Used instead of nn to look up the most similar images
+	private InvertedFileIndex index;
+	// scene type of each image in the index
+	private GrowQueue_I32 indexTypes = new GrowQueue_I32();
+	// storage for index results
+	private FastQueue<InvertedFileIndex.Match> resultsIndex =
+			new FastQueue<>(InvertedFileIndex.Match.class,true);
+
 	// number of neighbors it will consider
 	private int numNeighbors;
 
@@ -80,6 +95,21 @@ public class ClassifierKNearestNeighborsBow<T extends ImageBase<T>,Desc extends
 		this.featureToHistogram = featureToHistogram;
 	}
 
+	/**
+	 * Configures internal algorithms to use an inverted file index for look up.
+	 *
+	 * @param index Inverted file index. Any images already inside of it are discarded.
+	 * @param describe Computes the dense image features
+	 * @param featureToHistogram Converts a set of features into a word histogram
+	 */
+	public ClassifierKNearestNeighborsBow(InvertedFileIndex index,
+										  final DescribeImageDense<T, Desc> describe,
+										  FeatureToWordHistogram<Desc> featureToHistogram) {
+		this.index = index;
+		this.describe = describe;
+		this.featureToHistogram = featureToHistogram;
+	}
+
 	/**
 	 * Specifies the number of neighbors it should search for when classifying\
 	 */
@@ -92,6 +122,16 @@ public class ClassifierKNearestNeighborsBow<T extends ImageBase<T>,Desc extends
 	 * @param memory labeled histograms
 	 */
 	public void setClassificationData(List<HistogramScene> memory , int numScenes ) {
+		scenes = new double[ numScenes ];
+
+		if( index != null ) {
+			index.reset();
+			indexTypes.reset();
+			for (int i = 0; i < memory.size(); i++) {
+				addClassificationData(memory.get(i));
+			}
+			return;
+		}
 
 		List<double[]> points = new ArrayList<>(memory.size());
 		for (int i = 0; i < memory.size(); i++) {
@@ -102,8 +142,20 @@ public class ClassifierKNearestNeighborsBow<T extends ImageBase<T>,Desc extends
 
 		nn.init(numWords);
 		nn.setPoints(points, memory);
+	}
 
-		scenes = new double[ numScenes ];
+	/**
+	 * Adds a single labeled histogram to the classification data.  Only supported when an
+	 * {@link InvertedFileIndex} is used.  {@link #setClassificationData} must be called first to
+	 * specify the number of scenes.
+	 *
+	 * @param labeled labeled histogram
+	 */
+	public void addClassificationData( HistogramScene labeled ) {
+		if( index == null )
+			throw new IllegalArgumentException("Only supported when an inverted file index is used");
+		index.addImage(labeled.getHistogram());
+		indexTypes.add(labeled.type);
 	}
 
 	/**
@@ -128,6 +180,9 @@ public class ClassifierKNearestNeighborsBow<T extends ImageBase<T>,Desc extends
 		featureToHistogram.process();
 		double[] hist = featureToHistogram.getHistogram();
 
+		if( index != null )
+			return classifyIndex(hist);
+
 		// Find the N most similar image histograms
 		resultsNN.reset();
 		nn.findNearest(hist,-1,numNeighbors,resultsNN);
@@ -143,6 +198,26 @@ public class ClassifierKNearestNeighborsBow<T extends ImageBase<T>,Desc extends
 //			scenes[n.type] += 1.0/(Math.sqrt(data.distance)+0.005); // todo
 		}
 
+		return selectBestScene();
+	}
+
+	/**
+	 * Finds the most similar images in the inverted file index and selects the scene with the highest
+	 * total similarity
+	 */
+	private int classifyIndex( double[] hist ) {
+		index.query(hist,numNeighbors,resultsIndex);
+
+		Arrays.fill(scenes,0);
+		for (int i = 0; i < resultsIndex.size; i++) {
+			InvertedFileIndex.Match m = resultsIndex.get(i);
+			scenes[indexTypes.get(m.image)] += m.score;
+		}
+
+		return selectBestScene();
+	}
+
+	private int selectBestScene() {
 		// pick the scene with the highest frequency
 		int bestIndex = 0;
 		double bestCount = 0;
@@ -33,6 +33,10 @@ import java.util.Arrays;
  * With hard assignment a single word is selected.  With soft a fraction is assigned to each word based on
  * a distance metric.  See {@link AssignCluster} for the details.
  * </p>
+ * <p>
+ * For large vocabularies use {@link VocabularyTree_F64} as the assignment, which finds the word in logarithmic time.
+ * Soft assignment still requires a pass through the entire histogram for each feature.
+ * </p>
  * @author Peter Abeles
  */
 public class FeatureToWordHistogram_F64
@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.scene;
+
+import org.ddogleg.sorting.QuickSelect;
+import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_F32;
+import org.ddogleg.struct.GrowQueue_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Inverted file index for retrieving images using a bag-of-words model [1].  For each word there is a posting list
+ * which contains the ID of every image the word appears in and the word's term frequency (TF) in that image.
+ * Images are scored against a query using the cosine similarity of their TF-IDF weighted word vectors.  Only the
+ * posting lists of words which are in the query need to be traversed, making the query time proportional to the
+ * number of images which share words with the query instead of the total number of images.
+ * </p>
+ *
+ * <p>
+ * Images can be added at any time.  Since the inverse document frequency (IDF) changes as images are added, the
+ * norm of each image's vector is lazily recomputed by the first query after an image has been added. To save
+ * and load an index see {@link boofcv.alg.scene.codec.CodecInvertedFileIndex}.
+ * </p>
+ *
+ * <p>
+ * [1] Sivic, Josef, and Andrew Zisserman. "Video Google: A text retrieval approach to object matching in videos."
+ * ICCV 2003.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class InvertedFileIndex {
+
+	// image IDs in each posting list.  Sorted in increasing order
+	GrowQueue_I32 postingImages[];
+	// term frequency of the word in each image in the posting list
+	GrowQueue_F32 postingFrequency[];
+
+	// total number of images in the index
+	int numImages;
+
+	// norm of the TF-IDF vector for each image
+	GrowQueue_F64 norms = new GrowQueue_F64();
+	// true if the norms need to be recomputed
+	boolean dirty = false;
+
+	// score of each image in the current query
+	double scores[] = new double[0];
+	// images which have a non-zero score in the current query
+	GrowQueue_I32 touched = new GrowQueue_I32();
+
+	// work space for selecting the best matches
+	double work[] = new double[0];
+	int indexes[] = new int[0];
+
+	/**
+	 * Creates an empty index
+	 *
+	 * @param numWords Number of words in the vocabulary
+	 */
+	public InvertedFileIndex( int numWords ) {
+		postingImages = new GrowQueue_I32[numWords];
+		postingFrequency = new GrowQueue_F32[numWords];
+		for (int i = 0; i < numWords; i++) {
+			postingImages[i] = new GrowQueue_I32(4);
+			postingFrequency[i] = new GrowQueue_F32(4);
+		}
+	}
+
+	/**
+	 * Removes all images from the index
+	 */
+	public void reset() {
+		for (int i = 0; i < postingImages.length; i++) {
+			postingImages[i].reset();
+			postingFrequency[i].reset();
+		}
+		numImages = 0;
+		dirty = true;
+	}
+
+	/**
+	 * Adds an image to the index.
+	 *
+	 * @param histogram Word histogram of the image.  Only non-zero elements are saved.
+	 * @return ID of the image
+	 */
+	public int addImage( double[] histogram ) {
+		if( histogram.length != postingImages.length )
+			throw new IllegalArgumentException("Histogram length doesn't match the number of words");
+
+		int id = numImages++;
+		for (int word = 0; word < histogram.length; word++) {
+			if( histogram[word] != 0 ) {
+				postingImages[word].add(id);
+				postingFrequency[word].add((float)histogram[word]);
+			}
+		}
+		dirty = true;
+		return id;
+	}
+
+	/**
+	 * Adds an image to the index using a sparse histogram.  Each word must only appear once.
+	 *
+	 * @param words The words which appear in the image
+	 * @param frequency Frequency of each word in the image
+	 * @return ID of the image
+	 */
+	public int addImage( GrowQueue_I32 words , GrowQueue_F64 frequency ) {
+		if( words.size != frequency.size )
+			throw new IllegalArgumentException("words and frequency must be the same size");
+
+		int id = numImages++;
+		for (int i = 0; i < words.size; i++) {
+			if( frequency.data[i] == 0 )
+				continue;
+			int word = words.data[i];
+			postingImages[word].add(id);
+			postingFrequency[word].add((float)frequency.data[i]);
+		}
+		dirty = true;
+		return id;
+	}
+
+	/**
+	 * Inverse document frequency of the word.  log(N/n) where N is the number of images and n the number of
+	 * images which contain the word.
+	 */
+	public double inverseDocumentFrequency( int word ) {
+		int n = postingImages[word].size;
+		if( n == 0 )
+			return 0;
+		return Math.log(numImages/(double)n);
+	}
+
+	/**
+	 * Recomputes the norm of each image's TF-IDF vector.  Called automatically when needed.
+	 */
+	public void computeNorms() {
+		norms.resize(numImages);
+		Arrays.fill(norms.data,0,numImages,0);
+		for (int word = 0; word < postingImages.length; word++) {
+			double idf = inverseDocumentFrequency(word);
+			if( idf == 0 )
+				continue;
+			GrowQueue_I32 images = postingImages[word];
+			GrowQueue_F32 frequency = postingFrequency[word];
+			for (int i = 0; i < images.size; i++) {
+				double w = frequency.data[i]*idf;
+				norms.data[images.data[i]] += w*w;
+			}
+		}
+		for (int i = 0; i < numImages; i++) {
+			norms.data[i] = Math.sqrt(norms.data[i]);
+		}
+		dirty = false;
+	}
+
+	/**
+	 * Finds the images which are the most similar to the query.
+	 *
+	 * @param histogram Word histogram of the query image
+	 * @param maxMatches The maximum number of matches returned
+	 * @param results (Output) Best matches sorted by decreasing score. Score is cosine similarity and from 0 to 1
+	 */
+	public void query( double[] histogram , int maxMatches , FastQueue<Match> results ) {
+		if( histogram.length != postingImages.length )
+			throw new IllegalArgumentException("Histogram length doesn't match the number of words");
+		if( dirty )
+			computeNorms();
+		if( scores.length < numImages ) {
+			scores = new double[numImages];
+		}
+
+		// accumulate the dot product of the query with every image which shares a word with it
+		double queryNorm = 0;
+		for (int word = 0; word < histogram.length; word++) {
+			if( histogram[word] == 0 )
+				continue;
+			double idf = inverseDocumentFrequency(word);
+			if( idf == 0 )
+				continue;
+			double q = histogram[word]*idf;
+			queryNorm += q*q;
+
+			GrowQueue_I32 images = postingImages[word];
+			GrowQueue_F32 frequency = postingFrequency[word];
+			for (int i = 0; i < images.size; i++) {
+				int id = images.data[i];
+				if( scores[id] == 0 )
+					touched.add(id);
+				scores[id] += q*frequency.data[i]*idf;
+			}
+		}
+		queryNorm = Math.sqrt(queryNorm);
+
+		selectBest(queryNorm, maxMatches, results);
+	}
+
+	/**
+	 * Selects the images with the best scores and resets the score of all touched images
+	 */
+	private void selectBest( double queryNorm , int maxMatches , FastQueue<Match> results ) {
+		results.reset();
+
+		int N = touched.size;
+		if( work.length < N ) {
+			work = new double[N];
+			indexes = new int[N];
+		}
+		for (int i = 0; i < N; i++) {
+			int id = touched.data[i];
+			// negative so that the best are selected first
+			work[i] = -scores[id]/(queryNorm*norms.data[id]);
+			scores[id] = 0;
+		}
+
+		int numMatches = Math.min(N,maxMatches);
+		if( numMatches > 0 ) {
+			if( numMatches < N )
+				QuickSelect.selectIndex(work, numMatches, N, indexes);
+			else {
+				for (int i = 0; i < N; i++) {
+					indexes[i] = i;
+				}
+			}
+
+			for (int i = 0; i < numMatches; i++) {
+				Match m = results.grow();
+				m.image = touched.data[indexes[i]];
+				m.score = -work[indexes[i]];
+			}
+			// sort the selected matches by decreasing score using insertion sort since there are few of them
+			for (int i = 1; i < results.size; i++) {
+				Match m = results.data[i];
+				int j = i - 1;
+				while( j >= 0 && results.data[j].score < m.score ) {
+					results.data[j+1] = results.data[j];
+					j--;
+				}
+				results.data[j+1] = m;
+			}
+		}
+		touched.reset();
+	}
+
+	/**
+	 * Posting list of image IDs for a word
+	 */
+	public GrowQueue_I32 getPostingImages( int word ) {
+		return postingImages[word];
+	}
+
+	/**
+	 * Posting list of term frequencies for a word
+	 */
+	public GrowQueue_F32 getPostingFrequency( int word ) {
+		return postingFrequency[word];
+	}
+
+	public int getNumberOfWords() {
+		return postingImages.length;
+	}
+
+	public int getNumberOfImages() {
+		return numImages;
+	}
+
+	/**
+	 * Changes the number of images.  Only intended to be used when directly modifying the posting lists.
+	 */
+	public void setNumberOfImages( int numImages ) {
+		this.numImages = numImages;
+		this.dirty = true;
+	}
+
+	/**
+	 * Image which matched a query and its score
+	 */
+	public static class Match {
+		/**
+		 * ID of the image
+		 */
+		public int image;
+		/**
+		 * Cosine similarity between the image and the query
+		 */
+		public double score;
+	}
+}
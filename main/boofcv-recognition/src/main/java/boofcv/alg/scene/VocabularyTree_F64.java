@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.scene;
+
+import org.ddogleg.clustering.AssignCluster;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Hierarchical vocabulary tree [1] for assigning features to visual words.  Each node in the tree has up to
+ * 'branch factor' children and the leaves are the words.  A feature is assigned to a word by descending the
+ * tree and selecting the closest child at each level, which requires O(B*log<sub>B</sub>(K)) distance computations
+ * instead of the O(K) required by a flat assignment, where B is the branch factor and K is the number of words.
+ * This makes vocabularies with hundreds of thousands of words practical.
+ * </p>
+ *
+ * <p>
+ * Soft assignment only considers the words which share the same parent as the best word.  Weights are
+ * computed the same way as {@link org.ddogleg.clustering.kmeans.AssignKMeans_F64}.
+ * </p>
+ *
+ * <p>
+ * The tree's node centers are stored in a single packed array.  The children of a node are always stored
+ * next to each other.  To build a tree see LearnVocabularyTree_F64 in boofcv-learning.
+ * </p>
+ *
+ * <p>
+ * [1] Nister, David, and Henrik Stewenius. "Scalable recognition with a vocabulary tree." CVPR 2006.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class VocabularyTree_F64 implements AssignCluster<double[]> {
+
+	// number of elements in each point
+	int dof;
+
+	// number of nodes in the tree, including the root
+	int numNodes;
+	// center of each node.  The root has no center
+	double[] centers;
+	// index of the first child of each node.  -1 if a leaf
+	int[] firstChild;
+	// number of children in each node
+	int[] numChildren;
+	// parent of each node.  -1 for the root
+	int[] parent;
+	// the word each node corresponds to.  -1 if not a leaf
+	int[] words;
+	// index of the node for each word
+	int[] wordToNode;
+
+	/**
+	 * Creates a tree with just the root node
+	 *
+	 * @param dof Number of elements in each point
+	 */
+	public VocabularyTree_F64( int dof ) {
+		this.dof = dof;
+		reset();
+	}
+
+	/**
+	 * Discards all nodes except for the root
+	 */
+	public void reset() {
+		numNodes = 1;
+		centers = new double[dof*16];
+		firstChild = new int[16];
+		numChildren = new int[16];
+		parent = new int[16];
+		words = new int[16];
+		firstChild[0] = -1;
+		parent[0] = -1;
+		wordToNode = new int[]{0};
+		words[0] = 0;
+	}
+
+	/**
+	 * Adds children to a leaf node.  After all children have been added {@link #assignWords()} must be called
+	 * before the tree can be used.
+	 *
+	 * @param node The node which the children are added to.  Must not already have children.
+	 * @param childCenters Center of each child.  Arrays are copied.
+	 * @return Index of the first child
+	 */
+	public int addChildren( int node , List<double[]> childCenters ) {
+		if( firstChild[node] != -1 )
+			throw new IllegalArgumentException("Node already has children");
+		if( childCenters.isEmpty() )
+			throw new IllegalArgumentException("Must have at least one child");
+
+		int first = numNodes;
+		growNodes(numNodes + childCenters.size());
+
+		for (int i = 0; i < childCenters.size(); i++) {
+			int index = first+i;
+			System.arraycopy(childCenters.get(i),0,centers,index*dof,dof);
+			firstChild[index] = -1;
+			numChildren[index] = 0;
+			parent[index] = node;
+		}
+		firstChild[node] = first;
+		numChildren[node] = childCenters.size();
+		numNodes += childCenters.size();
+
+		return first;
+	}
+
+	private void growNodes( int length ) {
+		if( length <= firstChild.length )
+			return;
+		int N = Math.max(length,firstChild.length*2);
+		centers = Arrays.copyOf(centers,N*dof);
+		firstChild = Arrays.copyOf(firstChild,N);
+		numChildren = Arrays.copyOf(numChildren,N);
+		parent = Arrays.copyOf(parent,N);
+		words = Arrays.copyOf(words,N);
+	}
+
+	/**
+	 * Assigns a word to each leaf in the tree.  Words are ordered by node index.
+	 */
+	public void assignWords() {
+		int numWords = 0;
+		for (int i = 0; i < numNodes; i++) {
+			if( firstChild[i] == -1 )
+				numWords++;
+		}
+		wordToNode = new int[numWords];
+		numWords = 0;
+		for (int i = 0; i < numNodes; i++) {
+			if( firstChild[i] == -1 ) {
+				wordToNode[numWords] = i;
+				words[i] = numWords++;
+			} else {
+				words[i] = -1;
+			}
+		}
+	}
+
+	/**
+	 * Descends the tree and returns the leaf node which is closest to the point
+	 *
+	 * @param point The point
+	 * @return Index of the leaf node
+	 */
+	public int searchLeaf( double[] point ) {
+		int node = 0;
+		while( firstChild[node] != -1 ) {
+			int first = firstChild[node];
+			int last = first + numChildren[node];
+
+			int best = first;
+			double bestDistance = Double.MAX_VALUE;
+			for (int child = first; child < last; child++) {
+				double d = distanceSq(point,child);
+				if( d < bestDistance ) {
+					bestDistance = d;
+					best = child;
+				}
+			}
+			node = best;
+		}
+		return node;
+	}
+
+	/**
+	 * Euclidean distance squared between the point and a node's center
+	 */
+	public double distanceSq( double[] point , int node ) {
+		int index = node*dof;
+		double total = 0;
+		for (int i = 0; i < dof; i++) {
+			double d = point[i]-centers[index+i];
+			total += d*d;
+		}
+		return total;
+	}
+
+	@Override
+	public int assign(double[] point) {
+		return words[searchLeaf(point)];
+	}
+
+	@Override
+	public void assign(double[] point, double[] fit) {
+		Arrays.fill(fit,0);
+
+		int leaf = searchLeaf(point);
+		int node = parent[leaf];
+		if( node == -1 ) {
+			fit[words[leaf]] = 1;
+			return;
+		}
+
+		int first = firstChild[node];
+		int last = first + numChildren[node];
+
+		// distance to each sibling which is also a word
+		double max = 0;
+		for (int child = first; child < last; child++) {
+			if( words[child] == -1 )
+				continue;
+			double d = distanceSq(point,child);
+			fit[words[child]] = d;
+			if( d > max )
+				max = d;
+		}
+
+		double sum = 0;
+		for (int child = first; child < last; child++) {
+			if( words[child] != -1 )
+				sum += fit[words[child]] /= max;
+		}
+
+		double total = 0;
+		for (int child = first; child < last; child++) {
+			if( words[child] != -1 )
+				total += fit[words[child]] = sum - fit[words[child]];
+		}
+
+		// degenerate case, such as a single word or all the words being identical
+		if( max == 0 || total == 0 ) {
+			for (int child = first; child < last; child++) {
+				if( words[child] != -1 )
+					fit[words[child]] = 0;
+			}
+			fit[words[leaf]] = 1;
+			return;
+		}
+
+		for (int child = first; child < last; child++) {
+			if( words[child] != -1 )
+				fit[words[child]] /= total;
+		}
+	}
+
+	@Override
+	public int getNumberOfClusters() {
+		return wordToNode.length;
+	}
+
+	@Override
+	public VocabularyTree_F64 copy() {
+		VocabularyTree_F64 out = new VocabularyTree_F64(dof);
+		out.numNodes = numNodes;
+		out.centers = centers.clone();
+		out.firstChild = firstChild.clone();
+		out.numChildren = numChildren.clone();
+		out.parent = parent.clone();
+		out.words = words.clone();
+		out.wordToNode = wordToNode.clone();
+		return out;
+	}
+
+	/**
+	 * Number of levels below the root.  A tree with only a root has a depth of zero.
+	 */
+	public int getDepth() {
+		int depth = 0;
+		for (int i = 0; i < wordToNode.length; i++) {
+			int d = 0;
+			int node = wordToNode[i];
+			while( parent[node] != -1 ) {
+				node = parent[node];
+				d++;
+			}
+			depth = Math.max(depth,d);
+		}
+		return depth;
+	}
+
+	/**
+	 * Returns the node which corresponds to the word
+	 */
+	public int getWordNode( int word ) {
+		return wordToNode[word];
+	}
+
+	/**
+	 * Returns the word a node corresponds to or -1 if it isn't a leaf
+	 */
+	public int getNodeWord( int node ) {
+		return words[node];
+	}
+
+	/**
+	 * Copies the center of a node into the provided array
+	 */
+	public void getCenter( int node , double[] output ) {
+		System.arraycopy(centers,node*dof,output,0,dof);
+	}
+
+	public int getNumberOfNodes() {
+		return numNodes;
+	}
+
+	public int getParent( int node ) {
+		return parent[node];
+	}
+
+	public int getFirstChild( int node ) {
+		return firstChild[node];
+	}
+
+	public int getNumberOfChildren( int node ) {
+		return numChildren[node];
+	}
+
+	public int getDOF() {
+		return dof;
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.scene.codec;
+
+import boofcv.alg.scene.InvertedFileIndex;
+import org.ddogleg.struct.GrowQueue_F32;
+import org.ddogleg.struct.GrowQueue_I32;
+
+import java.io.*;
+
+/**
+ * <p>
+ * Compact binary format for {@link InvertedFileIndex}.  Each posting list is saved as the number of images, the
+ * difference between consecutive image IDs encoded as variable length integers, then the term frequencies as 32-bit
+ * floats.  Since posting lists are sorted the differences are small and typically take one or two bytes each.
+ * </p>
+ *
+ * <pre>
+ * String  "InvertedFileIndex"
+ * int     version
+ * int     number of words
+ * int     number of images
+ * for each word:
+ *   varint  number of images N
+ *   varint  N image ID differences
+ *   float   N term frequencies
+ * </pre>
+ *
+ * @author Peter Abeles
+ */
+public class CodecInvertedFileIndex {
+	public static final String HEADER = "InvertedFileIndex";
+	public static final int VERSION = 1;
+
+	/**
+	 * Writes the index to the stream.  The stream is not closed.
+	 */
+	public static void save( InvertedFileIndex index , OutputStream stream ) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+
+		out.writeUTF(HEADER);
+		out.writeInt(VERSION);
+		out.writeInt(index.getNumberOfWords());
+		out.writeInt(index.getNumberOfImages());
+
+		for (int word = 0; word < index.getNumberOfWords(); word++) {
+			GrowQueue_I32 images = index.getPostingImages(word);
+			GrowQueue_F32 frequency = index.getPostingFrequency(word);
+
+			writeVarInt(out, images.size);
+			int previous = 0;
+			for (int i = 0; i < images.size; i++) {
+				writeVarInt(out, images.data[i]-previous);
+				previous = images.data[i];
+			}
+			for (int i = 0; i < frequency.size; i++) {
+				out.writeFloat(frequency.data[i]);
+			}
+		}
+		out.flush();
+	}
+
+	/**
+	 * Reads an index from the stream.  The stream is not closed.
+	 */
+	public static InvertedFileIndex load( InputStream stream ) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+
+		if( !HEADER.equals(in.readUTF()) )
+			throw new IOException("Not an inverted file index");
+		int version = in.readInt();
+		if( version != VERSION )
+			throw new IOException("Unsupported version "+version);
+
+		int numWords = in.readInt();
+		int numImages = in.readInt();
+
+		InvertedFileIndex index = new InvertedFileIndex(numWords);
+		for (int word = 0; word < numWords; word++) {
+			GrowQueue_I32 images = index.getPostingImages(word);
+			GrowQueue_F32 frequency = index.getPostingFrequency(word);
+
+			int N = readVarInt(in);
+			images.resize(N);
+			frequency.resize(N);
+			int previous = 0;
+			for (int i = 0; i < N; i++) {
+				previous += readVarInt(in);
+				images.data[i] = previous;
+			}
+			for (int i = 0; i < N; i++) {
+				frequency.data[i] = in.readFloat();
+			}
+		}
+		index.setNumberOfImages(numImages);
+
+		return index;
+	}
+
+	/**
+	 * Writes a non-negative integer using 7-bits per byte.  The high bit indicates if there are more bytes.
+	 */
+	static void writeVarInt( DataOutputStream out , int value ) throws IOException {
+		while( (value & ~0x7F) != 0 ) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	static int readVarInt( DataInputStream in ) throws IOException {
+		int value = 0;
+		int shift = 0;
+		while( true ) {
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if( (b & 0x80) == 0 )
+				return value;
+			shift += 7;
+			if( shift > 28 )
+				throw new IOException("Malformed variable length integer");
+		}
+	}
+}
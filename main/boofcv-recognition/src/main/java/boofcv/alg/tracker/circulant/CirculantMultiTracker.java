@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boofcv.alg.tracker.circulant;
+
+import boofcv.abst.tracker.ConfigCirculantTracker;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import boofcv.factory.tracker.FactoryTrackerObjectAlgs;
+import boofcv.struct.image.ImageGray;
+import georegression.struct.shapes.RectangleLength2D_F32;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Tracks multiple targets using {@link CirculantTracker} or {@link CirculantTracker_F32}.  Each target has its
+ * own tracker, and thus its own work space, which allows all the targets to be updated in parallel using
+ * {@link BoofConcurrency}.  The input image is only checked once per frame and the cosine window and Gaussian
+ * weights, which only depend on the configuration, are shared by all the trackers. Trackers from targets which have
+ * been removed are recycled.
+ * </p>
+ *
+ * <p>
+ * The single precision trackers use half the memory and are faster, while the double precision trackers produce
+ * the same results as a single {@link CirculantTracker}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CirculantMultiTracker<T extends ImageGray<T>> {
+
+	// configuration of each tracker
+	private ConfigCirculantTracker config;
+	// if true then single precision trackers are used
+	private boolean useF32;
+	private Class<T> imageType;
+
+	// targets which are being tracked
+	private List<Target> targets = new ArrayList<>();
+	// targets which were removed and can be recycled
+	private List<Target> unused = new ArrayList<>();
+
+	// the first tracker which was created.  Constants are shared with it
+	private Target prototype;
+
+	// ID of the next target which is added
+	private int totalTargets = 0;
+
+	// Input image width and height
+	private int imageWidth,imageHeight;
+
+	/**
+	 * Configures the tracker
+	 *
+	 * @param config Configuration for each target's tracker
+	 * @param useF32 If true then single precision trackers are used
+	 * @param imageType Type of input image
+	 */
+	public CirculantMultiTracker(ConfigCirculantTracker config, boolean useF32, Class<T> imageType) {
+		this.config = config;
+		this.useF32 = useF32;
+		this.imageType = imageType;
+	}
+
+	/**
+	 * Starts tracking a new target in the image.  All targets must be tracked in images of the same shape.
+	 *
+	 * @param image Image which contains the target
+	 * @param x0 top-left corner of region
+	 * @param y0 top-left corner of region
+	 * @param regionWidth region's width
+	 * @param regionHeight region's height
+	 * @return The new target
+	 */
+	public Target addTarget( T image , int x0 , int y0 , int regionWidth , int regionHeight ) {
+		if( targets.isEmpty() ) {
+			imageWidth = image.width;
+			imageHeight = image.height;
+		} else {
+			checkImageShape(image);
+		}
+
+		Target t;
+		if( unused.isEmpty() ) {
+			t = new Target();
+		} else {
+			t = unused.remove( unused.size()-1 );
+		}
+		t.id = totalTargets++;
+		t.initialize(image,x0,y0,regionWidth,regionHeight);
+		targets.add(t);
+		return t;
+	}
+
+	/**
+	 * Stops tracking the specified target
+	 *
+	 * @return true if the target was being tracked
+	 */
+	public boolean removeTarget( Target target ) {
+		if( !targets.remove(target) )
+			return false;
+		unused.add(target);
+		return true;
+	}
+
+	/**
+	 * Stops tracking all targets
+	 */
+	public void removeAll() {
+		unused.addAll(targets);
+		targets.clear();
+	}
+
+	/**
+	 * Updates the location of all the targets in the image. Each target is processed in parallel.
+	 *
+	 * @param image Next image in the sequence
+	 */
+	public void process( final T image ) {
+		if( targets.isEmpty() )
+			return;
+		checkImageShape(image);
+
+		BoofConcurrency.loopBlocks(0, targets.size(), new IntRangeTask() {
+			@Override
+			public void process(int idx0, int idx1) {
+				for (int i = idx0; i < idx1; i++) {
+					targets.get(i).track(image);
+				}
+			}
+		});
+	}
+
+	private void checkImageShape( T image ) {
+		if( image.width != imageWidth || image.height != imageHeight )
+			throw new IllegalArgumentException("Tracking image size is not the same as " +
+					"input image. Expected "+imageWidth+" x "+imageHeight);
+	}
+
+	/**
+	 * List of targets which are being tracked.  Do not modify.
+	 */
+	public List<Target> getTargets() {
+		return targets;
+	}
+
+	public boolean isUseF32() {
+		return useF32;
+	}
+
+	/**
+	 * A target being tracked and the tracker which is used to track it
+	 */
+	public class Target {
+		// unique ID assigned to the target
+		int id;
+
+		CirculantTracker<T> tracker64;
+		CirculantTracker_F32<T> tracker32;
+
+		Target() {
+			if( useF32 ) {
+				tracker32 = FactoryTrackerObjectAlgs.circulantF32(config, imageType);
+				if( prototype != null )
+					tracker32.shareConstants(prototype.tracker32);
+			} else {
+				tracker64 = FactoryTrackerObjectAlgs.circulant(config, imageType);
+				if( prototype != null )
+					tracker64.shareConstants(prototype.tracker64);
+			}
+			if( prototype == null )
+				prototype = this;
+		}
+
+		void initialize( T image , int x0 , int y0 , int regionWidth , int regionHeight ) {
+			if( useF32 )
+				tracker32.initialize(image, x0, y0, regionWidth, regionHeight);
+			else
+				tracker64.initialize(image, x0, y0, regionWidth, regionHeight);
+		}
+
+		void track( T image ) {
+			if( useF32 )
+				tracker32.performTracking(image);
+			else
+				tracker64.performTracking(image);
+		}
+
+		/**
+		 * The location of the target in the image
+		 */
+		public RectangleLength2D_F32 getLocation() {
+			if( useF32 )
+				return tracker32.getTargetLocation();
+			else
+				return tracker64.getTargetLocation();
+		}
+
+		public int getId() {
+			return id;
+		}
+
+		public CirculantTracker<T> getTracker64() {
+			return tracker64;
+		}
+
+		public CirculantTracker_F32<T> getTracker32() {
+			return tracker32;
+		}
+	}
+}
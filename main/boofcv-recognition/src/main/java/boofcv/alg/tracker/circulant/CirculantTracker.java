@@ -86,8 +86,9 @@ public class CirculantTracker<T extends ImageGray<T>> {
 	// Input image width and height
 	private int imageWidth,imageHeight;
 
-	// computes the FFT
-	private DiscreteFourierTransform<GrayF64,InterleavedF64> fft = DiscreteFourierTransformOps.createTransformF64();
+	// computes the FFT. Only half the spectrum is needed since the input is real and all operations in the
+	// Fourier domain are element-wise
+	private DiscreteFourierTransform<GrayF64,InterleavedF64> fft = DiscreteFourierTransformOps.createHalfTransformF64();
 
 	// storage for subimage of input image
 	protected GrayF64 templateNew = new GrayF64(1,1);
@@ -295,21 +296,22 @@ public class CirculantTracker<T extends ImageGray<T>> {
 
 
 	protected void resizeImages( int workRegionSize ) {
+		int halfWidth = workRegionSize/2+1;
 		templateNew.reshape(workRegionSize, workRegionSize);
 		template.reshape(workRegionSize, workRegionSize);
 		cosine.reshape(workRegionSize,workRegionSize);
 		k.reshape(workRegionSize,workRegionSize);
-		kf.reshape(workRegionSize,workRegionSize);
-		alphaf.reshape(workRegionSize,workRegionSize);
-		newAlphaf.reshape(workRegionSize,workRegionSize);
+		kf.reshape(halfWidth,workRegionSize);
+		alphaf.reshape(halfWidth,workRegionSize);
+		newAlphaf.reshape(halfWidth,workRegionSize);
 		response.reshape(workRegionSize,workRegionSize);
 		tmpReal0.reshape(workRegionSize,workRegionSize);
 		tmpReal1.reshape(workRegionSize,workRegionSize);
-		tmpFourier0.reshape(workRegionSize,workRegionSize);
-		tmpFourier1.reshape(workRegionSize,workRegionSize);
-		tmpFourier2.reshape(workRegionSize,workRegionSize);
+		tmpFourier0.reshape(halfWidth,workRegionSize);
+		tmpFourier1.reshape(halfWidth,workRegionSize);
+		tmpFourier2.reshape(halfWidth,workRegionSize);
 		gaussianWeight.reshape(workRegionSize,workRegionSize);
-		gaussianWeightDFT.reshape(workRegionSize,workRegionSize);
+		gaussianWeightDFT.reshape(halfWidth,workRegionSize);
 	}
 
 	/**
@@ -605,6 +607,22 @@ public class CirculantTracker<T extends ImageGray<T>> {
 		PixelMath.multiply(output,cosine,output);
 	}
 
+	/**
+	 * Uses the cosine window and Gaussian weights from another tracker with the same configuration instead of
+	 * computing its own copy.  These are not modified after construction so they can be shared by trackers which
+	 * are run in different threads.
+	 *
+	 * @param src Tracker with the same work region size and spatial bandwidth
+	 */
+	public void shareConstants( CirculantTracker<T> src ) {
+		if( src.workRegionSize != workRegionSize || src.output_sigma_factor != output_sigma_factor )
+			throw new IllegalArgumentException("Trackers must have the same work region size and spatial bandwidth");
+
+		this.cosine = src.cosine;
+		this.gaussianWeight = src.gaussianWeight;
+		this.gaussianWeightDFT = src.gaussianWeightDFT;
+	}
+
 	/**
 	 * The location of the target in the image
 	 */
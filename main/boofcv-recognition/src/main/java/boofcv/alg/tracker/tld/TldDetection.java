@@ -38,17 +38,21 @@ import java.util.List;
 public class TldDetection<T extends ImageGray<T>> {
 
 	// Detects rectangles: Removes candidates don't match the fern descriptors
-	private TldFernClassifier<T> fern;
+	protected TldFernClassifier<T> fern;
 	// Detects rectangles: Removes candidates don't match NCC descriptors
 	protected TldTemplateMatching<T> template;
 	// Detects rectangles: Removes candidates which lack texture
-	private TldVarianceFilter<T> variance;
+	protected TldVarianceFilter<T> variance;
 
 	// Storage for results of the fern test on individual regions
 	protected FastQueue<TldRegionFernInfo> fernInfo = new FastQueue<>(TldRegionFernInfo.class, true);
 
 	protected TldParameters config;
 
+	// sum of P and N values across all regions which passed the fern test
+	protected int totalP;
+	protected int totalN;
+
 	// Storage for sorting of results
 	private GrowQueue_F64 storageMetric = new GrowQueue_F64();
 	private GrowQueue_I32 storageIndexes = new GrowQueue_I32();
@@ -89,6 +93,14 @@ public class TldDetection<T extends ImageGray<T>> {
 	protected TldDetection() {
 	}
 
+	/**
+	 * Specifies the image which is about to be processed.  The fern, template, and variance classes are
+	 * updated by the owner.  Only implementations which sample the image with their own interpolation need to
+	 * do anything here.
+	 */
+	public void setImage( T image ) {
+	}
+
 	/**
 	 * Detects the object inside the image.  Eliminates candidate regions using a cascade of tests
 	 */
@@ -109,28 +121,9 @@ public class TldDetection<T extends ImageGray<T>> {
 
 		fernInfo.reset();
 
-		int totalP = 0;
-		int totalN = 0;
-
 		// Run through all candidate regions, ignore ones without enough variance, compute
 		// the fern for each one
-		TldRegionFernInfo info = fernInfo.grow();
-		for( int i = 0; i < cascadeRegions.size; i++ ) {
-			ImageRectangle region = cascadeRegions.get(i);
-
-			if( !variance.checkVariance(region)) {
-				continue;
-			}
-
-			info.r = region;
-
-			if( fern.lookupFernPN(info)) {
-				totalP += info.sumP;
-				totalN += info.sumN;
-				info = fernInfo.grow();
-			}
-		}
-		fernInfo.removeTail();
+		computeFernInfo(cascadeRegions);
 
 		// avoid overflow errors in the future by re-normalizing the Fern detector
 		if( totalP > 0x0fffffff)
@@ -159,6 +152,34 @@ public class TldDetection<T extends ImageGray<T>> {
 		}
 	}
 
+	/**
+	 * Applies the variance test to each region and, for the ones which pass, looks up the fern P and N values.
+	 * Regions with a known fern value are added to {@link #fernInfo} in the same order as the input list
+	 * and their P and N values are summed into {@link #totalP} and {@link #totalN}.
+	 */
+	protected void computeFernInfo( FastQueue<ImageRectangle> cascadeRegions ) {
+		totalP = 0;
+		totalN = 0;
+
+		TldRegionFernInfo info = fernInfo.grow();
+		for( int i = 0; i < cascadeRegions.size; i++ ) {
+			ImageRectangle region = cascadeRegions.get(i);
+
+			if( !variance.checkVariance(region)) {
+				continue;
+			}
+
+			info.r = region;
+
+			if( fern.lookupFernPN(info)) {
+				totalP += info.sumP;
+				totalN += info.sumN;
+				info = fernInfo.grow();
+			}
+		}
+		fernInfo.removeTail();
+	}
+
 	/**
 	 * Computes the confidence for all the regions which pass the fern test
 	 */
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.tracker.tld;
+
+import boofcv.alg.interpolate.InterpolatePixelS;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.struct.ImageRectangle;
+import boofcv.struct.feature.NccFeature;
+import boofcv.struct.image.ImageGray;
+import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_F64;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Variant of {@link TldDetection} which runs the variance, fern, and template tests on multiple threads.
+ * Regions are split into contiguous blocks, one for each thread.  Each thread has its own
+ * {@link InterpolatePixelS interpolation}, fern sample offsets, and storage for fern results and NCC
+ * descriptors, since those are not thread safe.  The fern tables and templates are only read during detection.  The number of threads
+ * used is the number of interpolation instances it was provided.
+ * </p>
+ *
+ * <p>
+ * Results are the same no matter how many threads are used.  Fern results from each block are appended in
+ * block order, producing the same list as the sequential algorithm, and template confidences are written into
+ * an array indexed by region before candidates are selected.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class TldDetectionConcurrent<T extends ImageGray<T>> extends TldDetection<T> {
+
+	// storage for each thread
+	List<Worker> workers = new ArrayList<>();
+
+	// confidence of each region in fernRegions
+	GrowQueue_F64 confidences = new GrowQueue_F64();
+
+	// regions being processed by the fern stage
+	FastQueue<ImageRectangle> cascadeRegions;
+
+	// which stage of the cascade the workers are processing
+	boolean stageFern;
+
+	/**
+	 * Configures the detector
+	 *
+	 * @param interpolate Interpolation used by each thread.  Each element must be a different instance.
+	 */
+	public TldDetectionConcurrent(TldFernClassifier<T> fern, TldTemplateMatching<T> template,
+								  TldVarianceFilter<T> variance, TldParameters config,
+								  List<InterpolatePixelS<T>> interpolate ) {
+		super(fern, template, variance, config);
+
+		if( interpolate.isEmpty() )
+			throw new IllegalArgumentException("At least one interpolation instance is required");
+
+		for (int i = 0; i < interpolate.size(); i++) {
+			workers.add(new Worker(interpolate.get(i)));
+		}
+	}
+
+	@Override
+	public void setImage( T image ) {
+		for (int i = 0; i < workers.size(); i++) {
+			workers.get(i).interpolate.setImage(image);
+		}
+	}
+
+	@Override
+	protected void computeFernInfo( FastQueue<ImageRectangle> cascadeRegions ) {
+		this.cascadeRegions = cascadeRegions;
+		stageFern = true;
+		assignBlocks(cascadeRegions.size);
+		BoofConcurrency.runAll(workers);
+		this.cascadeRegions = null;
+
+		// combine the results in block order so that they are the same as the single threaded algorithm
+		totalP = 0;
+		totalN = 0;
+		for (int i = 0; i < workers.size(); i++) {
+			Worker w = workers.get(i);
+			for (int j = 0; j < w.fernInfo.size; j++) {
+				TldRegionFernInfo src = w.fernInfo.get(j);
+				TldRegionFernInfo dst = fernInfo.grow();
+				dst.r = src.r;
+				dst.sumP = src.sumP;
+				dst.sumN = src.sumN;
+			}
+			totalP += w.totalP;
+			totalN += w.totalN;
+		}
+	}
+
+	@Override
+	protected void computeTemplateConfidence() {
+		confidences.resize(fernRegions.size());
+		stageFern = false;
+		assignBlocks(fernRegions.size());
+		BoofConcurrency.runAll(workers);
+
+		for( int i = 0; i < fernRegions.size(); i++ ) {
+			double confidence = confidences.data[i];
+
+			if( confidence < config.confidenceThresholdUpper)
+				continue;
+			TldRegion r = candidateDetections.grow();
+			r.connections = 0;
+			r.rect.set(fernRegions.get(i));
+			r.confidence = confidence;
+		}
+	}
+
+	/**
+	 * Splits the range of indexes into one contiguous block for each worker
+	 */
+	private void assignBlocks( int total ) {
+		int N = workers.size();
+		for (int i = 0; i < N; i++) {
+			Worker w = workers.get(i);
+			w.idx0 = (int)((long)total*i/N);
+			w.idx1 = (int)((long)total*(i+1)/N);
+		}
+	}
+
+	/**
+	 * Returns the number of threads used
+	 */
+	public int getNumberOfThreads() {
+		return workers.size();
+	}
+
+	/**
+	 * Processes a block of regions for the current stage of the cascade
+	 */
+	class Worker implements Runnable {
+		InterpolatePixelS<T> interpolate;
+
+		// storage for the descriptor of the region being tested
+		NccFeature observed = new NccFeature(15*15);
+		// storage for offsets used by fern integer sampling
+		TldFernSampleOffsets offsets = new TldFernSampleOffsets();
+
+		// results of the fern test in this block
+		FastQueue<TldRegionFernInfo> fernInfo = new FastQueue<>(TldRegionFernInfo.class, true);
+		int totalP, totalN;
+
+		// range of indexes being processed
+		int idx0, idx1;
+
+		Worker(InterpolatePixelS<T> interpolate) {
+			this.interpolate = interpolate;
+		}
+
+		@Override
+		public void run() {
+			if( stageFern )
+				processFern();
+			else
+				processTemplate();
+		}
+
+		private void processFern() {
+			fernInfo.reset();
+			totalP = 0;
+			totalN = 0;
+
+			TldRegionFernInfo info = fernInfo.grow();
+			for( int i = idx0; i < idx1; i++ ) {
+				ImageRectangle region = cascadeRegions.get(i);
+
+				if( !variance.checkVariance(region)) {
+					continue;
+				}
+
+				info.r = region;
+
+				if( fern.lookupFernPN(info,interpolate,offsets)) {
+					totalP += info.sumP;
+					totalN += info.sumN;
+					info = fernInfo.grow();
+				}
+			}
+			fernInfo.removeTail();
+		}
+
+		private void processTemplate() {
+			for( int i = idx0; i < idx1; i++ ) {
+				ImageRectangle r = fernRegions.get(i);
+				confidences.data[i] = template.computeConfidence(interpolate, observed, r.x0, r.y0, r.x1, r.y1);
+			}
+		}
+	}
+}
@@ -20,6 +20,8 @@ package boofcv.alg.tracker.tld;
 
 import boofcv.alg.interpolate.InterpolatePixelS;
 import boofcv.struct.ImageRectangle;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU8;
 import boofcv.struct.image.ImageGray;
 import georegression.struct.point.Point2D_F32;
 
@@ -28,6 +30,11 @@ import java.util.Random;
 /**
  * Manages ferns, creates their descriptions, compute their values, and handles their probabilities.
  *
+ * By default the image is sampled using interpolation.  If {@link #setIntegerSampling(boolean) integer sampling}
+ * is turned on then the nearest pixel is read directly from the image using offsets which are precomputed for
+ * each window size, see {@link TldFernSampleOffsets}.  This is faster but produces different fern values.
+ * Only {@link GrayU8} and {@link GrayF32} images are supported in that mode.
+ *
  * @author Peter Abeles
  */
 public class TldFernClassifier<T extends ImageGray<T>> {
@@ -51,6 +58,13 @@ public class TldFernClassifier<T extends ImageGray<T>> {
 	// provides sub-pixel interpolation to improve quality at different scales
 	private InterpolatePixelS<T> interpolate;
 
+	// if true the nearest pixel is sampled using precomputed offsets instead of interpolation
+	private boolean integerSampling = false;
+	// offsets used by integer sampling
+	private TldFernSampleOffsets offsets = new TldFernSampleOffsets();
+	// image being processed
+	private T image;
+
 	/**
 	 * Configures fern algorithm
 	 *
@@ -97,6 +111,9 @@ public class TldFernClassifier<T extends ImageGray<T>> {
 	 * @param gray Input image.
 	 */
 	public void setImage(T gray) {
+		if( integerSampling && !(gray instanceof GrayU8 || gray instanceof GrayF32) )
+			throw new IllegalArgumentException("Integer sampling only supports GrayU8 and GrayF32");
+		this.image = gray;
 		interpolate.setImage(gray);
 	}
 
@@ -114,9 +131,9 @@ public class TldFernClassifier<T extends ImageGray<T>> {
 		for( int i = 0; i < ferns.length; i++ ) {
 
 			// first learn it with no noise
-			int value = computeFernValue(c_x, c_y, rectWidth, rectHeight,ferns[i]);
-			TldFernFeature f = managers[i].lookupFern(value);
-			increment(f,positive);
+			int value = integerSampling ? computeFernValue(offsets, r, i) :
+					computeFernValue(c_x, c_y, rectWidth, rectHeight,ferns[i]);
+			increment(managers[i],value,positive);
 		}
 	}
 
@@ -135,14 +152,14 @@ public class TldFernClassifier<T extends ImageGray<T>> {
 		for( int i = 0; i < ferns.length; i++ ) {
 
 			// first learn it with no noise
-			int value = computeFernValue(c_x, c_y, rectWidth, rectHeight,ferns[i]);
-			TldFernFeature f = managers[i].lookupFern(value);
-			increment(f,positive);
+			int value = integerSampling ? computeFernValue(offsets, r, i) :
+					computeFernValue(c_x, c_y, rectWidth, rectHeight,ferns[i]);
+			increment(managers[i],value,positive);
 
 			for( int j = 0; j < numLearnRandom; j++ ) {
-				value = computeFernValueRand(c_x, c_y, rectWidth, rectHeight,ferns[i]);
-				f = managers[i].lookupFern(value);
-				increment(f,positive);
+				value = integerSampling ? computeFernValueRand(offsets, r, i) :
+						computeFernValueRand(c_x, c_y, rectWidth, rectHeight,ferns[i]);
+				increment(managers[i],value,positive);
 			}
 		}
 	}
@@ -151,15 +168,15 @@ public class TldFernClassifier<T extends ImageGray<T>> {
 	 * Increments the P and N value for a fern.  Also updates the maxP and maxN statistics so that it
 	 * knows when to re-normalize data structures.
 	 */
-	private void increment( TldFernFeature f , boolean positive ) {
+	private void increment( TldFernManager m , int value , boolean positive ) {
 		if( positive ) {
-			f.incrementP();
-			if( f.numP > maxP )
-				maxP = f.numP;
+			int numP = m.incrementP(value);
+			if( numP > maxP )
+				maxP = numP;
 		} else {
-			f.incrementN();
-			if( f.numN > maxN )
-				maxN = f.numN;
+			int numN = m.incrementN(value);
+			if( numN > maxN )
+				maxN = numN;
 		}
 	}
 
@@ -170,6 +187,21 @@ public class TldFernClassifier<T extends ImageGray<T>> {
 	 * @return true if a known value for any of the ferns was observed in this region
 	 */
 	public boolean lookupFernPN( TldRegionFernInfo info ) {
+		return lookupFernPN(info, interpolate, offsets);
+	}
+
+	/**
+	 * Same as {@link #lookupFernPN(TldRegionFernInfo)} but samples the image using the provided interpolation
+	 * and offsets instead of the internal ones.  The fern tables are only read, allowing several threads to look up
+	 * regions at the same time as long as each one has its own interpolation and offsets instance.
+	 *
+	 * @param info (Input) Location/Rectangle (output) P and N values
+	 * @param interpolate Interpolation used to sample the image. Must reference the same image.
+	 * @param offsets Storage for offsets used by integer sampling.
+	 * @return true if a known value for any of the ferns was observed in this region
+	 */
+	public boolean lookupFernPN( TldRegionFernInfo info , InterpolatePixelS<T> interpolate ,
+								 TldFernSampleOffsets offsets ) {
 
 		ImageRectangle r = info.r;
 
@@ -185,13 +217,12 @@ public class TldFernClassifier<T extends ImageGray<T>> {
 		for( int i = 0; i < ferns.length; i++ ) {
 			TldFernDescription fern = ferns[i];
 
-			int value = computeFernValue(c_x, c_y, rectWidth, rectHeight, fern);
+			int value = integerSampling ? computeFernValue(offsets, r, i) :
+					computeFernValue(interpolate, c_x, c_y, rectWidth, rectHeight, fern);
 
-			TldFernFeature f = managers[i].table[value];
-			if( f != null ) {
-				sumP += f.numP;
-				sumN += f.numN;
-			}
+			int[] table = managers[i].table;
+			sumP += table[value*2];
+			sumN += table[value*2+1];
 		}
 
 		info.sumP = sumP;
@@ -204,6 +235,14 @@ public class TldFernClassifier<T extends ImageGray<T>> {
 	 * Computes the value of the specified fern at the specified location in the image.
 	 */
 	protected int computeFernValue(float c_x, float c_y, float rectWidth , float rectHeight , TldFernDescription fern ) {
+		return computeFernValue(interpolate, c_x, c_y, rectWidth, rectHeight, fern);
+	}
+
+	/**
+	 * Computes the value of the specified fern at the specified location using the provided interpolation.
+	 */
+	protected int computeFernValue(InterpolatePixelS<T> interpolate ,
+								   float c_x, float c_y, float rectWidth , float rectHeight , TldFernDescription fern ) {
 
 		rectWidth -= 1;
 		rectHeight -= 1;
@@ -226,6 +265,101 @@ public class TldFernClassifier<T extends ImageGray<T>> {
 		return desc;
 	}
 
+	/**
+	 * Computes the value of the specified fern by reading the pixel nearest to each sample point.  If the region
+	 * is entirely inside the image then the pixels are found using precomputed offsets.
+	 *
+	 * @param offsets Storage for precomputed offsets.  Updated if the region's shape has changed.
+	 * @param r Region the fern is computed inside of
+	 * @param fernIndex Index of the fern
+	 */
+	protected int computeFernValue( TldFernSampleOffsets offsets , ImageRectangle r , int fernIndex ) {
+		offsets.configure(ferns, r.getWidth(), r.getHeight(), image.stride);
+
+		int start = fernIndex*offsets.numPairs;
+		int end = start + offsets.numPairs;
+
+		int desc = 0;
+		if( r.x0 >= 0 && r.y0 >= 0 && r.x1 <= image.width && r.y1 <= image.height ) {
+			int base = image.startIndex + r.y0*image.stride + r.x0;
+			int[] offsetA = offsets.offsetA;
+			int[] offsetB = offsets.offsetB;
+
+			if( image instanceof GrayU8 ) {
+				byte[] data = ((GrayU8)image).data;
+				for( int i = start; i < end; i++ ) {
+					desc *= 2;
+					if( (data[base + offsetA[i]] & 0xFF) < (data[base + offsetB[i]] & 0xFF) ) {
+						desc += 1;
+					}
+				}
+			} else {
+				float[] data = ((GrayF32)image).data;
+				for( int i = start; i < end; i++ ) {
+					desc *= 2;
+					if( data[base + offsetA[i]] < data[base + offsetB[i]] ) {
+						desc += 1;
+					}
+				}
+			}
+		} else {
+			for( int i = start; i < end; i++ ) {
+				float valA = getPixel(r.x0 + offsets.ax[i], r.y0 + offsets.ay[i]);
+				float valB = getPixel(r.x0 + offsets.bx[i], r.y0 + offsets.by[i]);
+
+				desc *= 2;
+
+				if( valA < valB ) {
+					desc += 1;
+				}
+			}
+		}
+
+		return desc;
+	}
+
+	/**
+	 * Computes the value of a fern using integer sampling after adding noise to the image being sampled.
+	 */
+	protected int computeFernValueRand( TldFernSampleOffsets offsets , ImageRectangle r , int fernIndex ) {
+		offsets.configure(ferns, r.getWidth(), r.getHeight(), image.stride);
+
+		int start = fernIndex*offsets.numPairs;
+		int end = start + offsets.numPairs;
+
+		int desc = 0;
+		for( int i = start; i < end; i++ ) {
+			float valA = getPixel(r.x0 + offsets.ax[i], r.y0 + offsets.ay[i]);
+			float valB = getPixel(r.x0 + offsets.bx[i], r.y0 + offsets.by[i]);
+
+			valA += rand.nextGaussian()*fernLearnNoise;
+			valB += rand.nextGaussian()*fernLearnNoise;
+
+			desc *= 2;
+
+			if( valA < valB ) {
+				desc += 1;
+			}
+		}
+
+		return desc;
+	}
+
+	/**
+	 * Returns the value of the pixel.  Coordinates outside the image are moved to the closest pixel inside.
+	 */
+	private float getPixel( int x , int y ) {
+		if( x < 0 ) x = 0;
+		else if( x >= image.width ) x = image.width-1;
+		if( y < 0 ) y = 0;
+		else if( y >= image.height ) y = image.height-1;
+
+		if( image instanceof GrayU8 )
+			return ((GrayU8)image).unsafe_get(x,y);
+		else
+			return ((GrayF32)image).unsafe_get(x,y);
+	}
+
 	/**
 	 * Computes the value of a fern after adding noise to the image being sampled.
 	 */
@@ -262,13 +396,7 @@ public class TldFernClassifier<T extends ImageGray<T>> {
 		int targetMax = maxP/20;
 
 		for( int i = 0; i < managers.length; i++ ) {
-			TldFernManager m = managers[i];
-			for( int j = 0; j < m.table.length; j++ ) {
-				TldFernFeature f = m.table[j];
-				if( f == null )
-					continue;
-				f.numP = targetMax*f.numP/maxP;
-			}
+			managers[i].rescaleP(targetMax,maxP);
 		}
 		maxP = targetMax;
 	}
@@ -280,17 +408,23 @@ public class TldFernClassifier<T extends ImageGray<T>> {
 		int targetMax = maxN/20;
 
 		for( int i = 0; i < managers.length; i++ ) {
-			TldFernManager m = managers[i];
-			for( int j = 0; j < m.table.length; j++ ) {
-				TldFernFeature f = m.table[j];
-				if( f == null )
-					continue;
-				f.numN = targetMax*f.numN/maxN;
-			}
+			managers[i].rescaleN(targetMax,maxN);
 		}
 		maxN = targetMax;
 	}
 
+	/**
+	 * If true the nearest pixel will be sampled using precomputed offsets instead of interpolation.  Must be
+	 * set before learning since fern values computed with different sampling methods are not compatible.
+	 */
+	public void setIntegerSampling( boolean integerSampling ) {
+		this.integerSampling = integerSampling;
+	}
+
+	public boolean isIntegerSampling() {
+		return integerSampling;
+	}
+
 	public int getMaxP() {
 		return maxP;
 	}
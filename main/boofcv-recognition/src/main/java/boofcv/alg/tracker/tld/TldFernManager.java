@@ -18,21 +18,20 @@
 
 package boofcv.alg.tracker.tld;
 
-import java.util.Stack;
+import java.util.Arrays;
 
 /**
- * Lookup table for ferns. An array is used to look up each fern by value.  The recommend descriptor size in the
+ * Lookup table for ferns. The number of times the P and N constraint has been applied to each fern value is
+ * stored in a single array of primitives, indexed by the fern's value.  The P and N counts for a value are
+ * adjacent, so a lookup only touches one location in memory.  The recommend descriptor size in the
  * paper is 10 bits, which results in a reasonably sized table.
  *
  * @author Peter Abeles
  */
 public class TldFernManager {
 
-	// lookup table for ferns.  The value of the fern is an element in the table
-	TldFernFeature table[];
-
-	// storage for unused ferns which can be recycled
-	Stack<TldFernFeature> unusedFern = new Stack<>();
+	// lookup table for ferns.  Element 2*value is the P count and 2*value+1 is the N count
+	int table[];
 
 	/**
 	 * Configures the manager
@@ -42,56 +41,88 @@ public class TldFernManager {
 	public TldFernManager(int descriptorSize) {
 		int N = 1 << descriptorSize;
 
-		table = new TldFernFeature[N];
+		table = new int[2*N];
 	}
 
 	/**
-	 * Looks up the fern with the specified value.  If non exist a new one is created and returned.
+	 * Increments the number of times the P-constraint has been applied to the fern value
 	 * @param value The fern's value
-	 * @return The fern associated with that value
+	 * @return The new count
 	 */
-	public TldFernFeature lookupFern( int value ) {
-		TldFernFeature found = table[value];
-		if( found == null ) {
-			found = createFern();
-			found.init(value);
-			table[value] = found;
-		}
-		return found;
+	public int incrementP( int value ) {
+		return ++table[value*2];
+	}
+
+	/**
+	 * Increments the number of times the N-constraint has been applied to the fern value
+	 * @param value The fern's value
+	 * @return The new count
+	 */
+	public int incrementN( int value ) {
+		return ++table[value*2+1];
+	}
+
+	/**
+	 * Number of times the P-constraint has been applied to the fern value
+	 */
+	public int getNumP( int value ) {
+		return table[value*2];
+	}
+
+	/**
+	 * Number of times the N-constraint has been applied to the fern value
+	 */
+	public int getNumN( int value ) {
+		return table[value*2+1];
 	}
 
 	/**
-	 * Looks up the posterior probability of the specified fern.  If a fern is found its posterior is returned
-	 * otherwise -1 is returned.
+	 * Looks up the posterior probability of the specified fern, P/(P+N).  If the fern value has never been
+	 * observed then 0 is returned.
 	 *
 	 * NOTE: How unknown values are handled is a deviation from the paper.
 	 *
 	 * @param value The fern's value
-	 * @return Fern's posterior probability.  If the value is known then return -1
+	 * @return Fern's posterior probability.
 	 */
 	public double lookupPosterior( int value ) {
-		TldFernFeature found = table[value];
-		if( found == null ) {
+		int numP = table[value*2];
+		int numN = table[value*2+1];
+		if( numP == 0 && numN == 0 ) {
 			return 0;
 		}
-		return found.posterior;
+		return numP/(double)(numN + numP);
 	}
 
-	public void reset() {
-		for( int i = 0; i < table.length; i++ ) {
-			TldFernFeature f = table[i];
-			if( f != null ) {
-				unusedFern.add(f);
-				table[i] = null;
-			}
+	/**
+	 * Multiplies all the P counts by the numerator and divides by the denominator.  Used to avoid overflow.
+	 */
+	public void rescaleP( int numerator , int denominator ) {
+		for( int i = 0; i < table.length; i += 2 ) {
+			table[i] = numerator*table[i]/denominator;
 		}
 	}
 
-	protected TldFernFeature createFern() {
-		if( unusedFern.size() > 0 ) {
-			return unusedFern.pop();
+	/**
+	 * Multiplies all the N counts by the numerator and divides by the denominator.  Used to avoid overflow.
+	 */
+	public void rescaleN( int numerator , int denominator ) {
+		for( int i = 1; i < table.length; i += 2 ) {
+			table[i] = numerator*table[i]/denominator;
 		}
-		return new TldFernFeature();
 	}
 
+	/**
+	 * Discards all the counts
+	 */
+	public void reset() {
+		Arrays.fill(table,0);
+	}
+
+	/**
+	 * Number of possible fern values
+	 */
+	public int getNumValues() {
+		return table.length/2;
+	}
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.tracker.tld;
+
+import georegression.struct.point.Point2D_F32;
+
+/**
+ * Precomputed integer locations of the points sampled by each fern inside a window of a specific size.  All the
+ * windows at the same scale in the detection cascade have the same size, so each sample can be found by adding
+ * an offset to the index of the window's top-left pixel instead of interpolating the image.  Sample points are
+ * rounded to the nearest pixel and always lie inside the window.
+ *
+ * @author Peter Abeles
+ */
+public class TldFernSampleOffsets {
+
+	// shape of the window and the image's stride which the offsets were computed for
+	int width = -1;
+	int height = -1;
+	int stride = -1;
+
+	// number of pairs in each fern
+	int numPairs;
+
+	// location of each point relative to the window's top-left corner.  index = fern*numPairs + pair
+	int[] ax = new int[0], ay = new int[0];
+	int[] bx = new int[0], by = new int[0];
+
+	// offset of each point relative to the index of the window's top-left pixel
+	int[] offsetA = new int[0];
+	int[] offsetB = new int[0];
+
+	/**
+	 * Computes the offsets if the window shape or stride has changed
+	 *
+	 * @param ferns Description of each fern
+	 * @param width Window width
+	 * @param height Window height
+	 * @param stride Image's stride
+	 */
+	public void configure( TldFernDescription[] ferns , int width , int height , int stride ) {
+		if( this.width == width && this.height == height && this.stride == stride )
+			return;
+
+		this.width = width;
+		this.height = height;
+		this.stride = stride;
+
+		numPairs = ferns[0].pairs.length;
+		int N = ferns.length*numPairs;
+		if( offsetA.length != N ) {
+			ax = new int[N]; ay = new int[N];
+			bx = new int[N]; by = new int[N];
+			offsetA = new int[N];
+			offsetB = new int[N];
+		}
+
+		// same scaling as used with interpolation, but relative to the top-left corner
+		float w = width-1;
+		float h = height-1;
+
+		int index = 0;
+		for( int i = 0; i < ferns.length; i++ ) {
+			TldFernDescription.SamplePair[] pairs = ferns[i].pairs;
+			for( int j = 0; j < pairs.length; j++ , index++ ) {
+				Point2D_F32 a = pairs[j].a;
+				Point2D_F32 b = pairs[j].b;
+
+				ax[index] = round(w*(0.5f + a.x), width);
+				ay[index] = round(h*(0.5f + a.y), height);
+				bx[index] = round(w*(0.5f + b.x), width);
+				by[index] = round(h*(0.5f + b.y), height);
+
+				offsetA[index] = ay[index]*stride + ax[index];
+				offsetB[index] = by[index]*stride + bx[index];
+			}
+		}
+	}
+
+	/**
+	 * Rounds to the nearest integer and ensures it's inside the window
+	 */
+	private static int round( float value , int length ) {
+		int v = (int)(value + 0.5f);
+		if( v < 0 )
+			return 0;
+		if( v >= length )
+			return length-1;
+		return v;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+}
@@ -133,6 +133,27 @@ public class TldParameters {
 	 */
 	public int scaleSpread = 10;
 
+	/**
+	 * If true then ferns sample the pixel nearest to each point using offsets which are precomputed for each
+	 * window size, instead of using interpolation.  Faster but less accurate.  Only GrayU8 and GrayF32
+	 * images are supported.
+	 */
+	public boolean fernIntegerSampling = false;
+
+	/**
+	 * If true the detection cascade is run on multiple threads.  Results are identical to the single threaded
+	 * algorithm.
+	 */
+	public boolean concurrent = false;
+
+	/**
+	 * If more than zero and the KLT tracker successfully updated the target's location, then the detection cascade
+	 * is only run on regions whose center is within this distance of the predicted center.  The distance is
+	 * relative to the larger side of the predicted region.  Reduces computations but the target can't be found if
+	 * it moved further away while the tracker still reported success.  Set to zero to search the entire image.
+	 */
+	public double localSearchRadius = 0;
+
 	/**
 	 * Basic parameters for tracker.  KltConfig.createDefault() with maxIterations = 50 is suggested.
 	 */
@@ -127,6 +127,14 @@ public class TldTemplateMatching<T extends ImageGray<T>> {
 	 * Computes the NCC descriptor by sample points at evenly spaced distances inside the rectangle
 	 */
 	public void computeNccDescriptor( NccFeature f , float x0 , float y0 , float x1 , float y1 ) {
+		computeNccDescriptor(interpolate, f, x0, y0, x1, y1);
+	}
+
+	/**
+	 * Computes the NCC descriptor using the provided interpolation to sample the image
+	 */
+	public void computeNccDescriptor( InterpolatePixelS<T> interpolate ,
+									  NccFeature f , float x0 , float y0 , float x1 , float y1 ) {
 		double mean = 0;
 		float widthStep = (x1-x0)/15.0f;
 		float heightStep = (y1-y0)/15.0f;
@@ -177,8 +185,22 @@ public class TldTemplateMatching<T extends ImageGray<T>> {
 	 * @return value from 0 to 1, where higher values are more confident
 	 */
 	public double computeConfidence( int x0 , int y0 , int x1 , int y1 ) {
+		return computeConfidence(interpolate, observed, x0, y0, x1, y1);
+	}
+
+	/**
+	 * Same as {@link #computeConfidence(int, int, int, int)} but the caller provides the interpolation and
+	 * storage for the observed descriptor.  The templates are only read, so several threads can compute
+	 * the confidence of different regions at the same time if each one has its own interpolation and storage.
+	 *
+	 * @param interpolate Interpolation used to sample the image. Must reference the same image.
+	 * @param observed Storage for the descriptor of the region.  Modified.
+	 * @return value from 0 to 1, where higher values are more confident
+	 */
+	public double computeConfidence( InterpolatePixelS<T> interpolate , NccFeature observed ,
+									 int x0 , int y0 , int x1 , int y1 ) {
 
-		computeNccDescriptor(observed,x0,y0,x1,y1);
+		computeNccDescriptor(interpolate,observed,x0,y0,x1,y1);
 
 		// distance from each set of templates
 		if( templateNegative.size() > 0 && templatePositive.size() > 0 ) {
@@ -29,6 +29,8 @@ import boofcv.struct.pyramid.PyramidDiscrete;
 import georegression.struct.shapes.Rectangle2D_F64;
 import org.ddogleg.struct.FastQueue;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -77,6 +79,8 @@ public class TldTracker<T extends ImageGray<T>, D extends ImageGray<D>> {
 
 	// Region used inside detection cascade
 	private FastQueue<ImageRectangle> cascadeRegions = new FastQueue<>(ImageRectangle.class, true);
+	// Regions near the tracker's prediction.  Used when the local search is enabled
+	private FastQueue<ImageRectangle> localRegions = new FastQueue<>(ImageRectangle.class, true);
 
 	// Image pyramid of input image
 	private PyramidDiscrete<T> imagePyramid;
@@ -118,6 +122,20 @@ public class TldTracker<T extends ImageGray<T>, D extends ImageGray<D>> {
 	public TldTracker( TldParameters config ,
 					   InterpolatePixelS<T> interpolate , ImageGradient<T,D> gradient ,
 					   Class<T> imageType , Class<D> derivType) {
+		this(config, Collections.singletonList(interpolate), gradient, imageType, derivType);
+	}
+
+	/**
+	 * Configures the TLD tracker.  If {@link TldParameters#concurrent} is true then the detection cascade
+	 * uses one thread for each interpolation instance.  The first instance is also used by the fern and
+	 * template classifiers.
+	 *
+	 * @param config Configuration class which specifies the tracker's behavior
+	 * @param interpolate List of interpolation instances.  Each element must be a different instance.
+	 */
+	public TldTracker( TldParameters config ,
+					   List<InterpolatePixelS<T>> interpolate , ImageGradient<T,D> gradient ,
+					   Class<T> imageType , Class<D> derivType) {
 		this.config = config;
 
 		Random rand = new Random(config.randomSeed);
@@ -128,11 +146,15 @@ public class TldTracker<T extends ImageGray<T>, D extends ImageGray<D>> {
 				config.maximumErrorFB, gradient, tracker, imageType, derivType);
 		adjustRegion = new TldAdjustRegion(config.motionIterations);
 		variance = new TldVarianceFilter<>(imageType);
-		template = new TldTemplateMatching<>(interpolate);
+		template = new TldTemplateMatching<>(interpolate.get(0));
 		fern = new TldFernClassifier<>(
-				rand, config.numFerns, config.fernSize, 20, 0.5f, interpolate);
+				rand, config.numFerns, config.fernSize, 20, 0.5f, interpolate.get(0));
+		fern.setIntegerSampling(config.fernIntegerSampling);
 
-		detection = new TldDetection<>(fern, template, variance, config);
+		if( config.concurrent )
+			detection = new TldDetectionConcurrent<>(fern, template, variance, config, interpolate);
+		else
+			detection = new TldDetection<>(fern, template, variance, config);
 		learning = new TldLearning<>(rand, config, template, variance, fern, detection);
 	}
 
@@ -167,6 +189,7 @@ public class TldTracker<T extends ImageGray<T>, D extends ImageGray<D>> {
 		variance.setImage(image);
 		template.setImage(image);
 		fern.setImage(image);
+		detection.setImage(image);
 		adjustRegion.init(image.width,image.height);
 
 		learning.initialLearning(targetRegion, cascadeRegions);
@@ -264,6 +287,7 @@ public class TldTracker<T extends ImageGray<T>, D extends ImageGray<D>> {
 		template.setImage(image);
 		variance.setImage(image);
 		fern.setImage(image);
+		detection.setImage(image);
 
 		if( reacquiring ) {
 			// It can reinitialize if there is a single detection
@@ -285,14 +309,20 @@ public class TldTracker<T extends ImageGray<T>, D extends ImageGray<D>> {
 				success = false;
 			}
 		} else {
-			detection.detectionCascade(cascadeRegions);
-
 			// update the previous track region using the tracker
 			trackerRegion.set(targetRegion);
 			boolean trackingWorked = tracking.process(imagePyramid, trackerRegion);
 			trackingWorked &= adjustRegion.process(tracking.getPairs(), trackerRegion);
 			TldHelperFunctions.convertRegion(trackerRegion, trackerRegion_I32);
 
+			// detection doesn't depend on the tracker, unless the search is limited to the predicted location
+			if( trackingWorked && config.localSearchRadius > 0 ) {
+				selectLocalRegions(trackerRegion);
+				detection.detectionCascade(localRegions);
+			} else {
+				detection.detectionCascade(cascadeRegions);
+			}
+
 			if( hypothesisFusion( trackingWorked , detection.isSuccess() ) ) {
 				// if it found a hypothesis and it is valid for learning, then learn
 				if( valid && performLearning ) {
@@ -313,6 +343,27 @@ public class TldTracker<T extends ImageGray<T>, D extends ImageGray<D>> {
 		return success;
 	}
 
+	/**
+	 * Selects cascade regions with a center close to the center of the predicted region
+	 */
+	private void selectLocalRegions( Rectangle2D_F64 predicted ) {
+		localRegions.reset();
+
+		double radius = config.localSearchRadius*Math.max(predicted.getWidth(),predicted.getHeight());
+		// work with twice the center to avoid divisions
+		double cx2 = predicted.p0.x + predicted.p1.x;
+		double cy2 = predicted.p0.y + predicted.p1.y;
+		double radius2 = 2*radius;
+
+		for( int i = 0; i < cascadeRegions.size; i++ ) {
+			ImageRectangle r = cascadeRegions.get(i);
+
+			if( Math.abs(r.x0 + r.x1 - cx2) <= radius2 && Math.abs(r.y0 + r.y1 - cy2) <= radius2 ) {
+				localRegions.grow().set(r);
+			}
+		}
+	}
+
 	private void checkNewTrackStrong( double confidence ) {
 		// see if there is very high confidence of a match
 		strongMatch = confidence > config.confidenceThresholdStrong;
@@ -19,6 +19,8 @@
 package boofcv.deepboof;
 
 import boofcv.abst.scene.ImageClassifier;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectTask;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.ImageType;
 import boofcv.struct.image.Planar;
@@ -26,6 +28,7 @@ import deepboof.Function;
 import deepboof.graph.FunctionSequence;
 import deepboof.tensors.Tensor_F32;
 import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_I32;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -33,7 +36,19 @@ import java.util.Comparator;
 import java.util.List;
 
 /**
+ * <p>
  * Base class for ImageClassifiers which implements common elements
+ * </p>
+ *
+ * <p>
+ * Multiple images can be classified at once with {@link #classifyBatch(List)}.  The images are preprocessed in
+ * parallel, with each thread using its own instance created by {@link #createPreprocessor()}, and are then
+ * passed through the network in a single mini-batch tensor.
+ * </p>
+ *
+ * <p>
+ * For CPU deployments the network can be converted to use 8-bit integers with {@link #quantize(List)}.
+ * </p>
  *
  * @author Peter Abeles
  */
@@ -63,6 +78,20 @@ public abstract class BaseImageClassifier implements ImageClassifier<Planar<Gray
 	protected FastQueue<Score> categoryScores = new FastQueue<>(Score.class,true);
 	protected int categoryBest;
 
+	// Storage for batch processing
+	protected Tensor_F32 tensorInputBatch = new Tensor_F32();
+	protected Tensor_F32 tensorOutputBatch = new Tensor_F32();
+	protected FastQueue<FastQueue<Score>> batchScores = new FastQueue<FastQueue<Score>>((Class)FastQueue.class,true) {
+		@Override
+		protected FastQueue<Score> createInstance() {
+			return new FastQueue<>(Score.class,true);
+		}
+	};
+	protected GrowQueue_I32 batchBest = new GrowQueue_I32();
+
+	// Used to preprocess images in parallel. Created when first needed
+	protected FastQueue<BaseImageClassifier> preprocessors;
+
 	Comparator<Score> comparator = new Comparator<Score>() {
 		@Override
 		public int compare(Score o1, Score o2) {
@@ -98,6 +127,92 @@ public abstract class BaseImageClassifier implements ImageClassifier<Planar<Gray
 		innerProcess(tensorInput);
 	}
 
+	/**
+	 * Classifies multiple images at once.  The images are preprocessed in parallel then processed by the network
+	 * as a single mini-batch.  Results are accessed through {@link #getBatchBest(int)} and
+	 * {@link #getBatchResults(int)}.
+	 *
+	 * @param images Images being processed.  Must be RGB images.  Pixel values must have values from 0 to 255.
+	 */
+	public void classifyBatch( final List<Planar<GrayF32>> images ) {
+		final int N = images.size();
+		tensorInputBatch.reshape(N,3,imageSize,imageSize);
+
+		if( preprocessors == null ) {
+			preprocessors = new FastQueue<BaseImageClassifier>(1,BaseImageClassifier.class,true) {
+				@Override
+				protected BaseImageClassifier createInstance() {
+					return createPreprocessor();
+				}
+			};
+		}
+
+		// each image is written into its own region of the tensor, so this can be done in parallel
+		BoofConcurrency.loopBlocks(0, N, preprocessors, new IntRangeObjectTask<BaseImageClassifier>() {
+			@Override
+			public void process(BaseImageClassifier worker, int idx0, int idx1) {
+				for (int i = idx0; i < idx1; i++) {
+					DataManipulationOps.imageToTensor(worker.preprocess(images.get(i)),tensorInputBatch,i);
+				}
+			}
+		});
+
+		tensorOutputBatch.reshape(N,tensorOutput.length(1));
+		network.process(tensorInputBatch,tensorOutputBatch);
+
+		batchScores.reset();
+		batchBest.reset();
+		for (int i = 0; i < N; i++) {
+			batchBest.add(extractScores(tensorOutputBatch,i,batchScores.grow()));
+		}
+	}
+
+	/**
+	 * Converts the network's convolution and fully connected layers into 8-bit integer layers.  This reduces
+	 * the memory used by their weights to about 1/4 and can improve speed.  The network must be loaded first.
+	 *
+	 * @see QuantizeNetwork_F32
+	 *
+	 * @param calibration Sample images used to determine the range of values for each layer.  Should
+	 *                    be representative of the images which will be classified.
+	 * @return Comparison of the original and quantized network's output on the calibration images.  Not a
+	 * held-out measurement.
+	 */
+	public QuantizeNetwork_F32.Report quantize( List<Planar<GrayF32>> calibration ) {
+		List<Tensor_F32> inputs = imagesToTensors(calibration);
+		return new QuantizeNetwork_F32().process(network,inputs,inputs);
+	}
+
+	/**
+	 * Same as {@link #quantize(List)} but the quantized network is compared against the original network
+	 * using a different set of images.
+	 *
+	 * @param calibration Sample images used to determine the range of values for each layer.
+	 * @param evaluation Images used to compare the original and quantized network.
+	 * @return Comparison of the original and quantized network's output on the evaluation images
+	 */
+	public QuantizeNetwork_F32.Report quantize( List<Planar<GrayF32>> calibration ,
+												List<Planar<GrayF32>> evaluation ) {
+		return new QuantizeNetwork_F32().process(network,imagesToTensors(calibration),imagesToTensors(evaluation));
+	}
+
+	private List<Tensor_F32> imagesToTensors( List<Planar<GrayF32>> images ) {
+		Tensor_F32 input = new Tensor_F32(images.size(),3,imageSize,imageSize);
+		for (int i = 0; i < images.size(); i++) {
+			DataManipulationOps.imageToTensor(preprocess(images.get(i)),input,i);
+		}
+		List<Tensor_F32> inputs = new ArrayList<>();
+		inputs.add(input);
+		return inputs;
+	}
+
+	/**
+	 * Creates a new instance which can be used to preprocess images on a different thread.  It must
+	 * reference the same normalization parameters as this instance but have its own internal workspace.  The
+	 * network is not used and doesn't need to be copied.
+	 */
+	protected abstract BaseImageClassifier createPreprocessor();
+
 	/**
 	 * Massage the input image into a format recognized by the network
 	 */
@@ -118,21 +233,35 @@ public abstract class BaseImageClassifier implements ImageClassifier<Planar<Gray
 		// process the tensor
 		network.process(tensorInput,tensorOutput);
 
+		categoryBest = extractScores(tensorOutput,0,categoryScores);
+	}
+
+	/**
+	 * Copies the scores for an image out of the output tensor and sorts them
+	 *
+	 * @param output Output tensor from the network
+	 * @param batch Which image in the mini-batch
+	 * @param scores (Output) Scores ordered from most to least likely
+	 * @return The best category
+	 */
+	protected int extractScores( Tensor_F32 output , int batch , FastQueue<Score> scores ) {
 		// now find the best score and sort them
-		categoryScores.reset();
+		scores.reset();
 		double scoreBest = -Double.MAX_VALUE;
-		categoryBest = -1;
-		for (int category = 0; category < tensorOutput.length(1); category++) {
-			double score = tensorOutput.get(0,category);
-			categoryScores.grow().set(score,category);
+		int best = -1;
+		for (int category = 0; category < output.length(1); category++) {
+			double score = output.get(batch,category);
+			scores.grow().set(score,category);
 			if( score > scoreBest ) {
 				scoreBest = score;
-				categoryBest = category;
+				best = category;
 			}
 		}
 
 		// order the categories by most to least likely
-		Collections.sort(categoryScores.toList(),comparator);
+		Collections.sort(scores.toList(),comparator);
+
+		return best;
 	}
 
 	@Override
@@ -145,6 +274,27 @@ public abstract class BaseImageClassifier implements ImageClassifier<Planar<Gray
 		return categoryScores.toList();
 	}
 
+	/**
+	 * The best category for an image in the last batch
+	 */
+	public int getBatchBest( int index ) {
+		return batchBest.get(index);
+	}
+
+	/**
+	 * All the scores for an image in the last batch, ordered from most to least likely
+	 */
+	public List<Score> getBatchResults( int index ) {
+		return batchScores.get(index).toList();
+	}
+
+	/**
+	 * Number of images in the last batch
+	 */
+	public int getBatchSize() {
+		return batchBest.size;
+	}
+
 	@Override
 	public List<String> getCategories() {
 		return categories;
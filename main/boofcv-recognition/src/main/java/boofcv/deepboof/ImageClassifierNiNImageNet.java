@@ -86,6 +86,14 @@ public class ImageClassifierNiNImageNet extends BaseImageClassifier {
 		}
 	}
 
+	@Override
+	protected BaseImageClassifier createPreprocessor() {
+		ImageClassifierNiNImageNet alg = new ImageClassifierNiNImageNet();
+		alg.mean = mean;
+		alg.stdev = stdev;
+		return alg;
+	}
+
 	private float[] torchListToArray( TorchList torch ) {
 		float []ret = new float[ torch.list.size()];
 
@@ -79,4 +79,9 @@ public class ImageClassifierResNet extends BaseImageClassifier {
 
 		System.out.println("Bread here");
 	}
+
+	@Override
+	protected BaseImageClassifier createPreprocessor() {
+		return new ImageClassifierResNet(resnetID);
+	}
 }
@@ -52,6 +52,7 @@ public class ImageClassifierVggCifar10 extends BaseImageClassifier {
 	Planar<GrayF32> imageYuv = new Planar<>(GrayF32.class,inputSize,inputSize,3);
 
 	ImageLocalNormalization<GrayF32> localNorm;
+	BorderType borderType;
 	YuvStatistics stats;
 	Kernel1D_F32 kernel;
 
@@ -79,11 +80,21 @@ public class ImageClassifierVggCifar10 extends BaseImageClassifier {
 		network = sequence.createForward(3,inputSize,inputSize);
 		tensorOutput = new Tensor_F32(WI(1,network.getOutputShape()));
 
-		BorderType type = BorderType.valueOf(stats.border);
-		localNorm = new ImageLocalNormalization<>(GrayF32.class, type);
+		borderType = BorderType.valueOf(stats.border);
+		localNorm = new ImageLocalNormalization<>(GrayF32.class, borderType);
 		kernel = DataManipulationOps.create1D_F32(stats.kernel);
 	}
 
+	@Override
+	protected BaseImageClassifier createPreprocessor() {
+		ImageClassifierVggCifar10 alg = new ImageClassifierVggCifar10();
+		alg.stats = stats;
+		alg.kernel = kernel;
+		alg.borderType = borderType;
+		alg.localNorm = new ImageLocalNormalization<>(GrayF32.class, borderType);
+		return alg;
+	}
+
 	@Override
 	protected Planar<GrayF32> preprocess(Planar<GrayF32> image) {
 		super.preprocess(image);
@@ -0,0 +1,344 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.deepboof;
+
+import deepboof.Function;
+import deepboof.forward.SpatialPadding2D_F32;
+import deepboof.graph.FunctionSequence;
+import deepboof.graph.Node;
+import deepboof.impl.forward.standard.FunctionLinear_F32;
+import deepboof.impl.forward.standard.SpatialConvolve2D_F32;
+import deepboof.tensors.Tensor_F32;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static deepboof.misc.TensorOps.WI;
+
+/**
+ * <p>
+ * Post training quantization of a network to 8-bit integers.  Convolution and fully connected layers are replaced
+ * with {@link QuantizedConvolve2D_F32} and {@link QuantizedLinear_F32}, all other layers are left unmodified.
+ * The range of each layer's input is found by processing a set of calibration inputs with the original network.
+ * Afterwards a set of evaluation inputs are processed by the original and quantized network and the results
+ * compared to create a {@link Report}.
+ * </p>
+ *
+ * <p>
+ * If no evaluation inputs are provided then the calibration inputs are used.  In that situation the
+ * report is not a held-out measurement.  The ranges were selected to fit those inputs, so it will tend to
+ * overestimate how well the quantized network performs on new data.
+ * </p>
+ *
+ * <p>
+ * The network is modified in place.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class QuantizeNetwork_F32 {
+
+	/**
+	 * Quantizes the network and evaluates it on the calibration inputs.  The report is NOT a held-out
+	 * measurement.
+	 *
+	 * @see #process(FunctionSequence, List, List)
+	 */
+	public Report process( FunctionSequence<Tensor_F32,Function<Tensor_F32>> network , List<Tensor_F32> calibration ) {
+		return process(network,calibration,calibration);
+	}
+
+	/**
+	 * Quantizes the network.
+	 *
+	 * @param network The network which is to be quantized.  Modified.
+	 * @param calibration Inputs to the network which are used to determine the range of each layer's input.
+	 *                    First dimension is the mini-batch.
+	 * @param evaluation Inputs used to compare the original and quantized network.  Should be different from
+	 *                   the calibration inputs for an unbiased comparison.  First dimension is the mini-batch.
+	 * @return Comparison of the original and quantized network on the evaluation inputs
+	 */
+	public Report process( FunctionSequence<Tensor_F32,Function<Tensor_F32>> network ,
+						   List<Tensor_F32> calibration , List<Tensor_F32> evaluation ) {
+		if( calibration.isEmpty() )
+			throw new IllegalArgumentException("At least one calibration input is required");
+
+		Report report = new Report();
+		report.heldOut = calibration != evaluation;
+
+		// process the evaluation inputs with the original network
+		List<Tensor_F32> expected = new ArrayList<>();
+		for (int i = 0; i < evaluation.size(); i++) {
+			Tensor_F32 input = evaluation.get(i);
+			Tensor_F32 output = new Tensor_F32(WI(input.length(0),network.getOutputShape()));
+			network.process(input,output);
+			expected.add(output);
+		}
+
+		// Wrap each layer which can be quantized so that the range of its input can be found
+		List<Node<Tensor_F32,Function<Tensor_F32>>> nodes = network.getSequence();
+		List<RecordInput> records = new ArrayList<>();
+		for (int i = 0; i < nodes.size(); i++) {
+			Node<Tensor_F32,Function<Tensor_F32>> node = nodes.get(i);
+			if( isSupported(node.function) ) {
+				RecordInput r = new RecordInput(node);
+				node.function = r;
+				records.add(r);
+			}
+		}
+
+		// process the calibration inputs with the original network to find the ranges
+		for (int i = 0; i < calibration.size(); i++) {
+			Tensor_F32 input = calibration.get(i);
+			network.process(input,new Tensor_F32(WI(input.length(0),network.getOutputShape())));
+		}
+
+		// replace the layers with quantized versions
+		for (int i = 0; i < records.size(); i++) {
+			RecordInput r = records.get(i);
+			Function<Tensor_F32> original = r.original;
+			Function<Tensor_F32> quantized;
+			long bytesQuantized;
+			if( original instanceof SpatialConvolve2D_F32 ) {
+				SpatialConvolve2D_F32 conv = (SpatialConvolve2D_F32)original;
+				QuantizedConvolve2D_F32 q = new QuantizedConvolve2D_F32(
+						conv.getConfiguration(),conv.getPadding(),r.maxAbs);
+				q.initialize(r.shape);
+				q.setParameters(conv.getParameters());
+				bytesQuantized = q.getParameterBytes();
+				quantized = q;
+			} else {
+				FunctionLinear_F32 linear = (FunctionLinear_F32)original;
+				// weight has a shape of (outputs,inputs)
+				int numOutputs = linear.getParameterShapes().get(0)[0];
+				QuantizedLinear_F32 q = new QuantizedLinear_F32(numOutputs,r.maxAbs);
+				q.initialize(r.shape);
+				q.setParameters(linear.getParameters());
+				bytesQuantized = q.getParameterBytes();
+				quantized = q;
+			}
+			report.bytesOriginal += parameterBytes(original);
+			report.bytesQuantized += bytesQuantized;
+			report.layersQuantized++;
+			r.node.function = quantized;
+		}
+
+		// compare the quantized results against the original
+		for (int i = 0; i < evaluation.size(); i++) {
+			Tensor_F32 input = evaluation.get(i);
+			Tensor_F32 output = new Tensor_F32(WI(input.length(0),network.getOutputShape()));
+			network.process(input,output);
+			report.compare(expected.get(i),output);
+		}
+
+		return report;
+	}
+
+	/**
+	 * Returns true if the function can be quantized
+	 */
+	public static boolean isSupported( Function<Tensor_F32> function ) {
+		if( function instanceof SpatialConvolve2D_F32 ) {
+			SpatialConvolve2D_F32 conv = (SpatialConvolve2D_F32)function;
+			return conv.getPadding() instanceof SpatialPadding2D_F32 && !conv.getPadding().isClipped();
+		}
+		return function instanceof FunctionLinear_F32;
+	}
+
+	private static long parameterBytes( Function<Tensor_F32> function ) {
+		long total = 0;
+		List<Tensor_F32> parameters = function.getParameters();
+		for (int i = 0; i < parameters.size(); i++) {
+			total += 4L*parameters.get(i).length();
+		}
+		return total;
+	}
+
+	/**
+	 * Computes the scale so that the max absolute value maps to 127
+	 */
+	static float computeScale( float maxAbs ) {
+		return maxAbs > 0 ? maxAbs/127.0f : 1.0f;
+	}
+
+	/**
+	 * Rounds and saturates the value to an 8-bit integer
+	 */
+	static byte quantize( float value ) {
+		int v = Math.round(value);
+		if( v > 127 )
+			return 127;
+		else if( v < -127 )
+			return -127;
+		return (byte)v;
+	}
+
+	/**
+	 * Quantizes the array using a scale which is computed from its max absolute value
+	 *
+	 * @return The scale
+	 */
+	static float quantize( float[] src , int srcIndex , int length , byte[] dst , int dstIndex ) {
+		float maxAbs = 0;
+		for (int i = 0; i < length; i++) {
+			maxAbs = Math.max(maxAbs,Math.abs(src[srcIndex+i]));
+		}
+		float scale = computeScale(maxAbs);
+		quantize(src,srcIndex,length,scale,dst,dstIndex);
+		return scale;
+	}
+
+	/**
+	 * Quantizes the array using the specified scale
+	 */
+	static void quantize( float[] src , int srcIndex , int length , float scale , byte[] dst , int dstIndex ) {
+		float invScale = 1.0f/scale;
+		for (int i = 0; i < length; i++) {
+			dst[dstIndex+i] = quantize(src[srcIndex+i]*invScale);
+		}
+	}
+
+	/**
+	 * Wraps a function and records the shape and maximum absolute value of its input
+	 */
+	private static class RecordInput implements Function<Tensor_F32> {
+		Node<Tensor_F32,Function<Tensor_F32>> node;
+		Function<Tensor_F32> original;
+		int[] shape;
+		float maxAbs;
+
+		RecordInput( Node<Tensor_F32,Function<Tensor_F32>> node ) {
+			this.node = node;
+			this.original = node.function;
+		}
+
+		@Override
+		public void forward(Tensor_F32 input, Tensor_F32 output) {
+			shape = new int[input.getDimension()-1];
+			for (int i = 0; i < shape.length; i++) {
+				shape[i] = input.length(i+1);
+			}
+			int length = input.length();
+			for (int i = 0; i < length; i++) {
+				maxAbs = Math.max(maxAbs,Math.abs(input.d[input.startIndex+i]));
+			}
+			original.forward(input,output);
+		}
+
+		@Override
+		public void initialize(int... shapeInput) {
+			original.initialize(shapeInput);
+		}
+
+		@Override
+		public void setParameters(List<Tensor_F32> parameters) {
+			original.setParameters(parameters);
+		}
+
+		@Override
+		public List<Tensor_F32> getParameters() {
+			return original.getParameters();
+		}
+
+		@Override
+		public List<int[]> getParameterShapes() {
+			return original.getParameterShapes();
+		}
+
+		@Override
+		public int[] getOutputShape() {
+			return original.getOutputShape();
+		}
+
+		@Override
+		public Class<Tensor_F32> getTensorType() {
+			return original.getTensorType();
+		}
+	}
+
+	/**
+	 * Compares the output of the quantized network against the original network.  Only an unbiased estimate
+	 * if {@link #heldOut} is true.
+	 */
+	public static class Report {
+		/** If true the inputs compared were not the calibration inputs */
+		public boolean heldOut;
+		/** Number of layers which were quantized */
+		public int layersQuantized;
+		/** Number of bytes used by the parameters of the quantized layers before quantization */
+		public long bytesOriginal;
+		/** Number of bytes used by the parameters of the quantized layers after quantization */
+		public long bytesQuantized;
+		/** Number of inputs which were compared */
+		public int total;
+		/** Number of inputs where the best category didn't change */
+		public int agree;
+		/** Largest absolute difference in an output score */
+		public double maxError;
+		/** Sum of absolute difference in output scores */
+		public double sumError;
+		/** Number of output scores which were compared */
+		public int totalScores;
+
+		void compare( Tensor_F32 expected , Tensor_F32 found ) {
+			int N = expected.length(0);
+			int M = expected.length()/N;
+			for (int n = 0; n < N; n++) {
+				int bestExpected = -1, bestFound = -1;
+				float scoreExpected = -Float.MAX_VALUE, scoreFound = -Float.MAX_VALUE;
+				for (int i = 0; i < M; i++) {
+					float a = expected.d[expected.startIndex+n*M+i];
+					float b = found.d[found.startIndex+n*M+i];
+					if( a > scoreExpected ) {
+						scoreExpected = a;
+						bestExpected = i;
+					}
+					if( b > scoreFound ) {
+						scoreFound = b;
+						bestFound = i;
+					}
+					double error = Math.abs(a-b);
+					maxError = Math.max(maxError,error);
+					sumError += error;
+					totalScores++;
+				}
+				total++;
+				if( bestExpected == bestFound )
+					agree++;
+			}
+		}
+
+		/** Fraction of inputs where the best category didn't change */
+		public double getAgreement() {
+			return total == 0 ? 0 : agree/(double)total;
+		}
+
+		/** Average absolute difference in output scores */
+		public double getMeanError() {
+			return totalScores == 0 ? 0 : sumError/totalScores;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("layers %d, parameters %d to %d bytes, top-1 agreement %.1f%% of %d %s, " +
+					"score error mean %.4e max %.4e", layersQuantized, bytesOriginal, bytesQuantized,
+					100*getAgreement(), total, heldOut ? "held-out" : "calibration", getMeanError(), maxError);
+		}
+	}
+}
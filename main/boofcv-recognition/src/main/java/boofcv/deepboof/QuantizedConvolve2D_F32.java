@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.deepboof;
+
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeTask;
+import deepboof.Function;
+import deepboof.forward.ConfigConvolve2D;
+import deepboof.forward.SpatialPadding2D_F32;
+import deepboof.tensors.Tensor_F32;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Spatial convolution with 8-bit integer weights and inputs.  Weights are quantized symmetrically with a scale
+ * for each kernel.  The padded input image is quantized once with a scale found during calibration,
+ * see {@link QuantizeNetwork_F32}, then each kernel is convolved using integer arithmetic.  Kernels are
+ * processed in parallel.
+ * </p>
+ *
+ * <p>
+ * Padding which clips the input is not supported.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class QuantizedConvolve2D_F32 implements Function<Tensor_F32> {
+
+	ConfigConvolve2D config;
+	SpatialPadding2D_F32 padding;
+
+	// scale of the input.  value = scale*quantized
+	float inputScale;
+
+	// input shape, padded shape, and output shape
+	int C, H, W;
+	int Hp, Wp;
+	int Ho, Wo;
+
+	// quantized kernels.  F x C x HH x WW
+	byte[] weights = new byte[0];
+	// scale of each kernel
+	float[] weightScale = new float[0];
+	float[] bias = new float[0];
+
+	// quantized padded input for a single image.  C x Hp x Wp
+	byte[] quantInput = new byte[0];
+
+	int[] shapeInput;
+	List<int[]> shapeParameters = new ArrayList<>();
+
+	/**
+	 * Configures the layer
+	 *
+	 * @param config Convolution configuration
+	 * @param padding How the input image is padded
+	 * @param inputMaxAbs Maximum absolute value of the input.  Larger values are saturated.
+	 */
+	public QuantizedConvolve2D_F32( ConfigConvolve2D config , SpatialPadding2D_F32 padding , float inputMaxAbs ) {
+		if( padding.isClipped() )
+			throw new IllegalArgumentException("Clipped padding isn't supported");
+		this.config = config;
+		this.padding = padding;
+		this.inputScale = QuantizeNetwork_F32.computeScale(inputMaxAbs);
+	}
+
+	@Override
+	public void initialize(int... shapeInput) {
+		if( shapeInput.length != 3 )
+			throw new IllegalArgumentException("Expected input shape of (C,H,W)");
+		this.shapeInput = shapeInput.clone();
+		C = shapeInput[0];
+		H = shapeInput[1];
+		W = shapeInput[2];
+		Hp = H + padding.getPaddingRow0() + padding.getPaddingRow1();
+		Wp = W + padding.getPaddingCol0() + padding.getPaddingCol1();
+		Ho = 1 + (Hp - config.HH)/config.periodY;
+		Wo = 1 + (Wp - config.WW)/config.periodX;
+
+		shapeParameters.clear();
+		shapeParameters.add(new int[]{config.F,C,config.HH,config.WW});
+		shapeParameters.add(new int[]{config.F});
+		quantInput = new byte[C*Hp*Wp];
+	}
+
+	@Override
+	public void setParameters(List<Tensor_F32> parameters) {
+		Tensor_F32 w = parameters.get(0);
+		Tensor_F32 b = parameters.get(1);
+
+		int F = config.F;
+		int length = C*config.HH*config.WW;
+		weights = new byte[F*length];
+		weightScale = new float[F];
+		bias = new float[F];
+		for (int i = 0; i < F; i++) {
+			weightScale[i] = QuantizeNetwork_F32.quantize(w.d,w.startIndex+i*length,length,weights,i*length);
+			bias[i] = b.d[b.startIndex+i];
+		}
+	}
+
+	/**
+	 * Returns a floating point approximation of the quantized parameters
+	 */
+	@Override
+	public List<Tensor_F32> getParameters() {
+		int F = config.F;
+		int length = C*config.HH*config.WW;
+		Tensor_F32 w = new Tensor_F32(F,C,config.HH,config.WW);
+		Tensor_F32 b = new Tensor_F32(F);
+		for (int i = 0; i < F; i++) {
+			for (int j = 0; j < length; j++) {
+				w.d[i*length+j] = weights[i*length+j]*weightScale[i];
+			}
+			b.d[i] = bias[i];
+		}
+		List<Tensor_F32> list = new ArrayList<>();
+		list.add(w);
+		list.add(b);
+		return list;
+	}
+
+	@Override
+	public void forward(Tensor_F32 input, final Tensor_F32 output) {
+		int N = input.length(0);
+		if( output.length(0) != N || output.length(1) != config.F ||
+				output.length(2) != Ho || output.length(3) != Wo )
+			throw new IllegalArgumentException("Unexpected output shape");
+
+		padding.setInput(input);
+		for (int n = 0; n < N; n++) {
+			quantizePadded(n);
+
+			final int batch = n;
+			BoofConcurrency.loopBlocks(0, config.F, new IntRangeTask() {
+				@Override
+				public void process(int idx0, int idx1) {
+					for (int f = idx0; f < idx1; f++) {
+						convolve(batch, f, output);
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Quantizes the padded input image
+	 */
+	void quantizePadded( int batch ) {
+		float invScale = 1.0f/inputScale;
+		int index = 0;
+		for (int c = 0; c < C; c++) {
+			for (int y = 0; y < Hp; y++) {
+				for (int x = 0; x < Wp; x++) {
+					quantInput[index++] = QuantizeNetwork_F32.quantize(padding.get(batch,c,y,x)*invScale);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Convolves a single kernel across the quantized image
+	 */
+	void convolve( int batch , int f , Tensor_F32 output ) {
+		final int HH = config.HH, WW = config.WW;
+		final int periodX = config.periodX, periodY = config.periodY;
+		final int kernelLength = C*HH*WW;
+		final int indexKernel = f*kernelLength;
+		final float scale = inputScale*weightScale[f];
+
+		for (int yo = 0; yo < Ho; yo++) {
+			int indexOut = output.idx(batch,f,yo,0);
+			for (int xo = 0; xo < Wo; xo++) {
+				int sum = 0;
+				int indexW = indexKernel;
+				for (int c = 0; c < C; c++) {
+					for (int ky = 0; ky < HH; ky++) {
+						int indexIn = (c*Hp + yo*periodY + ky)*Wp + xo*periodX;
+						for (int kx = 0; kx < WW; kx++) {
+							sum += quantInput[indexIn+kx]*weights[indexW++];
+						}
+					}
+				}
+				output.d[indexOut+xo] = bias[f] + sum*scale;
+			}
+		}
+	}
+
+	@Override
+	public List<int[]> getParameterShapes() {
+		return shapeParameters;
+	}
+
+	@Override
+	public int[] getOutputShape() {
+		return new int[]{config.F,Ho,Wo};
+	}
+
+	@Override
+	public Class<Tensor_F32> getTensorType() {
+		return Tensor_F32.class;
+	}
+
+	/**
+	 * Number of bytes used to store the parameters
+	 */
+	public long getParameterBytes() {
+		return weights.length + 4L*(weightScale.length+bias.length);
+	}
+}
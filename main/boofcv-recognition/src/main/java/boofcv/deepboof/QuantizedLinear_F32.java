@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.deepboof;
+
+import deepboof.Function;
+import deepboof.misc.TensorOps;
+import deepboof.tensors.Tensor_F32;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Fully connected layer with 8-bit integer weights and inputs.  Weights are quantized symmetrically with a scale
+ * for each output.  The input is quantized with a single scale which is found during calibration, see
+ * {@link QuantizeNetwork_F32}.  Dot products are computed using integer arithmetic then converted back into
+ * floating point and the bias added.  Weights take up 1/4 the memory of the equivalent float layer.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class QuantizedLinear_F32 implements Function<Tensor_F32> {
+
+	// number of outputs
+	int M;
+	// number of inputs
+	int D;
+
+	// scale of the input.  value = scale*quantized
+	float inputScale;
+
+	// quantized weights. M rows and D columns
+	byte[] weights = new byte[0];
+	// scale of the weights for each output
+	float[] weightScale = new float[0];
+	float[] bias = new float[0];
+
+	// storage for the quantized input
+	byte[] quantInput = new byte[0];
+
+	int[] shapeInput;
+	List<int[]> shapeParameters = new ArrayList<>();
+
+	/**
+	 * Configures the layer
+	 *
+	 * @param numOutputs Number of outputs
+	 * @param inputMaxAbs Maximum absolute value of the input.  Larger values are saturated.
+	 */
+	public QuantizedLinear_F32( int numOutputs , float inputMaxAbs ) {
+		this.M = numOutputs;
+		this.inputScale = QuantizeNetwork_F32.computeScale(inputMaxAbs);
+	}
+
+	@Override
+	public void initialize(int... shapeInput) {
+		this.shapeInput = shapeInput.clone();
+		this.D = TensorOps.tensorLength(shapeInput);
+		shapeParameters.clear();
+		shapeParameters.add(new int[]{M,D});
+		shapeParameters.add(new int[]{M});
+		quantInput = new byte[D];
+	}
+
+	@Override
+	public void setParameters(List<Tensor_F32> parameters) {
+		Tensor_F32 w = parameters.get(0);
+		Tensor_F32 b = parameters.get(1);
+
+		weights = new byte[M*D];
+		weightScale = new float[M];
+		bias = new float[M];
+		for (int i = 0; i < M; i++) {
+			weightScale[i] = QuantizeNetwork_F32.quantize(w.d,w.startIndex+i*D,D,weights,i*D);
+			bias[i] = b.d[b.startIndex+i];
+		}
+	}
+
+	/**
+	 * Returns a floating point approximation of the quantized parameters
+	 */
+	@Override
+	public List<Tensor_F32> getParameters() {
+		Tensor_F32 w = new Tensor_F32(M,D);
+		Tensor_F32 b = new Tensor_F32(M);
+		for (int i = 0; i < M; i++) {
+			for (int j = 0; j < D; j++) {
+				w.d[i*D+j] = weights[i*D+j]*weightScale[i];
+			}
+			b.d[i] = bias[i];
+		}
+		List<Tensor_F32> list = new ArrayList<>();
+		list.add(w);
+		list.add(b);
+		return list;
+	}
+
+	@Override
+	public void forward(Tensor_F32 input, Tensor_F32 output) {
+		int N = input.length(0);
+		if( output.length(0) != N || output.length(1) != M )
+			throw new IllegalArgumentException("Unexpected output shape");
+
+		for (int n = 0; n < N; n++) {
+			QuantizeNetwork_F32.quantize(input.d,input.startIndex+n*D,D,inputScale,quantInput,0);
+
+			int indexOut = output.idx(n,0);
+			for (int i = 0; i < M; i++) {
+				int indexW = i*D;
+				int sum = 0;
+				for (int j = 0; j < D; j++) {
+					sum += quantInput[j]*weights[indexW+j];
+				}
+				output.d[indexOut+i] = bias[i] + sum*inputScale*weightScale[i];
+			}
+		}
+	}
+
+	@Override
+	public List<int[]> getParameterShapes() {
+		return shapeParameters;
+	}
+
+	@Override
+	public int[] getOutputShape() {
+		return new int[]{M};
+	}
+
+	@Override
+	public Class<Tensor_F32> getTensorType() {
+		return Tensor_F32.class;
+	}
+
+	/**
+	 * Number of bytes used to store the parameters
+	 */
+	public long getParameterBytes() {
+		return weights.length + 4L*(weightScale.length+bias.length);
+	}
+}
@@ -23,7 +23,9 @@ import boofcv.abst.tracker.ConfigCirculantTracker;
 import boofcv.abst.tracker.ConfigComaniciu2003;
 import boofcv.alg.interpolate.InterpolatePixelMB;
 import boofcv.alg.interpolate.InterpolatePixelS;
+import boofcv.alg.tracker.circulant.CirculantMultiTracker;
 import boofcv.alg.tracker.circulant.CirculantTracker;
+import boofcv.alg.tracker.circulant.CirculantTracker_F32;
 import boofcv.alg.tracker.meanshift.*;
 import boofcv.alg.tracker.sfot.SfotConfig;
 import boofcv.alg.tracker.sfot.SparseFlowObjectTracker;
@@ -123,6 +125,37 @@ public class FactoryTrackerObjectAlgs {
 				config.maxPixelValue,interp);
 	}
 
+	public static <T extends ImageGray<T>>
+	CirculantTracker_F32<T> circulantF32( ConfigCirculantTracker config , Class<T> imageType) {
+		if( config == null )
+			config = new ConfigCirculantTracker();
+
+		InterpolatePixelS<T> interp = FactoryInterpolation.bilinearPixelS(imageType, BorderType.EXTENDED);
+
+		return new CirculantTracker_F32(
+				(float)config.output_sigma_factor,(float)config.sigma,(float)config.lambda,(float)config.interp_factor,
+				(float)config.padding,
+				config.workSpace,
+				(float)config.maxPixelValue,interp);
+	}
+
+	/**
+	 * Creates a tracker for multiple targets using the circulant tracker
+	 *
+	 * @see CirculantMultiTracker
+	 *
+	 * @param config Configuration for each target's tracker
+	 * @param useF32 If true then single precision trackers are used
+	 * @param imageType Type of input image
+	 */
+	public static <T extends ImageGray<T>>
+	CirculantMultiTracker<T> circulantMulti( ConfigCirculantTracker config , boolean useF32 , Class<T> imageType) {
+		if( config == null )
+			config = new ConfigCirculantTracker();
+
+		return new CirculantMultiTracker<>(config,useF32,imageType);
+	}
+
 	public static <T extends ImageBase<T>>
 	TrackerMeanShiftComaniciu2003<T> meanShiftComaniciu2003(ConfigComaniciu2003 config, ImageType<T> imageType ) {
 
@@ -29,6 +29,7 @@ import boofcv.alg.tracker.meanshift.TrackerMeanShiftLikelihood;
 import boofcv.alg.tracker.sfot.SfotConfig;
 import boofcv.alg.tracker.sfot.SparseFlowObjectTracker;
 import boofcv.alg.tracker.tld.TldTracker;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.core.image.border.BorderType;
 import boofcv.factory.filter.derivative.FactoryDerivative;
 import boofcv.factory.interpolate.FactoryInterpolation;
@@ -36,6 +37,9 @@ import boofcv.struct.image.ImageBase;
 import boofcv.struct.image.ImageGray;
 import boofcv.struct.image.ImageType;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Factory for implementations of {@link TrackerObjectQuad}, a high level interface for tracking user specified
  * objects inside video sequences.  As usual, the high level interface makes it easier to use these algorithms
@@ -60,7 +64,12 @@ public class FactoryTrackerObjectQuad {
 
 		Class<D> derivType = GImageDerivativeOps.getDerivativeType(imageType);
 
-		InterpolatePixelS<T> interpolate = FactoryInterpolation.bilinearPixelS(imageType, BorderType.EXTENDED);
+		// the detection cascade needs an interpolation instance for each thread
+		int numThreads = config.parameters.concurrent ? BoofConcurrency.getMaxThreads() : 1;
+		List<InterpolatePixelS<T>> interpolate = new ArrayList<>();
+		for (int i = 0; i < numThreads; i++) {
+			interpolate.add(FactoryInterpolation.bilinearPixelS(imageType, BorderType.EXTENDED));
+		}
 		ImageGradient<T,D> gradient =  FactoryDerivative.sobel(imageType, derivType);
 
 		TldTracker<T,D> tracker = new TldTracker<>(config.parameters, interpolate, gradient, imageType, derivType);
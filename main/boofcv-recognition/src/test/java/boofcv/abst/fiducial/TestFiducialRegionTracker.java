@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.fiducial;
+
+import boofcv.alg.distort.LensDistortionNarrowFOV;
+import boofcv.alg.distort.radtan.LensDistortionRadialTangential;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.factory.fiducial.ConfigFiducialBinary;
+import boofcv.factory.fiducial.FactoryFiducial;
+import boofcv.factory.filter.binary.ConfigThreshold;
+import boofcv.factory.filter.binary.ThresholdType;
+import boofcv.io.calibration.CalibrationIO;
+import boofcv.io.image.ConvertBufferedImage;
+import boofcv.io.image.UtilImageIO;
+import boofcv.struct.ImageRectangle;
+import boofcv.struct.calib.CameraPinholeRadial;
+import boofcv.struct.image.GrayF32;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageType;
+import georegression.struct.point.Point2D_F64;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestFiducialRegionTracker extends GenericFiducialDetectorChecks {
+
+	public TestFiducialRegionTracker() {
+		types.add( ImageType.single(GrayU8.class));
+		types.add( ImageType.single(GrayF32.class));
+		pixelAndProjectedTol = 1.0;
+	}
+
+	@Override
+	public ImageBase loadImage(ImageType imageType) {
+		BufferedImage out = UtilImageIO.loadImage(getClass().getResource("test_square_binary.jpg"));
+		return ConvertBufferedImage.convertFrom(out,true,imageType);
+	}
+
+	@Override
+	public LensDistortionNarrowFOV loadDistortion(boolean distorted) {
+		CameraPinholeRadial model = CalibrationIO.load(getClass().getResource("intrinsic_binary.yaml"));
+		if( !distorted ) {
+			model.radial = null;
+			model.t1 = model.t2 = 0;
+		}
+		return new LensDistortionRadialTangential(model);
+	}
+
+	@Override
+	public FiducialDetector createDetector(ImageType imageType) {
+		return new FiducialRegionTracker(createSquareBinary(imageType),0.3,10,30);
+	}
+
+	private FiducialDetectorRegions createSquareBinary(ImageType imageType) {
+		return (FiducialDetectorRegions)FactoryFiducial.squareBinary(new ConfigFiducialBinary(0.1),
+				ConfigThreshold.local(ThresholdType.LOCAL_MEAN,6),
+				imageType.getImageClass());
+	}
+
+	/**
+	 * After the first frame only regions should be searched and the results should be the same as processing
+	 * the whole image
+	 */
+	@Test
+	public void sameResultsAsFullImage() {
+		ImageType type = types.get(0);
+		ImageBase image = loadImage(type);
+
+		FiducialDetector expected = createSquareBinary(type);
+		expected.detect(image);
+		assertTrue(expected.totalFound() >= 1);
+
+		FiducialRegionTracker alg = (FiducialRegionTracker)createDetector(type);
+		alg.detect(image);
+		assertTrue(alg.isProcessedFull());
+		alg.detect(image);
+		assertFalse(alg.isProcessedFull());
+		assertTrue(alg.getRegions().size() >= 1);
+
+		// the regions should cover less than the entire image
+		int area = 0;
+		for( Object o : alg.getRegions() ) {
+			area += ((ImageRectangle)o).area();
+		}
+		assertTrue(area < image.width*image.height);
+
+		assertEquals(expected.totalFound(),alg.totalFound());
+		Point2D_F64 a = new Point2D_F64();
+		Point2D_F64 b = new Point2D_F64();
+		for (int i = 0; i < expected.totalFound(); i++) {
+			boolean foundMatch = false;
+			for (int j = 0; j < alg.totalFound(); j++) {
+				if( expected.getId(i) != alg.getId(j))
+					continue;
+				expected.getImageLocation(i,a);
+				alg.getImageLocation(j,b);
+				if( a.distance(b) < 1e-4 )
+					foundMatch = true;
+			}
+			assertTrue(foundMatch);
+		}
+	}
+
+	/**
+	 * If a fiducial isn't found inside its region the entire image should be processed again
+	 */
+	@Test
+	public void fullImageWhenLost() {
+		ImageType type = types.get(0);
+		ImageBase image = loadImage(type);
+
+		FiducialRegionTracker alg = (FiducialRegionTracker)createDetector(type);
+		alg.detect(image);
+		int total = alg.totalFound();
+		assertTrue(total >= 1);
+
+		ImageBase blank = image.createSameShape();
+		GImageMiscOps.fill(blank,255);
+		alg.detect(blank);
+		assertTrue(alg.isProcessedFull());
+		assertEquals(0,alg.totalFound());
+
+		// nothing is being tracked so the entire image is processed
+		alg.detect(image);
+		assertTrue(alg.isProcessedFull());
+		assertEquals(total,alg.totalFound());
+	}
+
+	/**
+	 * The whole image should be processed periodically
+	 */
+	@Test
+	public void periodicFullImage() {
+		ImageType type = types.get(0);
+		ImageBase image = loadImage(type);
+
+		FiducialRegionTracker alg = new FiducialRegionTracker(createSquareBinary(type),0.3,10,3);
+		for (int i = 0; i < 7; i++) {
+			alg.detect(image);
+			assertEquals(i%3 == 0, alg.isProcessedFull());
+		}
+	}
+}
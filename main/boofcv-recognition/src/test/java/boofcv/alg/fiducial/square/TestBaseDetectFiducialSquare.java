@@ -33,6 +33,7 @@ import boofcv.factory.geo.FactoryMultiView;
 import boofcv.factory.interpolate.FactoryInterpolation;
 import boofcv.factory.shape.ConfigPolygonDetector;
 import boofcv.factory.shape.FactoryShapeDetector;
+import boofcv.struct.ImageRectangle;
 import boofcv.struct.calib.CameraPinholeRadial;
 import boofcv.struct.distort.PixelTransform2_F32;
 import boofcv.struct.distort.Point2Transform2_F32;
@@ -177,6 +178,48 @@ public class TestBaseDetectFiducialSquare {
 		// The check to see if square is correctly undistorted is inside the processing function itself
 	}
 
+	/**
+	 * Only searching a region around the fiducial should produce the same results as searching the whole image.
+	 * Lens distortion is used so that the region is handled in the whole image's coordinate system.
+	 */
+	@Test
+	public void processRegions() {
+		CameraPinholeRadial intrinsic = new CameraPinholeRadial(500,500,0,320,240,width,height).fsetRadial(-0.1,-0.05);
+		GrayU8 pattern = createPattern(6*20, true);
+		GrayU8 image = new GrayU8(width,height);
+		ImageMiscOps.fill(image, 255);
+		image.subimage(60, 300, 60 + pattern.width, 300 + pattern.height, null).setTo(pattern);
+
+		DetectCorner detector = new DetectCorner();
+		detector.configure(new LensDistortionRadialTangential(intrinsic),width,height, false);
+		detector.process(image);
+		assertEquals(1, detector.getFound().size());
+		Quadrilateral_F64 expected = detector.getFound().get(0).distortedPixels.copy();
+
+		List<ImageRectangle> regions = new ArrayList<>();
+		regions.add(new ImageRectangle(300,20,400,100));
+		regions.add(new ImageRectangle(40,280,200,440));
+		detector.process(image,regions);
+		assertEquals(1, detector.getFound().size());
+		Quadrilateral_F64 found = detector.getFound().get(0).distortedPixels;
+		for (int i = 0; i < 4; i++) {
+			assertEquals(0, expected.get(i).distance(found.get(i)), 1e-3);
+		}
+
+		// the fiducial isn't inside the region
+		regions.remove(1);
+		detector.process(image,regions);
+		assertEquals(0, detector.getFound().size());
+
+		// the whole image should still work after regions have been processed
+		detector.process(image);
+		assertEquals(1, detector.getFound().size());
+		found = detector.getFound().get(0).distortedPixels;
+		for (int i = 0; i < 4; i++) {
+			assertEquals(0, expected.get(i).distance(found.get(i)), 1e-8);
+		}
+	}
+
 	@Test
 	public void computeFractionBoundary() {
 		Dummy alg = new Dummy();
@@ -78,6 +78,42 @@ public class TestClassifierKNearestNeighborsBow {
 		assertEquals(2, toWords.numProcess);
 	}
 
+	/**
+	 * Look up is done with an inverted file index and data is added incrementally
+	 */
+	@Test
+	public void invertedFileIndex() {
+		DummyDense features = new DummyDense();
+		DummyToWord toWords = new DummyToWord();
+
+		List<HistogramScene> memory = new ArrayList<>();
+		for (int i = 0; i < 12; i++) {
+			HistogramScene h = new HistogramScene(NUM_WORDS);
+			h.type = i%3;
+			h.histogram[h.type] = 1;
+			memory.add(h);
+		}
+
+		InvertedFileIndex index = new InvertedFileIndex(NUM_WORDS);
+		ClassifierKNearestNeighborsBow bow = new ClassifierKNearestNeighborsBow(index,features,toWords);
+		bow.setNumNeighbors(6);
+		bow.setClassificationData(memory, 3);
+		assertEquals(12, index.getNumberOfImages());
+
+		// word 0 has the most weight in the query histogram
+		assertEquals(0, bow.classify(new GrayU8(2, 3)));
+		assertEquals(1, toWords.numProcess);
+
+		// add images which are identical to the query
+		for (int i = 0; i < 6; i++) {
+			HistogramScene h = new HistogramScene(NUM_WORDS);
+			h.type = 2;
+			h.setHistogram(toWords.getHistogram());
+			bow.addClassificationData(h);
+		}
+		assertEquals(18, index.getNumberOfImages());
+		assertEquals(2, bow.classify(new GrayU8(2, 3)));
+	}
 
 	protected class DummyNN implements NearestNeighbor<HistogramScene> {
 
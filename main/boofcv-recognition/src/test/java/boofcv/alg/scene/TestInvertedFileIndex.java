@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.scene;
+
+import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestInvertedFileIndex {
+
+	Random rand = new Random(234);
+	int NUM_WORDS = 40;
+
+	FastQueue<InvertedFileIndex.Match> results = new FastQueue<>(InvertedFileIndex.Match.class,true);
+
+	/**
+	 * Creates a sparse normalized histogram
+	 */
+	double[] randomHistogram() {
+		double[] hist = new double[NUM_WORDS];
+		double total = 0;
+		for (int i = 0; i < 6; i++) {
+			int word = rand.nextInt(NUM_WORDS);
+			double v = rand.nextDouble()+0.1;
+			hist[word] += v;
+			total += v;
+		}
+		for (int i = 0; i < NUM_WORDS; i++) {
+			hist[i] /= total;
+		}
+		return hist;
+	}
+
+	/**
+	 * Compares against a brute force computation of the cosine similarity between TF-IDF vectors
+	 */
+	@Test
+	public void query_bruteForce() {
+		InvertedFileIndex alg = new InvertedFileIndex(NUM_WORDS);
+
+		double[][] images = new double[200][];
+		for (int i = 0; i < images.length; i++) {
+			images[i] = randomHistogram();
+			assertEquals(i, alg.addImage(images[i]));
+		}
+
+		double[] idf = new double[NUM_WORDS];
+		for (int word = 0; word < NUM_WORDS; word++) {
+			int count = 0;
+			for (int i = 0; i < images.length; i++) {
+				if( images[i][word] != 0 )
+					count++;
+			}
+			idf[word] = count == 0 ? 0 : Math.log(images.length/(double)count);
+			assertEquals(idf[word], alg.inverseDocumentFrequency(word), 1e-8);
+		}
+
+		for (int trial = 0; trial < 10; trial++) {
+			double[] query = randomHistogram();
+			alg.query(query, 5, results);
+			assertEquals(5, results.size);
+
+			double[] expected = new double[images.length];
+			for (int i = 0; i < images.length; i++) {
+				expected[i] = cosine(query, images[i], idf);
+			}
+
+			for (int i = 0; i < results.size; i++) {
+				InvertedFileIndex.Match m = results.get(i);
+				assertEquals(expected[m.image], m.score, 1e-5);
+				if( i > 0 )
+					assertTrue(results.get(i-1).score >= m.score);
+			}
+
+			// no other image should have a better score than the worst match
+			double worst = results.get(results.size-1).score;
+			int better = 0;
+			for (int i = 0; i < images.length; i++) {
+				if( expected[i] > worst + 1e-5 )
+					better++;
+			}
+			assertTrue(better < 5);
+		}
+	}
+
+	private double cosine( double[] a , double[] b , double[] idf ) {
+		double dot = 0, na = 0, nb = 0;
+		for (int i = 0; i < a.length; i++) {
+			double wa = a[i]*idf[i];
+			double wb = b[i]*idf[i];
+			dot += wa*wb;
+			na += wa*wa;
+			nb += wb*wb;
+		}
+		if( dot == 0 )
+			return 0;
+		return dot/Math.sqrt(na*nb);
+	}
+
+	/**
+	 * An image which is identical to the query should be the best match
+	 */
+	@Test
+	public void query_identical() {
+		InvertedFileIndex alg = new InvertedFileIndex(NUM_WORDS);
+		for (int i = 0; i < 50; i++) {
+			alg.addImage(randomHistogram());
+		}
+		double[] target = randomHistogram();
+		alg.addImage(target);
+		for (int i = 0; i < 50; i++) {
+			alg.addImage(randomHistogram());
+		}
+
+		alg.query(target, 3, results);
+		assertEquals(50, results.get(0).image);
+		assertEquals(1.0, results.get(0).score, 1e-5);
+	}
+
+	/**
+	 * Fewer images share a word with the query than the number requested
+	 */
+	@Test
+	public void query_fewMatches() {
+		InvertedFileIndex alg = new InvertedFileIndex(4);
+		alg.addImage(new double[]{1,0,0,0});
+		alg.addImage(new double[]{0,1,0,0});
+		alg.addImage(new double[]{0,0.5,0.5,0});
+
+		alg.query(new double[]{0,0,1,0}, 10, results);
+		assertEquals(1, results.size);
+		assertEquals(2, results.get(0).image);
+
+		// a word which isn't in any image
+		alg.query(new double[]{0,0,0,1}, 10, results);
+		assertEquals(0, results.size);
+	}
+
+	/**
+	 * Adding images after a query should update the scores
+	 */
+	@Test
+	public void incremental() {
+		InvertedFileIndex alg = new InvertedFileIndex(3);
+		alg.addImage(new double[]{1,0,0});
+		alg.addImage(new double[]{0,1,0});
+
+		alg.query(new double[]{0.5,0.5,0}, 10, results);
+		assertEquals(2, results.size);
+
+		alg.addImage(new double[]{0.5,0.5,0});
+		alg.addImage(new double[]{0,0,1});
+		alg.query(new double[]{0.5,0.5,0}, 10, results);
+		assertEquals(3, results.size);
+		assertEquals(2, results.get(0).image);
+		assertEquals(1.0, results.get(0).score, 1e-5);
+	}
+
+	@Test
+	public void addImage_sparse() {
+		InvertedFileIndex dense = new InvertedFileIndex(NUM_WORDS);
+		InvertedFileIndex sparse = new InvertedFileIndex(NUM_WORDS);
+
+		GrowQueue_I32 words = new GrowQueue_I32();
+		GrowQueue_F64 frequency = new GrowQueue_F64();
+		for (int i = 0; i < 20; i++) {
+			double[] hist = randomHistogram();
+			dense.addImage(hist);
+
+			words.reset();
+			frequency.reset();
+			for (int word = 0; word < NUM_WORDS; word++) {
+				if( hist[word] != 0 ) {
+					words.add(word);
+					frequency.add(hist[word]);
+				}
+			}
+			sparse.addImage(words, frequency);
+		}
+
+		for (int word = 0; word < NUM_WORDS; word++) {
+			GrowQueue_I32 a = dense.getPostingImages(word);
+			GrowQueue_I32 b = sparse.getPostingImages(word);
+			assertEquals(a.size, b.size);
+			for (int i = 0; i < a.size; i++) {
+				assertEquals(a.get(i), b.get(i));
+				assertEquals(dense.getPostingFrequency(word).get(i), sparse.getPostingFrequency(word).get(i), 1e-8f);
+			}
+		}
+	}
+
+	@Test
+	public void reset() {
+		InvertedFileIndex alg = new InvertedFileIndex(3);
+		alg.addImage(new double[]{1,0,0});
+		alg.addImage(new double[]{0,1,0});
+		alg.reset();
+
+		assertEquals(0, alg.getNumberOfImages());
+		assertEquals(0, alg.getPostingImages(0).size);
+		alg.query(new double[]{1,0,0}, 10, results);
+		assertEquals(0, results.size);
+	}
+}
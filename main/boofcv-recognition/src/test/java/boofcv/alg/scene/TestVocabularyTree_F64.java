@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.scene;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestVocabularyTree_F64 {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Creates a tree with two levels.  Each level has 3 children.  Children are placed around their parent
+	 * so that the closest leaf can be found by descending the tree.
+	 */
+	private VocabularyTree_F64 createTree() {
+		VocabularyTree_F64 tree = new VocabularyTree_F64(2);
+
+		List<double[]> centers = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			centers.add(new double[]{i*100+10,5});
+		}
+		int first = tree.addChildren(0,centers);
+		for (int i = 0; i < 3; i++) {
+			List<double[]> children = new ArrayList<>();
+			for (int j = 0; j < 3; j++) {
+				children.add(new double[]{i*100+j*10,5});
+			}
+			tree.addChildren(first+i,children);
+		}
+		tree.assignWords();
+		return tree;
+	}
+
+	@Test
+	public void assign_hard() {
+		VocabularyTree_F64 tree = createTree();
+
+		assertEquals(9,tree.getNumberOfClusters());
+		assertEquals(13,tree.getNumberOfNodes());
+		assertEquals(2,tree.getDepth());
+
+		// compare against a brute force search of the leaves for points which are close to a leaf
+		for (int trial = 0; trial < 100; trial++) {
+			double[] p = new double[]{rand.nextInt(3)*100 + rand.nextDouble()*30-5,rand.nextDouble()*10};
+
+			int expected = -1;
+			double best = Double.MAX_VALUE;
+			for (int word = 0; word < tree.getNumberOfClusters(); word++) {
+				double d = tree.distanceSq(p,tree.getWordNode(word));
+				if( d < best ) {
+					best = d;
+					expected = word;
+				}
+			}
+			assertEquals(expected,tree.assign(p));
+		}
+	}
+
+	@Test
+	public void assign_soft() {
+		VocabularyTree_F64 tree = createTree();
+
+		double[] fit = new double[tree.getNumberOfClusters()];
+		double[] p = new double[]{112,5};
+		tree.assign(p,fit);
+
+		int hard = tree.assign(p);
+		double sum = 0;
+		for (int i = 0; i < fit.length; i++) {
+			sum += fit[i];
+			assertTrue(fit[i] <= fit[hard]);
+			// only words which share a parent should have a weight
+			if( tree.getParent(tree.getWordNode(i)) != tree.getParent(tree.getWordNode(hard)))
+				assertEquals(0,fit[i],1e-8);
+		}
+		assertEquals(1,sum,1e-8);
+	}
+
+	/**
+	 * A tree with only a root has one word
+	 */
+	@Test
+	public void rootOnly() {
+		VocabularyTree_F64 tree = new VocabularyTree_F64(2);
+		tree.assignWords();
+
+		assertEquals(1,tree.getNumberOfClusters());
+		assertEquals(0,tree.assign(new double[]{1,2}));
+		double[] fit = new double[1];
+		tree.assign(new double[]{1,2},fit);
+		assertEquals(1,fit[0],1e-8);
+	}
+
+	@Test
+	public void copy() {
+		VocabularyTree_F64 tree = createTree();
+		VocabularyTree_F64 found = tree.copy();
+
+		assertEquals(tree.getNumberOfClusters(),found.getNumberOfClusters());
+		assertEquals(tree.getNumberOfNodes(),found.getNumberOfNodes());
+		for (int trial = 0; trial < 20; trial++) {
+			double[] p = new double[]{rand.nextDouble()*240-10,rand.nextDouble()*10};
+			assertEquals(tree.assign(p),found.assign(p));
+		}
+
+		// should be independent
+		tree.centers[tree.getFirstChild(0)*2] = 1000;
+		double[] c = new double[2];
+		found.getCenter(found.getFirstChild(0),c);
+		assertEquals(10,c[0],1e-8);
+	}
+
+	/**
+	 * Nodes should be able to grow past their initial capacity
+	 */
+	@Test
+	public void addChildren_grow() {
+		VocabularyTree_F64 tree = new VocabularyTree_F64(1);
+		List<double[]> centers = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			centers.add(new double[]{i});
+		}
+		tree.addChildren(0,centers);
+		tree.assignWords();
+
+		assertEquals(50,tree.getNumberOfClusters());
+		for (int i = 0; i < 50; i++) {
+			assertEquals(i,tree.assign(new double[]{i+0.1}));
+		}
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.scene.codec;
+
+import boofcv.alg.scene.InvertedFileIndex;
+import org.ddogleg.struct.FastQueue;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCodecInvertedFileIndex {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void encode_decode() throws IOException {
+		int numWords = 100;
+		InvertedFileIndex original = new InvertedFileIndex(numWords);
+		// enough images so that variable length integers need more than one byte
+		for (int i = 0; i < 500; i++) {
+			double[] hist = new double[numWords];
+			for (int j = 0; j < 5; j++) {
+				hist[rand.nextInt(numWords)] = rand.nextDouble()+0.01;
+			}
+			original.addImage(hist);
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CodecInvertedFileIndex.save(original, out);
+		InvertedFileIndex found = CodecInvertedFileIndex.load(new ByteArrayInputStream(out.toByteArray()));
+
+		assertEquals(original.getNumberOfWords(), found.getNumberOfWords());
+		assertEquals(original.getNumberOfImages(), found.getNumberOfImages());
+		for (int word = 0; word < numWords; word++) {
+			assertEquals(original.getPostingImages(word).size, found.getPostingImages(word).size);
+			for (int i = 0; i < original.getPostingImages(word).size; i++) {
+				assertEquals(original.getPostingImages(word).get(i), found.getPostingImages(word).get(i));
+				assertEquals(original.getPostingFrequency(word).get(i), found.getPostingFrequency(word).get(i), 0f);
+			}
+		}
+
+		// queries should produce identical results
+		FastQueue<InvertedFileIndex.Match> a = new FastQueue<>(InvertedFileIndex.Match.class,true);
+		FastQueue<InvertedFileIndex.Match> b = new FastQueue<>(InvertedFileIndex.Match.class,true);
+		double[] query = new double[numWords];
+		query[5] = 0.5; query[20] = 0.5;
+		original.query(query, 10, a);
+		found.query(query, 10, b);
+		assertEquals(a.size, b.size);
+		for (int i = 0; i < a.size; i++) {
+			assertEquals(a.get(i).image, b.get(i).image);
+			assertEquals(a.get(i).score, b.get(i).score, 1e-12);
+		}
+	}
+
+	@Test
+	public void varInt() throws IOException {
+		int[] values = new int[]{0,1,127,128,300,16383,16384,Integer.MAX_VALUE};
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		java.io.DataOutputStream dout = new java.io.DataOutputStream(out);
+		for (int v : values) {
+			CodecInvertedFileIndex.writeVarInt(dout, v);
+		}
+		dout.flush();
+		// values less than 128 should be a single byte
+		assertEquals(1+1+1+2+2+2+3+5, out.size());
+
+		java.io.DataInputStream din = new java.io.DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+		for (int v : values) {
+			assertEquals(v, CodecInvertedFileIndex.readVarInt(din));
+		}
+	}
+
+	@Test
+	public void badHeader() {
+		try {
+			CodecInvertedFileIndex.load(new ByteArrayInputStream(new byte[]{0,3,'a','b','c',0,0,0,1}));
+			fail("Should have thrown an exception");
+		} catch( IOException ignore ) {}
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package boofcv.alg.tracker.circulant;
+
+import boofcv.abst.tracker.ConfigCirculantTracker;
+import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.factory.tracker.FactoryTrackerObjectAlgs;
+import boofcv.struct.image.GrayF32;
+import georegression.struct.shapes.RectangleLength2D_F32;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCirculantMultiTracker {
+
+	Random rand = new Random(234);
+
+	int regions[][] = new int[][]{{5,6,20,25},{40,10,20,20},{20,45,25,20}};
+
+	@Test
+	public void trackTranslation_F64() {
+		trackTranslation(false);
+	}
+
+	@Test
+	public void trackTranslation_F32() {
+		trackTranslation(true);
+	}
+
+	private void trackTranslation( boolean useF32 ) {
+		GrayF32 a = new GrayF32(80,75);
+		GrayF32 b = new GrayF32(80,75);
+		GImageMiscOps.fillUniform(a, rand, 0, 200);
+		GImageMiscOps.fillUniform(b, rand, 0, 200);
+
+		CirculantMultiTracker<GrayF32> alg = createAlg(useF32);
+		for( int[] r : regions ) {
+			alg.addTarget(a,r[0],r[1],r[2],r[3]);
+		}
+
+		shiftCopy(2,4,a,b);
+		alg.process(b);
+
+		assertEquals(regions.length,alg.getTargets().size());
+		for (int i = 0; i < regions.length; i++) {
+			RectangleLength2D_F32 found = alg.getTargets().get(i).getLocation();
+			assertEquals(regions[i][0]+2,found.x0,1);
+			assertEquals(regions[i][1]+4,found.y0,1);
+		}
+	}
+
+	/**
+	 * Results should be identical to using independent trackers no matter how many threads are used
+	 */
+	@Test
+	public void compareToSingle() {
+		GrayF32 a = new GrayF32(80,75);
+		GrayF32 b = new GrayF32(80,75);
+		GImageMiscOps.fillUniform(a, rand, 0, 200);
+		GImageMiscOps.fillUniform(b, rand, 0, 200);
+		shiftCopy(-3,2,a,b);
+
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			CirculantMultiTracker<GrayF32> alg = createAlg(false);
+			for( int[] r : regions ) {
+				alg.addTarget(a,r[0],r[1],r[2],r[3]);
+			}
+			alg.process(b);
+
+			for (int i = 0; i < regions.length; i++) {
+				int[] r = regions[i];
+				CirculantTracker<GrayF32> single = FactoryTrackerObjectAlgs.circulant(null,GrayF32.class);
+				single.initialize(a,r[0],r[1],r[2],r[3]);
+				single.performTracking(b);
+
+				RectangleLength2D_F32 expected = single.getTargetLocation();
+				RectangleLength2D_F32 found = alg.getTargets().get(i).getLocation();
+				assertEquals(expected.x0,found.x0,1e-4f);
+				assertEquals(expected.y0,found.y0,1e-4f);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
+	/**
+	 * Removed targets should be recycled and new targets given a new ID
+	 */
+	@Test
+	public void addRemove() {
+		GrayF32 a = new GrayF32(80,75);
+		GImageMiscOps.fillUniform(a, rand, 0, 200);
+
+		CirculantMultiTracker<GrayF32> alg = createAlg(true);
+		CirculantMultiTracker<GrayF32>.Target t0 = alg.addTarget(a,5,6,20,25);
+		CirculantMultiTracker<GrayF32>.Target t1 = alg.addTarget(a,40,10,20,20);
+		assertEquals(0,t0.getId());
+		assertEquals(1,t1.getId());
+
+		// constants should be shared
+		assertSame(t0.getTracker32().cosine,t1.getTracker32().cosine);
+		assertSame(t0.getTracker32().gaussianWeightDFT,t1.getTracker32().gaussianWeightDFT);
+
+		assertTrue(alg.removeTarget(t0));
+		assertFalse(alg.removeTarget(t0));
+		assertEquals(1,alg.getTargets().size());
+
+		CirculantMultiTracker<GrayF32>.Target t2 = alg.addTarget(a,20,45,25,20);
+		assertSame(t0,t2);
+		assertEquals(2,t2.getId());
+		assertEquals(20,t2.getLocation().x0,1e-4f);
+
+		alg.removeAll();
+		assertEquals(0,alg.getTargets().size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void differentImageShape() {
+		CirculantMultiTracker<GrayF32> alg = createAlg(false);
+		alg.addTarget(new GrayF32(80,75),5,6,20,25);
+		alg.process(new GrayF32(80,76));
+	}
+
+	private CirculantMultiTracker<GrayF32> createAlg( boolean useF32 ) {
+		return new CirculantMultiTracker<>(new ConfigCirculantTracker(),useF32,GrayF32.class);
+	}
+
+	private void shiftCopy(int offX, int offY, GrayF32 src, GrayF32 dst) {
+		for( int y = 0; y < src.height; y++ ) {
+			for( int x = 0; x < src.width; x++ ) {
+				int xx = x + offX;
+				int yy = y + offY;
+
+				if( xx >= 0 && xx < src.width && yy >= 0 && yy < src.height ) {
+					dst.set(xx, yy, src.get(x, y));
+				}
+			}
+		}
+	}
+}
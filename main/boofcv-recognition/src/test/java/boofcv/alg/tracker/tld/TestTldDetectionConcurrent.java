@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.tracker.tld;
+
+import boofcv.alg.interpolate.InterpolatePixelS;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.core.image.border.BorderType;
+import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.struct.ImageRectangle;
+import boofcv.struct.image.GrayU8;
+import org.ddogleg.struct.FastQueue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestTldDetectionConcurrent {
+
+	Random rand = new Random(234);
+
+	GrayU8 image = new GrayU8(160,120);
+
+	TldParameters config = new TldParameters();
+	TldVarianceFilter<GrayU8> variance = new TldVarianceFilter<>(GrayU8.class);
+	TldTemplateMatching<GrayU8> template;
+	TldFernClassifier<GrayU8> fern;
+
+	// should ferns use integer sampling
+	boolean integerSampling = false;
+
+	FastQueue<ImageRectangle> regions = new FastQueue<>(ImageRectangle.class, true);
+
+	public TestTldDetectionConcurrent() {
+		ImageMiscOps.fillUniform(image, rand, 0, 200);
+
+		for( int y = 1; y < image.height-30; y += 3 ) {
+			for( int x = 1; x < image.width-30; x += 3 ) {
+				regions.grow().set(x, y, x + 30, y + 30);
+			}
+		}
+
+		config.confidenceThresholdUpper = 0.5;
+		config.maximumCascadeConsider = 100;
+	}
+
+	/**
+	 * Compares the output against the single threaded implementation.  Everything should be identical.
+	 */
+	@Test
+	public void compareToSequential() {
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			TldDetection<GrayU8> expected = createDetection(1,false);
+			expected.detectionCascade(regions);
+
+			for( int numThreads = 1; numThreads <= 4; numThreads++ ) {
+				TldDetection<GrayU8> found = createDetection(numThreads,true);
+				// process it twice to make sure it cleans up after itself
+				found.detectionCascade(regions);
+				found.detectionCascade(regions);
+
+				compare(expected, found);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+
+	/**
+	 * Each thread should have its own storage for integer sampling offsets
+	 */
+	@Test
+	public void compareToSequential_integer() {
+		integerSampling = true;
+		compareToSequential();
+	}
+
+	/**
+	 * The number of regions is less than the number of threads
+	 */
+	@Test
+	public void fewRegions() {
+		regions.size = 2;
+
+		TldDetection<GrayU8> expected = createDetection(1,false);
+		expected.detectionCascade(regions);
+		TldDetection<GrayU8> found = createDetection(5,true);
+		found.detectionCascade(regions);
+
+		compare(expected, found);
+	}
+
+	private void compare(TldDetection<GrayU8> expected, TldDetection<GrayU8> found) {
+		assertTrue(expected.getFernInfo().size > 0);
+		assertEquals(expected.getFernInfo().size, found.getFernInfo().size);
+		for (int i = 0; i < expected.getFernInfo().size; i++) {
+			TldRegionFernInfo a = expected.getFernInfo().get(i);
+			TldRegionFernInfo b = found.getFernInfo().get(i);
+			assertSame(a.r, b.r);
+			assertEquals(a.sumP, b.sumP);
+			assertEquals(a.sumN, b.sumN);
+		}
+		assertEquals(expected.totalP, found.totalP);
+		assertEquals(expected.totalN, found.totalN);
+
+		assertEquals(expected.getSelectedFernRectangles(), found.getSelectedFernRectangles());
+
+		assertEquals(expected.getCandidateDetections().size, found.getCandidateDetections().size);
+		for (int i = 0; i < expected.getCandidateDetections().size; i++) {
+			TldRegion a = expected.getCandidateDetections().get(i);
+			TldRegion b = found.getCandidateDetections().get(i);
+			assertEquals(a.confidence, b.confidence, 0);
+			assertEquals(a.rect.x0, b.rect.x0);
+			assertEquals(a.rect.y0, b.rect.y0);
+		}
+
+		assertEquals(expected.isSuccess(), found.isSuccess());
+		assertEquals(expected.isAmbiguous(), found.isAmbiguous());
+		if( expected.isSuccess() ) {
+			assertEquals(expected.getBest().confidence, found.getBest().confidence, 0);
+			assertEquals(expected.getBest().rect.x0, found.getBest().rect.x0);
+			assertEquals(expected.getBest().rect.y0, found.getBest().rect.y0);
+		}
+	}
+
+	/**
+	 * Creates the detector and trains the classifiers on the same regions each time
+	 */
+	private TldDetection<GrayU8> createDetection( int numThreads , boolean concurrent ) {
+		List<InterpolatePixelS<GrayU8>> interpolate = new ArrayList<>();
+		for (int i = 0; i < numThreads; i++) {
+			interpolate.add(FactoryInterpolation.bilinearPixelS(GrayU8.class, BorderType.EXTENDED));
+		}
+
+		template = new TldTemplateMatching<>(interpolate.get(0));
+		fern = new TldFernClassifier<>(new Random(2), 10, 8, 20, 0.5f, interpolate.get(0));
+		fern.setIntegerSampling(integerSampling);
+
+		variance.setImage(image);
+		template.setImage(image);
+		fern.setImage(image);
+
+		ImageRectangle target = new ImageRectangle(40, 40, 70, 70);
+		variance.selectThreshold(target);
+		template.addDescriptor(true, target);
+		fern.learnFern(true, target);
+		for (int i = 0; i < regions.size; i += 17) {
+			ImageRectangle r = regions.get(i);
+			if( Math.abs(r.x0-target.x0) < 20 && Math.abs(r.y0-target.y0) < 20 )
+				continue;
+			fern.learnFern(false, r);
+			if( i % 5 == 0 )
+				template.addDescriptor(false, r);
+		}
+
+		TldDetection<GrayU8> alg;
+		if( concurrent ) {
+			alg = new TldDetectionConcurrent<>(fern, template, variance, config, interpolate);
+			assertEquals(numThreads, ((TldDetectionConcurrent)alg).getNumberOfThreads());
+		} else {
+			alg = new TldDetection<>(fern, template, variance, config);
+		}
+		alg.setImage(image);
+		return alg;
+	}
+}
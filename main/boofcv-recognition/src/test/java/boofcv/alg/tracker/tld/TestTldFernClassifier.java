@@ -23,6 +23,7 @@ import boofcv.alg.misc.ImageMiscOps;
 import boofcv.core.image.border.BorderType;
 import boofcv.factory.interpolate.FactoryInterpolation;
 import boofcv.struct.ImageRectangle;
+import boofcv.struct.image.GrayS16;
 import boofcv.struct.image.GrayU8;
 import georegression.struct.point.Point2D_F32;
 import org.junit.Test;
@@ -175,19 +176,91 @@ public class TestTldFernClassifier {
 		assertTrue( numDiff < 10 );
 	}
 
-		@Test
+	@Test
+	public void computeFernValue_integer() {
+		TldFernClassifier<GrayU8> alg = createAlg();
+		alg.setIntegerSampling(true);
+		alg.setImage(input);
+
+		TldFernSampleOffsets offsets = new TldFernSampleOffsets();
+
+		// entirely inside the image, then partially outside of it
+		checkIntegerFern(alg, offsets, new ImageRectangle(2,20,13,28));
+		checkIntegerFern(alg, offsets, new ImageRectangle(-4,70,15,90));
+	}
+
+	private void checkIntegerFern( TldFernClassifier<GrayU8> alg , TldFernSampleOffsets offsets ,
+								   ImageRectangle r ) {
+		float w = r.getWidth()-1;
+		float h = r.getHeight()-1;
+
+		for( int fernIndex = 0; fernIndex < numFerns; fernIndex++ ) {
+			TldFernDescription fern = alg.ferns[fernIndex];
+			int N = fern.pairs.length;
+
+			int found = alg.computeFernValue(offsets, r, fernIndex);
+
+			for( int i = 0; i < N; i++ ) {
+				Point2D_F32 a = fern.pairs[i].a;
+				Point2D_F32 b = fern.pairs[i].b;
+
+				int valA = pixel(r.x0 + (int)(w*(0.5f + a.x) + 0.5f), r.y0 + (int)(h*(0.5f + a.y) + 0.5f));
+				int valB = pixel(r.x0 + (int)(w*(0.5f + b.x) + 0.5f), r.y0 + (int)(h*(0.5f + b.y) + 0.5f));
+
+				assertTrue((valA < valB) == (((found >> (N-1-i)) & 0x0001) == 1));
+			}
+		}
+	}
+
+	private int pixel( int x , int y ) {
+		x = Math.min(Math.max(x,0),input.width-1);
+		y = Math.min(Math.max(y,0),input.height-1);
+		return input.get(x,y);
+	}
+
+	@Test
+	public void lookupFernPN_integer() {
+		TldFernClassifier<GrayU8> alg = createAlg();
+		alg.setIntegerSampling(true);
+		alg.setImage(input);
+
+		ImageRectangle r = new ImageRectangle(10,12,30,45);
+		alg.learnFern(true, r);
+		alg.learnFern(true, r);
+		alg.learnFern(false, r);
+
+		TldRegionFernInfo info = new TldRegionFernInfo();
+		info.r = r;
+		assertTrue(alg.lookupFernPN(info));
+		assertEquals(2*numFerns, info.sumP);
+		assertEquals(numFerns, info.sumN);
+
+		// a different region of the same size shouldn't match all the ferns
+		info.r = new ImageRectangle(30,32,50,65);
+		alg.lookupFernPN(info);
+		assertTrue(info.sumP < 2*numFerns);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void integerSampling_badImageType() {
+		TldFernClassifier alg = new TldFernClassifier<>(rand,numFerns,8,numLearnRandom,10,
+				FactoryInterpolation.bilinearPixelS(GrayS16.class, BorderType.EXTENDED));
+		alg.setIntegerSampling(true);
+		alg.setImage(new GrayS16(10,12));
+	}
+
+	@Test
 	public void renormalizeP() {
 			TldFernClassifier<GrayU8> alg = createAlg();
 
 			alg.maxP = 1000;
-			alg.managers[2].table[1] = new TldFernFeature();
-			alg.managers[2].table[1].numP = 600;
+			alg.managers[2].table[2] = 600;
 
 			alg.renormalizeP();
 
 			int expected = 600/20;
 
-			assertEquals(expected,alg.managers[2].table[1].numP);
+			assertEquals(expected,alg.managers[2].getNumP(1));
 	}
 
 	@Test
@@ -195,14 +268,13 @@ public class TestTldFernClassifier {
 		TldFernClassifier<GrayU8> alg = createAlg();
 
 		alg.maxN = 1000;
-		alg.managers[2].table[1] = new TldFernFeature();
-		alg.managers[2].table[1].numN = 600;
+		alg.managers[2].table[3] = 600;
 
 		alg.renormalizeN();
 
 		int expected = 600/20;
 
-		assertEquals(expected,alg.managers[2].table[1].numN);
+		assertEquals(expected,alg.managers[2].getNumN(1));
 	}
 
 	private TldFernClassifier<GrayU8> createAlg() {
@@ -214,16 +286,11 @@ public class TestTldFernClassifier {
 	private int countNum( boolean positive , TldFernManager manager ) {
 		int total = 0;
 
-		for( int i = 0; i < manager.table.length; i++ ) {
-
-			TldFernFeature f = manager.table[i];
-
-			if( f != null ) {
-				if( positive )
-					total += f.numP;
-				else
-					total += f.numN;
-			}
+		for( int i = 0; i < manager.getNumValues(); i++ ) {
+			if( positive )
+				total += manager.getNumP(i);
+			else
+				total += manager.getNumN(i);
 		}
 
 		return total;
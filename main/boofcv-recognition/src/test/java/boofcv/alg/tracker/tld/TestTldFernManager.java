@@ -21,7 +21,6 @@ package boofcv.alg.tracker.tld;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
 
 /**
  * @author Peter Abeles
@@ -31,19 +30,24 @@ public class TestTldFernManager {
 	@Test
 	public void constructor() {
 		TldFernManager alg = new TldFernManager(10);
-		assertEquals(1024,alg.table.length);
+		assertEquals(1024,alg.getNumValues());
+		assertEquals(2048,alg.table.length);
 	}
 
 	@Test
-	public void lookupFern() {
+	public void increment() {
 		TldFernManager alg = new TldFernManager(10);
 
-		TldFernFeature a = alg.lookupFern(345);
-		assertTrue(a != null);
+		assertEquals(1,alg.incrementP(345));
+		assertEquals(2,alg.incrementP(345));
+		assertEquals(1,alg.incrementN(345));
 
-		assertTrue(a == alg.lookupFern(345));
+		assertEquals(2,alg.getNumP(345));
+		assertEquals(1,alg.getNumN(345));
 
-		assertEquals(345,a.value);
+		// neighbors should not be modified
+		assertEquals(0,alg.getNumN(344));
+		assertEquals(0,alg.getNumP(346));
 	}
 
 	@Test
@@ -52,40 +56,42 @@ public class TestTldFernManager {
 
 		assertEquals(0,alg.lookupPosterior(234),1e-8);
 
-		TldFernFeature a = alg.lookupFern(234);
-		a.numN = 100;
-		a.numP = 234;
-		a.incrementP();
+		for( int i = 0; i < 100; i++ )
+			alg.incrementN(234);
+		for( int i = 0; i < 235; i++ )
+			alg.incrementP(234);
 
-		double expected = a.getPosterior();
-		assertEquals(expected,alg.lookupPosterior(234),1e-8);
+		assertEquals(235.0/335.0,alg.lookupPosterior(234),1e-8);
 	}
 
 	@Test
-	public void reset() {
+	public void rescale() {
 		TldFernManager alg = new TldFernManager(10);
 
-		alg.table[10] = new TldFernFeature();
-		alg.table[800] = new TldFernFeature();
-
-		alg.reset();
-
-		for( int i = 0; i < alg.table.length; i++ ) {
-			assertTrue(alg.table[i] == null);
+		for( int i = 0; i < 600; i++ ) {
+			alg.incrementP(10);
+			alg.incrementN(11);
 		}
 
-		assertEquals(2,alg.unusedFern.size());
+		alg.rescaleP(50,1000);
+		assertEquals(30,alg.getNumP(10));
+		assertEquals(600,alg.getNumN(11));
 
+		alg.rescaleN(50,1000);
+		assertEquals(30,alg.getNumN(11));
 	}
+
 	@Test
-	public void createFern() {
-		TldFernManager alg = new TldFernManager(3);
+	public void reset() {
+		TldFernManager alg = new TldFernManager(10);
 
-		assertTrue(alg.createFern() != null);
-		alg.unusedFern.push(new TldFernFeature());
+		alg.incrementP(10);
+		alg.incrementN(800);
 
-		assertTrue(alg.createFern() != null);
-		assertEquals(0,alg.unusedFern.size());
-	}
+		alg.reset();
 
+		for( int i = 0; i < alg.table.length; i++ ) {
+			assertEquals(0,alg.table[i]);
+		}
+	}
 }
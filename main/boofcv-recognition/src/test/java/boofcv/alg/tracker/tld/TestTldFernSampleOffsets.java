@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.tracker.tld;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestTldFernSampleOffsets {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void configure() {
+		TldFernDescription[] ferns = new TldFernDescription[3];
+		for( int i = 0; i < ferns.length; i++ ) {
+			ferns[i] = new TldFernDescription(rand,7);
+		}
+
+		TldFernSampleOffsets alg = new TldFernSampleOffsets();
+		alg.configure(ferns, 20, 31, 100);
+
+		assertEquals(7, alg.numPairs);
+		assertEquals(21, alg.offsetA.length);
+
+		for( int i = 0; i < 21; i++ ) {
+			// must be inside the window
+			assertTrue(alg.ax[i] >= 0 && alg.ax[i] < 20);
+			assertTrue(alg.ay[i] >= 0 && alg.ay[i] < 31);
+			assertTrue(alg.bx[i] >= 0 && alg.bx[i] < 20);
+			assertTrue(alg.by[i] >= 0 && alg.by[i] < 31);
+
+			assertEquals(alg.ay[i]*100 + alg.ax[i], alg.offsetA[i]);
+			assertEquals(alg.by[i]*100 + alg.bx[i], alg.offsetB[i]);
+		}
+
+		// should be the rounded location of the point
+		TldFernDescription.SamplePair p = ferns[1].pairs[2];
+		assertEquals((int)(19*(0.5f + p.a.x) + 0.5f), alg.ax[7+2]);
+		assertEquals((int)(30*(0.5f + p.b.y) + 0.5f), alg.by[7+2]);
+
+		// only recomputed when the shape changes
+		int[] before = alg.offsetA.clone();
+		alg.configure(ferns, 20, 31, 100);
+		for( int i = 0; i < 21; i++ ) {
+			assertEquals(before[i], alg.offsetA[i]);
+		}
+
+		alg.configure(ferns, 20, 31, 50);
+		for( int i = 0; i < 21; i++ ) {
+			assertEquals(alg.ay[i]*50 + alg.ax[i], alg.offsetA[i]);
+		}
+	}
+}
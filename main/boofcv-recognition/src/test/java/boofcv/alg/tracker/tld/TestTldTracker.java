@@ -18,8 +18,22 @@
 
 package boofcv.alg.tracker.tld;
 
+import boofcv.alg.interpolate.InterpolatePixelS;
+import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.core.image.border.BorderType;
+import boofcv.factory.filter.derivative.FactoryDerivative;
+import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.struct.image.GrayS16;
+import boofcv.struct.image.GrayU8;
+import georegression.struct.shapes.Rectangle2D_F64;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -46,4 +60,112 @@ public class TestTldTracker {
 		}
 	}
 
+	/**
+	 * The concurrent detection cascade should produce identical results
+	 */
+	@Test
+	public void concurrent_identical() {
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+
+			TldParameters config = new TldParameters();
+			TldTracker<GrayU8,GrayS16> expected = createTracker(config,1);
+			config = new TldParameters();
+			config.concurrent = true;
+			TldTracker<GrayU8,GrayS16> found = createTracker(config,3);
+
+			assertTrue(found.getDetection() instanceof TldDetectionConcurrent);
+
+			Random rand = new Random(234);
+			GrayU8 background = new GrayU8(160,120);
+			ImageMiscOps.fillUniform(background, rand, 0, 100);
+			GrayU8 target = new GrayU8(30,30);
+			ImageMiscOps.fillUniform(target, rand, 100, 255);
+
+			GrayU8 frame = render(background, target, 40, 40);
+			expected.initialize(frame, 40, 40, 70, 70);
+			found.initialize(frame, 40, 40, 70, 70);
+
+			for (int i = 1; i < 10; i++) {
+				frame = render(background, target, 40 + 2*i, 40 + i);
+				assertEquals(expected.track(frame), found.track(frame));
+
+				Rectangle2D_F64 a = expected.getTargetRegion();
+				Rectangle2D_F64 b = found.getTargetRegion();
+				assertEquals(a.p0.x, b.p0.x, 0);
+				assertEquals(a.p0.y, b.p0.y, 0);
+				assertEquals(a.p1.x, b.p1.x, 0);
+				assertEquals(a.p1.y, b.p1.y, 0);
+				assertEquals(expected.getDetection().getCandidateDetections().size,
+						found.getDetection().getCandidateDetections().size);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+
+	/**
+	 * Detection is limited to regions near the tracker's prediction.  See if it still tracks the target
+	 */
+	@Test
+	public void localSearch() {
+		TldParameters config = new TldParameters();
+		config.localSearchRadius = 0.5;
+		TldTracker<GrayU8,GrayS16> alg = createTracker(config,1);
+
+		checkTracking(alg, true);
+	}
+
+	/**
+	 * Ferns sample the nearest pixel instead of interpolating.  See if it still tracks the target
+	 */
+	@Test
+	public void fernIntegerSampling() {
+		TldParameters config = new TldParameters();
+		config.fernIntegerSampling = true;
+		TldTracker<GrayU8,GrayS16> alg = createTracker(config,1);
+
+		checkTracking(alg, false);
+	}
+
+	private static void checkTracking( TldTracker<GrayU8,GrayS16> alg , boolean local ) {
+
+		Random rand = new Random(234);
+		GrayU8 background = new GrayU8(160,120);
+		ImageMiscOps.fillUniform(background, rand, 0, 100);
+		GrayU8 target = new GrayU8(30,30);
+		ImageMiscOps.fillUniform(target, rand, 100, 255);
+
+		alg.initialize(render(background, target, 40, 40), 40, 40, 70, 70);
+		int totalRegions = alg.getDetection().getFernInfo().size;
+
+		for (int i = 1; i < 10; i++) {
+			int x0 = 40 + 2*i, y0 = 40 + i;
+			assertTrue(alg.track(render(background, target, x0, y0)));
+
+			Rectangle2D_F64 r = alg.getTargetRegion();
+			assertEquals(x0, r.p0.x, 2);
+			assertEquals(y0, r.p0.y, 2);
+
+			// fewer regions should have been considered
+			if( local )
+				assertTrue(alg.getDetection().getFernInfo().size < totalRegions);
+		}
+	}
+
+	private static TldTracker<GrayU8,GrayS16> createTracker( TldParameters config , int numInterpolate ) {
+		List<InterpolatePixelS<GrayU8>> interpolate = new ArrayList<>();
+		for (int i = 0; i < numInterpolate; i++) {
+			interpolate.add(FactoryInterpolation.bilinearPixelS(GrayU8.class, BorderType.EXTENDED));
+		}
+		return new TldTracker<>(config, interpolate,
+				FactoryDerivative.sobel(GrayU8.class, GrayS16.class), GrayU8.class, GrayS16.class);
+	}
+
+	private static GrayU8 render( GrayU8 background , GrayU8 target , int x0 , int y0 ) {
+		GrayU8 frame = background.clone();
+		frame.subimage(x0, y0, x0 + target.width, y0 + target.height).setTo(target);
+		return frame;
+	}
 }
@@ -18,7 +18,9 @@
 
 package boofcv.deepboof;
 
+import boofcv.abst.scene.ImageClassifier;
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.struct.image.GrayF32;
 import boofcv.struct.image.Planar;
 import deepboof.Function;
@@ -34,6 +36,7 @@ import java.util.List;
 import java.util.Random;
 
 import static deepboof.misc.TensorOps.WI;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -64,6 +67,69 @@ public abstract class CheckBaseImageClassifier {
 		assertTrue(best>=0 && best < numCategories);
 	}
 
+	/**
+	 * Classifying a batch of images should produce the same results as classifying them one at a time
+	 */
+	@Test
+	public void classifyBatch() {
+		List<Planar<GrayF32>> images = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			Planar<GrayF32> input = createImage();
+			GImageMiscOps.fillUniform(input,rand,0,255);
+			images.add(input);
+		}
+		BaseImageClassifier classifier = createClassifier();
+		createDummyNetwork(classifier, images.get(0).width, images.get(0).height);
+
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		try {
+			for( int threads : new int[]{1,3} ) {
+				BoofConcurrency.setMaxThreads(threads);
+				classifier.classifyBatch(images);
+				assertEquals(images.size(), classifier.getBatchSize());
+
+				for (int i = 0; i < images.size(); i++) {
+					List<ImageClassifier.Score> batch = classifier.getBatchResults(i);
+					int best = classifier.getBatchBest(i);
+
+					classifier.classify(images.get(i));
+					List<ImageClassifier.Score> single = classifier.getAllResults();
+					assertEquals(classifier.getBestResult(), best);
+					assertEquals(single.size(), batch.size());
+					for (int j = 0; j < single.size(); j++) {
+						assertEquals(single.get(j).category, batch.get(j).category);
+						assertEquals(single.get(j).score, batch.get(j).score, 1e-4);
+					}
+				}
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+
+	/**
+	 * Quantize the network and see if it still works
+	 */
+	@Test
+	public void quantize() {
+		List<Planar<GrayF32>> images = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Planar<GrayF32> input = createImage();
+			GImageMiscOps.fillUniform(input,rand,0,255);
+			images.add(input);
+		}
+		BaseImageClassifier classifier = createClassifier();
+		createDummyNetwork(classifier, images.get(0).width, images.get(0).height);
+
+		QuantizeNetwork_F32.Report report = classifier.quantize(images);
+		assertEquals(1, report.layersQuantized);
+		assertEquals(images.size(), report.total);
+
+		classifier.classify(images.get(0));
+		int best = classifier.getBestResult();
+		assertTrue(best>=0 && best < numCategories);
+	}
+
 	public abstract Planar<GrayF32> createImage();
 
 	public abstract BaseImageClassifier createClassifier();
@@ -50,7 +50,8 @@ public class TestImageClassifierVggCifar10 extends CheckBaseImageClassifier {
 		alg.stats.kernel = new double[]{0.1,0.5,0.1};
 		alg.stats.kernelOffset = 1;
 
-		alg.localNorm = new ImageLocalNormalization<>(GrayF32.class, BorderType.EXTENDED);
+		alg.borderType = BorderType.EXTENDED;
+		alg.localNorm = new ImageLocalNormalization<>(GrayF32.class, alg.borderType);
 		alg.kernel = DataManipulationOps.create1D_F32(alg.stats.kernel);
 
 		return alg;
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.deepboof;
+
+import deepboof.Function;
+import deepboof.forward.ConfigConvolve2D;
+import deepboof.forward.ConfigPadding;
+import deepboof.graph.FunctionSequence;
+import deepboof.graph.InputAddress;
+import deepboof.graph.Node;
+import deepboof.impl.forward.standard.ActivationReLU_F32;
+import deepboof.impl.forward.standard.ConstantPadding2D_F32;
+import deepboof.impl.forward.standard.FunctionLinear_F32;
+import deepboof.impl.forward.standard.SpatialConvolve2D_F32;
+import deepboof.misc.TensorFactory_F32;
+import deepboof.tensors.Tensor_F32;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static deepboof.misc.TensorOps.WI;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestQuantizeNetwork_F32 {
+
+	Random rand = new Random(234);
+
+	int[] shapeInput = new int[]{3,8,8};
+
+	private FunctionSequence<Tensor_F32,Function<Tensor_F32>> createNetwork() {
+		ConfigConvolve2D config = new ConfigConvolve2D();
+		config.F = 4;
+		config.HH = 3;
+		config.WW = 3;
+		ConfigPadding configPadding = new ConfigPadding();
+		configPadding.x0 = configPadding.x1 = configPadding.y0 = configPadding.y1 = 1;
+
+		List<Node<Tensor_F32,Function<Tensor_F32>>> sequence = new ArrayList<>();
+		sequence.add(createNode("conv",new SpatialConvolve2D_F32(config,new ConstantPadding2D_F32(configPadding))));
+		sequence.add(createNode("relu",new ActivationReLU_F32()));
+		sequence.add(createNode("linear",new FunctionLinear_F32(6)));
+		for (int i = 1; i < sequence.size(); i++) {
+			sequence.get(i).sources.add(new InputAddress(sequence.get(i-1).name));
+		}
+
+		FunctionSequence<Tensor_F32,Function<Tensor_F32>> network = new FunctionSequence<>(sequence,Tensor_F32.class);
+		network.initialize(shapeInput);
+
+		for( Node<Tensor_F32,Function<Tensor_F32>> n : sequence ) {
+			n.function.setParameters(TensorFactory_F32.randomMM(rand,false,-1,1,n.function.getParameterShapes()));
+		}
+		return network;
+	}
+
+	private Node<Tensor_F32,Function<Tensor_F32>> createNode( String name , Function<Tensor_F32> function ) {
+		Node<Tensor_F32,Function<Tensor_F32>> node = new Node<>();
+		node.name = name;
+		node.function = function;
+		return node;
+	}
+
+	@Test
+	public void process() {
+		FunctionSequence<Tensor_F32,Function<Tensor_F32>> network = createNetwork();
+
+		List<Tensor_F32> calibration = new ArrayList<>();
+		calibration.add(TensorFactory_F32.randomMM(rand,false,0,1,WI(10,shapeInput)));
+		calibration.add(TensorFactory_F32.randomMM(rand,false,0,1,WI(5,shapeInput)));
+
+		Tensor_F32 test = TensorFactory_F32.randomMM(rand,false,0,1,WI(3,shapeInput));
+		Tensor_F32 expected = new Tensor_F32(WI(3,network.getOutputShape()));
+		network.process(test,expected);
+
+		QuantizeNetwork_F32.Report report = new QuantizeNetwork_F32().process(network,calibration);
+
+		assertTrue(network.getSequence().get(0).function instanceof QuantizedConvolve2D_F32);
+		assertTrue(network.getSequence().get(1).function instanceof ActivationReLU_F32);
+		assertTrue(network.getSequence().get(2).function instanceof QuantizedLinear_F32);
+
+		assertEquals(2, report.layersQuantized);
+		assertEquals(15, report.total);
+		assertFalse(report.heldOut);
+		assertTrue(report.bytesQuantized < report.bytesOriginal/3);
+		assertTrue(report.getAgreement() >= 0.8);
+		assertTrue(report.getMeanError() < 0.1);
+		assertTrue(report.toString().length() > 0);
+
+		// the quantized network should produce similar results on new data
+		Tensor_F32 found = new Tensor_F32(WI(3,network.getOutputShape()));
+		network.process(test,found);
+		for (int i = 0; i < expected.length(); i++) {
+			assertEquals(expected.d[i], found.d[i], 0.3);
+		}
+	}
+
+	/**
+	 * The report should be computed using the evaluation inputs and not the calibration inputs
+	 */
+	@Test
+	public void process_evaluation() {
+		FunctionSequence<Tensor_F32,Function<Tensor_F32>> network = createNetwork();
+
+		List<Tensor_F32> calibration = new ArrayList<>();
+		calibration.add(TensorFactory_F32.randomMM(rand,false,0,1,WI(10,shapeInput)));
+		List<Tensor_F32> evaluation = new ArrayList<>();
+		evaluation.add(TensorFactory_F32.randomMM(rand,false,0,1,WI(4,shapeInput)));
+
+		QuantizeNetwork_F32.Report report = new QuantizeNetwork_F32().process(network,calibration,evaluation);
+
+		assertEquals(2, report.layersQuantized);
+		assertEquals(4, report.total);
+		assertTrue(report.heldOut);
+		assertTrue(report.getMeanError() < 0.1);
+		assertTrue(report.toString().contains("held-out"));
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.deepboof;
+
+import boofcv.concurrency.BoofConcurrency;
+import deepboof.forward.ConfigConvolve2D;
+import deepboof.forward.ConfigPadding;
+import deepboof.impl.forward.standard.ConstantPadding2D_F32;
+import deepboof.impl.forward.standard.SpatialConvolve2D_F32;
+import deepboof.misc.TensorFactory_F32;
+import deepboof.tensors.Tensor_F32;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static deepboof.misc.TensorOps.WI;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestQuantizedConvolve2D_F32 {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Compare against the floating point implementation for different strides and padding
+	 */
+	@Test
+	public void compareToFloat() {
+		for( int period : new int[]{1,2} ) {
+			for( int pad : new int[]{0,1,2} ) {
+				compareToFloat(period,pad);
+			}
+		}
+	}
+
+	private void compareToFloat( int period , int pad ) {
+		ConfigConvolve2D config = new ConfigConvolve2D();
+		config.F = 5;
+		config.HH = 3;
+		config.WW = 3;
+		config.periodX = period;
+		config.periodY = period;
+
+		ConfigPadding configPadding = new ConfigPadding();
+		configPadding.x0 = configPadding.x1 = pad;
+		configPadding.y0 = configPadding.y1 = pad;
+
+		int[] shapeInput = new int[]{3,12,10};
+		SpatialConvolve2D_F32 expected = new SpatialConvolve2D_F32(config,new ConstantPadding2D_F32(configPadding,0.5f));
+		expected.initialize(shapeInput);
+		List<Tensor_F32> parameters = TensorFactory_F32.randomMM(rand,false,-1,1,expected.getParameterShapes());
+		expected.setParameters(parameters);
+
+		QuantizedConvolve2D_F32 alg = new QuantizedConvolve2D_F32(config,new ConstantPadding2D_F32(configPadding,0.5f),2);
+		alg.initialize(shapeInput);
+		alg.setParameters(parameters);
+		assertArrayEquals(expected.getOutputShape(), alg.getOutputShape());
+
+		Tensor_F32 input = TensorFactory_F32.randomMM(rand,false,-2,2,WI(2,shapeInput));
+		Tensor_F32 outputExpected = new Tensor_F32(WI(2,expected.getOutputShape()));
+		Tensor_F32 outputFound = new Tensor_F32(WI(2,expected.getOutputShape()));
+		expected.forward(input,outputExpected);
+
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		try {
+			for( int threads : new int[]{1,3} ) {
+				BoofConcurrency.setMaxThreads(threads);
+				outputFound.zero();
+				alg.forward(input, outputFound);
+
+				// quantization error for each element is less than one step for the weight and the input
+				double tol = 27*(1.0/127 + 2.0/127);
+				for (int i = 0; i < outputExpected.length(); i++) {
+					assertEquals(outputExpected.d[i], outputFound.d[i], tol);
+				}
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+}
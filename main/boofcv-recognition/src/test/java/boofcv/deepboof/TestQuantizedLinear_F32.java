@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2011-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.deepboof;
+
+import deepboof.impl.forward.standard.FunctionLinear_F32;
+import deepboof.misc.TensorFactory_F32;
+import deepboof.tensors.Tensor_F32;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestQuantizedLinear_F32 {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Compare against the floating point implementation
+	 */
+	@Test
+	public void compareToFloat() {
+		int M = 7;
+		int[] shapeInput = new int[]{3,4,5};
+
+		FunctionLinear_F32 expected = new FunctionLinear_F32(M);
+		expected.initialize(shapeInput);
+		List<Tensor_F32> parameters = TensorFactory_F32.randomMM(rand,false,-1,1,expected.getParameterShapes());
+		expected.setParameters(parameters);
+
+		Tensor_F32 input = TensorFactory_F32.randomMM(rand,false,-2,2,2,3,4,5);
+
+		QuantizedLinear_F32 alg = new QuantizedLinear_F32(M,2);
+		alg.initialize(shapeInput);
+		alg.setParameters(parameters);
+
+		assertEquals(M, alg.getOutputShape()[0]);
+		assertEquals(2, alg.getParameterShapes().size());
+		// about 1/4 the memory
+		assertTrue(alg.getParameterBytes() < M*60*4/3);
+
+		Tensor_F32 outputExpected = new Tensor_F32(2,M);
+		Tensor_F32 outputFound = new Tensor_F32(2,M);
+		expected.forward(input,outputExpected);
+		alg.forward(input,outputFound);
+
+		// quantization error for each element is less than one step for the weight and the input
+		double tol = 60*(1.0/127 + 2.0/127);
+		for (int i = 0; i < outputExpected.length(); i++) {
+			assertEquals(outputExpected.d[i], outputFound.d[i], tol);
+		}
+	}
+
+	/**
+	 * The dequantized parameters should be close to the original
+	 */
+	@Test
+	public void getParameters() {
+		FunctionLinear_F32 expected = new FunctionLinear_F32(4);
+		expected.initialize(10);
+		List<Tensor_F32> parameters = TensorFactory_F32.randomMM(rand,false,-1,1,expected.getParameterShapes());
+
+		QuantizedLinear_F32 alg = new QuantizedLinear_F32(4,1);
+		alg.initialize(10);
+		alg.setParameters(parameters);
+
+		List<Tensor_F32> found = alg.getParameters();
+		for (int i = 0; i < 2; i++) {
+			for (int j = 0; j < parameters.get(i).length(); j++) {
+				assertEquals(parameters.get(i).d[j], found.get(i).d[j], 1.0/127);
+			}
+		}
+	}
+}
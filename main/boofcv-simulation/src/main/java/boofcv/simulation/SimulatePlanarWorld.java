@@ -26,6 +26,8 @@ import boofcv.alg.distort.radtan.LensDistortionRadialTangential;
 import boofcv.alg.distort.universal.LensDistortionUniversalOmni;
 import boofcv.alg.interpolate.InterpolatePixelS;
 import boofcv.alg.misc.ImageMiscOps;
+import boofcv.concurrency.BoofConcurrency;
+import boofcv.concurrency.IntRangeObjectTask;
 import boofcv.core.image.border.BorderType;
 import boofcv.factory.interpolate.FactoryInterpolation;
 import boofcv.struct.calib.CameraPinhole;
@@ -47,10 +49,19 @@ import org.ddogleg.struct.FastQueue;
 import org.ejml.UtilEjml;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
+ * <p>
  * Simulates a scene composed of planar objects. The camera is distorted using the provided camera model.
+ * </p>
+ *
+ * <p>
+ * The pointing vector for each pixel is computed once when the camera is specified and reused until a camera with
+ * different parameters is specified.  Rendering is done in parallel with each thread processing a band of rows.
+ * Multiple camera locations can be rendered with a single call, see {@link #render(List, List)}.
+ * </p>
  *
  * @author Peter Abeles
  */
@@ -63,12 +74,21 @@ public class SimulatePlanarWorld {
 
 	Point2Transform3_F64 pixelTo3;
 	Point3Transform2_F64 sphereToPixel;
-	InterpolatePixelS<GrayF32> interp = FactoryInterpolation.bilinearPixelS(GrayF32.class, BorderType.ZERO);
 
-	Point3D_F64 p3 = new Point3D_F64();
+	// transform from world to camera
+	Se3_F64 worldToCamera = new Se3_F64();
+
+	// camera model used to compute the pointing table
+	CameraPinhole cameraTable;
+
 	float[] pointing = new float[0];
 
+	// storage for each thread
+	FastQueue<RenderWorkspace> workspaces = new FastQueue<>(RenderWorkspace.class,true);
+
 	public void setCamera( CameraUniversalOmni model ) {
+		if( isSameCamera(model) )
+			return;
 		output.reshape(model.width,model.height);
 		depthMap.reshape(model.width,model.height);
 		LensDistortionWideFOV factory = new LensDistortionUniversalOmni(model);
@@ -77,9 +97,14 @@ public class SimulatePlanarWorld {
 		sphereToPixel = factory.distortStoP_F64();
 
 		computeProjectionTable(model);
+		CameraUniversalOmni copy = new CameraUniversalOmni(model.radial.length);
+		copy.set(model);
+		cameraTable = copy;
 	}
 
 	public void setCamera( CameraPinholeRadial model ) {
+		if( isSameCamera(model) )
+			return;
 		output.reshape(model.width,model.height);
 		depthMap.reshape(model.width,model.height);
 		LensDistortionNarrowFOV factory = new LensDistortionRadialTangential(model);
@@ -88,6 +113,31 @@ public class SimulatePlanarWorld {
 		sphereToPixel = new SphereToNarrowPixel_F64(factory.distort_F64(false,true));
 
 		computeProjectionTable(model);
+		cameraTable = new CameraPinholeRadial(model);
+	}
+
+	/**
+	 * Checks to see if the model has the same parameters as the one used to compute the pointing table
+	 */
+	boolean isSameCamera( CameraPinhole model ) {
+		CameraPinhole a = cameraTable;
+		if( a == null || a.getClass() != model.getClass() )
+			return false;
+
+		if( a.width != model.width || a.height != model.height || a.fx != model.fx || a.fy != model.fy ||
+				a.skew != model.skew || a.cx != model.cx || a.cy != model.cy )
+			return false;
+
+		if( model instanceof CameraUniversalOmni ) {
+			CameraUniversalOmni ao = (CameraUniversalOmni)a;
+			CameraUniversalOmni bo = (CameraUniversalOmni)model;
+			return ao.mirrorOffset == bo.mirrorOffset && ao.t1 == bo.t1 && ao.t2 == bo.t2 &&
+					Arrays.equals(ao.radial,bo.radial);
+		} else {
+			CameraPinholeRadial ar = (CameraPinholeRadial)a;
+			CameraPinholeRadial br = (CameraPinholeRadial)model;
+			return ar.t1 == br.t1 && ar.t2 == br.t2 && Arrays.equals(ar.radial,br.radial);
+		}
 	}
 
 	private void computeProjectionTable(CameraPinhole model) {
@@ -95,6 +145,7 @@ public class SimulatePlanarWorld {
 
 		pointing = new float[model.width*model.height*3];
 
+		Point3D_F64 p3 = new Point3D_F64();
 		for (int y = 0; y < output.height; y++) {
 			for (int x = 0; x < output.width; x++) {
 				// Should this add 0.5 so that the ray goes out of the pixel's center? Seems to increase reprojection
@@ -124,42 +175,75 @@ public class SimulatePlanarWorld {
 		scene.clear();
 	}
 
+	/**
+	 * Specifies the camera's location.  By default the camera is at the world's origin.
+	 *
+	 * @param worldToCamera Transform from world to camera.  Copied.
+	 */
+	public void setWorldToCamera( Se3_F64 worldToCamera ) {
+		this.worldToCamera.set(worldToCamera);
+	}
+
+	/**
+	 * Renders the scene from multiple camera locations using the same camera model and scene.  The depth map
+	 * and output image will contain the results from the last camera location.
+	 *
+	 * @param worldToCameras Location of the camera for each image
+	 * @param outputs (Output) Storage for the rendered images. Reshaped.  Same size as worldToCameras.
+	 */
+	public void render( List<Se3_F64> worldToCameras , List<GrayF32> outputs ) {
+		if( worldToCameras.size() != outputs.size() )
+			throw new IllegalArgumentException("Number of camera locations and outputs must be the same");
+
+		for (int i = 0; i < worldToCameras.size(); i++) {
+			setWorldToCamera(worldToCameras.get(i));
+			render();
+			outputs.get(i).setTo(output);
+		}
+	}
+
 	public void render() {
 
 		for (int i = 0; i < scene.size(); i++) {
 			ImageRect r = scene.get(i);
 
+			r.rectToWorld.concat(worldToCamera, r.rectToCamera);
 			r.worldRect();
 		}
 
-		LineParametric3D_F64 ray = new LineParametric3D_F64();
-
 		ImageMiscOps.fill(output,0);
-		for (int y = 0; y < output.height; y++) {
+		BoofConcurrency.loopBlocks(0, output.height, workspaces, new IntRangeObjectTask<RenderWorkspace>() {
+			@Override
+			public void process(RenderWorkspace work, int y0, int y1) {
+				renderRows(work, y0, y1);
+			}
+		});
+	}
+
+	private void renderRows( RenderWorkspace work , int y0 , int y1 ) {
+		LineParametric3D_F64 ray = work.ray;
+
+		for (int y = y0; y < y1; y++) {
 			for (int x = 0; x < output.width; x++) {
 				if( Float.isNaN(depthMap.unsafe_get(x,y)))
 					continue;
 				ray.slope.x = pointing[(y*output.width+x)*3];
 				ray.slope.y = pointing[(y*output.width+x)*3+1];
 				ray.slope.z = pointing[(y*output.width+x)*3+2];
-				renderPixel(ray,x,y);
+				renderPixel(work,x,y);
 			}
 		}
 	}
 
-	Vector3D_F64 _u = new Vector3D_F64();
-	Vector3D_F64 _v =new Vector3D_F64();
-	Vector3D_F64 _n = new Vector3D_F64();
-	Vector3D_F64 _w0 = new Vector3D_F64();
-
-	private void renderPixel( LineParametric3D_F64 ray , int x , int y ) {
+	private void renderPixel( RenderWorkspace work , int x , int y ) {
 		float minDepth = Float.MAX_VALUE;
+		Point3D_F64 p3 = work.p3;
 
 		for (int i = 0; i < scene.size(); i++) {
 			ImageRect r = scene.get(i);
 
 			// only care about intersections in front of the camera
-			if( 1 == Intersection3D_F64.intersectConvex(r.rect3D,ray,p3,_u,_v,_n,_w0)) {
+			if( 1 == Intersection3D_F64.intersectConvex(r.rect3D,work.ray,p3,work.u,work.v,work.n,work.w0)) {
 
 				double imageRatio = r.image.height/(double)r.image.width;
 
@@ -168,7 +252,7 @@ public class SimulatePlanarWorld {
 					minDepth = depth;
 
 					// convert the point into rect coordinates
-					SePointOps_F64.transformReverse(r.rectToWorld, p3, p3);
+					SePointOps_F64.transformReverse(r.rectToCamera, p3, p3);
 
 					// now into image pixels
 					p3.x += r.width3D / 2;
@@ -185,8 +269,8 @@ public class SimulatePlanarWorld {
 					double pixelY = p3.y * r.image.height / (r.width3D * imageRatio);
 
 					if( pixelX < r.image.width && pixelY < r.image.height ) {
-						interp.setImage(r.image);
-						output.unsafe_set(x, y, (int) (interp.get((float) pixelX, (float) pixelY) + 0.5f));
+						work.interp.setImage(r.image);
+						output.unsafe_set(x, y, (int) (work.interp.get((float) pixelX, (float) pixelY) + 0.5f));
 					}
 				}
 			}
@@ -206,6 +290,7 @@ public class SimulatePlanarWorld {
 
 		Point3D_F64 p3 = new Point3D_F64(x,y,0);
 		SePointOps_F64.transform(r.rectToWorld, p3, p3);
+		SePointOps_F64.transform(worldToCamera, p3, p3);
 
 		// unit sphere
 		p3.scale(1.0/p3.norm());
@@ -213,13 +298,30 @@ public class SimulatePlanarWorld {
 		sphereToPixel.compute(p3.x,p3.y,p3.z,output);
 	}
 
+	/**
+	 * Storage used by a single thread while rendering
+	 */
+	public static class RenderWorkspace {
+		LineParametric3D_F64 ray = new LineParametric3D_F64();
+		Point3D_F64 p3 = new Point3D_F64();
+		Vector3D_F64 u = new Vector3D_F64();
+		Vector3D_F64 v = new Vector3D_F64();
+		Vector3D_F64 n = new Vector3D_F64();
+		Vector3D_F64 w0 = new Vector3D_F64();
+		InterpolatePixelS<GrayF32> interp = FactoryInterpolation.bilinearPixelS(GrayF32.class, BorderType.ZERO);
+	}
+
 	public static class ImageRect {
 		Se3_F64 rectToWorld;
+		Se3_F64 rectToCamera = new Se3_F64();
 		GrayF32 image;
 		double width3D;
 		FastQueue<Point3D_F64> rect3D = new FastQueue<>(Point3D_F64.class,true);
 		Polygon2D_F64 rect2D = new Polygon2D_F64();
 
+		/**
+		 * Computes the location of the rectangle's corners in the camera frame
+		 */
 		public void worldRect() {
 			double imageRatio = image.height/(double)image.width;
 			double height3D = width3D*imageRatio;
@@ -230,11 +332,15 @@ public class SimulatePlanarWorld {
 			rect2D.set(2,width3D/2, height3D/2);
 			rect2D.set(3,width3D/2,-height3D/2);
 
-			UtilShape3D_F64.polygon2Dto3D(rect2D,rectToWorld,rect3D);
+			UtilShape3D_F64.polygon2Dto3D(rect2D,rectToCamera,rect3D);
 		}
 	}
 
 	public GrayF32 getOutput() {
 		return output;
 	}
+
+	public GrayF32 getDepthMap() {
+		return depthMap;
+	}
 }
@@ -19,25 +19,131 @@
 package boofcv.simulation;
 
 import boofcv.alg.misc.GImageMiscOps;
+import boofcv.alg.misc.ImageStatistics;
+import boofcv.concurrency.BoofConcurrency;
 import boofcv.gui.image.ImagePanel;
 import boofcv.gui.image.ShowImages;
 import boofcv.io.UtilIO;
 import boofcv.io.calibration.CalibrationIO;
 import boofcv.io.image.ConvertBufferedImage;
 import boofcv.misc.BoofMiscOps;
+import boofcv.struct.calib.CameraPinholeRadial;
 import boofcv.struct.calib.CameraUniversalOmni;
 import boofcv.struct.image.GrayF32;
+import boofcv.testing.BoofTesting;
 import georegression.geometry.ConvertRotation3D_F64;
 import georegression.struct.EulerType;
+import georegression.struct.point.Point2D_F64;
 import georegression.struct.se.Se3_F64;
+import org.junit.Test;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
 
 /**
  * @author Peter Abeles
  */
 public class TestSimulatePlanarWorld {
+
+	CameraPinholeRadial pinhole = new CameraPinholeRadial(200,210,0,160,120,320,240).fsetRadial(0.05,-0.01);
+
+	/**
+	 * Renders a simple scene with a single target in front of the camera
+	 */
+	private SimulatePlanarWorld createSimulator() {
+		GrayF32 image = new GrayF32(200,150);
+		GImageMiscOps.fillUniform(image,new Random(234),0,255);
+
+		Se3_F64 rectToWorld = new Se3_F64();
+		rectToWorld.T.set(0.05,-0.02,1);
+
+		SimulatePlanarWorld alg = new SimulatePlanarWorld();
+		alg.setCamera(pinhole);
+		alg.addTarget(rectToWorld,1.0,image);
+		return alg;
+	}
+
+	/**
+	 * Results should be the same no matter how many threads are used
+	 */
+	@Test
+	public void render_threads() {
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			SimulatePlanarWorld alg = createSimulator();
+			BoofConcurrency.setMaxThreads(1);
+			alg.render();
+			GrayF32 expected = alg.getOutput().clone();
+			GrayF32 expectedDepth = alg.getDepthMap().clone();
+			assertTrue(ImageStatistics.max(expected) > 0);
+
+			BoofConcurrency.setMaxThreads(4);
+			alg.render();
+			BoofTesting.assertEquals(expected,alg.getOutput(),0);
+			BoofTesting.assertEquals(expectedDepth,alg.getDepthMap(),0);
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+
+	/**
+	 * Render multiple camera locations at once and compare to moving the target instead
+	 */
+	@Test
+	public void render_batch() {
+		List<Se3_F64> worldToCameras = new ArrayList<>();
+		List<GrayF32> outputs = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Se3_F64 worldToCamera = new Se3_F64();
+			ConvertRotation3D_F64.eulerToMatrix(EulerType.XYZ,0.05*i,-0.02*i,0.1*i,worldToCamera.R);
+			worldToCamera.T.set(0.02*i,0.01,0.1*i);
+			worldToCameras.add(worldToCamera);
+			outputs.add(new GrayF32(1,1));
+		}
+
+		SimulatePlanarWorld alg = createSimulator();
+		alg.render(worldToCameras,outputs);
+
+		for (int i = 0; i < worldToCameras.size(); i++) {
+			SimulatePlanarWorld expected = createSimulator();
+			Se3_F64 rectToWorld = expected.getImageRect(0).rectToWorld;
+			expected.getImageRect(0).rectToWorld = rectToWorld.concat(worldToCameras.get(i),null);
+			expected.render();
+
+			BoofTesting.assertEquals(expected.getOutput(),outputs.get(i),0);
+
+			// see if the pixel projection takes in account the camera's location
+			Point2D_F64 a = new Point2D_F64(), b = new Point2D_F64();
+			alg.setWorldToCamera(worldToCameras.get(i));
+			alg.computePixel(0,0.1,0.2,a);
+			expected.computePixel(0,0.1,0.2,b);
+			assertEquals(0,a.distance(b),1e-8);
+		}
+	}
+
+	/**
+	 * The pointing table should only be recomputed if the camera changes
+	 */
+	@Test
+	public void setCamera_cached() {
+		SimulatePlanarWorld alg = new SimulatePlanarWorld();
+		alg.setCamera(pinhole);
+		float[] original = alg.pointing;
+
+		alg.setCamera(new CameraPinholeRadial(pinhole));
+		assertSame(original,alg.pointing);
+
+		CameraPinholeRadial modified = new CameraPinholeRadial(pinhole);
+		modified.radial[1] = 0.02;
+		alg.setCamera(modified);
+		assertNotSame(original,alg.pointing);
+	}
+
 	public static void main(String[] args) {
 		GrayF32 image = new GrayF32(400,300);
 		GImageMiscOps.fill(image,255);